@@ -1,27 +1,46 @@
 package ru.practicum.shareit.booking;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.idempotency.IdempotencyStore;
 
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 
 @RestController
 @RequestMapping("/bookings")
-@RequiredArgsConstructor
 public class BookingController {
 
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final int STREAM_FLUSH_ROWS = 100;
 
     private final BookingService bookingService;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectWriter rowWriter;
+
+    public BookingController(BookingService bookingService, IdempotencyStore idempotencyStore,
+                             ObjectMapper objectMapper) {
+        this.bookingService = bookingService;
+        this.idempotencyStore = idempotencyStore;
+        this.rowWriter = objectMapper.writerFor(BookingDto.class);
+    }
 
     @PostMapping
     public BookingDto create(@RequestHeader(HEADER_USER_ID) long userId,
+                             @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey,
                              @RequestBody BookingCreateDto dto) {
-        return bookingService.create(userId, dto);
+        return idempotencyStore.execute(userId, "booking.create", idempotencyKey, dto,
+                () -> bookingService.create(userId, dto));
     }
 
     @PatchMapping("/{bookingId}")
@@ -39,13 +58,58 @@ public class BookingController {
 
     @GetMapping
     public List<BookingDto> getAllByBooker(@RequestHeader(HEADER_USER_ID) long userId,
-                                           @RequestParam(required = false, defaultValue = "ALL") String state) {
-        return bookingService.getAllByBooker(userId, BookingState.from(state));
+                                           @RequestParam(required = false, defaultValue = "ALL") String state,
+                                           @RequestParam(required = false, defaultValue = "false") boolean archived) {
+        return bookingService.getAllByBooker(userId, BookingState.from(state), archived);
     }
 
     @GetMapping("/owner")
     public List<BookingDto> getAllByOwner(@RequestHeader(HEADER_USER_ID) long ownerId,
-                                          @RequestParam(required = false, defaultValue = "ALL") String state) {
-        return bookingService.getAllByOwner(ownerId, BookingState.from(state));
+                                          @RequestParam(required = false, defaultValue = "ALL") String state,
+                                          @RequestParam(required = false, defaultValue = "false") boolean archived) {
+        return bookingService.getAllByOwner(ownerId, BookingState.from(state), archived);
+    }
+
+    /**
+     * Newline-delimited JSON variant of {@link #getAllByBooker}: rows are written as they are read, on an async
+     * thread, so the servlet thread is released right away.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamByBooker(
+            @RequestHeader(HEADER_USER_ID) long userId,
+            @RequestParam(required = false, defaultValue = "ALL") String state,
+            @RequestParam(required = false, defaultValue = "false") boolean archived) {
+        return ndjson(bookingService.streamByBooker(userId, BookingState.from(state), archived));
+    }
+
+    @GetMapping(value = "/owner/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamByOwner(
+            @RequestHeader(HEADER_USER_ID) long ownerId,
+            @RequestParam(required = false, defaultValue = "ALL") String state,
+            @RequestParam(required = false, defaultValue = "false") boolean archived) {
+        return ndjson(bookingService.streamByOwner(ownerId, BookingState.from(state), archived));
+    }
+
+    /**
+     * Writes rows through a small buffer; a client that reads slowly blocks the write, which in turn holds
+     * back the next page read. {@code produces} alone does not set the content type of a streamed body.
+     */
+    private ResponseEntity<StreamingResponseBody> ndjson(Iterator<BookingDto> bookings) {
+        StreamingResponseBody body = (OutputStream out) -> {
+            BufferedOutputStream buffer = new BufferedOutputStream(out);
+            int unflushed = 0;
+            while (bookings.hasNext()) {
+                buffer.write(rowWriter.writeValueAsBytes(bookings.next()));
+                buffer.write('\n');
+                if (++unflushed == STREAM_FLUSH_ROWS) {
+                    buffer.flush();
+                    unflushed = 0;
+                }
+            }
+            buffer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
-}
\ No newline at end of file
+}
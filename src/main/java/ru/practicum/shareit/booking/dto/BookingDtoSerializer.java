@@ -0,0 +1,92 @@
+package ru.practicum.shareit.booking.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes {@link BookingDto} straight to the generator instead of going through bean introspection.
+ * Booking lists are the largest responses the API returns, and the output is byte-for-byte what the
+ * default bean serializer produces: same property order, nulls included, dates via the configured
+ * {@code LocalDateTime} serializer.
+ */
+@JsonComponent
+public class BookingDtoSerializer extends StdSerializer<BookingDto> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString START = new SerializedString("start");
+    private static final SerializableString END = new SerializedString("end");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString BOOKER = new SerializedString("booker");
+    private static final SerializableString ITEM = new SerializedString("item");
+    private static final SerializableString NAME = new SerializedString("name");
+
+    public BookingDtoSerializer() {
+        super(BookingDto.class);
+    }
+
+    @Override
+    public void serialize(BookingDto value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        gen.writeFieldName(ID);
+        writeLong(gen, value.getId());
+        gen.writeFieldName(START);
+        writeDateTime(gen, provider, value.getStart());
+        gen.writeFieldName(END);
+        writeDateTime(gen, provider, value.getEnd());
+        gen.writeFieldName(STATUS);
+        if (value.getStatus() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value.getStatus().name());
+        }
+
+        gen.writeFieldName(BOOKER);
+        BookingDto.BookerDto booker = value.getBooker();
+        if (booker == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartObject(booker);
+            gen.writeFieldName(ID);
+            writeLong(gen, booker.getId());
+            gen.writeEndObject();
+        }
+
+        gen.writeFieldName(ITEM);
+        BookingDto.ItemInfoDto item = value.getItem();
+        if (item == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartObject(item);
+            gen.writeFieldName(ID);
+            writeLong(gen, item.getId());
+            gen.writeFieldName(NAME);
+            gen.writeString(item.getName());
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeLong(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private static void writeDateTime(JsonGenerator gen, SerializerProvider provider, LocalDateTime value)
+            throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            provider.findValueSerializer(LocalDateTime.class).serialize(value, gen, provider);
+        }
+    }
+}
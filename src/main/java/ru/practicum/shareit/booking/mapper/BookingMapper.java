@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking.mapper;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
 
 public final class BookingMapper {
@@ -37,4 +38,18 @@ public final class BookingMapper {
                 .bookerId(booking.getBooker() != null ? booking.getBooker().getId() : null)
                 .build();
     }
+
+    public static Booking fromArchive(ArchivedBooking archived) {
+        if (archived == null) {
+            return null;
+        }
+        return Booking.builder()
+                .id(archived.getId())
+                .start(archived.getStart())
+                .end(archived.getEnd())
+                .item(archived.getItem())
+                .booker(archived.getBooker())
+                .status(archived.getStatus())
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+public record BookingInterval(Long itemId, LocalDateTime start, LocalDateTime end) {
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+public record BookingItemRow(Long id, Long itemId, Long ownerId, LocalDateTime start, LocalDateTime end,
+                             BookingStatus status) {
+}
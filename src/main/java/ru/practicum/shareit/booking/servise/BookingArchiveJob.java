@@ -0,0 +1,109 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.storage.BookingArchiveRepository;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Moves bookings that ended before the retention window from {@code bookings} to {@code bookings_archive}
+ * in small transactions, so the hot table only holds recent history.
+ * On PostgreSQL the archive is partitioned by {@code end_date} month and missing partitions are created here.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingArchiveJob {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository archiveRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingStateCache stateCache;
+    private final boolean partitioned;
+    private final int retentionDays;
+    private final int batchSize;
+    private final int futurePartitions;
+
+    public BookingArchiveJob(BookingRepository bookingRepository,
+                             BookingArchiveRepository archiveRepository,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             BookingStateCache stateCache,
+                             @Value("${shareit.booking.archive.partitioned:false}") boolean partitioned,
+                             @Value("${shareit.booking.archive.retention-days:365}") int retentionDays,
+                             @Value("${shareit.booking.archive.batch-size:500}") int batchSize,
+                             @Value("${shareit.booking.archive.future-partitions:3}") int futurePartitions) {
+        this.bookingRepository = bookingRepository;
+        this.archiveRepository = archiveRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.stateCache = stateCache;
+        this.partitioned = partitioned;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.futurePartitions = futurePartitions;
+    }
+
+    @Scheduled(cron = "${shareit.booking.archive.cron:0 30 3 * * *}")
+    public void run() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        if (partitioned) {
+            ensurePartitions(cutoff);
+        }
+        int total = archiveBefore(cutoff);
+        if (total > 0) {
+            stateCache.evictAll();
+        }
+        log.info("Booking archive finished: cutoff={}, moved={}", cutoff, total);
+    }
+
+    public int archiveBefore(LocalDateTime cutoff) {
+        int total = 0;
+        int moved;
+        do {
+            Integer chunk = transactionTemplate.execute(status -> moveChunk(cutoff));
+            moved = chunk != null ? chunk : 0;
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+
+    private int moveChunk(LocalDateTime cutoff) {
+        List<Long> ids = bookingRepository.findIdsEndedBefore(cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archiveRepository.copyFromBookings(ids);
+        bookingRepository.deleteAllByIdIn(ids);
+        log.debug("Archived bookings chunk: size={}, firstId={}", ids.size(), ids.get(0));
+        return ids.size();
+    }
+
+    private void ensurePartitions(LocalDateTime cutoff) {
+        YearMonth last = YearMonth.now().plusMonths(futurePartitions);
+        YearMonth month = bookingRepository.findOldestEndBefore(cutoff)
+                .map(YearMonth::from)
+                .orElse(YearMonth.from(cutoff));
+
+        for (; !month.isAfter(last); month = month.plusMonths(1)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS bookings_archive_" + month.format(PARTITION_SUFFIX)
+                    + " PARTITION OF bookings_archive FOR VALUES FROM ('" + month.atDay(1)
+                    + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Walks a keyset-paged booking listing (newest first) one page at a time. The next page is read only once
+ * the consumer has taken every row of the previous one, so a slow client slows the reads down instead of
+ * piling rows up in memory. Archived bookings, when given, are merged in by start.
+ */
+final class BookingPageIterator implements Iterator<BookingDto> {
+
+    private final Function<Booking, List<Booking>> nextPage;
+    private final int pageSize;
+    private final Supplier<List<Booking>> archivedLoader;
+    private final Predicate<Booking> filter;
+
+    private List<Booking> page;
+    private int pagePosition;
+    private boolean lastPage;
+    private List<Booking> archived;
+    private int archivedPosition;
+    private Booking next;
+
+    /**
+     * @param nextPage       loads the page after the given booking, or the first page for {@code null}
+     * @param archivedLoader archived bookings newest first, read on first use; {@code null} for none
+     */
+    BookingPageIterator(Function<Booking, List<Booking>> nextPage, int pageSize,
+                        Supplier<List<Booking>> archivedLoader, Predicate<Booking> filter) {
+        this.nextPage = nextPage;
+        this.pageSize = pageSize;
+        this.archivedLoader = archivedLoader;
+        this.filter = filter;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+    @Override
+    public BookingDto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Booking booking = next;
+        next = null;
+        return BookingMapper.toDto(booking);
+    }
+
+    private Booking advance() {
+        while (true) {
+            Booking hot = peekHot();
+            Booking old = peekArchived();
+            if (hot == null && old == null) {
+                return null;
+            }
+            Booking candidate;
+            if (old == null || (hot != null && !old.getStart().isAfter(hot.getStart()))) {
+                candidate = hot;
+                pagePosition++;
+            } else {
+                candidate = old;
+                archivedPosition++;
+            }
+            if (filter.test(candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    private Booking peekHot() {
+        if (page != null && pagePosition < page.size()) {
+            return page.get(pagePosition);
+        }
+        if (lastPage) {
+            return null;
+        }
+        page = nextPage.apply(page == null ? null : page.get(page.size() - 1));
+        pagePosition = 0;
+        lastPage = page.size() < pageSize;
+        return page.isEmpty() ? null : page.get(0);
+    }
+
+    private Booking peekArchived() {
+        if (archivedLoader == null) {
+            return null;
+        }
+        if (archived == null) {
+            archived = archivedLoader.get();
+        }
+        return archivedPosition < archived.size() ? archived.get(archivedPosition) : null;
+    }
+}
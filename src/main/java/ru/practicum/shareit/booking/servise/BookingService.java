@@ -4,6 +4,7 @@ import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.BookingState;
 
+import java.util.Iterator;
 import java.util.List;
 
 public interface BookingService {
@@ -13,7 +14,18 @@ public interface BookingService {
 
     BookingDto getById(long userId, long bookingId);
 
-    List<BookingDto> getAllByBooker(long userId, BookingState state);
+    List<BookingDto> getAllByBooker(long userId, BookingState state, boolean includeArchived);
 
-    List<BookingDto> getAllByOwner(long ownerId, BookingState state);
+    List<BookingDto> getAllByOwner(long ownerId, BookingState state, boolean includeArchived);
+
+    /**
+     * Same rows as {@link #getAllByBooker}, read lazily page by page while the caller iterates. The user is
+     * checked up front; the pages are read outside the caller's transaction.
+     */
+    Iterator<BookingDto> streamByBooker(long userId, BookingState state, boolean includeArchived);
+
+    /**
+     * Same rows as {@link #getAllByOwner}, read lazily page by page while the caller iterates.
+     */
+    Iterator<BookingDto> streamByOwner(long ownerId, BookingState state, boolean includeArchived);
 }
\ No newline at end of file
@@ -1,40 +1,106 @@
 package ru.practicum.shareit.booking.service;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingArchiveRepository;
 import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.common.ConflictException;
+import ru.practicum.shareit.common.audit.AuditAction;
+import ru.practicum.shareit.common.audit.AuditLog;
 import ru.practicum.shareit.common.ForbiddenException;
 import ru.practicum.shareit.common.NotFoundException;
 import ru.practicum.shareit.common.ValidationException;
+import ru.practicum.shareit.common.datasource.shard.ShardKey;
+import ru.practicum.shareit.common.datasource.shard.ShardRouter;
+import ru.practicum.shareit.item.service.AvailabilityIndex;
+import ru.practicum.shareit.item.service.CoBookingIndex;
+import ru.practicum.shareit.item.service.ItemStatsService;
+import ru.practicum.shareit.item.service.TrendingIndex;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.storage.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * Reads that combine several queries into one response run in a single read-only transaction, so they see
+ * one snapshot. The rest join a caller's transaction if there is one and otherwise let each repository call
+ * borrow a connection only for its own query; that includes the streaming listings, whose pages are read
+ * lazily after the method has returned.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-@Transactional(readOnly = true)
+@Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
 public class BookingServiceImpl implements BookingService {
 
+    private static final int PAGE_SIZE = 500;
+    private static final Comparator<Booking> NEWEST_FIRST = Comparator.comparing(Booking::getStart)
+            .thenComparing(Booking::getId)
+            .reversed();
+
     private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository archiveRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final BookingStateCache stateCache;
+    private final AvailabilityIndex availabilityIndex;
+    private final ItemStatsService itemStatsService;
+    private final CoBookingIndex coBookingIndex;
+    private final TrendingIndex trendingIndex;
+    private final ShardRouter shardRouter;
+    private final AuditLog auditLog;
+    private final int streamPageSize;
+
+    public BookingServiceImpl(BookingRepository bookingRepository,
+                              BookingArchiveRepository archiveRepository,
+                              ItemRepository itemRepository,
+                              UserRepository userRepository,
+                              BookingStateCache stateCache,
+                              AvailabilityIndex availabilityIndex,
+                              ItemStatsService itemStatsService,
+                              CoBookingIndex coBookingIndex,
+                              TrendingIndex trendingIndex,
+                              ShardRouter shardRouter,
+                              AuditLog auditLog,
+                              @Value("${shareit.booking.stream.page-size:200}") int streamPageSize) {
+        this.bookingRepository = bookingRepository;
+        this.archiveRepository = archiveRepository;
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.stateCache = stateCache;
+        this.availabilityIndex = availabilityIndex;
+        this.itemStatsService = itemStatsService;
+        this.coBookingIndex = coBookingIndex;
+        this.trendingIndex = trendingIndex;
+        this.shardRouter = shardRouter;
+        this.auditLog = auditLog;
+        this.streamPageSize = streamPageSize;
+    }
 
     @Override
     @Transactional
-    public BookingDto create(long userId, BookingCreateDto dto) {
+    public BookingDto create(long userId,
+                             @ShardKey(value = ShardKey.Kind.ENTITY_ID, property = "itemId") BookingCreateDto dto) {
         validateCreate(dto);
 
         User booker = userRepository.findById(userId)
@@ -61,13 +127,17 @@ public class BookingServiceImpl implements BookingService {
                 .build();
 
         Booking saved = bookingRepository.save(booking);
+        stateCache.evictAfterCommit(BookingStateCache.Role.BOOKER, userId);
+        stateCache.evictAfterCommit(BookingStateCache.Role.OWNER, item.getOwner().getId());
+        trendingIndex.recordBookingAfterCommit(item.getId());
+        auditLog.recordAfterCommit(AuditAction.BOOKING_CREATED, userId, saved.getId());
         log.debug("Created booking id={}, itemId={}, bookerId={}", saved.getId(), item.getId(), userId);
         return BookingMapper.toDto(saved);
     }
 
     @Override
     @Transactional
-    public BookingDto approve(long ownerId, long bookingId, boolean approved) {
+    public BookingDto approve(long ownerId, @ShardKey(ShardKey.Kind.ENTITY_ID) long bookingId, boolean approved) {
 
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Booking not found: " + bookingId));
@@ -81,18 +151,33 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException("Booking already processed: " + bookingId);
         }
 
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        Booking saved = bookingRepository.save(booking);
-        log.debug("Booking {} set to {} by owner {}", bookingId, saved.getStatus(), ownerId);
-        return BookingMapper.toDto(saved);
+        BookingStatus target = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.compareAndSetStatus(bookingId, BookingStatus.WAITING, target) == 0) {
+            return resolveLostTransition(booking, target);
+        }
+
+        booking.setStatus(target);
+        itemStatsService.recordDecision(booking.getItem().getId(), booking.getStart(), booking.getEnd(), target);
+        stateCache.evictAfterCommit(BookingStateCache.Role.BOOKER, booking.getBooker().getId());
+        stateCache.evictAfterCommit(BookingStateCache.Role.OWNER, ownerId);
+        if (target == BookingStatus.APPROVED) {
+            availabilityIndex.markBusyAfterCommit(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+            coBookingIndex.recordApprovalAfterCommit(booking.getBooker().getId(), booking.getItem().getId());
+        }
+        auditLog.recordAfterCommit(target == BookingStatus.APPROVED
+                ? AuditAction.BOOKING_APPROVED : AuditAction.BOOKING_REJECTED, ownerId, bookingId);
+        log.debug("Booking {} set to {} by owner {}", bookingId, target, ownerId);
+        return BookingMapper.toDto(booking);
     }
 
     @Override
-    public BookingDto getById(long userId, long bookingId) {
+    @Transactional(readOnly = true)
+    public BookingDto getById(long userId, @ShardKey(ShardKey.Kind.ENTITY_ID) long bookingId) {
         userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found: " + userId));
 
         Booking booking = bookingRepository.findById(bookingId)
+                .or(() -> archiveRepository.findById(bookingId).map(BookingMapper::fromArchive))
                 .orElseThrow(() -> new NotFoundException("Booking not found: " + bookingId));
 
         boolean isBooker = booking.getBooker().getId().equals(userId);
@@ -105,39 +190,127 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getAllByBooker(long userId, BookingState state) {
+    @Transactional(readOnly = true)
+    public List<BookingDto> getAllByBooker(long userId, BookingState state, boolean includeArchived) {
         userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found: " + userId));
 
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings = switch (state) {
-            case ALL -> bookingRepository.findAllByBooker(userId);
-            case CURRENT -> bookingRepository.findCurrentByBooker(userId, now);
-            case PAST -> bookingRepository.findPastByBooker(userId, now);
-            case FUTURE -> bookingRepository.findFutureByBooker(userId, now);
-            case WAITING -> bookingRepository.findByBookerAndStatus(userId, BookingStatus.WAITING);
-            case REJECTED -> bookingRepository.findByBookerAndStatus(userId, BookingStatus.REJECTED);
-        };
-
-        return bookings.stream().map(BookingMapper::toDto).toList();
+        // a booker's bookings follow the items' owners, so with sharding on every page is merged from all shards
+        List<BookingDto> bookings = stateCache.get(BookingStateCache.Role.BOOKER, userId, () -> loadClassified(
+                pageable -> shardRouter.scatterGather(
+                        () -> bookingRepository.findFirstPageByBooker(userId, pageable), NEWEST_FIRST, PAGE_SIZE),
+                (last, pageable) -> shardRouter.scatterGather(
+                        () -> bookingRepository.findNextPageByBooker(userId, last.getStart(), last.getId(), pageable),
+                        NEWEST_FIRST, PAGE_SIZE)
+        )).get(state);
+
+        if (includeArchived && (state == BookingState.ALL || state == BookingState.PAST)) {
+            bookings = withArchived(bookings, shardRouter.scatterGather(() -> archiveRepository.findAllByBooker(userId),
+                    Comparator.comparing(ArchivedBooking::getStart).reversed(), Integer.MAX_VALUE));
+        }
+
+        return bookings;
     }
 
     @Override
-    public List<BookingDto> getAllByOwner(long ownerId, BookingState state) {
+    @Transactional(readOnly = true)
+    public List<BookingDto> getAllByOwner(@ShardKey(ShardKey.Kind.OWNER) long ownerId, BookingState state, boolean includeArchived) {
         userRepository.findById(ownerId)
                 .orElseThrow(() -> new NotFoundException("User not found: " + ownerId));
 
+        List<BookingDto> bookings = stateCache.get(BookingStateCache.Role.OWNER, ownerId, () -> loadClassified(
+                pageable -> bookingRepository.findFirstPageByOwner(ownerId, pageable),
+                (last, pageable) -> bookingRepository.findNextPageByOwner(ownerId, last.getStart(), last.getId(), pageable)
+        )).get(state);
+
+        if (includeArchived && (state == BookingState.ALL || state == BookingState.PAST)) {
+            bookings = withArchived(bookings, archiveRepository.findAllByOwner(ownerId));
+        }
+
+        return bookings;
+    }
+
+    @Override
+    public Iterator<BookingDto> streamByBooker(long userId, BookingState state, boolean includeArchived) {
+        userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User not found: " + userId));
+
+        Pageable pageable = PageRequest.of(0, streamPageSize);
+        return stream(state, last -> shardRouter.scatterGather(() -> last == null
+                        ? bookingRepository.findFirstPageByBooker(userId, pageable)
+                        : bookingRepository.findNextPageByBooker(userId, last.getStart(), last.getId(), pageable),
+                NEWEST_FIRST, streamPageSize),
+                includeArchived, () -> shardRouter.scatterGather(() -> archiveRepository.findAllByBooker(userId),
+                        Comparator.comparing(ArchivedBooking::getStart).reversed(), Integer.MAX_VALUE));
+    }
+
+    @Override
+    public Iterator<BookingDto> streamByOwner(long ownerId, BookingState state, boolean includeArchived) {
+        userRepository.findById(ownerId)
+                .orElseThrow(() -> new NotFoundException("User not found: " + ownerId));
+
+        int shard = shardRouter.shardForOwner(ownerId);
+        Pageable pageable = PageRequest.of(0, streamPageSize);
+        return stream(state, last -> shardRouter.readOnShard(shard, () -> last == null
+                        ? bookingRepository.findFirstPageByOwner(ownerId, pageable)
+                        : bookingRepository.findNextPageByOwner(ownerId, last.getStart(), last.getId(), pageable)),
+                includeArchived, () -> shardRouter.readOnShard(shard, () -> archiveRepository.findAllByOwner(ownerId)));
+    }
+
+    private Iterator<BookingDto> stream(BookingState state, Function<Booking, List<Booking>> nextPage,
+                                        boolean includeArchived, Supplier<List<ArchivedBooking>> archived) {
+        LocalDateTime now = LocalDateTime.now();
+        Supplier<List<Booking>> archivedLoader = includeArchived
+                && (state == BookingState.ALL || state == BookingState.PAST)
+                ? () -> archived.get().stream().map(BookingMapper::fromArchive).toList()
+                : null;
+        return new BookingPageIterator(nextPage, streamPageSize, archivedLoader,
+                booking -> BookingStateClassifier.matches(state, booking, now));
+    }
+
+    private ClassifiedBookings loadClassified(Function<Pageable, List<Booking>> firstPage,
+                                              BiFunction<Booking, Pageable, List<Booking>> nextPage) {
         LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings = switch (state) {
-            case ALL -> bookingRepository.findAllByOwner(ownerId);
-            case CURRENT -> bookingRepository.findCurrentByOwner(ownerId, now);
-            case PAST -> bookingRepository.findPastByOwner(ownerId, now);
-            case FUTURE -> bookingRepository.findFutureByOwner(ownerId, now);
-            case WAITING -> bookingRepository.findByOwnerAndStatus(ownerId, BookingStatus.WAITING);
-            case REJECTED -> bookingRepository.findByOwnerAndStatus(ownerId, BookingStatus.REJECTED);
-        };
-
-        return bookings.stream().map(BookingMapper::toDto).toList();
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE);
+
+        List<Booking> bookings = new ArrayList<>();
+        List<Booking> page = firstPage.apply(pageable);
+        bookings.addAll(page);
+        while (page.size() == PAGE_SIZE) {
+            page = nextPage.apply(page.get(page.size() - 1), pageable);
+            bookings.addAll(page);
+        }
+
+        return BookingStateClassifier.classify(bookings, now);
+    }
+
+    private List<BookingDto> withArchived(List<BookingDto> hot, List<ArchivedBooking> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<BookingDto> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        archived.stream()
+                .map(BookingMapper::fromArchive)
+                .map(BookingMapper::toDto)
+                .forEach(merged::add);
+        merged.sort(Comparator.comparing(BookingDto::getStart).reversed());
+        return merged;
+    }
+
+    /**
+     * Another request moved the booking out of WAITING between our read and our update. A duplicate of the
+     * winning decision (a client retry) gets the same answer; a contradicting one gets 409.
+     */
+    private BookingDto resolveLostTransition(Booking booking, BookingStatus target) {
+        BookingStatus current = bookingRepository.findStatusById(booking.getId())
+                .orElseThrow(() -> new NotFoundException("Booking not found: " + booking.getId()));
+        if (current != target) {
+            throw new ConflictException("Booking " + booking.getId() + " was concurrently set to " + current);
+        }
+        log.debug("Booking {} already set to {} by a concurrent request", booking.getId(), current);
+        booking.setStatus(current);
+        return BookingMapper.toDto(booking);
     }
 
     private void validateCreate(BookingCreateDto dto) {
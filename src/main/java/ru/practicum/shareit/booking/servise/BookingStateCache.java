@@ -0,0 +1,127 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.common.jfr.CacheAccessEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cache of classified booking lists. An entry expires at the next start/end boundary of any of
+ * the user's bookings (capped by {@code max-ttl}) and is dropped explicitly whenever one of them changes.
+ * <p>
+ * The cache is bounded by the bookings it holds, {@code max-bookings} in total, rather than by the number of
+ * users, so a few heavy users cannot pin more memory than many light ones. Lists longer than
+ * {@code max-entry-bookings} are not cached at all: one of them would push out many light users' entries,
+ * and such users are served from the database every time.
+ * <p>
+ * A list loaded while an eviction runs may predate the change behind it, so it is dropped again instead of
+ * being served until {@code max-ttl}.
+ */
+@Component
+public class BookingStateCache {
+
+    public enum Role {
+        BOOKER,
+        OWNER
+    }
+
+    private record Key(Role role, long userId) {
+    }
+
+    private final Cache<Key, ClassifiedBookings> cache;
+    private final int maxEntryBookings;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public BookingStateCache(@Value("${shareit.booking.state-cache.max-bookings:1000000}") long maxBookings,
+                             @Value("${shareit.booking.state-cache.max-entry-bookings:10000}") int maxEntryBookings,
+                             @Value("${shareit.booking.state-cache.max-ttl:PT1M}") Duration maxTtl) {
+        this.maxEntryBookings = maxEntryBookings;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBookings)
+                // empty lists still cost an entry
+                .weigher((Key key, ClassifiedBookings value) -> 1 + value.size())
+                .expireAfter(new BoundaryExpiry(maxTtl))
+                .build();
+    }
+
+    public ClassifiedBookings get(Role role, long userId, Supplier<ClassifiedBookings> loader) {
+        Key key = new Key(role, userId);
+        ClassifiedBookings cached = cache.getIfPresent(key);
+        if (cached != null && cached.isValidAt(LocalDateTime.now())) {
+            CacheAccessEvent.record("booking-state", 1, 0);
+            return cached;
+        }
+        CacheAccessEvent.record("booking-state", 1, 1);
+        long evictionsBefore = evictions.get();
+        ClassifiedBookings loaded = loader.get();
+        if (loaded.size() <= maxEntryBookings) {
+            cache.put(key, loaded);
+            if (evictions.get() != evictionsBefore) {
+                cache.invalidate(key);
+            }
+        } else if (cached != null) {
+            cache.invalidate(key);
+        }
+        return loaded;
+    }
+
+    public void evict(Role role, long userId) {
+        evictions.incrementAndGet();
+        cache.invalidate(new Key(role, userId));
+    }
+
+    public void evictAfterCommit(Role role, long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(role, userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(role, userId);
+            }
+        });
+    }
+
+    public void evictAll() {
+        evictions.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private static final class BoundaryExpiry implements Expiry<Key, ClassifiedBookings> {
+
+        private final long maxTtlNanos;
+
+        private BoundaryExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Key key, ClassifiedBookings value, long currentTime) {
+            LocalDateTime now = LocalDateTime.now();
+            if (value.getValidUntil() == null || value.getValidUntil().isAfter(now.plusNanos(maxTtlNanos))) {
+                return maxTtlNanos;
+            }
+            return Math.max(0, Duration.between(now, value.getValidUntil()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, ClassifiedBookings value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, ClassifiedBookings value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
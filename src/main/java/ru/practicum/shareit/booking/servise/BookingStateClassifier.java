@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+public final class BookingStateClassifier {
+
+    private BookingStateClassifier() {
+    }
+
+    /**
+     * Buckets bookings in a single pass using the same predicates the per-state queries used to apply:
+     * CURRENT is {@code start <= now <= end}, PAST is {@code end < now}, FUTURE is {@code start > now}.
+     * Input order is kept inside every bucket.
+     */
+    public static ClassifiedBookings classify(List<Booking> bookings, LocalDateTime now) {
+        Map<BookingState, List<BookingDto>> buckets = new EnumMap<>(BookingState.class);
+        for (BookingState state : BookingState.values()) {
+            buckets.put(state, new ArrayList<>());
+        }
+
+        LocalDateTime validUntil = null;
+        for (Booking booking : bookings) {
+            BookingDto dto = BookingMapper.toDto(booking);
+            buckets.get(BookingState.ALL).add(dto);
+
+            if (booking.getStart().isAfter(now)) {
+                buckets.get(BookingState.FUTURE).add(dto);
+                validUntil = earliest(validUntil, booking.getStart());
+            } else if (booking.getEnd().isBefore(now)) {
+                buckets.get(BookingState.PAST).add(dto);
+            } else {
+                buckets.get(BookingState.CURRENT).add(dto);
+                validUntil = earliest(validUntil, booking.getEnd().plusNanos(1));
+            }
+
+            if (booking.getStatus() == BookingStatus.WAITING) {
+                buckets.get(BookingState.WAITING).add(dto);
+            } else if (booking.getStatus() == BookingStatus.REJECTED) {
+                buckets.get(BookingState.REJECTED).add(dto);
+            }
+        }
+
+        buckets.replaceAll((state, list) -> List.copyOf(list));
+        return new ClassifiedBookings(buckets, validUntil);
+    }
+
+    /**
+     * Single-booking form of {@link #classify}, for listings that are filtered row by row.
+     */
+    public static boolean matches(BookingState state, Booking booking, LocalDateTime now) {
+        return switch (state) {
+            case ALL -> true;
+            case FUTURE -> booking.getStart().isAfter(now);
+            case PAST -> !booking.getStart().isAfter(now) && booking.getEnd().isBefore(now);
+            case CURRENT -> !booking.getStart().isAfter(now) && !booking.getEnd().isBefore(now);
+            case WAITING -> booking.getStatus() == BookingStatus.WAITING;
+            case REJECTED -> booking.getStatus() == BookingStatus.REJECTED;
+        };
+    }
+
+    private static LocalDateTime earliest(LocalDateTime current, LocalDateTime candidate) {
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+}
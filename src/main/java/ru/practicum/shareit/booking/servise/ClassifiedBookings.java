@@ -0,0 +1,38 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A user's bookings bucketed by {@link BookingState}, valid until the first start/end boundary after
+ * the moment they were classified.
+ */
+@Getter
+@AllArgsConstructor
+public class ClassifiedBookings {
+
+    private final Map<BookingState, List<BookingDto>> buckets;
+
+    private final LocalDateTime validUntil;
+
+    public List<BookingDto> get(BookingState state) {
+        return buckets.getOrDefault(state, List.of());
+    }
+
+    /**
+     * Number of bookings classified; each one is held once however many buckets list it.
+     */
+    public int size() {
+        return get(BookingState.ALL).size();
+    }
+
+    public boolean isValidAt(LocalDateTime now) {
+        return validUntil == null || now.isBefore(validUntil);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.BookerItemRow;
+import ru.practicum.shareit.booking.model.BookingItemRow;
+import ru.practicum.shareit.booking.model.BookingSnapshotRow;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookingArchiveRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    @Query("select b from ArchivedBooking b where b.booker.id = :userId order by b.start desc")
+    List<ArchivedBooking> findAllByBooker(@Param("userId") long userId);
+
+    @Query("select b from ArchivedBooking b where b.item.owner.id = :ownerId order by b.start desc")
+    List<ArchivedBooking> findAllByOwner(@Param("ownerId") long ownerId);
+
+    @Query("""
+            select b
+            from ArchivedBooking b
+            join fetch b.booker
+            where b.item.id in :itemIds
+              and b.status = 'APPROVED'
+              and b.start = (
+                    select max(l.start)
+                    from ArchivedBooking l
+                    where l.item.id = b.item.id
+                      and l.status = 'APPROVED'
+              )
+            """)
+    List<ArchivedBooking> findLastApprovedForItems(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("""
+            select new ru.practicum.shareit.booking.model.BookingSnapshotRow(b.id, b.item.id, b.start, b.end, b.status)
+            from ArchivedBooking b
+            where b.item.id in :itemIds
+              and b.status in ('APPROVED', 'REJECTED')
+            """)
+    List<BookingSnapshotRow> findDecidedRowsByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("select distinct b.booker.id from ArchivedBooking b where b.status = 'APPROVED'")
+    List<Long> findApprovedBookerIds();
+
+    @Query("""
+            select distinct new ru.practicum.shareit.booking.model.BookerItemRow(b.booker.id, b.item.id)
+            from ArchivedBooking b
+            where b.booker.id in :bookerIds
+              and b.status = 'APPROVED'
+            """)
+    List<BookerItemRow> findApprovedItemRowsByBookerIdIn(@Param("bookerIds") Collection<Long> bookerIds);
+
+    boolean existsByItem_IdAndBooker_IdAndStatus(long itemId, long bookerId, BookingStatus status);
+
+    @Modifying
+    @Query(value = """
+            insert into bookings_archive (id, start_date, end_date, item_id, booker_id, status)
+            select id, start_date, end_date, item_id, booker_id, status
+            from bookings
+            where id in (:ids)
+            """, nativeQuery = true)
+    int copyFromBookings(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select new ru.practicum.shareit.booking.model.BookingItemRow(
+                    b.id, b.item.id, b.item.owner.id, b.start, b.end, b.status)
+            from ArchivedBooking b
+            where b.booker.id = :bookerId
+            order by b.id
+            """)
+    List<BookingItemRow> findItemRowsByBookerId(@Param("bookerId") long bookerId, Pageable pageable);
+
+    @Query("select b.id from ArchivedBooking b where b.item.id in :itemIds order by b.id")
+    List<Long> findIdsByItemIdIn(@Param("itemIds") Collection<Long> itemIds, Pageable pageable);
+}
@@ -1,54 +1,178 @@
 package ru.practicum.shareit.booking.storage;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.model.BookerItemRow;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.BookingItemRow;
+import ru.practicum.shareit.booking.model.BookingSnapshotRow;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    @Query("select b from Booking b where b.booker.id = :userId order by b.start desc")
-    List<Booking> findAllByBooker(@Param("userId") long userId);
+    @Query("select b from Booking b where b.booker.id = :userId order by b.start desc, b.id desc")
+    List<Booking> findFirstPageByBooker(@Param("userId") long userId, Pageable pageable);
+
+    @Query("""
+            select b
+            from Booking b
+            where b.booker.id = :userId
+              and (b.start < :start or (b.start = :start and b.id < :id))
+            order by b.start desc, b.id desc
+            """)
+    List<Booking> findNextPageByBooker(@Param("userId") long userId,
+                                       @Param("start") LocalDateTime start,
+                                       @Param("id") long id,
+                                       Pageable pageable);
+
+    @Query("select b from Booking b where b.item.owner.id = :ownerId order by b.start desc, b.id desc")
+    List<Booking> findFirstPageByOwner(@Param("ownerId") long ownerId, Pageable pageable);
+
+    @Query("""
+            select b
+            from Booking b
+            where b.item.owner.id = :ownerId
+              and (b.start < :start or (b.start = :start and b.id < :id))
+            order by b.start desc, b.id desc
+            """)
+    List<Booking> findNextPageByOwner(@Param("ownerId") long ownerId,
+                                      @Param("start") LocalDateTime start,
+                                      @Param("id") long id,
+                                      Pageable pageable);
 
-    @Query("select b from Booking b where b.item.owner.id = :ownerId order by b.start desc")
-    List<Booking> findAllByOwner(@Param("ownerId") long ownerId);
-
-    @Query("select b from Booking b where b.booker.id = :userId and b.start <= :now and b.end >= :now order by b.start desc")
-    List<Booking> findCurrentByBooker(@Param("userId") long userId, @Param("now") LocalDateTime now);
-
-    @Query("select b from Booking b where b.booker.id = :userId and b.end < :now order by b.start desc")
-    List<Booking> findPastByBooker(@Param("userId") long userId, @Param("now") LocalDateTime now);
-
-    @Query("select b from Booking b where b.booker.id = :userId and b.start > :now order by b.start desc")
-    List<Booking> findFutureByBooker(@Param("userId") long userId, @Param("now") LocalDateTime now);
-
-    @Query("select b from Booking b where b.booker.id = :userId and b.status = :status order by b.start desc")
-    List<Booking> findByBookerAndStatus(@Param("userId") long userId, @Param("status") BookingStatus status);
-
-    @Query("select b from Booking b where b.item.owner.id = :ownerId and b.start <= :now and b.end >= :now order by b.start desc")
-    List<Booking> findCurrentByOwner(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now);
+    Optional<Booking> findById(Long id);
 
-    @Query("select b from Booking b where b.item.owner.id = :ownerId and b.end < :now order by b.start desc")
-    List<Booking> findPastByOwner(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now);
+    /**
+     * Moves a booking from {@code expected} to {@code status} only if nobody else has moved it first.
+     * Returns the number of updated rows: {@code 1} for the winner, {@code 0} for everyone else.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Booking b set b.status = :status where b.id = :id and b.status = :expected")
+    int compareAndSetStatus(@Param("id") long id,
+                            @Param("expected") BookingStatus expected,
+                            @Param("status") BookingStatus status);
+
+    @Query("select b.status from Booking b where b.id = :id")
+    Optional<BookingStatus> findStatusById(@Param("id") long id);
+
+    @Query("""
+            select b
+            from Booking b
+            join fetch b.booker
+            where b.item.id in :itemIds
+              and b.status = 'APPROVED'
+              and b.start = (
+                    select max(l.start)
+                    from Booking l
+                    where l.item.id = b.item.id
+                      and l.status = 'APPROVED'
+                      and l.start < :now
+              )
+            """)
+    List<Booking> findLastApprovedForItems(@Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now);
+
+    @Query("""
+            select b
+            from Booking b
+            join fetch b.booker
+            where b.item.id in :itemIds
+              and b.status = 'APPROVED'
+              and b.start = (
+                    select min(n.start)
+                    from Booking n
+                    where n.item.id = b.item.id
+                      and n.status = 'APPROVED'
+                      and n.start > :now
+              )
+            """)
+    List<Booking> findNextApprovedForItems(@Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now);
+
+    @Query("""
+            select new ru.practicum.shareit.booking.model.BookingInterval(b.item.id, b.start, b.end)
+            from Booking b
+            where b.item.id in :itemIds
+              and b.status = 'APPROVED'
+              and b.start < :to
+              and b.end > :from
+            """)
+    List<BookingInterval> findApprovedIntervals(@Param("itemIds") Collection<Long> itemIds,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+
+    @Query("""
+            select new ru.practicum.shareit.booking.model.BookingSnapshotRow(b.id, b.item.id, b.start, b.end, b.status)
+            from Booking b
+            where b.id > :afterId
+              and b.end > :endAfter
+              and b.status in ('WAITING', 'APPROVED')
+            order by b.id
+            """)
+    List<BookingSnapshotRow> findSnapshotRows(@Param("afterId") long afterId,
+                                              @Param("endAfter") LocalDateTime endAfter,
+                                              Pageable pageable);
+
+    @Query("""
+            select new ru.practicum.shareit.booking.model.BookingSnapshotRow(b.id, b.item.id, b.start, b.end, b.status)
+            from Booking b
+            where b.id in :ids
+            """)
+    List<BookingSnapshotRow> findSnapshotRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select b.id from Booking b where b.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select new ru.practicum.shareit.booking.model.BookingSnapshotRow(b.id, b.item.id, b.start, b.end, b.status)
+            from Booking b
+            where b.item.id in :itemIds
+              and b.status in ('APPROVED', 'REJECTED')
+            """)
+    List<BookingSnapshotRow> findDecidedRowsByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("select distinct b.booker.id from Booking b where b.status = 'APPROVED'")
+    List<Long> findApprovedBookerIds();
+
+    @Query("""
+            select distinct new ru.practicum.shareit.booking.model.BookerItemRow(b.booker.id, b.item.id)
+            from Booking b
+            where b.booker.id in :bookerIds
+              and b.status = 'APPROVED'
+            """)
+    List<BookerItemRow> findApprovedItemRowsByBookerIdIn(@Param("bookerIds") Collection<Long> bookerIds);
+
+    @Query("select max(b.id) from Booking b")
+    Optional<Long> findMaxId();
 
-    @Query("select b from Booking b where b.item.owner.id = :ownerId and b.start > :now order by b.start desc")
-    List<Booking> findFutureByOwner(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now);
+    boolean existsByItem_IdAndBooker_IdAndStatusAndEndBefore(long itemId, long bookerId, BookingStatus status, LocalDateTime time);
 
-    @Query("select b from Booking b where b.item.owner.id = :ownerId and b.status = :status order by b.start desc")
-    List<Booking> findByOwnerAndStatus(@Param("ownerId") long ownerId, @Param("status") BookingStatus status);
+    @Query("select b.id from Booking b where b.end < :cutoff order by b.id")
+    List<Long> findIdsEndedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
 
-    Optional<Booking> findById(Long id);
+    @Query("select min(b.end) from Booking b where b.end < :cutoff")
+    Optional<LocalDateTime> findOldestEndBefore(@Param("cutoff") LocalDateTime cutoff);
 
-    @Query("select b from Booking b where b.item.id = :itemId and b.status = 'APPROVED' and b.start < :now order by b.start desc")
-    List<Booking> findLastApproved(@Param("itemId") long itemId, @Param("now") LocalDateTime now);
+    @Modifying
+    @Query("delete from Booking b where b.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 
-    @Query("select b from Booking b where b.item.id = :itemId and b.status = 'APPROVED' and b.start > :now order by b.start asc")
-    List<Booking> findNextApproved(@Param("itemId") long itemId, @Param("now") LocalDateTime now);
+    @Query("""
+            select new ru.practicum.shareit.booking.model.BookingItemRow(
+                    b.id, b.item.id, b.item.owner.id, b.start, b.end, b.status)
+            from Booking b
+            where b.booker.id = :bookerId
+            order by b.id
+            """)
+    List<BookingItemRow> findItemRowsByBookerId(@Param("bookerId") long bookerId, Pageable pageable);
 
-    boolean existsByItem_IdAndBooker_IdAndStatusAndEndBefore(long itemId, long bookerId, BookingStatus status, LocalDateTime time);
-}
\ No newline at end of file
+    @Query("select b.id from Booking b where b.item.id in :itemIds order by b.id")
+    List<Long> findIdsByItemIdIn(@Param("itemIds") Collection<Long> itemIds, Pageable pageable);
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.common.audit;
+
+public enum AuditAction {
+    USER_CREATED,
+    USER_UPDATED,
+    USER_DELETED,
+    ITEM_CREATED,
+    ITEM_UPDATED,
+    COMMENT_ADDED,
+    BOOKING_CREATED,
+    BOOKING_APPROVED,
+    BOOKING_REJECTED
+}
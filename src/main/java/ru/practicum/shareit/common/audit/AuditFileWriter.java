@@ -0,0 +1,132 @@
+package ru.practicum.shareit.common.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends audit events to a file, one line each: {@code <epoch millis> <action> <actor id> <entity id>}.
+ * Events are encoded into a reusable direct buffer as they are drained and reach the file in {@link #commit},
+ * one write and one {@code fsync} per batch. When the file reaches {@code maxFileSize} it is renamed to
+ * {@code <name>-<epoch millis>.<ext>} and a new one is started; rotated files are never written again.
+ */
+final class AuditFileWriter implements AuditRingBuffer.EventHandler, Closeable {
+
+    private static final int MAX_LONG_CHARS = 20;
+
+    private final Path path;
+    private final long maxFileSize;
+    private final byte[][] actionNames;
+    private final ByteBuffer buffer;
+    private final byte[] digits = new byte[MAX_LONG_CHARS];
+
+    private FileChannel channel;
+    private long size;
+    private boolean flipped;
+
+    AuditFileWriter(Path path, long maxFileSize, int batchSize) throws IOException {
+        this.path = path;
+        this.maxFileSize = maxFileSize;
+        AuditAction[] actions = AuditAction.values();
+        this.actionNames = new byte[actions.length][];
+        int longestName = 0;
+        for (AuditAction action : actions) {
+            actionNames[action.ordinal()] = action.name().getBytes(StandardCharsets.US_ASCII);
+            longestName = Math.max(longestName, action.name().length());
+        }
+        this.buffer = ByteBuffer.allocateDirect(batchSize * (3 * MAX_LONG_CHARS + longestName + 4));
+        open();
+    }
+
+    @Override
+    public void onEvent(long timestamp, int action, long actorId, long entityId) {
+        putLong(timestamp);
+        buffer.put((byte) ' ');
+        buffer.put(actionNames[action]);
+        buffer.put((byte) ' ');
+        putLong(actorId);
+        buffer.put((byte) ' ');
+        putLong(entityId);
+        buffer.put((byte) '\n');
+    }
+
+    /**
+     * Writes the events encoded since the last commit and forces them to disk. After a failure the same call
+     * may be repeated, after {@link #reopen}, and continues with the bytes not yet written.
+     */
+    void commit() throws IOException {
+        if (!flipped) {
+            buffer.flip();
+            flipped = true;
+        }
+        while (buffer.hasRemaining()) {
+            size += channel.write(buffer);
+        }
+        channel.force(false);
+        buffer.clear();
+        flipped = false;
+        if (size >= maxFileSize) {
+            rotate();
+        }
+    }
+
+    void reopen() throws IOException {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // the channel is replaced either way
+        }
+        open();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void open() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        size = channel.size();
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        long suffix = System.currentTimeMillis();
+        Path rotated;
+        while (Files.exists(rotated = path.resolveSibling(base + "-" + suffix + extension))) {
+            suffix++;
+        }
+        Files.move(path, rotated, StandardCopyOption.ATOMIC_MOVE);
+        open();
+    }
+
+    private void putLong(long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+        }
+        // digits are taken from the negative value so that Long.MIN_VALUE needs no special case
+        long remaining = value < 0 ? value : -value;
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        while (length > 0) {
+            buffer.put(digits[--length]);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package ru.practicum.shareit.common.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind audit trail of user, item and booking mutations. {@link #record} only puts the event into an
+ * {@link AuditRingBuffer}, without allocating or touching the disk; the {@code audit-writer} thread drains up
+ * to {@code batch-size} events at a time into an {@link AuditFileWriter}, so one {@code fsync} covers every
+ * event that arrived while the previous one ran. A full buffer is handled by the {@link AuditOverflowPolicy}.
+ * <p>
+ * An event is durable once its batch is committed, not when the request returns: a crash loses the events
+ * still in the buffer, at most {@code capacity} of them.
+ */
+@Slf4j
+@Component
+public class AuditLog {
+
+    private static final int SPINS_BEFORE_PARK = 64;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final boolean enabled;
+    private final Path path;
+    private final AuditRingBuffer buffer;
+    private final int batchSize;
+    private final AuditOverflowPolicy overflowPolicy;
+    private final long maxWaitNanos;
+    private final long maxFileSize;
+    private final long idleNanos;
+    private final Counter written;
+    private final Counter dropped;
+    private final Timer commits;
+
+    private AuditFileWriter fileWriter;
+    private Thread writer;
+    private volatile boolean running;
+
+    public AuditLog(@Value("${shareit.audit.enabled:true}") boolean enabled,
+                    @Value("${shareit.audit.path:data/audit/audit.log}") Path path,
+                    @Value("${shareit.audit.capacity:65536}") int capacity,
+                    @Value("${shareit.audit.batch-size:1024}") int batchSize,
+                    @Value("${shareit.audit.overflow-policy:BLOCK_WITH_TIMEOUT}") AuditOverflowPolicy overflowPolicy,
+                    @Value("${shareit.audit.max-wait:PT0.05S}") Duration maxWait,
+                    @Value("${shareit.audit.max-file-size:64MB}") DataSize maxFileSize,
+                    @Value("${shareit.audit.idle-wait:PT0.005S}") Duration idleWait,
+                    MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.path = path;
+        this.buffer = new AuditRingBuffer(capacity);
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxFileSize = maxFileSize.toBytes();
+        this.idleNanos = idleWait.toNanos();
+        this.written = Counter.builder("shareit.audit.written")
+                .description("Audit events committed to the audit file")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("shareit.audit.dropped")
+                .description("Audit events dropped because the ring buffer was full")
+                .tag("policy", overflowPolicy.name())
+                .register(meterRegistry);
+        this.commits = Timer.builder("shareit.audit.commit")
+                .description("Write and fsync of one batch of audit events")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("shareit.audit.backlog", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting in the ring buffer")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            fileWriter = new AuditFileWriter(path, maxFileSize, batchSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open audit log " + path, e);
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::writeLoop);
+        log.info("Audit log {}: capacity={}, batchSize={}, overflowPolicy={}", path, buffer.capacity(), batchSize,
+                overflowPolicy);
+    }
+
+    /**
+     * Drains what is left in the buffer and closes the file.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(SHUTDOWN_TIMEOUT.toMillis());
+    }
+
+    public void record(AuditAction action, long actorId, long entityId) {
+        if (!running) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (!buffer.offer(now, action.ordinal(), actorId, entityId)) {
+            overflow(now, action.ordinal(), actorId, entityId);
+        }
+    }
+
+    /**
+     * Records the event once the surrounding transaction has committed, or at once outside a transaction, so
+     * that rolled-back writes leave no trail.
+     */
+    public void recordAfterCommit(AuditAction action, long actorId, long entityId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(action, actorId, entityId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(action, actorId, entityId);
+            }
+        });
+    }
+
+    private void overflow(long timestamp, int action, long actorId, long entityId) {
+        if (overflowPolicy != AuditOverflowPolicy.DROP) {
+            long start = System.nanoTime();
+            int spins = 0;
+            while (running) {
+                if (buffer.offer(timestamp, action, actorId, entityId)) {
+                    return;
+                }
+                if (overflowPolicy == AuditOverflowPolicy.BLOCK_WITH_TIMEOUT
+                        && System.nanoTime() - start >= maxWaitNanos) {
+                    break;
+                }
+                if (++spins < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+        }
+        dropped.increment();
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                int drained = buffer.drain(fileWriter, batchSize);
+                if (drained > 0) {
+                    commit(drained);
+                } else if (running || buffer.size() > 0) {
+                    LockSupport.parkNanos(idleNanos);
+                } else {
+                    break;
+                }
+            }
+        } finally {
+            try {
+                fileWriter.close();
+            } catch (IOException e) {
+                log.warn("Closing audit log {} failed", path, e);
+            }
+        }
+    }
+
+    /**
+     * Retries a failed batch until it is on disk: the events are already out of the ring buffer, and while it
+     * retries the buffer fills up and the overflow policy applies to new events.
+     */
+    private void commit(int events) {
+        long start = System.nanoTime();
+        while (true) {
+            try {
+                fileWriter.commit();
+                break;
+            } catch (IOException e) {
+                log.error("Writing {} audit events to {} failed, retrying", events, path, e);
+                LockSupport.parkNanos(RETRY_NANOS);
+                try {
+                    fileWriter.reopen();
+                } catch (IOException reopenFailure) {
+                    log.debug("Reopening audit log {} failed", path, reopenFailure);
+                }
+            }
+        }
+        commits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        written.increment(events);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.common.audit;
+
+/**
+ * What a request thread does when the audit ring buffer is full because the writer has fallen behind.
+ */
+public enum AuditOverflowPolicy {
+    /**
+     * Drop the event and count it in {@code shareit.audit.dropped}; requests never wait for the disk.
+     */
+    DROP,
+    /**
+     * Wait for a free slot for as long as it takes; no event is lost, but a stalled disk stalls writes.
+     */
+    BLOCK,
+    /**
+     * Wait up to {@code shareit.audit.max-wait}, then drop the event.
+     */
+    BLOCK_WITH_TIMEOUT
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.common.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer queue of audit events, stored field by field in preallocated
+ * arrays so that {@link #offer} allocates nothing.
+ * <p>
+ * Each slot carries a sequence number. A producer claims position {@code p} with a CAS on {@code tail} when
+ * its slot's sequence equals {@code p}, writes the fields and publishes them by setting the sequence to
+ * {@code p + 1}; the consumer reads a slot once its sequence is {@code head + 1} and hands it back by setting
+ * it to {@code head + capacity}. Events leave the buffer in the order their positions were claimed.
+ */
+public class AuditRingBuffer {
+
+    /**
+     * Receives drained events; called on the consumer thread only.
+     */
+    public interface EventHandler {
+        void onEvent(long timestamp, int action, long actorId, long entityId);
+    }
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final long[] timestamps;
+    private final int[] actions;
+    private final long[] actorIds;
+    private final long[] entityIds;
+
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    public AuditRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be in 1..2^30: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.timestamps = new long[size];
+        this.actions = new int[size];
+        this.actorIds = new long[size];
+        this.entityIds = new long[size];
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Appends an event, or returns {@code false} at once if the buffer is full.
+     */
+    public boolean offer(long timestamp, int action, long actorId, long entityId) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long diff = sequences.getAcquire(slot) - position;
+            if (diff == 0) {
+                if (tail.weakCompareAndSetVolatile(position, position + 1)) {
+                    timestamps[slot] = timestamp;
+                    actions[slot] = action;
+                    actorIds[slot] = actorId;
+                    entityIds[slot] = entityId;
+                    sequences.setRelease(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Hands up to {@code max} published events to {@code handler} and frees their slots. Single consumer only.
+     *
+     * @return the number of events drained
+     */
+    public int drain(EventHandler handler, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) position & mask;
+            if (sequences.getAcquire(slot) != position + 1) {
+                break;
+            }
+            handler.onEvent(timestamps[slot], actions[slot], actorIds[slot], entityIds[slot]);
+            sequences.setRelease(slot, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    /**
+     * Events claimed but not yet drained; approximate while producers are running.
+     */
+    public long size() {
+        return Math.max(0, tail.get() - head);
+    }
+}
@@ -0,0 +1,205 @@
+package ru.practicum.shareit.common.datasource;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.datasource.shard.ShardTopology;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches every Hikari pool of the application: the auto-configured one, the primary and replica pools and
+ * the shard pools.
+ * <ul>
+ *     <li>{@link #sample()} records the active and pending connection counts into the
+ *     {@code shareit.datasource.pool.active} and {@code shareit.datasource.pool.pending} histograms, so
+ *     saturation shows up as a distribution rather than as whatever the gauge read at scrape time;</li>
+ *     <li>{@link #adjust()}, when {@code shareit.datasource.pool.adaptive.enabled}, feeds the window's
+ *     acquisition rate, wait time ({@code hikaricp.connections.acquire}) and hold time
+ *     ({@code hikaricp.connections.usage}) to a {@link PoolSizingPolicy} and resizes the pool within
+ *     {@code min-size}..{@code max-size}.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ConnectionPoolTuner {
+
+    private static final String ACQUIRE = "hikaricp.connections.acquire";
+    private static final String USAGE = "hikaricp.connections.usage";
+
+    private final ObjectProvider<HikariDataSource> dataSources;
+    private final ObjectProvider<ShardTopology> shardTopology;
+    private final MeterRegistry meterRegistry;
+    private final boolean adaptive;
+    private final int minSize;
+    private final int maxSize;
+    private final double waitTargetMillis;
+    private final double latencyDegradation;
+
+    private final Map<String, PoolState> pools = new LinkedHashMap<>();
+
+    public ConnectionPoolTuner(ObjectProvider<HikariDataSource> dataSources,
+                               ObjectProvider<ShardTopology> shardTopology,
+                               MeterRegistry meterRegistry,
+                               @Value("${shareit.datasource.pool.adaptive.enabled:false}") boolean adaptive,
+                               @Value("${shareit.datasource.pool.adaptive.min-size:4}") int minSize,
+                               @Value("${shareit.datasource.pool.adaptive.max-size:40}") int maxSize,
+                               @Value("${shareit.datasource.pool.adaptive.wait-target:PT0.005S}") Duration waitTarget,
+                               @Value("${shareit.datasource.pool.adaptive.latency-degradation:1.5}")
+                               double latencyDegradation) {
+        this.dataSources = dataSources;
+        this.shardTopology = shardTopology;
+        this.meterRegistry = meterRegistry;
+        this.adaptive = adaptive;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.waitTargetMillis = waitTarget.toNanos() / 1e6;
+        this.latencyDegradation = latencyDegradation;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.datasource.pool.sample-interval:PT1S}")
+    public synchronized void sample() {
+        for (PoolState pool : pools()) {
+            HikariPoolMXBean mxBean = pool.dataSource.getHikariPoolMXBean();
+            if (mxBean != null) {
+                pool.active.record(mxBean.getActiveConnections());
+                pool.pending.record(mxBean.getThreadsAwaitingConnection());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.datasource.pool.adjust-interval:PT10S}")
+    public synchronized void adjust() {
+        if (!adaptive) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (PoolState pool : pools()) {
+            Timer acquire = meterRegistry.find(ACQUIRE).tag("pool", pool.name).timer();
+            Timer usage = meterRegistry.find(USAGE).tag("pool", pool.name).timer();
+            if (acquire == null || usage == null || pool.dataSource.getHikariPoolMXBean() == null) {
+                continue;
+            }
+            Window window = pool.advance(acquire, usage, now);
+            if (window == null) {
+                continue;
+            }
+            HikariConfigMXBean config = pool.dataSource.getHikariConfigMXBean();
+            int current = config.getMaximumPoolSize();
+            int next = pool.policy.next(current, window.acquisitionsPerSecond(), window.meanWaitMillis(),
+                    window.meanHoldMillis());
+            if (next != current) {
+                if (config.getMinimumIdle() > next) {
+                    config.setMinimumIdle(next);
+                }
+                config.setMaximumPoolSize(next);
+                log.info("Pool {} resized {} -> {}: {} acquisitions/s, wait {} ms, hold {} ms", pool.name, current,
+                        next, String.format("%.1f", window.acquisitionsPerSecond()),
+                        String.format("%.2f", window.meanWaitMillis()), String.format("%.2f", window.meanHoldMillis()));
+            }
+        }
+    }
+
+    /**
+     * Pools are looked up on every tick because the auto-configured one is created lazily and shard pools are
+     * not beans; meters are registered once per pool. A pool is taken on only once it has started: until then
+     * Hikari reports its maximum size as -1, which would give the policy no valid bounds.
+     */
+    private List<PoolState> pools() {
+        List<HikariDataSource> found = Stream.concat(
+                        dataSources.orderedStream(),
+                        shardTopology.stream()
+                                .flatMap(topology -> topology.dataSources().stream())
+                                .filter(HikariDataSource.class::isInstance)
+                                .map(HikariDataSource.class::cast))
+                .toList();
+        for (HikariDataSource dataSource : found) {
+            String name = dataSource.getPoolName();
+            if (name != null && !pools.containsKey(name) && dataSource.getHikariPoolMXBean() != null) {
+                pools.put(name, new PoolState(name, dataSource));
+            }
+        }
+        return List.copyOf(pools.values());
+    }
+
+    private record Window(double acquisitionsPerSecond, double meanWaitMillis, double meanHoldMillis) {
+    }
+
+    private final class PoolState {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final DistributionSummary active;
+        private final DistributionSummary pending;
+        private final PoolSizingPolicy policy;
+
+        private long lastAt;
+        private long lastAcquireCount;
+        private double lastAcquireMillis;
+        private long lastUsageCount;
+        private double lastUsageMillis;
+
+        private PoolState(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.active = DistributionSummary.builder("shareit.datasource.pool.active")
+                    .description("Connections in use, sampled every sample-interval")
+                    .tag("pool", name)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.pending = DistributionSummary.builder("shareit.datasource.pool.pending")
+                    .description("Threads waiting for a connection, sampled every sample-interval")
+                    .tag("pool", name)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            Gauge.builder("shareit.datasource.pool.max-size", dataSource,
+                            ds -> ds.getHikariConfigMXBean().getMaximumPoolSize())
+                    .tag("pool", name)
+                    .register(meterRegistry);
+            this.policy = new PoolSizingPolicy(
+                    Math.min(minSize, dataSource.getMaximumPoolSize()),
+                    Math.max(maxSize, dataSource.getMaximumPoolSize()),
+                    waitTargetMillis, latencyDegradation);
+        }
+
+        /**
+         * Deltas of the acquire and usage timers since the previous call; {@code null} on the first call.
+         */
+        private Window advance(Timer acquire, Timer usage, long now) {
+            long acquireCount = acquire.count();
+            double acquireMillis = acquire.totalTime(TimeUnit.MILLISECONDS);
+            long usageCount = usage.count();
+            double usageMillis = usage.totalTime(TimeUnit.MILLISECONDS);
+            Window window = null;
+            if (lastAt != 0) {
+                double seconds = (now - lastAt) / 1e9;
+                long acquisitions = acquireCount - lastAcquireCount;
+                long releases = usageCount - lastUsageCount;
+                window = new Window(
+                        acquisitions / seconds,
+                        acquisitions > 0 ? (acquireMillis - lastAcquireMillis) / acquisitions : 0,
+                        releases > 0 ? (usageMillis - lastUsageMillis) / releases : 0);
+            }
+            lastAt = now;
+            lastAcquireCount = acquireCount;
+            lastAcquireMillis = acquireMillis;
+            lastUsageCount = usageCount;
+            lastUsageMillis = usageMillis;
+            return window;
+        }
+    }
+}
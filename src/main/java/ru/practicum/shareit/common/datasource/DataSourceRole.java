@@ -0,0 +1,6 @@
+package ru.practicum.shareit.common.datasource;
+
+public enum DataSourceRole {
+    PRIMARY,
+    REPLICA
+}
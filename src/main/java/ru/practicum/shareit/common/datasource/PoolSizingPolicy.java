@@ -0,0 +1,76 @@
+package ru.practicum.shareit.common.datasource;
+
+/**
+ * Decides the next maximum size of a connection pool from one observation window.
+ *
+ * <p>The size connections actually need follows Little's law: acquisitions per second times the mean time
+ * a connection is held. The pool grows towards that size (with headroom) while callers wait longer than
+ * {@code waitTargetMillis} for a connection, and shrinks by one per window while they do not. When the hold
+ * time itself climbs above the observed baseline the database, not the pool, is the bottleneck: extra
+ * connections would only queue inside the database, so the pool shrinks by one instead.
+ */
+public class PoolSizingPolicy {
+
+    private static final double HEADROOM = 1.25;
+    private static final double BASELINE_DECAY = 0.05;
+
+    private final int minSize;
+    private final int maxSize;
+    private final double waitTargetMillis;
+    private final double latencyDegradation;
+
+    private double baselineHoldMillis = Double.NaN;
+
+    public PoolSizingPolicy(int minSize, int maxSize, double waitTargetMillis, double latencyDegradation) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("pool bounds must satisfy 1 <= min <= max");
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.waitTargetMillis = waitTargetMillis;
+        this.latencyDegradation = latencyDegradation;
+    }
+
+    /**
+     * @param current               the current maximum pool size
+     * @param acquisitionsPerSecond connections handed out per second during the window
+     * @param meanWaitMillis        mean time callers waited for a connection
+     * @param meanHoldMillis        mean time a connection was held before being returned
+     */
+    public int next(int current, double acquisitionsPerSecond, double meanWaitMillis, double meanHoldMillis) {
+        if (acquisitionsPerSecond <= 0) {
+            return clamp(current - 1);
+        }
+        boolean databaseSlowing = !Double.isNaN(baselineHoldMillis)
+                && meanHoldMillis > baselineHoldMillis * latencyDegradation;
+        updateBaseline(meanHoldMillis);
+
+        int needed = (int) Math.ceil(acquisitionsPerSecond * meanHoldMillis / 1000.0 * HEADROOM);
+        if (meanWaitMillis > waitTargetMillis) {
+            if (databaseSlowing) {
+                return clamp(current - 1);
+            }
+            return clamp(Math.max(current + 1, Math.min(needed, current * 2)));
+        }
+        return needed < current ? clamp(current - 1) : clamp(current);
+    }
+
+    double getBaselineHoldMillis() {
+        return baselineHoldMillis;
+    }
+
+    /**
+     * Follows the hold time down immediately and up slowly, so the baseline tracks an unloaded database.
+     */
+    private void updateBaseline(double holdMillis) {
+        if (Double.isNaN(baselineHoldMillis) || holdMillis < baselineHoldMillis) {
+            baselineHoldMillis = holdMillis;
+        } else {
+            baselineHoldMillis += (holdMillis - baselineHoldMillis) * BASELINE_DECAY;
+        }
+    }
+
+    private int clamp(int size) {
+        return Math.max(minSize, Math.min(maxSize, size));
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.common.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Keeps a user on the primary for a short window after their last write, so they read their own changes
+ * even if the replica has not caught up yet. The user of the current request is bound to the thread by
+ * {@link ReplicaRoutingInterceptor}.
+ */
+public class ReplicaLagGuard {
+
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReplicaLagGuard(Duration stickyWindow, long maxTrackedUsers) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(maxTrackedUsers)
+                .build();
+    }
+
+    public void bind(Long userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    public void clear() {
+        CURRENT_USER.remove();
+    }
+
+    public void recordWrite(long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    public boolean currentUserMustReadPrimary() {
+        Long userId = CURRENT_USER.get();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+}
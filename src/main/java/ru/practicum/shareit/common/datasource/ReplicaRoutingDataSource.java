@@ -0,0 +1,45 @@
+package ru.practicum.shareit.common.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends connections of read-only transactions to the replica and everything else to the primary.
+ * Must sit behind a {@code LazyConnectionDataSourceProxy}: the read-only flag is only known once the
+ * transaction has started, after the transaction manager would normally have fetched its connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaLagGuard lagGuard;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagGuard lagGuard,
+                                    MeterRegistry meterRegistry) {
+        this.lagGuard = lagGuard;
+        this.primaryConnections = Counter.builder("shareit.datasource.connections")
+                .tag("role", "primary")
+                .register(meterRegistry);
+        this.replicaConnections = Counter.builder("shareit.datasource.connections")
+                .tag("role", "replica")
+                .register(meterRegistry);
+        setTargetDataSources(Map.of(DataSourceRole.PRIMARY, primary, DataSourceRole.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !lagGuard.currentUserMustReadPrimary()) {
+            replicaConnections.increment();
+            return DataSourceRole.REPLICA;
+        }
+        primaryConnections.increment();
+        return DataSourceRole.PRIMARY;
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.common.datasource.shard;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Maps owner ids to shard indexes with consistent hashing. Every shard owns {@code virtualNodes} points on a
+ * 64-bit ring placed by its name, so adding a shard moves only about {@code 1/n} of the owners and renaming
+ * nothing else changes the placement.
+ */
+public final class ConsistentHashRing {
+
+    private final NavigableMap<Long, Integer> ring = new TreeMap<>();
+
+    public ConsistentHashRing(List<String> shardNames, int virtualNodes) {
+        if (shardNames.isEmpty()) {
+            throw new IllegalArgumentException("at least one shard is required");
+        }
+        for (int shard = 0; shard < shardNames.size(); shard++) {
+            long seed = (long) shardNames.get(shard).hashCode() << 32;
+            for (int node = 0; node < virtualNodes; node++) {
+                ring.put(mix(seed | node), shard);
+            }
+        }
+    }
+
+    public int shardFor(long key) {
+        Map.Entry<Long, Integer> entry = ring.ceilingEntry(mix(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * MurmurHash3 finalizer: spreads sequential ids and node numbers evenly over the ring.
+     */
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
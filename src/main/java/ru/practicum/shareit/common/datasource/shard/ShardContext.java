@@ -0,0 +1,33 @@
+package ru.practicum.shareit.common.datasource.shard;
+
+/**
+ * The shard the current thread's next connection is taken from. Unbound means the home shard ({@code 0}).
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds {@code shard} and returns the previous binding, to be passed to {@link #restore}.
+     */
+    public static Integer bind(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    public static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.common.datasource.shard;
+
+/**
+ * Item, booking and comment ids carry the index of the shard they were created on in their high bits:
+ * shard {@code n} allocates ids from {@code n * 2^40 + 1}. Shard 0 keeps the plain range, so ids from a
+ * database that predates sharding stay valid.
+ */
+public final class ShardIds {
+
+    public static final int SHARD_SHIFT = 40;
+
+    private ShardIds() {
+    }
+
+    public static int shardOf(long id) {
+        return (int) (id >>> SHARD_SHIFT);
+    }
+
+    public static long firstId(int shard) {
+        return ((long) shard << SHARD_SHIFT) + 1;
+    }
+}
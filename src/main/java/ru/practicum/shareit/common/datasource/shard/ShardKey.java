@@ -0,0 +1,30 @@
+package ru.practicum.shareit.common.datasource.shard;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the service method parameter that decides which shard the call runs on. With sharding disabled
+ * the annotation has no effect.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+
+    enum Kind {
+        /** An owner id, placed by the hash ring. */
+        OWNER,
+        /** An item, booking or comment id, which carries its shard (see {@link ShardIds}). */
+        ENTITY_ID
+    }
+
+    Kind value();
+
+    /**
+     * Bean property of the parameter that holds the key, e.g. {@code itemId} of a request DTO. Empty when the
+     * parameter itself is the key.
+     */
+    String property() default "";
+}
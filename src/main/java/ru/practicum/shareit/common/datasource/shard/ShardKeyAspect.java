@@ -0,0 +1,62 @@
+package ru.practicum.shareit.common.datasource.shard;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+/**
+ * Binds the shard chosen by a {@link ShardKey} parameter for the duration of the call. Ordered ahead of the
+ * transaction interceptor, so the transaction the method opens already talks to that shard.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ShardKeyAspect {
+
+    private final ShardTopology topology;
+
+    public ShardKeyAspect(ShardTopology topology) {
+        this.topology = topology;
+    }
+
+    @Around("within(ru.practicum.shareit..*)"
+            + " && execution(* *(.., @ru.practicum.shareit.common.datasource.shard.ShardKey (*), ..))")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof ShardKey key) {
+                    Long value = keyValue(joinPoint.getArgs()[i], key);
+                    if (value == null) {
+                        return joinPoint.proceed();
+                    }
+                    int shard = key.value() == ShardKey.Kind.OWNER
+                            ? topology.shardForOwner(value)
+                            : topology.shardForId(value);
+                    Integer previous = ShardContext.bind(shard);
+                    try {
+                        return joinPoint.proceed();
+                    } finally {
+                        ShardContext.restore(previous);
+                    }
+                }
+            }
+        }
+        return joinPoint.proceed();
+    }
+
+    private static Long keyValue(Object argument, ShardKey key) {
+        Object value = argument;
+        if (value != null && !key.property().isEmpty()) {
+            value = new BeanWrapperImpl(value).getPropertyValue(key.property());
+        }
+        return value instanceof Number number ? number.longValue() : null;
+    }
+}
@@ -0,0 +1,189 @@
+package ru.practicum.shareit.common.datasource.shard;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs work on the right shard. With sharding disabled there is a single shard and every method simply
+ * runs the work in the caller's transaction, so call sites read the same either way.
+ *
+ * <p>Every shard call gets its own transaction, since a transaction is pinned to the connection of one
+ * shard. Fan-out work runs on virtual threads, and results come back as detached entities.
+ */
+@Component
+public class ShardRouter {
+
+    private final ShardTopology topology;
+    private final TransactionTemplate readTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final ExecutorService executor;
+
+    public ShardRouter(ObjectProvider<ShardTopology> topology, PlatformTransactionManager transactionManager) {
+        this.topology = topology.getIfAvailable();
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.executor = this.topology != null ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    public boolean isSharded() {
+        return topology != null;
+    }
+
+    public int shardForOwner(long ownerId) {
+        return topology != null ? topology.shardForOwner(ownerId) : 0;
+    }
+
+    public int shardForId(long id) {
+        return topology != null ? topology.shardForId(id) : 0;
+    }
+
+    /**
+     * Runs {@code query} on every shard and merges the per-shard results, each already sorted by
+     * {@code order} and cut to {@code limit}, into the first {@code limit} overall.
+     */
+    public <T> List<T> scatterGather(Supplier<List<T>> query, Comparator<? super T> order, int limit) {
+        if (topology == null) {
+            return query.get();
+        }
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(topology.size());
+        for (int shard = 0; shard < topology.size(); shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> readOnShard(target, query), executor));
+        }
+        List<T> merged = new ArrayList<>();
+        futures.forEach(future -> merged.addAll(join(future)));
+        // concatenated sorted runs: the sort does a k-way merge
+        merged.sort(order);
+        return merged.size() > limit ? List.copyOf(merged.subList(0, limit)) : merged;
+    }
+
+    /**
+     * Splits {@code ids} by the shard that owns them and runs {@code load} once per shard with its ids.
+     * Results are concatenated in shard order; callers that care about order re-sort them.
+     */
+    public <T> List<T> byIdShards(Collection<Long> ids, Function<List<Long>, List<T>> load) {
+        if (topology == null) {
+            return load.apply(List.copyOf(ids));
+        }
+        Map<Integer, List<Long>> byShard = new TreeMap<>();
+        for (Long id : ids) {
+            byShard.computeIfAbsent(shardForId(id), shard -> new ArrayList<>()).add(id);
+        }
+        if (byShard.size() == 1) {
+            Map.Entry<Integer, List<Long>> only = byShard.entrySet().iterator().next();
+            return readOnShard(only.getKey(), () -> load.apply(only.getValue()));
+        }
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(byShard.size());
+        byShard.forEach((shard, shardIds) -> futures.add(CompletableFuture.supplyAsync(
+                () -> readOnShard(shard, () -> load.apply(shardIds)), executor)));
+        List<T> result = new ArrayList<>();
+        futures.forEach(future -> result.addAll(join(future)));
+        return result;
+    }
+
+    /**
+     * Runs {@code work} once per shard on the calling thread, each time with that shard bound. Must be called
+     * outside a transaction; repository calls inside {@code work} open their own.
+     */
+    public void forEachShard(Runnable work) {
+        if (topology == null) {
+            work.run();
+            return;
+        }
+        for (int shard = 0; shard < topology.size(); shard++) {
+            Integer previous = ShardContext.bind(shard);
+            try {
+                work.run();
+            } finally {
+                ShardContext.restore(previous);
+            }
+        }
+    }
+
+    /**
+     * Repeats a write already done on the home shard on every other shard, each in its own transaction.
+     * Used for data every shard needs locally, such as users referenced by foreign keys.
+     */
+    public void replicate(Runnable write) {
+        if (topology == null) {
+            return;
+        }
+        for (int shard = 1; shard < topology.size(); shard++) {
+            Integer previous = ShardContext.bind(shard);
+            try {
+                writeTemplate.executeWithoutResult(status -> write.run());
+            } finally {
+                ShardContext.restore(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code query} on one shard in its own read-only transaction.
+     */
+    public <T> List<T> readOnShard(int shard, Supplier<List<T>> query) {
+        if (topology == null) {
+            return query.get();
+        }
+        Integer previous = ShardContext.bind(shard);
+        try {
+            return readTemplate.execute(status -> query.get());
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    /**
+     * Runs {@code write} on one shard in its own transaction.
+     */
+    public void writeOnShard(int shard, Runnable write) {
+        if (topology == null) {
+            write.run();
+            return;
+        }
+        Integer previous = ShardContext.bind(shard);
+        try {
+            writeTemplate.executeWithoutResult(status -> write.run());
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private static <T> List<T> join(CompletableFuture<List<T>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
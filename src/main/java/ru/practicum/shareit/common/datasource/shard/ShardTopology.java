@@ -0,0 +1,26 @@
+package ru.practicum.shareit.common.datasource.shard;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * The configured shards, in index order, and the ring that places owners on them.
+ */
+public record ShardTopology(List<String> names, List<DataSource> dataSources, ConsistentHashRing ring) {
+
+    public int size() {
+        return names.size();
+    }
+
+    public int shardForOwner(long ownerId) {
+        return ring.shardFor(ownerId);
+    }
+
+    /**
+     * Ids from a shard index that is not configured fall back to the home shard.
+     */
+    public int shardForId(long id) {
+        int shard = ShardIds.shardOf(id);
+        return shard < names.size() ? shard : 0;
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.common.datasource.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured pool with one pool per {@code shareit.sharding.shards[n]} behind a
+ * {@link ShardRoutingDataSource}. Shard 0 is the home shard: Spring's SQL init runs there through the routing
+ * data source, the other shards are initialized here and get their own id ranges (see {@link ShardIds}).
+ *
+ * <p>Layout: every shard has a full copy of {@code users}; an owner's items, and the bookings and comments
+ * of those items, live on the shard the ring assigns to the owner. Cannot be combined with
+ * {@code shareit.datasource.replica.enabled}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "shareit.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    private static final String SHARDS_PREFIX = "shareit.sharding.shards";
+    private static final List<String> SHARDED_TABLES = List.of("items", "bookings", "comments");
+
+    private final Environment environment;
+
+    public ShardingConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Bean
+    public ShardTopology shardTopology(@Value("${shareit.sharding.virtual-nodes:128}") int virtualNodes,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        List<DataSourceProperties> shards = binder.bind(SHARDS_PREFIX, Bindable.listOf(DataSourceProperties.class))
+                .orElseThrow(() -> new IllegalStateException(SHARDS_PREFIX + " must list at least one shard"));
+
+        List<String> names = new ArrayList<>(shards.size());
+        List<DataSource> dataSources = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            DataSourceProperties properties = shards.get(shard);
+            String name = properties.getName() != null ? properties.getName() : "shard" + shard;
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .build();
+            binder.bind(SHARDS_PREFIX + "[" + shard + "].hikari", Bindable.ofInstance(dataSource));
+            dataSource.setPoolName(name);
+            // Shard pools are not beans, so Boot's pool metrics binding does not reach them.
+            meterRegistry.ifAvailable(registry ->
+                    dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            names.add(name);
+            dataSources.add(dataSource);
+        }
+        return new ShardTopology(List.copyOf(names), List.copyOf(dataSources),
+                new ConsistentHashRing(names, virtualNodes));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardTopology topology) {
+        SqlInitializationProperties sqlInit = Binder.get(environment)
+                .bind("spring.sql.init", SqlInitializationProperties.class)
+                .orElseGet(SqlInitializationProperties::new);
+        for (int shard = 1; shard < topology.size(); shard++) {
+            DataSource dataSource = topology.dataSources().get(shard);
+            new SqlDataSourceScriptDatabaseInitializer(dataSource, sqlInit).initializeDatabase();
+            reserveIdRange(new JdbcTemplate(dataSource), shard);
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(topology.dataSources());
+        routing.afterPropertiesSet();
+        log.info("Sharding enabled: shards={}", topology.names());
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ShardKeyAspect shardKeyAspect(ShardTopology topology) {
+        return new ShardKeyAspect(topology);
+    }
+
+    /**
+     * Moves the identity of every sharded table into the shard's range, or past the largest id already there.
+     */
+    private static void reserveIdRange(JdbcTemplate jdbcTemplate, int shard) {
+        for (String table : SHARDED_TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long next = Math.max(ShardIds.firstId(shard), (maxId != null ? maxId : 0) + 1);
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+}
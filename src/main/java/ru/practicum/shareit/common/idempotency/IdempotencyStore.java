@@ -0,0 +1,102 @@
+package ru.practicum.shareit.common.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.ConflictException;
+import ru.practicum.shareit.common.ValidationException;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of create requests sent with an {@code Idempotency-Key} header. The first request
+ * for a key runs the action; retries get the stored response, and concurrent duplicates wait for the
+ * in-flight one instead of running it again. Failed executions are forgotten so the client can retry.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private record Key(long userId, String operation, String idempotencyKey) {
+    }
+
+    private record Entry(Object fingerprint, CompletableFuture<Object> result) {
+    }
+
+    private final Cache<Key, Entry> entries;
+    private final Duration waitTimeout;
+
+    public IdempotencyStore(@Value("${shareit.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${shareit.idempotency.max-size:100000}") long maxSize,
+                            @Value("${shareit.idempotency.wait-timeout:PT10S}") Duration waitTimeout) {
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+        this.waitTimeout = waitTimeout;
+    }
+
+    /**
+     * Runs {@code action} once per {@code (userId, operation, idempotencyKey)}. {@code fingerprint} is the
+     * request body; reusing a key with a different body is rejected with 409.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(long userId, String operation, String idempotencyKey, Object fingerprint, Supplier<T> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException(HEADER + " must be 1.." + MAX_KEY_LENGTH + " characters");
+        }
+
+        Key key = new Key(userId, operation, idempotencyKey);
+        Entry entry = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(key, entry);
+        if (existing != null) {
+            if (!Objects.equals(existing.fingerprint(), fingerprint)) {
+                throw new ConflictException(HEADER + " was already used for a different request: " + idempotencyKey);
+            }
+            return (T) await(existing.result(), idempotencyKey);
+        }
+
+        try {
+            T result = action.get();
+            entry.result().complete(result);
+            return result;
+        } catch (Throwable e) {
+            // errors too: a key left pending would make every retry wait out the timeout until the entry expires
+            entries.asMap().remove(key, entry);
+            entry.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Object await(CompletableFuture<Object> result, String idempotencyKey) {
+        try {
+            return result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ConflictException("Request with " + HEADER + " is still in progress: " + idempotencyKey);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while waiting for " + HEADER + ": " + idempotencyKey);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ru.practicum.shareit.CacheAccess")
+@Label("Cache Access")
+@Category({"ShareIt", "Cache"})
+@StackTrace(false)
+public class CacheAccessEvent extends Event {
+
+    @Label("Cache")
+    String cache;
+
+    @Label("Lookups")
+    int lookups;
+
+    @Label("Misses")
+    int misses;
+
+    /**
+     * Records a lookup of {@code lookups} keys of which {@code misses} had to be loaded. Costs one
+     * enabled-check when no recording is running.
+     */
+    public static void record(String cache, int lookups, int misses) {
+        CacheAccessEvent event = new CacheAccessEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.cache = cache;
+        event.lookups = lookups;
+        event.misses = misses;
+        event.commit();
+    }
+}
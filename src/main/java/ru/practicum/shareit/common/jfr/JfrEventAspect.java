@@ -0,0 +1,148 @@
+package ru.practicum.shareit.common.jfr;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.BulkResultDto;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emits a {@link ServiceCallEvent} around every service implementation call and a
+ * {@link RepositoryQueryEvent} around every repository call. When no recording has the events enabled the
+ * advice is a single check before proceeding.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "shareit.jfr.events.enabled", havingValue = "true", matchIfMissing = true)
+public class JfrEventAspect {
+
+    private static final Set<String> USER_ID_PARAMETERS = Set.of("userId", "ownerId", "requesterId", "bookerId");
+
+    /**
+     * Where a service method keeps its user id and state arguments, resolved once per method.
+     */
+    private record CallShape(String operation, int userIdIndex, int stateIndex) {
+    }
+
+    private final Map<Method, CallShape> shapes = new ConcurrentHashMap<>();
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("execution(public * ru.practicum.shareit..service.*Impl.*(..))")
+    public Object serviceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        ServiceCallEvent event = new ServiceCallEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        CallShape shape = shapes.computeIfAbsent(signature.getMethod(), method -> shapeOf(signature));
+        Object[] args = joinPoint.getArgs();
+        event.operation = shape.operation();
+        if (shape.userIdIndex() >= 0 && args[shape.userIdIndex()] instanceof Number userId) {
+            event.userId = userId.longValue();
+        }
+        if (shape.stateIndex() >= 0 && args[shape.stateIndex()] != null) {
+            event.state = args[shape.stateIndex()].toString();
+        }
+        event.begin();
+        try {
+            Object result = joinPoint.proceed();
+            event.itemCount = itemCount(result);
+            return result;
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    @Around("execution(public * ru.practicum.shareit..storage.*Repository+.*(..))")
+    public Object repositoryQuery(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryQueryEvent event = new RepositoryQueryEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.query = repositoryNames.computeIfAbsent(joinPoint.getThis().getClass(),
+                type -> repositoryName(type, joinPoint.getSignature().getDeclaringType()))
+                + "." + joinPoint.getSignature().getName();
+        event.begin();
+        try {
+            Object result = joinPoint.proceed();
+            event.rows = rows(result);
+            return result;
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private static CallShape shapeOf(MethodSignature signature) {
+        String[] names = signature.getParameterNames();
+        Class<?>[] types = signature.getParameterTypes();
+        int userIdIndex = -1;
+        int stateIndex = -1;
+        for (int i = 0; i < types.length; i++) {
+            if (userIdIndex < 0 && names != null && USER_ID_PARAMETERS.contains(names[i])) {
+                userIdIndex = i;
+            }
+            if (stateIndex < 0 && types[i].isEnum()) {
+                stateIndex = i;
+            }
+        }
+        return new CallShape(signature.getDeclaringType().getSimpleName() + "." + signature.getName(),
+                userIdIndex, stateIndex);
+    }
+
+    /**
+     * The application's repository interface behind a proxy, so inherited methods such as {@code findById}
+     * are reported against {@code ItemRepository} rather than {@code CrudRepository}.
+     */
+    private static String repositoryName(Class<?> proxyType, Class<?> declaringType) {
+        for (Class<?> type = proxyType; type != null; type = type.getSuperclass()) {
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (candidate.getName().startsWith("ru.practicum.shareit.")
+                        && candidate.getSimpleName().endsWith("Repository")) {
+                    return candidate.getSimpleName();
+                }
+            }
+        }
+        return declaringType.getSimpleName();
+    }
+
+    private static int itemCount(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof BulkResultDto<?> bulk && bulk.getFound() != null) {
+            return bulk.getFound().size();
+        }
+        return -1;
+    }
+
+    private static int rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return 1;
+    }
+}
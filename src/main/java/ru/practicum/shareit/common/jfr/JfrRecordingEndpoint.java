@@ -0,0 +1,150 @@
+package ru.practicum.shareit.common.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/jfr}: one on-demand flight recording with the ShareIt events switched on.
+ * <ul>
+ *     <li>{@code GET} reports the current recording;</li>
+ *     <li>{@code POST} with optional {@code settings} ({@code default} or {@code profile}) and {@code maxAge}
+ *     starts one, replacing a stopped one;</li>
+ *     <li>{@code GET /dump} downloads what has been recorded so far;</li>
+ *     <li>{@code DELETE} stops and discards it.</li>
+ * </ul>
+ * It can fill the disk and hands out what the application was doing, so only the {@code dev} profile exposes
+ * it over HTTP; anywhere else, put it behind authentication before adding it to the exposure list.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private static final List<Class<? extends jdk.jfr.Event>> SHAREIT_EVENTS =
+            List.of(ServiceCallEvent.class, RepositoryQueryEvent.class, CacheAccessEvent.class);
+    private static final String DUMP = "dump";
+    private static final int STATUS_CONFLICT = 409;
+
+    private Recording recording;
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        return describe(recording);
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable String settings,
+                                                                       @Nullable Duration maxAge) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(describe(recording), STATUS_CONFLICT);
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : "default");
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(Map.of("error", "Unknown settings: " + settings),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        discard();
+        Recording started = new Recording(configuration);
+        started.setName("shareit");
+        started.setToDisk(true);
+        started.setMaxAge(maxAge != null ? maxAge : Duration.ofMinutes(30));
+        SHAREIT_EVENTS.forEach(type -> started.enable(type).withThreshold(Duration.ZERO));
+        started.start();
+        recording = started;
+        return new WebEndpointResponse<>(describe(recording));
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> dump(@Selector String action) throws IOException {
+        if (!DUMP.equals(action) || recording == null || recording.getState() == RecordingState.CLOSED) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path file = Files.createTempFile("shareit-", ".jfr");
+        recording.dump(file);
+        return new WebEndpointResponse<>(new TemporaryFileResource(file));
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        Map<String, Object> stopped = describe(recording);
+        discard();
+        return stopped;
+    }
+
+    private void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private static Map<String, Object> describe(Recording recording) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (recording == null) {
+            result.put("state", "NONE");
+            return result;
+        }
+        result.put("id", recording.getId());
+        result.put("state", recording.getState().name());
+        result.put("startTime", recording.getStartTime());
+        result.put("maxAge", recording.getMaxAge());
+        result.put("size", recording.getSize());
+        return result;
+    }
+
+    /**
+     * A dumped recording that is deleted once it has been sent.
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        delete();
+                    }
+                }
+            };
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(getFile().toPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
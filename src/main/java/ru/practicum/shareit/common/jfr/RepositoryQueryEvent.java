@@ -0,0 +1,26 @@
+package ru.practicum.shareit.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ru.practicum.shareit.RepositoryQuery")
+@Label("Repository Query")
+@Description("One repository method call, which is usually one database round-trip")
+@Category({"ShareIt", "Database"})
+@StackTrace(false)
+public class RepositoryQueryEvent extends Event {
+
+    @Label("Query")
+    String query;
+
+    @Label("Rows")
+    @Description("Rows returned: list size, 0 or 1 for optional and single results")
+    int rows;
+
+    @Label("Failed")
+    boolean failed;
+}
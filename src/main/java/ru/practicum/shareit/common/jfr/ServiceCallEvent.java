@@ -0,0 +1,32 @@
+package ru.practicum.shareit.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ru.practicum.shareit.ServiceCall")
+@Label("Service Call")
+@Description("One call to a ShareIt service, including its transaction")
+@Category({"ShareIt", "Service"})
+@StackTrace(false)
+public class ServiceCallEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("User Id")
+    long userId;
+
+    @Label("Item Count")
+    @Description("Size of the returned list, -1 for single results")
+    int itemCount;
+
+    @Label("State")
+    String state;
+
+    @Label("Failed")
+    boolean failed;
+}
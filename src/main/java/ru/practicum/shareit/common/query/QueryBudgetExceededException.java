@@ -0,0 +1,7 @@
+package ru.practicum.shareit.common.query;
+
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.common.query;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Feeds every SQL statement Hibernate prepares into the open {@link QueryScope}s of the current thread.
+ * Statements are reduced to a shape (literals and IN-lists collapsed) so repeated lookups are recognised
+ * as the same statement.
+ */
+public class QueryBudgetInspector implements StatementInspector {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final double stackSampleRate;
+
+    public QueryBudgetInspector(double stackSampleRate) {
+        this.stackSampleRate = stackSampleRate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (!QueryCounter.isActive()) {
+            return sql;
+        }
+
+        String shape = shapeOf(sql);
+        for (QueryScope scope : QueryCounter.scopes()) {
+            String violation = scope.record(shape);
+            if (violation == null) {
+                continue;
+            }
+            if (scope.isFailFast()) {
+                throw new QueryBudgetExceededException(violation);
+            }
+            if (ThreadLocalRandom.current().nextDouble() < stackSampleRate) {
+                scope.sampleStack(new Throwable(violation));
+            }
+        }
+        return sql;
+    }
+
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
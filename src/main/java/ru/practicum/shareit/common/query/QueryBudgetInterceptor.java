@@ -0,0 +1,78 @@
+package ru.practicum.shareit.common.query;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Opens a {@link QueryScope} per controller call with the budget configured for that endpoint and reports
+ * the outcome as {@code shareit.db.statements} / {@code shareit.db.query.budget.violations} metrics.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class QueryBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".scope";
+
+    private final QueryBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        String endpoint = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        int budget = properties.getEndpoints().getOrDefault(endpoint, properties.getDefaultMaxStatements());
+
+        QueryScope scope = new QueryScope(endpoint, budget, properties.getRepeatedShapeThreshold(),
+                properties.getMode() == QueryBudgetProperties.Mode.FAIL);
+        request.setAttribute(SCOPE_ATTRIBUTE, QueryCounter.open(scope));
+        return true;
+    }
+
+    /**
+     * An async handler finishes on another thread and comes back through {@link #preHandle} on the async
+     * dispatch, so the scope opened on this thread is dropped here.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        if (request.getAttribute(SCOPE_ATTRIBUTE) instanceof QueryScope) {
+            QueryCounter.close();
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(SCOPE_ATTRIBUTE) instanceof QueryScope scope)) {
+            return;
+        }
+        QueryCounter.close();
+
+        DistributionSummary.builder("shareit.db.statements")
+                .tag("endpoint", scope.getName())
+                .register(meterRegistry)
+                .record(scope.getStatements());
+
+        if (scope.getViolation() == null) {
+            return;
+        }
+        Counter.builder("shareit.db.query.budget.violations")
+                .tag("endpoint", scope.getName())
+                .register(meterRegistry)
+                .increment();
+        if (scope.getSampledStack() != null) {
+            log.warn("Query budget violation: {}", scope.getViolation(), scope.getSampledStack());
+        } else {
+            log.warn("Query budget violation: {}", scope.getViolation());
+        }
+    }
+}
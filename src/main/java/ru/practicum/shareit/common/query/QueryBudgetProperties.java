@@ -0,0 +1,41 @@
+package ru.practicum.shareit.common.query;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.query-budget")
+public class QueryBudgetProperties {
+
+    public enum Mode {
+        FAIL,
+        LOG
+    }
+
+    private boolean enabled = true;
+
+    private Mode mode = Mode.LOG;
+
+    /**
+     * Statement budget for endpoints without an explicit entry in {@link #endpoints}.
+     */
+    private int defaultMaxStatements = 30;
+
+    /**
+     * How many times the same statement shape may run within one request before it is reported as N+1.
+     */
+    private int repeatedShapeThreshold = 10;
+
+    /**
+     * Share of violations logged with a stack trace in {@link Mode#LOG} mode.
+     */
+    private double stackSampleRate = 0.1;
+
+    /**
+     * Per-endpoint budgets keyed by {@code ControllerSimpleName.method}, e.g. {@code ItemController.getAllByOwner}.
+     */
+    private Map<String, Integer> endpoints = new HashMap<>();
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.common.query;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Thread-bound stack of {@link QueryScope}s fed by {@link QueryBudgetInspector}. Scopes nest, so a test can
+ * count statements around a whole MockMvc call while the request keeps its own budget.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Deque<QueryScope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private QueryCounter() {
+    }
+
+    public static QueryScope open(QueryScope scope) {
+        SCOPES.get().push(scope);
+        return scope;
+    }
+
+    public static QueryScope close() {
+        Deque<QueryScope> scopes = SCOPES.get();
+        QueryScope scope = scopes.poll();
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+        return scope;
+    }
+
+    static Deque<QueryScope> scopes() {
+        return SCOPES.get();
+    }
+
+    static boolean isActive() {
+        Deque<QueryScope> scopes = SCOPES.get();
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.common.query;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statement statistics of one unit of work, usually an HTTP request. Not thread-safe: a scope is only
+ * touched by the thread that opened it.
+ */
+@Getter
+public class QueryScope {
+
+    private final String name;
+    private final int maxStatements;
+    private final int repeatedShapeThreshold;
+    private final boolean failFast;
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    private int statements;
+    private String violation;
+    private Throwable sampledStack;
+
+    public QueryScope(String name, int maxStatements, int repeatedShapeThreshold, boolean failFast) {
+        this.name = name;
+        this.maxStatements = maxStatements;
+        this.repeatedShapeThreshold = repeatedShapeThreshold;
+        this.failFast = failFast;
+    }
+
+    public static QueryScope unbounded(String name) {
+        return new QueryScope(name, Integer.MAX_VALUE, Integer.MAX_VALUE, false);
+    }
+
+    /**
+     * Records a statement and returns a description of the violation it causes, or {@code null}.
+     * Only the first violation of a scope is reported.
+     */
+    String record(String shape) {
+        statements++;
+        int repeats = shapes.merge(shape, 1, Integer::sum);
+        if (violation != null) {
+            return null;
+        }
+        if (statements > maxStatements) {
+            violation = "statement budget exceeded: " + statements + " > " + maxStatements + " in " + name;
+        } else if (repeats > repeatedShapeThreshold) {
+            violation = "possible N+1: same statement ran " + repeats + " times in " + name + ": " + shape;
+        }
+        return violation;
+    }
+
+    void sampleStack(Throwable stack) {
+        this.sampledStack = stack;
+    }
+
+    public int getDistinctShapes() {
+        return shapes.size();
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,10 +12,20 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.common.BulkResultDto;
+import ru.practicum.shareit.common.idempotency.IdempotencyStore;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemFields;
+import ru.practicum.shareit.item.dto.ItemStatsDto;
+import ru.practicum.shareit.item.service.ItemAvailabilityService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.ItemStatsService;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -24,12 +35,20 @@ public class ItemController {
 
     public static final String USER_ID_HEADER = "X-Sharer-User-Id";
 
+    private static final Duration DEFAULT_AVAILABILITY_WINDOW = Duration.ofDays(14);
+    private static final int DEFAULT_STATS_WINDOW_DAYS = 30;
+
     private final ItemService itemService;
+    private final ItemAvailabilityService availabilityService;
+    private final IdempotencyStore idempotencyStore;
+    private final ItemStatsService statsService;
 
     @PostMapping
     public ItemDto create(@RequestHeader(USER_ID_HEADER) long userId,
+                          @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey,
                           @Valid @RequestBody ItemDto itemDto) {
-        return itemService.create(userId, itemDto);
+        return idempotencyStore.execute(userId, "item.create", idempotencyKey, itemDto,
+                () -> itemService.create(userId, itemDto));
     }
 
     @PatchMapping("/{itemId}")
@@ -41,13 +60,39 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemDto getById(@RequestHeader(USER_ID_HEADER) long userId,
-                           @PathVariable long itemId) {
-        return itemService.getById(userId, itemId);
+                           @PathVariable long itemId,
+                           @RequestParam(required = false) String fields) {
+        return itemService.getById(userId, itemId, ItemFields.parse(fields));
     }
 
     @GetMapping
-    public List<ItemDto> getAllByOwner(@RequestHeader(USER_ID_HEADER) long userId) {
-        return itemService.getAllByOwner(userId);
+    public List<ItemDto> getAllByOwner(@RequestHeader(USER_ID_HEADER) long userId,
+                                       @RequestParam(required = false) String fields) {
+        return itemService.getAllByOwner(userId, ItemFields.parse(fields));
+    }
+
+    @GetMapping(params = "ids")
+    public BulkResultDto<ItemDto> getByIds(@RequestHeader(USER_ID_HEADER) long userId,
+                                           @RequestParam List<Long> ids,
+                                           @RequestParam(required = false) String fields) {
+        return itemService.getByIds(userId, ids, ItemFields.parse(fields));
+    }
+
+    @PostMapping("/batch")
+    public BulkResultDto<ItemDto> getByIdsPost(@RequestHeader(USER_ID_HEADER) long userId,
+                                               @RequestBody List<Long> ids,
+                                               @RequestParam(required = false) String fields) {
+        return itemService.getByIds(userId, ids, ItemFields.parse(fields));
+    }
+
+    @GetMapping("/owner/stats")
+    public List<ItemStatsDto> getOwnerStats(@RequestHeader(USER_ID_HEADER) long userId,
+                                            @RequestParam(required = false)
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false)
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        return statsService.getOwnerStats(userId, from != null ? from : end.minusDays(DEFAULT_STATS_WINDOW_DAYS - 1), end);
     }
 
     @GetMapping("/search")
@@ -56,6 +101,60 @@ public class ItemController {
         return itemService.search(userId, text);
     }
 
+    @GetMapping("/search/suggest")
+    public List<String> suggest(@RequestHeader(USER_ID_HEADER) long userId,
+                                @RequestParam(name = "prefix") String prefix,
+                                @RequestParam(defaultValue = "10") int size) {
+        return itemService.suggest(userId, prefix, size);
+    }
+
+    @GetMapping("/trending")
+    public List<ItemDto> getTrending(@RequestHeader(USER_ID_HEADER) long userId,
+                                     @RequestParam(defaultValue = "10") int size) {
+        return itemService.getTrending(userId, size);
+    }
+
+    @GetMapping("/{itemId}/related")
+    public List<ItemDto> getRelated(@RequestHeader(USER_ID_HEADER) long userId,
+                                    @PathVariable long itemId,
+                                    @RequestParam(defaultValue = "10") int size) {
+        return itemService.getRelated(userId, itemId, size);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public List<CommentDto> getComments(@RequestHeader(USER_ID_HEADER) long userId,
+                                        @PathVariable long itemId,
+                                        @RequestParam(required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreated,
+                                        @RequestParam(required = false) Long beforeId,
+                                        @RequestParam(defaultValue = "20") int size) {
+        return itemService.getComments(userId, itemId, beforeCreated, beforeId, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@RequestHeader(USER_ID_HEADER) long userId,
+                                               @PathVariable long itemId,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        return availabilityService.getAvailability(userId, itemId, start,
+                to != null ? to : start.plus(DEFAULT_AVAILABILITY_WINDOW));
+    }
+
+    @GetMapping("/availability")
+    public List<ItemAvailabilityDto> getAvailability(@RequestHeader(USER_ID_HEADER) long userId,
+                                                     @RequestParam List<Long> ids,
+                                                     @RequestParam(required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                     @RequestParam(required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        return availabilityService.getAvailability(userId, ids, start,
+                to != null ? to : start.plus(DEFAULT_AVAILABILITY_WINDOW));
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(@RequestHeader(USER_ID_HEADER) long userId,
                                  @PathVariable long itemId,
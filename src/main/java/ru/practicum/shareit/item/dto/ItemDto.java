@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,7 +14,10 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(ItemDto.FIELDS_FILTER)
 public class ItemDto {
+    public static final String FIELDS_FILTER = "itemFields";
+
     private Long id;
 
     @NotBlank(message = "name must not be blank")
@@ -33,4 +37,6 @@ public class ItemDto {
     private BookingShortDto nextBooking;
 
     private List<CommentDto> comments;
+
+    private Long commentCount;
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum ItemField {
+    ID("id"),
+    NAME("name"),
+    DESCRIPTION("description"),
+    AVAILABLE("available"),
+    OWNER_ID("ownerId"),
+    REQUEST_ID("requestId"),
+    LAST_BOOKING("lastBooking"),
+    NEXT_BOOKING("nextBooking"),
+    COMMENTS("comments"),
+    COMMENT_COUNT("commentCount");
+
+    private final String jsonName;
+}
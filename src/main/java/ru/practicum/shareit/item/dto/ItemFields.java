@@ -0,0 +1,58 @@
+package ru.practicum.shareit.item.dto;
+
+import ru.practicum.shareit.common.ValidationException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fields requested through the {@code fields=} parameter of item endpoints. {@link #ALL} keeps the full
+ * response; a narrower set lets the service skip enrichment stages and the serializer skip properties.
+ */
+public final class ItemFields {
+
+    public static final ItemFields ALL = new ItemFields(EnumSet.allOf(ItemField.class));
+
+    private static final Map<String, ItemField> BY_JSON_NAME = Arrays.stream(ItemField.values())
+            .collect(Collectors.toMap(ItemField::getJsonName, Function.identity()));
+
+    private final Set<ItemField> fields;
+
+    private ItemFields(Set<ItemField> fields) {
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+
+    public static ItemFields parse(String value) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+        Set<ItemField> fields = EnumSet.noneOf(ItemField.class);
+        for (String name : value.split(",")) {
+            ItemField field = BY_JSON_NAME.get(name.trim());
+            if (field == null) {
+                throw new ValidationException("Unknown item field: " + name.trim());
+            }
+            fields.add(field);
+        }
+        return new ItemFields(fields);
+    }
+
+    public boolean has(ItemField field) {
+        return fields.contains(field);
+    }
+
+    public boolean isAll() {
+        return fields.size() == ItemField.values().length;
+    }
+
+    public Set<String> jsonNames() {
+        return fields.stream()
+                .map(ItemField::getJsonName)
+                .collect(Collectors.toSet());
+    }
+}
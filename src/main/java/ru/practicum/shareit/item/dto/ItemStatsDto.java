@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemStatsDto {
+    private Long itemId;
+
+    private String name;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private double bookedHours;
+
+    private double utilization;
+
+    private long approvedCount;
+
+    private long rejectedCount;
+
+    private Double approvalRate;
+}
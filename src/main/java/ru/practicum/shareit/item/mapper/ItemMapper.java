@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.mapper;
 
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSummary;
 
 public final class ItemMapper {
 
@@ -17,7 +18,23 @@ public final class ItemMapper {
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
+                .ownerId(item.getOwner() != null ? item.getOwner().getId() : null)
                 .requestId(item.getRequestId())
+                .commentCount(item.getCommentCount())
+                .build();
+    }
+
+    public static ItemDto toDto(ItemSummary summary) {
+        if (summary == null) {
+            return null;
+        }
+        return ItemDto.builder()
+                .id(summary.id())
+                .name(summary.name())
+                .available(summary.available())
+                .ownerId(summary.ownerId())
+                .requestId(summary.requestId())
+                .commentCount(summary.commentCount())
                 .build();
     }
 
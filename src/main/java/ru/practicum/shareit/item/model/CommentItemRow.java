@@ -0,0 +1,4 @@
+package ru.practicum.shareit.item.model;
+
+public record CommentItemRow(Long id, Long itemId) {
+}
@@ -41,4 +41,7 @@ public class Item {
 
     @Column(name = "request_id")
     private Long requestId;
+
+    @Column(name = "comment_count", nullable = false, insertable = false, updatable = false)
+    private long commentCount;
 }
\ No newline at end of file
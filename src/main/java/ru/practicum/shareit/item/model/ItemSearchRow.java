@@ -0,0 +1,4 @@
+package ru.practicum.shareit.item.model;
+
+public record ItemSearchRow(Long id, String name, String description) {
+}
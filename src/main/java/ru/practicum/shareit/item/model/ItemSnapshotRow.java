@@ -0,0 +1,4 @@
+package ru.practicum.shareit.item.model;
+
+public record ItemSnapshotRow(Long id, Long ownerId, Boolean available) {
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.item.model;
+
+import java.time.LocalDate;
+
+public record ItemStatsRow(Long itemId, LocalDate statDate, Long bookedMinutes, Long approved, Long rejected) {
+}
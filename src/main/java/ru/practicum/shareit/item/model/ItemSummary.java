@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item.model;
+
+/**
+ * Narrow projection of an item row for responses that do not ask for the description.
+ */
+public record ItemSummary(Long id, String name, Boolean available, Long ownerId, Long requestId,
+                          long commentCount) {
+}
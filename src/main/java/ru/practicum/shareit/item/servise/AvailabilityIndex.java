@@ -0,0 +1,154 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-item hourly busy bitmaps over a rolling horizon that starts at today's midnight. Calendars are built
+ * lazily from approved bookings, a whole batch of items per query, and patched in place on approval.
+ * Bits are never cleared in place, since another booking may cover the same hours; when an approved
+ * booking is deleted its item's calendar is evicted instead and rebuilt on next access. A calendar whose
+ * origin is no longer today is rebuilt on next access too.
+ */
+@Component
+public class AvailabilityIndex {
+
+    private final BookingRepository bookingRepository;
+    private final int horizonHours;
+    private final Cache<Long, ItemCalendar> cache;
+    private final AtomicLong changes = new AtomicLong();
+
+    public AvailabilityIndex(BookingRepository bookingRepository,
+                             @Value("${shareit.item.availability.horizon-days:90}") int horizonDays,
+                             @Value("${shareit.item.availability.max-items:100000}") long maxItems) {
+        this.bookingRepository = bookingRepository;
+        this.horizonHours = horizonDays * 24;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .build();
+    }
+
+    /**
+     * Returns calendars covering {@code [fromHour, toHour)} for every given item. Windows inside the rolling
+     * horizon are served from the index; anything else is computed for the exact window and not cached.
+     */
+    public Map<Long, ItemCalendar> getCalendars(Collection<Long> itemIds, long fromHour, long toHour) {
+        long originHour = currentOriginHour();
+        if (fromHour < originHour || toHour > originHour + horizonHours) {
+            return build(itemIds, fromHour, (int) (toHour - fromHour));
+        }
+
+        Map<Long, ItemCalendar> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            ItemCalendar calendar = cache.getIfPresent(itemId);
+            if (calendar != null && calendar.getOriginHour() == originHour) {
+                result.put(itemId, calendar);
+            } else {
+                missing.add(itemId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long epoch = changes.get();
+            Map<Long, ItemCalendar> built = build(missing, originHour, horizonHours);
+            cache.putAll(built);
+            if (changes.get() != epoch) {
+                // an approval or deletion committed while we were reading and may be missing from the fresh calendars
+                cache.invalidateAll(built.keySet());
+            }
+            result.putAll(built);
+        }
+        return result;
+    }
+
+    /**
+     * Seeds the index with calendars built elsewhere, e.g. from a snapshot at startup. {@code epoch} is the
+     * {@link #changeEpoch()} read before the calendars were built; if an approval or deletion committed since
+     * then the seeded calendars are dropped and rebuilt lazily. Returns the number of calendars taken.
+     */
+    public int warm(Map<Long, ItemCalendar> calendars, long epoch) {
+        long originHour = currentOriginHour();
+        int loaded = 0;
+        for (Map.Entry<Long, ItemCalendar> entry : calendars.entrySet()) {
+            if (entry.getValue().getOriginHour() == originHour
+                    && cache.asMap().putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+                loaded++;
+            }
+        }
+        if (changes.get() != epoch) {
+            cache.invalidateAll(calendars.keySet());
+            return 0;
+        }
+        return loaded;
+    }
+
+    public long changeEpoch() {
+        return changes.get();
+    }
+
+    public long currentOriginHour() {
+        return ItemCalendar.floorHour(LocalDate.now().atStartOfDay());
+    }
+
+    public int getHorizonHours() {
+        return horizonHours;
+    }
+
+    public void markBusyAfterCommit(long itemId, LocalDateTime start, LocalDateTime end) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            markBusy(itemId, start, end);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                markBusy(itemId, start, end);
+            }
+        });
+    }
+
+    /**
+     * Drops the item's calendar after an approved booking of it was deleted, or the item itself. Call it after
+     * the deletion committed.
+     */
+    public void evict(long itemId) {
+        changes.incrementAndGet();
+        cache.invalidate(itemId);
+    }
+
+    private void markBusy(long itemId, LocalDateTime start, LocalDateTime end) {
+        changes.incrementAndGet();
+        ItemCalendar calendar = cache.getIfPresent(itemId);
+        if (calendar != null) {
+            calendar.markBusy(start, end);
+        }
+    }
+
+    private Map<Long, ItemCalendar> build(Collection<Long> itemIds, long originHour, int hours) {
+        Map<Long, ItemCalendar> calendars = new HashMap<>();
+        for (Long itemId : itemIds) {
+            calendars.put(itemId, new ItemCalendar(originHour, hours));
+        }
+        List<BookingInterval> intervals = bookingRepository.findApprovedIntervals(itemIds,
+                ItemCalendar.hourStart(originHour), ItemCalendar.hourStart(originHour + hours));
+        for (BookingInterval interval : intervals) {
+            calendars.get(interval.itemId()).markBusy(interval.start(), interval.end());
+        }
+        return calendars;
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.item.service;
+
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongComparator;
+import it.unimi.dsi.fastutil.longs.LongHeapPriorityQueue;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import java.util.List;
+
+/**
+ * Sparse symmetric item-item matrix: for every item, how many bookers have approved bookings of both it and
+ * each neighbour. Rows are capped: once a row grows past twice the limit, a min-heap keeps only the
+ * {@code maxNeighbours} strongest entries, so a pruned neighbour that comes back restarts from one.
+ * Not thread-safe; {@link CoBookingIndex} guards it.
+ */
+final class CoBookingCounts {
+
+    private final Long2ObjectOpenHashMap<Long2IntOpenHashMap> rows = new Long2ObjectOpenHashMap<>();
+    private final int maxNeighbours;
+
+    CoBookingCounts(int maxNeighbours) {
+        this.maxNeighbours = maxNeighbours;
+    }
+
+    /**
+     * Counts a booker who already had {@code history} and now also has {@code itemId}.
+     */
+    void addPairs(long itemId, LongSet history) {
+        for (LongIterator it = history.iterator(); it.hasNext(); ) {
+            long other = it.nextLong();
+            if (other != itemId) {
+                increment(itemId, other, 1);
+                increment(other, itemId, 1);
+            }
+        }
+    }
+
+    /**
+     * Uncounts a booker who had all of {@code items}. Pairs pruned from a row in the meantime are skipped.
+     */
+    void removePairs(LongSet items) {
+        long[] ids = items.toLongArray();
+        for (int i = 0; i < ids.length; i++) {
+            for (int j = i + 1; j < ids.length; j++) {
+                decrement(ids[i], ids[j]);
+                decrement(ids[j], ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Uncounts {@code itemId}'s pairs with {@code history}, the reverse of {@link #addPairs}.
+     */
+    void removePairs(long itemId, LongSet history) {
+        for (LongIterator it = history.iterator(); it.hasNext(); ) {
+            long other = it.nextLong();
+            if (other != itemId) {
+                decrement(itemId, other);
+                decrement(other, itemId);
+            }
+        }
+    }
+
+    void merge(CoBookingCounts other) {
+        for (Long2ObjectMap.Entry<Long2IntOpenHashMap> row : other.rows.long2ObjectEntrySet()) {
+            for (Long2IntMap.Entry cell : row.getValue().long2IntEntrySet()) {
+                increment(row.getLongKey(), cell.getLongKey(), cell.getIntValue());
+            }
+        }
+    }
+
+    List<Long> top(long itemId, int limit) {
+        Long2IntOpenHashMap row = rows.get(itemId);
+        if (row == null) {
+            return List.of();
+        }
+        LongArrayList neighbours = new LongArrayList(row.keySet());
+        LongComparator strongestFirst = (a, b) -> {
+            int byCount = Integer.compare(row.get(b), row.get(a));
+            return byCount != 0 ? byCount : Long.compare(a, b);
+        };
+        neighbours.sort(strongestFirst);
+        return List.copyOf(neighbours.subList(0, Math.min(limit, neighbours.size())));
+    }
+
+    int size() {
+        return rows.size();
+    }
+
+    private void increment(long itemId, long other, int by) {
+        Long2IntOpenHashMap row = rows.get(itemId);
+        if (row == null) {
+            row = new Long2IntOpenHashMap();
+            rows.put(itemId, row);
+        }
+        row.addTo(other, by);
+        if (row.size() > 2 * maxNeighbours) {
+            prune(row);
+        }
+    }
+
+    private void decrement(long itemId, long other) {
+        Long2IntOpenHashMap row = rows.get(itemId);
+        if (row == null || !row.containsKey(other)) {
+            return;
+        }
+        if (row.addTo(other, -1) <= 1) {
+            row.remove(other);
+            if (row.isEmpty()) {
+                rows.remove(itemId);
+            }
+        }
+    }
+
+    private void prune(Long2IntOpenHashMap row) {
+        LongComparator weakestFirst = (a, b) -> {
+            int byCount = Integer.compare(row.get(a), row.get(b));
+            return byCount != 0 ? byCount : Long.compare(b, a);
+        };
+        LongHeapPriorityQueue heap = new LongHeapPriorityQueue(maxNeighbours + 1, weakestFirst);
+        for (LongIterator it = row.keySet().iterator(); it.hasNext(); ) {
+            heap.enqueue(it.nextLong());
+            if (heap.size() > maxNeighbours) {
+                heap.dequeueLong();
+            }
+        }
+        Long2IntOpenHashMap kept = new Long2IntOpenHashMap(maxNeighbours);
+        while (!heap.isEmpty()) {
+            long neighbour = heap.dequeueLong();
+            kept.put(neighbour, row.get(neighbour));
+        }
+        row.clear();
+        row.putAll(kept);
+        row.trim();
+    }
+}
@@ -0,0 +1,182 @@
+package ru.practicum.shareit.item.service;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "Frequently booked together": item-item co-occurrence over bookers' approved bookings, kept in memory.
+ * Every approval of an item new to the booker pairs it with the booker's earlier items; a full rebuild
+ * ({@link CoBookingRebuildJob}) replaces the whole index, and approvals that commit while it runs are
+ * replayed on top of the result, as are bookers removed meanwhile. Only a booker's first {@code max-history}
+ * items form the window later items are paired with; items past it are paired with the window but only
+ * remembered, so that approving one of them again does not count its pairs twice.
+ */
+@Component
+public class CoBookingIndex {
+
+    private final int maxNeighbours;
+    private final int maxHistory;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Long2ObjectOpenHashMap<BookerHistory> histories = new Long2ObjectOpenHashMap<>();
+    private CoBookingCounts counts;
+    private List<Runnable> duringRebuild;
+
+    public CoBookingIndex(@Value("${shareit.item.related.max-neighbours:50}") int maxNeighbours,
+                          @Value("${shareit.item.related.max-history:200}") int maxHistory) {
+        this.maxNeighbours = maxNeighbours;
+        this.maxHistory = maxHistory;
+        this.counts = new CoBookingCounts(maxNeighbours);
+    }
+
+    public List<Long> getRelated(long itemId, int limit) {
+        lock.readLock().lock();
+        try {
+            return counts.top(itemId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void recordApprovalAfterCommit(long bookerId, long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordApproval(bookerId, itemId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordApproval(bookerId, itemId);
+            }
+        });
+    }
+
+    int getMaxNeighbours() {
+        return maxNeighbours;
+    }
+
+    int getMaxHistory() {
+        return maxHistory;
+    }
+
+    /**
+     * Starts collecting approvals and removals so that {@link #replace} can replay the ones its input may have
+     * missed.
+     */
+    void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            duringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void cancelRebuild() {
+        lock.writeLock().lock();
+        try {
+            duringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void replace(Long2ObjectOpenHashMap<BookerHistory> newHistories, CoBookingCounts newCounts) {
+        lock.writeLock().lock();
+        try {
+            histories = newHistories;
+            counts = newCounts;
+            if (duringRebuild != null) {
+                duringRebuild.forEach(Runnable::run);
+                duringRebuild = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void recordApproval(long bookerId, long itemId) {
+        lock.writeLock().lock();
+        try {
+            if (duringRebuild != null) {
+                duringRebuild.add(() -> recordLocked(bookerId, itemId));
+            }
+            recordLocked(bookerId, itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets a booker whose bookings have been deleted, taking their pairs out of the counts.
+     */
+    public void removeBooker(long bookerId) {
+        lock.writeLock().lock();
+        try {
+            if (duringRebuild != null) {
+                duringRebuild.add(() -> removeLocked(bookerId));
+            }
+            removeLocked(bookerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(long bookerId) {
+        BookerHistory history = histories.remove(bookerId);
+        if (history != null) {
+            history.uncount(counts);
+        }
+    }
+
+    private void recordLocked(long bookerId, long itemId) {
+        BookerHistory history = histories.get(bookerId);
+        if (history == null) {
+            history = new BookerHistory();
+            histories.put(bookerId, history);
+        }
+        history.add(itemId, maxHistory, counts);
+    }
+
+    /**
+     * The items one booker has approved bookings of: the capped window that new items are paired with, and
+     * the items past the cap, which were paired with the window but are not paired with anything later.
+     */
+    static final class BookerHistory {
+
+        private final LongOpenHashSet window = new LongOpenHashSet();
+        private final LongOpenHashSet overflow = new LongOpenHashSet();
+
+        /**
+         * Counts {@code itemId}'s pairs with the window unless the booker already had it.
+         */
+        void add(long itemId, int maxHistory, CoBookingCounts counts) {
+            if (window.contains(itemId) || overflow.contains(itemId)) {
+                return;
+            }
+            counts.addPairs(itemId, window);
+            if (window.size() < maxHistory) {
+                window.add(itemId);
+            } else {
+                overflow.add(itemId);
+            }
+        }
+
+        void uncount(CoBookingCounts counts) {
+            counts.removePairs(window);
+            for (LongIterator it = overflow.iterator(); it.hasNext(); ) {
+                counts.removePairs(it.nextLong(), window);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.item.service;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongAVLTreeSet;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongSortedSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookerItemRow;
+import ru.practicum.shareit.booking.storage.BookingArchiveRepository;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds {@link CoBookingIndex} from all approved bookings, hot and archived. Bookers are split
+ * recursively on a dedicated {@link ForkJoinPool}; each leaf loads its bookers' item sets and counts
+ * their pairs, and partial matrices are merged on the way up. Items are paired in id order, so the ones past
+ * a booker's {@code max-history} are the highest ids.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.item.related.enabled", havingValue = "true", matchIfMissing = true)
+public class CoBookingRebuildJob {
+
+    private record Partial(Long2ObjectOpenHashMap<CoBookingIndex.BookerHistory> histories, CoBookingCounts counts) {
+    }
+
+    private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository archiveRepository;
+    private final CoBookingIndex index;
+    private final int parallelism;
+    private final int leafSize;
+
+    public CoBookingRebuildJob(BookingRepository bookingRepository,
+                               BookingArchiveRepository archiveRepository,
+                               CoBookingIndex index,
+                               @Value("${shareit.item.related.rebuild.parallelism:4}") int parallelism,
+                               @Value("${shareit.item.related.rebuild.leaf-size:500}") int leafSize) {
+        this.bookingRepository = bookingRepository;
+        this.archiveRepository = archiveRepository;
+        this.index = index;
+        this.parallelism = parallelism;
+        this.leafSize = leafSize;
+    }
+
+    /**
+     * Builds the index in the background so that startup does not wait for it; until it finishes, related
+     * items come only from approvals made since the start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        Thread.ofPlatform().name("co-booking-rebuild").daemon().start(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Co-booking index rebuild on startup failed", e);
+            }
+        });
+    }
+
+    @Scheduled(cron = "${shareit.item.related.rebuild.cron:0 45 4 * * *}")
+    public void run() {
+        rebuild();
+    }
+
+    public int rebuild() {
+        long started = System.nanoTime();
+        index.beginRebuild();
+        Partial result;
+        long[] bookerIds;
+        try {
+            bookerIds = Stream.concat(bookingRepository.findApprovedBookerIds().stream(),
+                            archiveRepository.findApprovedBookerIds().stream())
+                    .mapToLong(Long::longValue)
+                    .distinct()
+                    .toArray();
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                result = pool.invoke(new CountTask(bookerIds, 0, bookerIds.length));
+            } finally {
+                pool.shutdown();
+            }
+        } catch (RuntimeException e) {
+            index.cancelRebuild();
+            throw e;
+        }
+
+        index.replace(result.histories(), result.counts());
+        log.info("Co-booking index rebuilt: bookers={}, items={}, parallelism={}, took={}ms", bookerIds.length,
+                result.counts().size(), parallelism, (System.nanoTime() - started) / 1_000_000);
+        return result.counts().size();
+    }
+
+    private final class CountTask extends RecursiveTask<Partial> {
+
+        private final long[] bookerIds;
+        private final int from;
+        private final int to;
+
+        private CountTask(long[] bookerIds, int from, int to) {
+            this.bookerIds = bookerIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= leafSize) {
+                return count();
+            }
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(bookerIds, from, middle);
+            left.fork();
+            Partial right = new CountTask(bookerIds, middle, to).compute();
+            Partial merged = left.join();
+            merged.histories().putAll(right.histories());
+            merged.counts().merge(right.counts());
+            return merged;
+        }
+
+        private Partial count() {
+            Partial partial = new Partial(new Long2ObjectOpenHashMap<>(),
+                    new CoBookingCounts(index.getMaxNeighbours()));
+            if (from == to) {
+                return partial;
+            }
+            List<Long> chunk = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                chunk.add(bookerIds[i]);
+            }
+
+            Long2ObjectOpenHashMap<LongSortedSet> itemsByBooker = new Long2ObjectOpenHashMap<>();
+            Stream.concat(bookingRepository.findApprovedItemRowsByBookerIdIn(chunk).stream(),
+                            archiveRepository.findApprovedItemRowsByBookerIdIn(chunk).stream())
+                    .forEach((BookerItemRow row) -> {
+                        LongSortedSet items = itemsByBooker.get(row.bookerId().longValue());
+                        if (items == null) {
+                            items = new LongAVLTreeSet();
+                            itemsByBooker.put(row.bookerId().longValue(), items);
+                        }
+                        items.add(row.itemId().longValue());
+                    });
+
+            int maxHistory = index.getMaxHistory();
+            for (Long2ObjectMap.Entry<LongSortedSet> entry : itemsByBooker.long2ObjectEntrySet()) {
+                CoBookingIndex.BookerHistory history = new CoBookingIndex.BookerHistory();
+                for (LongIterator it = entry.getValue().iterator(); it.hasNext(); ) {
+                    history.add(it.nextLong(), maxHistory, partial.counts());
+                }
+                partial.histories().put(entry.getLongKey(), history);
+            }
+            return partial;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemAvailabilityService {
+    ItemAvailabilityDto getAvailability(long requesterId, long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<ItemAvailabilityDto> getAvailability(long requesterId, List<Long> itemIds, LocalDateTime from, LocalDateTime to);
+}
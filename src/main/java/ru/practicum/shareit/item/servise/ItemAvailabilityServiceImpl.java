@@ -0,0 +1,136 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.NotFoundException;
+import ru.practicum.shareit.common.ValidationException;
+import ru.practicum.shareit.common.datasource.shard.ShardKey;
+import ru.practicum.shareit.common.datasource.shard.ShardRouter;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemAvailabilityServiceImpl implements ItemAvailabilityService {
+
+    private static final Duration MAX_WINDOW = Duration.ofDays(366);
+    private static final int MAX_ITEMS = 100;
+
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final ShardRouter shardRouter;
+
+    @Override
+    public ItemAvailabilityDto getAvailability(long requesterId, @ShardKey(ShardKey.Kind.ENTITY_ID) long itemId,
+                                               LocalDateTime from, LocalDateTime to) {
+        getUserOrThrow(requesterId);
+        validateWindow(from, to);
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Item not found: " + itemId);
+        }
+
+        return toDto(itemId, from, to, availabilityIndex.getCalendars(List.of(itemId),
+                ItemCalendar.floorHour(from), ItemCalendar.ceilHour(to)).get(itemId));
+    }
+
+    @Override
+    public List<ItemAvailabilityDto> getAvailability(long requesterId, List<Long> itemIds,
+                                                     LocalDateTime from, LocalDateTime to) {
+        getUserOrThrow(requesterId);
+        validateWindow(from, to);
+        if (itemIds == null || itemIds.isEmpty()) {
+            return List.of();
+        }
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(itemIds));
+        if (distinct.size() > MAX_ITEMS) {
+            throw new ValidationException("at most " + MAX_ITEMS + " items per request");
+        }
+
+        // every shard checks and builds the calendars of its own items
+        Map<Long, ItemAvailabilityDto> found = shardRouter.byIdShards(distinct, ids -> {
+                    List<Long> existing = itemRepository.findExistingIds(ids);
+                    Map<Long, ItemCalendar> calendars = availabilityIndex.getCalendars(existing,
+                            ItemCalendar.floorHour(from), ItemCalendar.ceilHour(to));
+                    return existing.stream()
+                            .map(itemId -> toDto(itemId, from, to, calendars.get(itemId)))
+                            .toList();
+                })
+                .stream()
+                .collect(Collectors.toMap(ItemAvailabilityDto::getItemId, Function.identity()));
+
+        List<ItemAvailabilityDto> result = distinct.stream()
+                .filter(found::containsKey)
+                .map(found::get)
+                .toList();
+        log.debug("Availability: requesterId={}, requested={}, found={}", requesterId, distinct.size(), result.size());
+        return result;
+    }
+
+    private ItemAvailabilityDto toDto(long itemId, LocalDateTime from, LocalDateTime to, ItemCalendar calendar) {
+        List<ItemAvailabilityDto.RangeDto> ranges = new ArrayList<>();
+        long lastHour = ItemCalendar.ceilHour(to);
+        long rangeStart = ItemCalendar.floorHour(from);
+        boolean busy = calendar.isBusy(rangeStart);
+
+        for (long hour = rangeStart + 1; hour <= lastHour; hour++) {
+            boolean hourBusy = hour < lastHour && calendar.isBusy(hour);
+            if (hour == lastHour || hourBusy != busy) {
+                ranges.add(ItemAvailabilityDto.RangeDto.builder()
+                        .start(max(ItemCalendar.hourStart(rangeStart), from))
+                        .end(min(ItemCalendar.hourStart(hour), to))
+                        .free(!busy)
+                        .build());
+                rangeStart = hour;
+                busy = hourBusy;
+            }
+        }
+
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .ranges(ranges)
+                .build();
+    }
+
+    private void validateWindow(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new ValidationException("from/to must not be null");
+        }
+        if (!to.isAfter(from)) {
+            throw new ValidationException("to must be after from");
+        }
+        if (Duration.between(from, to).compareTo(MAX_WINDOW) > 0) {
+            throw new ValidationException("availability window must not exceed " + MAX_WINDOW.toDays() + " days");
+        }
+    }
+
+    private void getUserOrThrow(long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User not found: " + userId);
+        }
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.common.datasource.shard.ShardRouter;
+import ru.practicum.shareit.common.jfr.CacheAccessEvent;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of plain item views (no bookings or comments). Callers always get a fresh copy, so enriching the
+ * returned DTO never leaks into the cache.
+ * <p>
+ * A load that read a row before an update committed may finish after the update's eviction; such loads are
+ * dropped again when an eviction happened while they ran, and {@code ttl} bounds whatever still slips through.
+ */
+@Component
+public class ItemCache {
+
+    private final ItemRepository itemRepository;
+    private final ShardRouter shardRouter;
+    private final Cache<Long, ItemDto> cache;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ItemCache(ItemRepository itemRepository,
+                     ShardRouter shardRouter,
+                     @Value("${shareit.item.cache.max-size:50000}") long maxSize,
+                     @Value("${shareit.item.cache.ttl:PT10M}") Duration ttl) {
+        this.itemRepository = itemRepository;
+        this.shardRouter = shardRouter;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Returns items for the given ids in the same order; ids that no longer exist are skipped.
+     * Missing entries are loaded with a single query per shard.
+     */
+    public List<ItemDto> getAll(List<Long> ids) {
+        int[] misses = {0};
+        List<Long> loaded = new ArrayList<>();
+        long evictionsBefore = evictions.get();
+        Map<Long, ItemDto> found = cache.getAll(ids, missing -> {
+            misses[0] = missing.size();
+            loaded.addAll(missing);
+            return load(missing);
+        });
+        if (!loaded.isEmpty() && evictions.get() != evictionsBefore) {
+            cache.invalidateAll(loaded);
+        }
+        CacheAccessEvent.record("item", ids.size(), misses[0]);
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .map(ItemCache::copy)
+                .toList();
+    }
+
+    public void evictAfterCommit(long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(itemId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(itemId);
+            }
+        });
+    }
+
+    private void evict(long itemId) {
+        evictions.incrementAndGet();
+        cache.invalidate(itemId);
+    }
+
+    private Map<Long, ItemDto> load(Set<? extends Long> ids) {
+        return shardRouter.byIdShards(List.<Long>copyOf(ids), itemRepository::findAllWithOwnerByIdIn).stream()
+                .collect(Collectors.toMap(Item::getId, ItemMapper::toDto));
+    }
+
+    private static ItemDto copy(ItemDto dto) {
+        return ItemDto.builder()
+                .id(dto.getId())
+                .name(dto.getName())
+                .description(dto.getDescription())
+                .available(dto.getAvailable())
+                .ownerId(dto.getOwnerId())
+                .requestId(dto.getRequestId())
+                .commentCount(dto.getCommentCount())
+                .build();
+    }
+}
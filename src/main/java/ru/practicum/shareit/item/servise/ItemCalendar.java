@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * One bit per hour for a single item over {@code [originHour, originHour + hours)}; a set bit means an
+ * approved booking overlaps that hour. Bits are only ever set, which keeps concurrent marking lock-free.
+ */
+public class ItemCalendar {
+
+    private static final int SECONDS_PER_HOUR = 3600;
+
+    private final long originHour;
+    private final int hours;
+    private final AtomicLongArray words;
+
+    public ItemCalendar(long originHour, int hours) {
+        this.originHour = originHour;
+        this.hours = hours;
+        this.words = new AtomicLongArray((hours + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    public static long floorHour(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_HOUR);
+    }
+
+    public static long ceilHour(LocalDateTime time) {
+        long floor = floorHour(time);
+        return hourStart(floor).equals(time) ? floor : floor + 1;
+    }
+
+    public static LocalDateTime hourStart(long hour) {
+        return LocalDateTime.ofEpochSecond(hour * SECONDS_PER_HOUR, 0, ZoneOffset.UTC);
+    }
+
+    public long getOriginHour() {
+        return originHour;
+    }
+
+    public long getEndHour() {
+        return originHour + hours;
+    }
+
+    public void markBusy(LocalDateTime start, LocalDateTime end) {
+        long from = Math.max(floorHour(start), originHour);
+        long to = Math.min(ceilHour(end), getEndHour());
+        for (long hour = from; hour < to; hour++) {
+            int index = (int) (hour - originHour);
+            int word = index / Long.SIZE;
+            long mask = 1L << (index % Long.SIZE);
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean isBusy(long hour) {
+        int index = (int) (hour - originHour);
+        return (words.get(index / Long.SIZE) & (1L << (index % Long.SIZE))) != 0;
+    }
+}
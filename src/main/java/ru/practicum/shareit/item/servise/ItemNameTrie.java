@@ -0,0 +1,153 @@
+package ru.practicum.shareit.item.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Prefix trie over item names for autocomplete. Each name is inserted once per word start, so "dr" finds
+ * both "Drill" and "Cordless drill". Children are kept in sorted parallel arrays instead of maps, and a
+ * terminal node counts how many items carry each display name. Not thread-safe; callers guard it.
+ */
+final class ItemNameTrie {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final class Node {
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private TreeMap<String, Integer> names;
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            Node node = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = key;
+            newChildren[insertAt] = node;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+
+        private void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys.length == 0 ? NO_KEYS : newKeys;
+            children = newChildren.length == 0 ? NO_CHILDREN : newChildren;
+        }
+
+        private boolean isEmpty() {
+            return keys.length == 0 && names == null;
+        }
+    }
+
+    private final Node root = new Node();
+
+    void add(String name) {
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        for (int start : wordStarts(key)) {
+            Node node = root;
+            for (int i = start; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+            }
+            if (node.names == null) {
+                node.names = new TreeMap<>();
+            }
+            node.names.merge(name.trim(), 1, Integer::sum);
+        }
+    }
+
+    void remove(String name) {
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        for (int start : wordStarts(key)) {
+            remove(root, key, start, name.trim());
+        }
+    }
+
+    /**
+     * Up to {@code limit} distinct display names having a word that starts with {@code normalizedPrefix},
+     * in alphabetical order of the matched word. Visits at most {@code limit} terminal paths below the prefix.
+     */
+    List<String> suggest(String normalizedPrefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < normalizedPrefix.length() && node != null; i++) {
+            node = node.child(normalizedPrefix.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        Set<String> result = new LinkedHashSet<>();
+        collect(node, result, limit);
+        return List.copyOf(result);
+    }
+
+    private static boolean remove(Node node, String key, int position, String name) {
+        if (position == key.length()) {
+            if (node.names != null && node.names.computeIfPresent(name, (n, count) -> count > 1 ? count - 1 : null) == null
+                    && node.names.isEmpty()) {
+                node.names = null;
+            }
+            return node.isEmpty();
+        }
+        Node child = node.child(key.charAt(position));
+        if (child != null && remove(child, key, position + 1, name)) {
+            node.removeChild(key.charAt(position));
+        }
+        return node.isEmpty();
+    }
+
+    private static void collect(Node node, Set<String> result, int limit) {
+        if (node.names != null) {
+            for (Map.Entry<String, Integer> entry : node.names.entrySet()) {
+                if (result.size() >= limit) {
+                    return;
+                }
+                result.add(entry.getKey());
+            }
+        }
+        for (Node child : node.children) {
+            if (result.size() >= limit) {
+                return;
+            }
+            collect(child, result, limit);
+        }
+    }
+
+    private static int[] wordStarts(String key) {
+        int[] starts = new int[key.length()];
+        int count = 0;
+        for (int i = 0; i < key.length(); i++) {
+            if (Character.isLetterOrDigit(key.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(key.charAt(i - 1)))) {
+                starts[count++] = i;
+            }
+        }
+        return Arrays.copyOf(starts, count);
+    }
+}
@@ -0,0 +1,239 @@
+package ru.practicum.shareit.item.service;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.common.datasource.shard.ShardRouter;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchRow;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typo-tolerant matching and name autocomplete over available items. Fuzzy matching runs on the
+ * {@code pg_trgm} GIN indexes when the backend is {@code pg-trgm}, otherwise on an in-memory trigram index.
+ * The autocomplete trie is always in memory. Both are loaded once the application is ready and then patched
+ * after every committed create or update that touches name, description or availability. With sharding on,
+ * the in-memory indexes are warmed from every shard; the {@code pg-trgm} backend only sees the home shard.
+ * <p>
+ * A startup snapshot can {@link #seed} the indexes first, so that they answer before the database pass has
+ * finished; that pass then overwrites every row and drops the seeded items that are gone or unavailable.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+
+    public enum FuzzyBackend {
+        INDEX,
+        PG_TRGM
+    }
+
+    private record Indexed(String name, String text) {
+    }
+
+    private final ItemRepository itemRepository;
+    private final SearchCache searchCache;
+    private final ShardRouter shardRouter;
+    private final FuzzyBackend backend;
+    private final double threshold;
+    private final int fuzzyLimit;
+    private final int warmPageSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Long2ObjectOpenHashMap<Indexed> indexed = new Long2ObjectOpenHashMap<>();
+    private final TrigramIndex trigrams = new TrigramIndex();
+    private final ItemNameTrie names = new ItemNameTrie();
+    private final LongOpenHashSet changedWhileWarming = new LongOpenHashSet();
+    private final LongOpenHashSet warmed = new LongOpenHashSet();
+    private boolean warming = true;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           SearchCache searchCache,
+                           ShardRouter shardRouter,
+                           @Value("${shareit.item.search.fuzzy-backend:index}") FuzzyBackend backend,
+                           @Value("${shareit.item.search.fuzzy-threshold:0.6}") double threshold,
+                           @Value("${shareit.item.search.fuzzy-limit:50}") int fuzzyLimit,
+                           @Value("${shareit.item.search.warm-page-size:5000}") int warmPageSize) {
+        this.itemRepository = itemRepository;
+        this.searchCache = searchCache;
+        this.shardRouter = shardRouter;
+        this.backend = backend;
+        this.threshold = threshold;
+        this.fuzzyLimit = fuzzyLimit;
+        this.warmPageSize = warmPageSize;
+    }
+
+    /**
+     * Loads rows from a snapshot, unless the database pass has already run. Returns the number of rows taken.
+     */
+    public int seed(List<ItemSearchRow> rows) {
+        int seeded = 0;
+        lock.writeLock().lock();
+        try {
+            if (!warming) {
+                return 0;
+            }
+            for (ItemSearchRow row : rows) {
+                if (!changedWhileWarming.contains(row.id().longValue())) {
+                    put(row.id(), row.name(), row.description());
+                    seeded++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        searchCache.bumpVersionAfterCommit();
+        return seeded;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        int[] total = {0};
+        shardRouter.forEachShard(() -> total[0] += warmShard());
+
+        lock.writeLock().lock();
+        try {
+            // seeded rows the database no longer has as available
+            long[] stale = indexed.keySet().longStream()
+                    .filter(id -> !warmed.contains(id) && !changedWhileWarming.contains(id))
+                    .toArray();
+            for (long id : stale) {
+                removeLocked(id);
+            }
+            warmed.clear();
+            warmed.trim();
+            changedWhileWarming.clear();
+            warming = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // searches answered before warm-up had no fuzzy fallback
+        searchCache.bumpVersionAfterCommit();
+        log.info("Item search index ready: items={}, fuzzyBackend={}", total[0], backend);
+    }
+
+    private int warmShard() {
+        long afterId = 0;
+        int total = 0;
+        List<ItemSearchRow> page;
+        do {
+            page = itemRepository.findSearchRows(afterId, PageRequest.of(0, warmPageSize));
+            lock.writeLock().lock();
+            try {
+                for (ItemSearchRow row : page) {
+                    warmed.add(row.id().longValue());
+                    if (!changedWhileWarming.contains(row.id().longValue())) {
+                        put(row.id(), row.name(), row.description());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            total += page.size();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).id();
+            }
+        } while (page.size() == warmPageSize);
+        return total;
+    }
+
+    /**
+     * Available item ids whose text is close to {@code normalizedText}, best match first. Empty until the
+     * in-memory index has been warmed.
+     */
+    public List<Long> fuzzyMatch(String normalizedText) {
+        if (backend == FuzzyBackend.PG_TRGM) {
+            return itemRepository.searchAvailableIdsBySimilarity(normalizedText, fuzzyLimit);
+        }
+        lock.readLock().lock();
+        try {
+            return trigrams.match(TrigramIndex.trigrams(normalizedText), threshold, fuzzyLimit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> suggest(String normalizedPrefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return names.suggest(normalizedPrefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes the item's current name, description and availability once the surrounding transaction
+     * commits; an unavailable item is dropped from both indexes.
+     */
+    public void indexAfterCommit(Item item) {
+        long id = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(id, name, description, available);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(id, name, description, available);
+            }
+        });
+    }
+
+    /**
+     * Drops a deleted item from both indexes; call once the deletion has committed.
+     */
+    public void remove(long itemId) {
+        apply(itemId, null, null, false);
+    }
+
+    private void apply(long id, String name, String description, boolean available) {
+        lock.writeLock().lock();
+        try {
+            if (warming) {
+                changedWhileWarming.add(id);
+            }
+            if (available) {
+                put(id, name, description);
+            } else {
+                removeLocked(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(long id, String name, String description) {
+        removeLocked(id);
+        String text = SearchCache.normalize(name + " " + description);
+        indexed.put(id, new Indexed(name, text));
+        names.add(name);
+        if (backend == FuzzyBackend.INDEX) {
+            trigrams.add(id, TrigramIndex.trigrams(text));
+        }
+    }
+
+    private void removeLocked(long id) {
+        Indexed previous = indexed.remove(id);
+        if (previous == null) {
+            return;
+        }
+        names.remove(previous.name());
+        if (backend == FuzzyBackend.INDEX) {
+            trigrams.remove(id, TrigramIndex.trigrams(previous.text()));
+        }
+    }
+}
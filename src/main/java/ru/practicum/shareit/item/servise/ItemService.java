@@ -1,8 +1,11 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.common.BulkResultDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemFields;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -10,11 +13,21 @@ public interface ItemService {
 
     ItemDto update(long ownerId, long itemId, ItemDto updateDto);
 
-    ItemDto getById(long requesterId, long itemId);
+    ItemDto getById(long requesterId, long itemId, ItemFields fields);
 
-    List<ItemDto> getAllByOwner(long ownerId);
+    List<ItemDto> getAllByOwner(long ownerId, ItemFields fields);
+
+    BulkResultDto<ItemDto> getByIds(long requesterId, List<Long> itemIds, ItemFields fields);
 
     List<ItemDto> search(long requesterId, String text);
 
+    List<String> suggest(long requesterId, String prefix, int size);
+
+    List<ItemDto> getRelated(long requesterId, long itemId, int size);
+
+    List<ItemDto> getTrending(long requesterId, int size);
+
     CommentDto addComment(long userId, long itemId, CommentDto commentDto);
+
+    List<CommentDto> getComments(long requesterId, long itemId, LocalDateTime beforeCreated, Long beforeId, int size);
 }
\ No newline at end of file
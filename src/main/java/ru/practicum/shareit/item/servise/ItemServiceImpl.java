@@ -1,18 +1,28 @@
 package ru.practicum.shareit.item.service;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingArchiveRepository;
 import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.common.BulkResultDto;
 import ru.practicum.shareit.common.ForbiddenException;
 import ru.practicum.shareit.common.NotFoundException;
 import ru.practicum.shareit.common.ValidationException;
+import ru.practicum.shareit.common.audit.AuditAction;
+import ru.practicum.shareit.common.audit.AuditLog;
+import ru.practicum.shareit.common.datasource.shard.ShardKey;
+import ru.practicum.shareit.common.datasource.shard.ShardRouter;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemField;
+import ru.practicum.shareit.item.dto.ItemFields;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
@@ -23,23 +33,78 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.storage.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reads that combine several queries into one response run in a single read-only transaction, so they see
+ * one snapshot. Reads served from the search, co-booking and trending indexes and the item cache only check
+ * the requester first; they join a caller's transaction if there is one and otherwise hold no connection
+ * between queries.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-@Transactional(readOnly = true)
+@Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
 public class ItemServiceImpl implements ItemService {
 
+    private static final int MAX_COMMENT_PAGE_SIZE = 100;
+    private static final int MAX_BULK_IDS = 500;
+    private static final int MIN_FUZZY_TEXT_LENGTH = 3;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_RELATED = 50;
+    private static final int MAX_TRENDING = 50;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
     private final CommentRepository commentRepository;
+    private final ItemCache itemCache;
+    private final SearchCache searchCache;
+    private final ItemSearchIndex searchIndex;
+    private final CoBookingIndex coBookingIndex;
+    private final TrendingIndex trendingIndex;
+    private final ShardRouter shardRouter;
+    private final AuditLog auditLog;
+    private final int commentPreviewSize;
+
+    public ItemServiceImpl(ItemRepository itemRepository,
+                           UserRepository userRepository,
+                           BookingRepository bookingRepository,
+                           BookingArchiveRepository bookingArchiveRepository,
+                           CommentRepository commentRepository,
+                           ItemCache itemCache,
+                           SearchCache searchCache,
+                           ItemSearchIndex searchIndex,
+                           CoBookingIndex coBookingIndex,
+                           TrendingIndex trendingIndex,
+                           ShardRouter shardRouter,
+                           AuditLog auditLog,
+                           @Value("${shareit.item.comments.preview-size:10}") int commentPreviewSize) {
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingArchiveRepository = bookingArchiveRepository;
+        this.commentRepository = commentRepository;
+        this.itemCache = itemCache;
+        this.searchCache = searchCache;
+        this.searchIndex = searchIndex;
+        this.coBookingIndex = coBookingIndex;
+        this.trendingIndex = trendingIndex;
+        this.shardRouter = shardRouter;
+        this.auditLog = auditLog;
+        this.commentPreviewSize = commentPreviewSize;
+    }
 
     @Override
     @Transactional
-    public ItemDto create(long ownerId, ItemDto itemDto) {
+    public ItemDto create(@ShardKey(ShardKey.Kind.OWNER) long ownerId, ItemDto itemDto) {
         validateCreate(itemDto);
 
         User owner = getUserOrThrow(ownerId);
@@ -47,6 +112,11 @@ public class ItemServiceImpl implements ItemService {
         item.setOwner(owner);
 
         Item saved = itemRepository.save(item);
+        if (Boolean.TRUE.equals(saved.getAvailable())) {
+            searchCache.bumpVersionAfterCommit();
+            searchIndex.indexAfterCommit(saved);
+        }
+        auditLog.recordAfterCommit(AuditAction.ITEM_CREATED, ownerId, saved.getId());
         log.debug("Item created: id={}, ownerId={}", saved.getId(), ownerId);
 
         return ItemMapper.toDto(saved);
@@ -54,50 +124,82 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     @Transactional
-    public ItemDto update(long ownerId, long itemId, ItemDto updateDto) {
+    public ItemDto update(long ownerId, @ShardKey(ShardKey.Kind.ENTITY_ID) long itemId, ItemDto updateDto) {
         getUserOrThrow(ownerId);
         Item existing = getItemOrThrow(itemId);
 
         validateOwner(existing, ownerId);
-        applyItemUpdate(existing, updateDto);
+        boolean searchableChanged = applyItemUpdate(existing, updateDto);
 
         Item updated = itemRepository.save(existing);
+        itemCache.evictAfterCommit(itemId);
+        if (searchableChanged) {
+            searchCache.bumpVersionAfterCommit();
+            searchIndex.indexAfterCommit(updated);
+        }
+        auditLog.recordAfterCommit(AuditAction.ITEM_UPDATED, ownerId, itemId);
         log.debug("Item updated: id={}, ownerId={}", updated.getId(), ownerId);
 
         return ItemMapper.toDto(updated);
     }
 
     @Override
-    public ItemDto getById(long requesterId, long itemId) {
+    @Transactional(readOnly = true)
+    public ItemDto getById(long requesterId, @ShardKey(ShardKey.Kind.ENTITY_ID) long itemId, ItemFields fields) {
         getUserOrThrow(requesterId);
         Item item = getItemOrThrow(itemId);
 
         ItemDto dto = ItemMapper.toDto(item);
-        dto.setComments(getItemComments(itemId));
-
-        if (isOwner(item, requesterId)) {
-            enrichWithBookings(dto, itemId);
+        boolean ownerView = isOwner(item, requesterId);
+        enrich(List.of(dto), ownerView ? Set.of(itemId) : Set.of(), fields);
+        if (!ownerView) {
+            trendingIndex.recordView(itemId);
         }
 
-        log.debug("Item getById: itemId={}, requesterId={}, ownerView={}",
-                itemId, requesterId, isOwner(item, requesterId));
+        log.debug("Item getById: itemId={}, requesterId={}, ownerView={}", itemId, requesterId, ownerView);
 
         return dto;
     }
 
     @Override
-    public List<ItemDto> getAllByOwner(long ownerId) {
+    @Transactional(readOnly = true)
+    public List<ItemDto> getAllByOwner(@ShardKey(ShardKey.Kind.OWNER) long ownerId, ItemFields fields) {
         getUserOrThrow(ownerId);
 
-        List<ItemDto> result = itemRepository.findAllByOwnerId(ownerId).stream()
-                .map(ItemMapper::toDto)
-                .map(dto -> enrichItemForOwnerView(dto, dto.getId()))
-                .toList();
+        List<ItemDto> result = fields.has(ItemField.DESCRIPTION)
+                ? itemRepository.findAllByOwnerId(ownerId).stream().map(ItemMapper::toDto).toList()
+                : itemRepository.findSummariesByOwnerId(ownerId).stream().map(ItemMapper::toDto).toList();
+        enrich(result, result.stream().map(ItemDto::getId).collect(Collectors.toSet()), fields);
 
         log.debug("Items getAllByOwner: ownerId={}, count={}", ownerId, result.size());
         return result;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public BulkResultDto<ItemDto> getByIds(long requesterId, List<Long> itemIds, ItemFields fields) {
+        getUserOrThrow(requesterId);
+        List<Long> requested = distinctIds(itemIds);
+
+        Map<Long, ItemDto> found = shardRouter.byIdShards(requested, ids -> loadEnriched(requesterId, ids, fields))
+                .stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+
+        List<ItemDto> result = requested.stream()
+                .filter(found::containsKey)
+                .map(found::get)
+                .toList();
+
+        List<Long> missing = requested.stream()
+                .filter(id -> !found.containsKey(id))
+                .toList();
+        log.debug("Items getByIds: requesterId={}, requested={}, missing={}", requesterId, requested.size(), missing.size());
+        return BulkResultDto.<ItemDto>builder()
+                .found(result)
+                .missing(missing)
+                .build();
+    }
+
     @Override
     public List<ItemDto> search(long requesterId, String text) {
         getUserOrThrow(requesterId);
@@ -106,17 +208,62 @@ public class ItemServiceImpl implements ItemService {
             return List.of();
         }
 
-        List<ItemDto> result = itemRepository.searchAvailableByText(text).stream()
-                .map(ItemMapper::toDto)
-                .toList();
+        List<Long> ids = searchCache.get(SearchCache.normalize(text), this::searchIds);
+        List<ItemDto> result = itemCache.getAll(ids);
 
         log.debug("Items search: requesterId={}, text='{}', count={}", requesterId, text, result.size());
         return result;
     }
 
+    @Override
+    public List<String> suggest(long requesterId, String prefix, int size) {
+        getUserOrThrow(requesterId);
+        if (size < 1 || size > MAX_SUGGESTIONS) {
+            throw new ValidationException("size must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        return searchIndex.suggest(SearchCache.normalize(prefix), size);
+    }
+
+    @Override
+    public List<ItemDto> getRelated(long requesterId, @ShardKey(ShardKey.Kind.ENTITY_ID) long itemId, int size) {
+        getUserOrThrow(requesterId);
+        if (size < 1 || size > MAX_RELATED) {
+            throw new ValidationException("size must be between 1 and " + MAX_RELATED);
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Item not found: " + itemId);
+        }
+        List<ItemDto> result = itemCache.getAll(coBookingIndex.getRelated(itemId, size));
+
+        log.debug("Items getRelated: itemId={}, requesterId={}, count={}", itemId, requesterId, result.size());
+        return result;
+    }
+
+    /**
+     * Available items from the {@link TrendingIndex}, most popular first. The index ranks more items than a
+     * page holds, so unavailable ones can be skipped without coming up short.
+     */
+    @Override
+    public List<ItemDto> getTrending(long requesterId, int size) {
+        getUserOrThrow(requesterId);
+        if (size < 1 || size > MAX_TRENDING) {
+            throw new ValidationException("size must be between 1 and " + MAX_TRENDING);
+        }
+        List<ItemDto> result = itemCache.getAll(trendingIndex.top(trendingIndex.getTopSize())).stream()
+                .filter(dto -> Boolean.TRUE.equals(dto.getAvailable()))
+                .limit(size)
+                .toList();
+
+        log.debug("Items getTrending: requesterId={}, count={}", requesterId, result.size());
+        return result;
+    }
+
     @Override
     @Transactional
-    public CommentDto addComment(long userId, long itemId, CommentDto commentDto) {
+    public CommentDto addComment(long userId, @ShardKey(ShardKey.Kind.ENTITY_ID) long itemId, CommentDto commentDto) {
         validateComment(commentDto);
 
         User author = getUserOrThrow(userId);
@@ -126,11 +273,53 @@ public class ItemServiceImpl implements ItemService {
 
         Comment comment = buildComment(commentDto.getText(), item, author);
         Comment saved = commentRepository.save(comment);
+        itemRepository.incrementCommentCount(itemId);
+        itemCache.evictAfterCommit(itemId);
+        auditLog.recordAfterCommit(AuditAction.COMMENT_ADDED, userId, saved.getId());
 
         log.debug("Comment added: id={}, itemId={}, authorId={}", saved.getId(), itemId, userId);
         return CommentMapper.toDto(saved);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<CommentDto> getComments(long requesterId, @ShardKey(ShardKey.Kind.ENTITY_ID) long itemId,
+                                        LocalDateTime beforeCreated, Long beforeId, int size) {
+        getUserOrThrow(requesterId);
+        getItemOrThrow(itemId);
+        if (size < 1 || size > MAX_COMMENT_PAGE_SIZE) {
+            throw new ValidationException("size must be between 1 and " + MAX_COMMENT_PAGE_SIZE);
+        }
+        if ((beforeCreated == null) != (beforeId == null)) {
+            throw new ValidationException("beforeCreated and beforeId must be passed together");
+        }
+
+        PageRequest page = PageRequest.of(0, size);
+        List<Comment> comments = beforeCreated == null
+                ? commentRepository.findLatestByItemId(itemId, page)
+                : commentRepository.findPageByItemIdBefore(itemId, beforeCreated, beforeId, page);
+
+        return comments.stream()
+                .map(CommentMapper::toDto)
+                .toList();
+    }
+
+    /**
+     * Loads and enriches items that live on one shard, so their bookings and comments are read from it too.
+     */
+    private List<ItemDto> loadEnriched(long requesterId, List<Long> ids, ItemFields fields) {
+        List<Item> items = itemRepository.findAllWithOwnerByIdIn(ids);
+        List<ItemDto> result = items.stream()
+                .map(ItemMapper::toDto)
+                .toList();
+        Set<Long> ownerView = items.stream()
+                .filter(item -> isOwner(item, requesterId))
+                .map(Item::getId)
+                .collect(Collectors.toSet());
+        enrich(result, ownerView, fields);
+        return result;
+    }
+
     private User getUserOrThrow(long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found: " + userId));
@@ -151,15 +340,33 @@ public class ItemServiceImpl implements ItemService {
         return item.getOwner() != null && Objects.equals(item.getOwner().getId(), userId);
     }
 
-    private void applyItemUpdate(Item existing, ItemDto updateDto) {
+    /**
+     * Exact substring matches; when there are none, falls back to trigram similarity so a misspelt query
+     * still finds the item instead of sending the user into a retry loop.
+     */
+    private List<Long> searchIds(String normalizedText) {
+        List<Long> exact = shardRouter.scatterGather(() -> itemRepository.searchAvailableIdsByText(normalizedText),
+                Comparator.naturalOrder(), Integer.MAX_VALUE);
+        if (!exact.isEmpty() || normalizedText.length() < MIN_FUZZY_TEXT_LENGTH) {
+            return exact;
+        }
+        return searchIndex.fuzzyMatch(normalizedText);
+    }
+
+    /**
+     * Applies a partial update and reports whether a field that search matches on has changed.
+     */
+    private boolean applyItemUpdate(Item existing, ItemDto updateDto) {
         if (updateDto == null) {
-            return;
+            return false;
         }
+        boolean searchableChanged = false;
 
         if (updateDto.getName() != null) {
             if (updateDto.getName().isBlank()) {
                 throw new ValidationException("name must not be blank");
             }
+            searchableChanged = !updateDto.getName().equals(existing.getName());
             existing.setName(updateDto.getName());
         }
 
@@ -167,28 +374,19 @@ public class ItemServiceImpl implements ItemService {
             if (updateDto.getDescription().isBlank()) {
                 throw new ValidationException("description must not be blank");
             }
+            searchableChanged |= !updateDto.getDescription().equals(existing.getDescription());
             existing.setDescription(updateDto.getDescription());
         }
 
         if (updateDto.getAvailable() != null) {
+            searchableChanged |= !updateDto.getAvailable().equals(existing.getAvailable());
             existing.setAvailable(updateDto.getAvailable());
         }
 
         if (updateDto.getRequestId() != null) {
             existing.setRequestId(updateDto.getRequestId());
         }
-    }
-
-    private List<CommentDto> getItemComments(long itemId) {
-        return commentRepository.findAllByItemId(itemId).stream()
-                .map(CommentMapper::toDto)
-                .toList();
-    }
-
-    private ItemDto enrichItemForOwnerView(ItemDto dto, long itemId) {
-        enrichWithBookings(dto, itemId);
-        dto.setComments(getItemComments(itemId));
-        return dto;
+        return searchableChanged;
     }
 
     private void validateCreate(ItemDto dto) {
@@ -215,7 +413,7 @@ public class ItemServiceImpl implements ItemService {
     private void ensureUserHasCompletedBooking(long userId, long itemId) {
         boolean hasBooking = bookingRepository.existsByItem_IdAndBooker_IdAndStatusAndEndBefore(
                 itemId, userId, BookingStatus.APPROVED, LocalDateTime.now()
-        );
+        ) || bookingArchiveRepository.existsByItem_IdAndBooker_IdAndStatus(itemId, userId, BookingStatus.APPROVED);
         if (!hasBooking) {
             throw new ValidationException("User has not completed booking for item: " + itemId);
         }
@@ -230,13 +428,78 @@ public class ItemServiceImpl implements ItemService {
                 .build();
     }
 
-    private void enrichWithBookings(ItemDto dto, long itemId) {
+    private List<Long> distinctIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new ValidationException("ids must not be empty");
+        }
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.size() > MAX_BULK_IDS) {
+            throw new ValidationException("at most " + MAX_BULK_IDS + " ids per request");
+        }
+        return distinct;
+    }
+
+    /**
+     * Attaches the latest comments to every item and last/next bookings to the items in {@code ownerViewIds},
+     * with a fixed number of queries regardless of how many items are passed. Stages whose fields were not
+     * requested are skipped entirely.
+     */
+    private void enrich(List<ItemDto> items, Set<Long> ownerViewIds, ItemFields fields) {
+        if (items.isEmpty()) {
+            return;
+        }
+        if (fields.has(ItemField.COMMENTS)) {
+            attachComments(items);
+        }
+        boolean withLast = fields.has(ItemField.LAST_BOOKING);
+        boolean withNext = fields.has(ItemField.NEXT_BOOKING);
+        if (!ownerViewIds.isEmpty() && (withLast || withNext)) {
+            attachBookings(items, ownerViewIds, withLast, withNext);
+        }
+    }
+
+    private void attachComments(List<ItemDto> items) {
+        List<Long> itemIds = items.stream().map(ItemDto::getId).toList();
+        List<Long> commentIds = commentRepository.findLatestIdsPerItem(itemIds, commentPreviewSize);
+
+        Map<Long, List<CommentDto>> byItem = commentIds.isEmpty() ? Map.of() : commentRepository
+                .findAllWithAuthorByIdIn(commentIds).stream()
+                .sorted(Comparator.comparing(Comment::getCreated).thenComparing(Comment::getId))
+                .collect(Collectors.groupingBy(c -> c.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toDto, Collectors.toList())));
+
+        items.forEach(dto -> dto.setComments(byItem.getOrDefault(dto.getId(), List.of())));
+    }
+
+    private void attachBookings(List<ItemDto> items, Set<Long> ownerViewIds, boolean withLast, boolean withNext) {
         LocalDateTime now = LocalDateTime.now();
 
-        Booking last = bookingRepository.findLastApproved(itemId, now).stream().findFirst().orElse(null);
-        Booking next = bookingRepository.findNextApproved(itemId, now).stream().findFirst().orElse(null);
+        Map<Long, Booking> last = withLast ? findLastBookings(ownerViewIds, now) : Map.of();
+        Map<Long, Booking> next = withNext ? bookingRepository.findNextApprovedForItems(ownerViewIds, now).stream()
+                .collect(Collectors.toMap(b -> b.getItem().getId(), Function.identity(),
+                        BinaryOperator.minBy(Comparator.comparing(Booking::getId)))) : Map.of();
+
+        items.stream()
+                .filter(dto -> ownerViewIds.contains(dto.getId()))
+                .forEach(dto -> {
+                    dto.setLastBooking(BookingMapper.toShortDto(last.get(dto.getId())));
+                    dto.setNextBooking(BookingMapper.toShortDto(next.get(dto.getId())));
+                });
+    }
 
-        dto.setLastBooking(BookingMapper.toShortDto(last));
-        dto.setNextBooking(BookingMapper.toShortDto(next));
+    private Map<Long, Booking> findLastBookings(Set<Long> itemIds, LocalDateTime now) {
+        Map<Long, Booking> last = bookingRepository.findLastApprovedForItems(itemIds, now).stream()
+                .collect(Collectors.toMap(b -> b.getItem().getId(), Function.identity(),
+                        BinaryOperator.maxBy(Comparator.comparing(Booking::getId))));
+        Set<Long> withoutLast = itemIds.stream()
+                .filter(id -> !last.containsKey(id))
+                .collect(Collectors.toSet());
+        if (!withoutLast.isEmpty()) {
+            bookingArchiveRepository.findLastApprovedForItems(withoutLast).stream()
+                    .map(BookingMapper::fromArchive)
+                    .forEach(b -> last.merge(b.getItem().getId(), b,
+                            BinaryOperator.maxBy(Comparator.comparing(Booking::getId))));
+        }
+        return last;
     }
 }
\ No newline at end of file
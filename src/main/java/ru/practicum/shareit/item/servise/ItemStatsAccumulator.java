@@ -0,0 +1,89 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-item, per-day counters. A booking decision contributes its booked minutes to every day it
+ * overlaps and its approval/rejection to the day it starts; shared by the incremental path and the
+ * full rebuild so both produce identical buckets.
+ */
+public final class ItemStatsAccumulator {
+
+    public record Bucket(long itemId, LocalDate day) {
+    }
+
+    public static final class Counters {
+        private long bookedMinutes;
+        private long approved;
+        private long rejected;
+
+        public long getBookedMinutes() {
+            return bookedMinutes;
+        }
+
+        public long getApproved() {
+            return approved;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public void add(long bookedMinutes, long approved, long rejected) {
+            this.bookedMinutes += bookedMinutes;
+            this.approved += approved;
+            this.rejected += rejected;
+        }
+    }
+
+    private final Map<Bucket, Counters> buckets = new HashMap<>();
+
+    public void addDecision(long itemId, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        if (status == BookingStatus.REJECTED) {
+            counters(itemId, start.toLocalDate()).add(0, 0, 1);
+            return;
+        }
+        if (status != BookingStatus.APPROVED) {
+            return;
+        }
+        counters(itemId, start.toLocalDate()).add(0, 1, 0);
+        forEachDay(start, end, (day, minutes) -> counters(itemId, day).add(minutes, 0, 0));
+    }
+
+    public void add(Bucket bucket, long bookedMinutes, long approved, long rejected) {
+        buckets.computeIfAbsent(bucket, b -> new Counters()).add(bookedMinutes, approved, rejected);
+    }
+
+    public void merge(ItemStatsAccumulator other) {
+        other.buckets.forEach((bucket, c) -> add(bucket, c.bookedMinutes, c.approved, c.rejected));
+    }
+
+    public Map<Bucket, Counters> getBuckets() {
+        return buckets;
+    }
+
+    private Counters counters(long itemId, LocalDate day) {
+        return buckets.computeIfAbsent(new Bucket(itemId, day), b -> new Counters());
+    }
+
+    private static void forEachDay(LocalDateTime start, LocalDateTime end, DayMinutes consumer) {
+        LocalDateTime cursor = start;
+        while (cursor.isBefore(end)) {
+            LocalDateTime nextDay = cursor.toLocalDate().plusDays(1).atStartOfDay();
+            LocalDateTime sliceEnd = nextDay.isBefore(end) ? nextDay : end;
+            consumer.accept(cursor.toLocalDate(), Duration.between(cursor, sliceEnd).toMinutes());
+            cursor = sliceEnd;
+        }
+    }
+
+    @FunctionalInterface
+    private interface DayMinutes {
+        void accept(LocalDate day, long minutes);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.model.ItemDailyStats;
+import ru.practicum.shareit.item.model.ItemStatsRow;
+import ru.practicum.shareit.item.storage.ItemDailyStatsRepository;
+import ru.practicum.shareit.item.storage.ItemStatsDeltaRepository;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Nightly roll-up of {@code item_stats_deltas} into {@code item_daily_stats}. Everything up to the highest
+ * delta id seen at the start is folded and deleted in one transaction; deltas appended meanwhile wait for
+ * the next run and are still visible to stats queries until then.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.item.stats.compaction.enabled", havingValue = "true", matchIfMissing = true)
+public class ItemStatsCompactionJob {
+
+    private final ItemStatsDeltaRepository deltaRepository;
+    private final ItemDailyStatsRepository dailyRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ItemStatsCompactionJob(ItemStatsDeltaRepository deltaRepository,
+                                  ItemDailyStatsRepository dailyRepository,
+                                  TransactionTemplate transactionTemplate) {
+        this.deltaRepository = deltaRepository;
+        this.dailyRepository = dailyRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(cron = "${shareit.item.stats.compaction.cron:0 15 2 * * *}")
+    public void run() {
+        Integer compacted = transactionTemplate.execute(status -> compact());
+        log.info("Item stats compaction finished: buckets={}", compacted);
+    }
+
+    public int compact() {
+        Long maxId = deltaRepository.findMaxId().orElse(null);
+        if (maxId == null) {
+            return 0;
+        }
+        List<ItemStatsRow> rows = deltaRepository.sumUpTo(maxId);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> itemIds = rows.stream().map(ItemStatsRow::itemId).collect(Collectors.toSet());
+        LocalDate from = rows.stream().map(ItemStatsRow::statDate).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate to = rows.stream().map(ItemStatsRow::statDate).max(Comparator.naturalOrder()).orElseThrow();
+        Map<ItemStatsAccumulator.Bucket, ItemDailyStats> existing = dailyRepository
+                .findAllByItemIdInAndStatDateBetween(itemIds, from, to).stream()
+                .collect(Collectors.toMap(s -> new ItemStatsAccumulator.Bucket(s.getItemId(), s.getStatDate()),
+                        Function.identity()));
+
+        List<ItemDailyStats> updated = rows.stream()
+                .map(row -> {
+                    ItemDailyStats stats = existing.getOrDefault(
+                            new ItemStatsAccumulator.Bucket(row.itemId(), row.statDate()),
+                            ItemDailyStats.builder().itemId(row.itemId()).statDate(row.statDate()).build());
+                    stats.setBookedMinutes(stats.getBookedMinutes() + row.bookedMinutes());
+                    stats.setApproved(stats.getApproved() + row.approved().intValue());
+                    stats.setRejected(stats.getRejected() + row.rejected().intValue());
+                    return stats;
+                })
+                .toList();
+        dailyRepository.saveAll(updated);
+        deltaRepository.deleteUpTo(maxId);
+        return updated.size();
+    }
+}
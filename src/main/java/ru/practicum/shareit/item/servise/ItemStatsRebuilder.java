@@ -0,0 +1,193 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingSnapshotRow;
+import ru.practicum.shareit.booking.storage.BookingArchiveRepository;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.ItemDailyStats;
+import ru.practicum.shareit.item.model.ItemSnapshotRow;
+import ru.practicum.shareit.item.storage.ItemDailyStatsRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.item.storage.ItemStatsDeltaRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes {@code item_daily_stats} from all decided bookings, hot and archived. Items are split
+ * recursively on a dedicated {@link ForkJoinPool}; each leaf loads its items' bookings and aggregates
+ * them, and partial results are merged on the way up. The result replaces the daily table and the
+ * deltas it already accounts for in one transaction.
+ *
+ * <p>Decisions committed while the leaves are reading may or may not have been seen, so before the swap
+ * the items that got deltas since the read started are aggregated again, until no new delta arrives in
+ * between. Every delta up to that point is then reflected in the rows and dropped with them; later ones
+ * are kept for the next compaction, so nothing is counted twice or lost.
+ *
+ * <p>On startup the stats are rebuilt when {@code rebuild-on-startup} is set, or when they are empty
+ * while bookings exist, which is the case on the first start after upgrading from a version without them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.item.stats.rebuild.enabled", havingValue = "true", matchIfMissing = true)
+public class ItemStatsRebuilder {
+
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository archiveRepository;
+    private final ItemStatsDeltaRepository deltaRepository;
+    private final ItemDailyStatsRepository dailyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebuildOnStartup;
+    private final int parallelism;
+    private final int leafSize;
+
+    public ItemStatsRebuilder(ItemRepository itemRepository,
+                              BookingRepository bookingRepository,
+                              BookingArchiveRepository archiveRepository,
+                              ItemStatsDeltaRepository deltaRepository,
+                              ItemDailyStatsRepository dailyRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${shareit.item.stats.rebuild-on-startup:false}") boolean rebuildOnStartup,
+                              @Value("${shareit.item.stats.rebuild.parallelism:4}") int parallelism,
+                              @Value("${shareit.item.stats.rebuild.leaf-size:500}") int leafSize) {
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.archiveRepository = archiveRepository;
+        this.deltaRepository = deltaRepository;
+        this.dailyRepository = dailyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.parallelism = parallelism;
+        this.leafSize = leafSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (rebuildOnStartup || isMissingStats()) {
+            rebuild();
+        }
+    }
+
+    public int rebuild() {
+        long started = System.nanoTime();
+        long deltaWatermark = deltaRepository.findMaxId().orElse(0L);
+        long[] itemIds = loadItemIds();
+
+        ItemStatsAccumulator result;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            result = pool.invoke(new AggregateTask(itemIds, 0, itemIds.length));
+        } finally {
+            pool.shutdown();
+        }
+        deltaWatermark = catchUp(result, deltaWatermark);
+
+        List<ItemDailyStats> rows = result.getBuckets().entrySet().stream()
+                .map(e -> ItemDailyStats.builder()
+                        .itemId(e.getKey().itemId())
+                        .statDate(e.getKey().day())
+                        .bookedMinutes(e.getValue().getBookedMinutes())
+                        .approved((int) e.getValue().getApproved())
+                        .rejected((int) e.getValue().getRejected())
+                        .build())
+                .toList();
+        long accountedUpTo = deltaWatermark;
+        transactionTemplate.executeWithoutResult(status -> {
+            dailyRepository.deleteAllInBatch();
+            dailyRepository.saveAll(rows);
+            deltaRepository.deleteUpTo(accountedUpTo);
+        });
+        log.info("Item stats rebuilt: items={}, buckets={}, parallelism={}, took={}ms", itemIds.length, rows.size(),
+                parallelism, (System.nanoTime() - started) / 1_000_000);
+        return rows.size();
+    }
+
+    private boolean isMissingStats() {
+        return dailyRepository.count() == 0 && deltaRepository.count() == 0
+                && (bookingRepository.count() > 0 || archiveRepository.count() > 0);
+    }
+
+    /**
+     * Aggregates again the items that got deltas after {@code watermark}, replacing what the first read saw
+     * for them, until no delta arrives between two passes. Returns the id up to which deltas are reflected.
+     */
+    private long catchUp(ItemStatsAccumulator result, long watermark) {
+        long next;
+        while ((next = deltaRepository.findMaxId().orElse(0L)) > watermark) {
+            Set<Long> changed = new HashSet<>(deltaRepository.findItemIdsBetween(watermark, next));
+            result.getBuckets().keySet().removeIf(bucket -> changed.contains(bucket.itemId()));
+            result.merge(aggregate(List.copyOf(changed)));
+            watermark = next;
+        }
+        return watermark;
+    }
+
+    private ItemStatsAccumulator aggregate(List<Long> itemIds) {
+        ItemStatsAccumulator accumulator = new ItemStatsAccumulator();
+        if (itemIds.isEmpty()) {
+            return accumulator;
+        }
+        Stream.concat(bookingRepository.findDecidedRowsByItemIdIn(itemIds).stream(),
+                        archiveRepository.findDecidedRowsByItemIdIn(itemIds).stream())
+                .forEach((BookingSnapshotRow b) -> accumulator.addDecision(b.itemId(), b.start(), b.end(),
+                        b.status()));
+        return accumulator;
+    }
+
+    private long[] loadItemIds() {
+        int pageSize = 10_000;
+        List<ItemSnapshotRow> all = new ArrayList<>();
+        List<ItemSnapshotRow> page;
+        long afterId = 0;
+        do {
+            page = itemRepository.findSnapshotRows(afterId, PageRequest.of(0, pageSize));
+            all.addAll(page);
+            afterId = page.isEmpty() ? afterId : page.get(page.size() - 1).id();
+        } while (page.size() == pageSize);
+        return all.stream().mapToLong(ItemSnapshotRow::id).toArray();
+    }
+
+    private final class AggregateTask extends RecursiveTask<ItemStatsAccumulator> {
+
+        private final long[] itemIds;
+        private final int from;
+        private final int to;
+
+        private AggregateTask(long[] itemIds, int from, int to) {
+            this.itemIds = itemIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ItemStatsAccumulator compute() {
+            if (to - from <= leafSize) {
+                List<Long> chunk = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    chunk.add(itemIds[i]);
+                }
+                return aggregate(chunk);
+            }
+            int middle = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(itemIds, from, middle);
+            left.fork();
+            ItemStatsAccumulator right = new AggregateTask(itemIds, middle, to).compute();
+            ItemStatsAccumulator merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemStatsDto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemStatsService {
+    void recordDecision(long itemId, LocalDateTime start, LocalDateTime end, BookingStatus status);
+
+    /**
+     * Takes decisions back out of the stats, as negative deltas, when their bookings are deleted.
+     */
+    void revertDecisions(ItemStatsAccumulator decisions);
+
+    List<ItemStatsDto> getOwnerStats(long ownerId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.common.NotFoundException;
+import ru.practicum.shareit.common.ValidationException;
+import ru.practicum.shareit.common.datasource.shard.ShardKey;
+import ru.practicum.shareit.item.dto.ItemStatsDto;
+import ru.practicum.shareit.item.model.ItemStatsDelta;
+import ru.practicum.shareit.item.model.ItemStatsRow;
+import ru.practicum.shareit.item.model.ItemSummary;
+import ru.practicum.shareit.item.storage.ItemDailyStatsRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.item.storage.ItemStatsDeltaRepository;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemStatsServiceImpl implements ItemStatsService {
+
+    private static final int MAX_WINDOW_DAYS = 366;
+
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final ItemStatsDeltaRepository deltaRepository;
+    private final ItemDailyStatsRepository dailyRepository;
+
+    @Override
+    @Transactional
+    public void recordDecision(long itemId, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        ItemStatsAccumulator accumulator = new ItemStatsAccumulator();
+        accumulator.addDecision(itemId, start, end, status);
+        saveDeltas(accumulator, 1);
+    }
+
+    @Override
+    @Transactional
+    public void revertDecisions(ItemStatsAccumulator decisions) {
+        saveDeltas(decisions, -1);
+    }
+
+    @Override
+    public List<ItemStatsDto> getOwnerStats(@ShardKey(ShardKey.Kind.OWNER) long ownerId, LocalDate from, LocalDate to) {
+        if (!userRepository.existsById(ownerId)) {
+            throw new NotFoundException("User not found: " + ownerId);
+        }
+        if (to.isBefore(from)) {
+            throw new ValidationException("to must not be before from");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > MAX_WINDOW_DAYS) {
+            throw new ValidationException("window must not exceed " + MAX_WINDOW_DAYS + " days");
+        }
+
+        List<ItemSummary> items = itemRepository.findSummariesByOwnerId(ownerId);
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        List<Long> itemIds = items.stream().map(ItemSummary::id).toList();
+
+        Map<Long, ItemStatsAccumulator.Counters> totals = new HashMap<>();
+        Stream.concat(dailyRepository.findRows(itemIds, from, to).stream(),
+                        deltaRepository.sumForItems(itemIds, from, to).stream())
+                .forEach(row -> add(totals, row));
+
+        log.debug("Owner stats: ownerId={}, items={}, days={}", ownerId, items.size(), days);
+        return items.stream()
+                .map(item -> toDto(item, totals.getOrDefault(item.id(), new ItemStatsAccumulator.Counters()),
+                        from, to, days))
+                .toList();
+    }
+
+    private void saveDeltas(ItemStatsAccumulator accumulator, int sign) {
+        List<ItemStatsDelta> deltas = accumulator.getBuckets().entrySet().stream()
+                .map(e -> ItemStatsDelta.builder()
+                        .itemId(e.getKey().itemId())
+                        .statDate(e.getKey().day())
+                        .bookedMinutes(sign * e.getValue().getBookedMinutes())
+                        .approved(sign * (int) e.getValue().getApproved())
+                        .rejected(sign * (int) e.getValue().getRejected())
+                        .build())
+                .toList();
+        deltaRepository.saveAll(deltas);
+    }
+
+    private static void add(Map<Long, ItemStatsAccumulator.Counters> totals, ItemStatsRow row) {
+        totals.computeIfAbsent(row.itemId(), id -> new ItemStatsAccumulator.Counters())
+                .add(row.bookedMinutes(), row.approved(), row.rejected());
+    }
+
+    private static ItemStatsDto toDto(ItemSummary item, ItemStatsAccumulator.Counters counters, LocalDate from,
+                                      LocalDate to, long days) {
+        long decided = counters.getApproved() + counters.getRejected();
+        double bookedHours = counters.getBookedMinutes() / 60.0;
+        return ItemStatsDto.builder()
+                .itemId(item.id())
+                .name(item.name())
+                .from(from)
+                .to(to)
+                .bookedHours(bookedHours)
+                .utilization(bookedHours / (days * 24.0))
+                .approvedCount(counters.getApproved())
+                .rejectedCount(counters.getRejected())
+                .approvalRate(decided == 0 ? null : (double) counters.getApproved() / decided)
+                .build();
+    }
+}
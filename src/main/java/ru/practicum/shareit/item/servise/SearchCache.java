@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.common.jfr.CacheAccessEvent;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caches item ids matching a normalized search text. Caffeine's W-TinyLFU policy keeps the frequent
+ * queries while one-off texts are evicted first. Every entry remembers the catalog version it was computed
+ * at, and any write that can change search results bumps the version after commit, so a stale list is never
+ * served after the write is visible.
+ */
+@Component
+public class SearchCache {
+
+    private record Entry(long version, List<Long> itemIds) {
+    }
+
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final Cache<String, Entry> cache;
+
+    public SearchCache(@Value("${shareit.item.search-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public List<Long> get(String normalizedText, Function<String, List<Long>> loader) {
+        long version = catalogVersion.get();
+        Entry entry = cache.getIfPresent(normalizedText);
+        if (entry != null && entry.version() == version) {
+            CacheAccessEvent.record("search", 1, 0);
+            return entry.itemIds();
+        }
+        CacheAccessEvent.record("search", 1, 1);
+        List<Long> ids = List.copyOf(loader.apply(normalizedText));
+        cache.put(normalizedText, new Entry(version, ids));
+        return ids;
+    }
+
+    public void bumpVersionAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            catalogVersion.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                catalogVersion.incrementAndGet();
+            }
+        });
+    }
+}
@@ -0,0 +1,269 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.datasource.shard.ShardRouter;
+import ru.practicum.shareit.item.model.ItemPopularity;
+import ru.practicum.shareit.item.storage.ItemPopularityRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Trending items by recent views and bookings. Request threads only bump an item's {@link LongAdder}s, so
+ * concurrent views of a hot item never contend on a row or a lock. Every {@code refresh-interval} the adders
+ * are folded into an exponentially decaying score, {@code score * 2^(-elapsed / half-life) + views *
+ * view-weight + bookings * booking-weight}, and the {@code top-size} best items are picked with a min-heap
+ * and published; {@link #top} just reads that list. Every {@code flush-interval} the counts collected since
+ * the last flush, and the score they earned, are added to {@code item_popularity} in one transaction per shard.
+ * The stored score is the sum of what every instance flushed, each part decayed to the row's time, so the
+ * next start-up decays and loads the popularity seen by all instances; until then each instance ranks by that
+ * start-up score plus its own traffic.
+ * <p>
+ * Ids of items that no longer exist are dropped from memory by the flush instead of being written, so a view
+ * racing with {@link #remove} cannot bring a deleted item's row back. Items whose score has decayed below
+ * {@code min-score} are dropped from memory too; a view racing with that is lost.
+ */
+@Slf4j
+@Component
+public class TrendingIndex {
+
+    private static final Comparator<ScoredItem> LOWEST_FIRST = Comparator.comparingDouble(ScoredItem::score)
+            .thenComparing(ScoredItem::itemId, Comparator.reverseOrder());
+
+    private record ScoredItem(long itemId, double score) {
+    }
+
+    private record PendingCounts(long itemId, long views, long bookings, double score) {
+    }
+
+    private static final class Counter {
+        private final LongAdder views = new LongAdder();
+        private final LongAdder bookings = new LongAdder();
+
+        // refresh and flush only, under the index monitor
+        private double score;
+        private long unflushedViews;
+        private long unflushedBookings;
+        private double unflushedScore;
+    }
+
+    private final ItemPopularityRepository popularityRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final double halfLifeSeconds;
+    private final double decayPerMilli;
+    private final double viewWeight;
+    private final double bookingWeight;
+    private final int topSize;
+    private final double minScore;
+
+    private final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+    private volatile List<Long> top = List.of();
+    private long scoredAt;
+
+    public TrendingIndex(ItemPopularityRepository popularityRepository,
+                         TransactionTemplate transactionTemplate,
+                         ShardRouter shardRouter,
+                         @Value("${shareit.item.trending.half-life:PT6H}") Duration halfLife,
+                         @Value("${shareit.item.trending.view-weight:1}") double viewWeight,
+                         @Value("${shareit.item.trending.booking-weight:10}") double bookingWeight,
+                         @Value("${shareit.item.trending.top-size:100}") int topSize,
+                         @Value("${shareit.item.trending.min-score:0.01}") double minScore) {
+        this.popularityRepository = popularityRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.halfLifeSeconds = halfLife.toMillis() / 1000.0;
+        this.decayPerMilli = Math.log(2) / halfLife.toMillis();
+        this.viewWeight = viewWeight;
+        this.bookingWeight = bookingWeight;
+        this.topSize = topSize;
+        this.minScore = minScore;
+    }
+
+    public void recordView(long itemId) {
+        counter(itemId).views.increment();
+    }
+
+    public void recordBookingAfterCommit(long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counter(itemId).bookings.increment();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counter(itemId).bookings.increment();
+            }
+        });
+    }
+
+    /**
+     * Ids of the most popular items as of the last refresh, best first; at most {@code top-size} of them.
+     */
+    public List<Long> top(int limit) {
+        List<Long> current = top;
+        return current.size() <= limit ? current : current.subList(0, limit);
+    }
+
+    public int getTopSize() {
+        return topSize;
+    }
+
+    /**
+     * Forgets a deleted item. Its id leaves the published list on the next refresh.
+     */
+    public void remove(long itemId) {
+        counters.remove(itemId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warm() {
+        long now = System.currentTimeMillis();
+        if (scoredAt == 0) {
+            scoredAt = now;
+        }
+        List<ItemPopularity> rows = new ArrayList<>();
+        shardRouter.forEachShard(() -> rows.addAll(popularityRepository.findAllByScoreGreaterThanEqual(minScore)));
+        int loaded = 0;
+        for (ItemPopularity row : rows) {
+            long rowMillis = row.getScoredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            double score = row.getScore() * decay(scoredAt - rowMillis);
+            if (score >= minScore) {
+                counter(row.getItemId()).score += score;
+                loaded++;
+            }
+        }
+        refresh(now);
+        log.info("Trending index ready: items={}", loaded);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.trending.refresh-interval:PT10S}")
+    public void refresh() {
+        refresh(System.currentTimeMillis());
+    }
+
+    /**
+     * Folds the counts collected since the previous refresh into the scores, decayed to {@code nowMillis},
+     * and publishes the new top list.
+     */
+    public synchronized void refresh(long nowMillis) {
+        double decay = scoredAt == 0 ? 1 : decay(nowMillis - scoredAt);
+        scoredAt = nowMillis;
+        PriorityQueue<ScoredItem> heap = new PriorityQueue<>(topSize + 1, LOWEST_FIRST);
+        Iterator<Map.Entry<Long, Counter>> entries = counters.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Long, Counter> entry = entries.next();
+            Counter counter = entry.getValue();
+            long views = counter.views.sumThenReset();
+            long bookings = counter.bookings.sumThenReset();
+            double earned = views * viewWeight + bookings * bookingWeight;
+            counter.unflushedViews += views;
+            counter.unflushedBookings += bookings;
+            counter.unflushedScore = counter.unflushedScore * decay + earned;
+            counter.score = counter.score * decay + earned;
+            if (counter.score < minScore && counter.unflushedViews == 0 && counter.unflushedBookings == 0) {
+                entries.remove();
+                continue;
+            }
+            heap.offer(new ScoredItem(entry.getKey(), counter.score));
+            if (heap.size() > topSize) {
+                heap.poll();
+            }
+        }
+        List<ScoredItem> ranked = new ArrayList<>(heap);
+        ranked.sort(LOWEST_FIRST.reversed());
+        top = ranked.stream().map(ScoredItem::itemId).toList();
+    }
+
+    /**
+     * Writes the counts collected since the last flush, each item on its own shard; if a shard's transaction
+     * fails its counts stay pending and go out with the next one.
+     */
+    @Scheduled(fixedDelayString = "${shareit.item.trending.flush-interval:PT1M}",
+            initialDelayString = "${shareit.item.trending.flush-interval:PT1M}")
+    public void flush() {
+        List<PendingCounts> pending;
+        long atMillis;
+        synchronized (this) {
+            refresh(System.currentTimeMillis());
+            atMillis = scoredAt;
+            pending = new ArrayList<>();
+            counters.forEach((itemId, counter) -> {
+                if (counter.unflushedViews > 0 || counter.unflushedBookings > 0) {
+                    pending.add(new PendingCounts(itemId, counter.unflushedViews, counter.unflushedBookings,
+                            counter.unflushedScore));
+                    counter.unflushedViews = 0;
+                    counter.unflushedBookings = 0;
+                    counter.unflushedScore = 0;
+                }
+            });
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<PendingCounts>> byShard = pending.stream()
+                .collect(Collectors.groupingBy(p -> shardRouter.shardForId(p.itemId()), TreeMap::new,
+                        Collectors.toList()));
+        byShard.forEach((shard, counts) -> flush(shard, counts, atMillis));
+    }
+
+    private void flush(int shard, List<PendingCounts> pending, long atMillis) {
+        LocalDateTime at = LocalDateTime.ofInstant(Instant.ofEpochMilli(atMillis), ZoneId.systemDefault());
+        List<Long> unknown = new ArrayList<>();
+        try {
+            shardRouter.writeOnShard(shard, () -> transactionTemplate.executeWithoutResult(status -> {
+                unknown.clear();
+                pending.forEach(p -> {
+                    if (popularityRepository.addCounts(p.itemId(), p.views(), p.bookings(), p.score(), at,
+                            halfLifeSeconds) == 0) {
+                        unknown.add(p.itemId());
+                    }
+                });
+            }));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                double decay = decay(scoredAt - atMillis);
+                pending.forEach(p -> {
+                    Counter counter = counter(p.itemId());
+                    counter.unflushedViews += p.views();
+                    counter.unflushedBookings += p.bookings();
+                    counter.unflushedScore += p.score() * decay;
+                });
+            }
+            log.warn("Flushing popularity counts of {} items failed, will retry", pending.size(), e);
+            return;
+        }
+        // item ids are never reused, so an item missing now is gone for good
+        unknown.forEach(counters::remove);
+        log.debug("Flushed popularity counts: items={}, skipped={}", pending.size() - unknown.size(),
+                unknown.size());
+    }
+
+    private Counter counter(long itemId) {
+        return counters.computeIfAbsent(itemId, id -> new Counter());
+    }
+
+    private double decay(long elapsedMillis) {
+        return Math.exp(-decayPerMilli * Math.max(0, elapsedMillis));
+    }
+}
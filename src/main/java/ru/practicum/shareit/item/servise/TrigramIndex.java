@@ -0,0 +1,107 @@
+package ru.practicum.shareit.item.service;
+
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongComparator;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import java.util.List;
+
+/**
+ * Inverted index from trigrams to item ids, built the way {@code pg_trgm} splits text: every run of letters
+ * and digits is a word, padded with two spaces in front and one behind. Not thread-safe; callers guard it.
+ */
+public final class TrigramIndex {
+
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> postings = new Long2ObjectOpenHashMap<>();
+
+    public static LongSet trigrams(String normalizedText) {
+        LongOpenHashSet result = new LongOpenHashSet();
+        int length = normalizedText.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(normalizedText.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(normalizedText.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                addWord(result, normalizedText, start, i);
+            }
+        }
+        return result;
+    }
+
+    public void add(long itemId, LongSet trigrams) {
+        for (LongIterator it = trigrams.iterator(); it.hasNext(); ) {
+            long trigram = it.nextLong();
+            LongOpenHashSet ids = postings.get(trigram);
+            if (ids == null) {
+                ids = new LongOpenHashSet();
+                postings.put(trigram, ids);
+            }
+            ids.add(itemId);
+        }
+    }
+
+    public void remove(long itemId, LongSet trigrams) {
+        for (LongIterator it = trigrams.iterator(); it.hasNext(); ) {
+            long trigram = it.nextLong();
+            LongOpenHashSet ids = postings.get(trigram);
+            if (ids != null && ids.remove(itemId) && ids.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    /**
+     * Items containing at least {@code threshold} of the query trigrams, best match first, ties by id.
+     * This is the share of the query found anywhere in the item text, a cheaper relative of
+     * {@code word_similarity} that ranks single-letter typos the same way.
+     */
+    public List<Long> match(LongSet queryTrigrams, double threshold, int limit) {
+        if (queryTrigrams.isEmpty()) {
+            return List.of();
+        }
+        Long2IntOpenHashMap hits = new Long2IntOpenHashMap();
+        for (LongIterator it = queryTrigrams.iterator(); it.hasNext(); ) {
+            LongOpenHashSet ids = postings.get(it.nextLong());
+            if (ids != null) {
+                for (LongIterator idIt = ids.iterator(); idIt.hasNext(); ) {
+                    hits.addTo(idIt.nextLong(), 1);
+                }
+            }
+        }
+
+        int required = (int) Math.ceil(threshold * queryTrigrams.size());
+        LongArrayList matched = new LongArrayList();
+        for (Long2IntMap.Entry entry : hits.long2IntEntrySet()) {
+            if (entry.getIntValue() >= required) {
+                matched.add(entry.getLongKey());
+            }
+        }
+        LongComparator bestFirst = (a, b) -> {
+            int byHits = Integer.compare(hits.get(b), hits.get(a));
+            return byHits != 0 ? byHits : Long.compare(a, b);
+        };
+        matched.sort(bestFirst);
+        return List.copyOf(matched.subList(0, Math.min(limit, matched.size())));
+    }
+
+    private static void addWord(LongOpenHashSet out, String text, int from, int to) {
+        char first = ' ';
+        char second = ' ';
+        for (int i = from; i <= to; i++) {
+            char third = i < to ? text.charAt(i) : ' ';
+            out.add(((long) first << 32) | ((long) second << 16) | third);
+            first = second;
+            second = third;
+        }
+    }
+}
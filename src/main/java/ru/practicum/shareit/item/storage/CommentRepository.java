@@ -1,17 +1,66 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentItemRow;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    @Query("select c from Comment c where c.item.id = :itemId order by c.created asc")
-    List<Comment> findAllByItemId(@Param("itemId") long itemId);
+    @Query("""
+            select c
+            from Comment c
+            join fetch c.author
+            where c.item.id = :itemId
+            order by c.created desc, c.id desc
+            """)
+    List<Comment> findLatestByItemId(@Param("itemId") long itemId, Pageable pageable);
+
+    @Query("""
+            select c
+            from Comment c
+            join fetch c.author
+            where c.item.id = :itemId
+              and (c.created < :created or (c.created = :created and c.id < :id))
+            order by c.created desc, c.id desc
+            """)
+    List<Comment> findPageByItemIdBefore(@Param("itemId") long itemId,
+                                         @Param("created") LocalDateTime created,
+                                         @Param("id") long id,
+                                         Pageable pageable);
+
+    @Query(value = """
+            select t.id
+            from (
+                    select c.id,
+                           row_number() over (partition by c.item_id order by c.created desc, c.id desc) as rn
+                    from comments c
+                    where c.item_id in (:itemIds)
+            ) t
+            where t.rn <= :limit
+            """, nativeQuery = true)
+    List<Long> findLatestIdsPerItem(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @Query("select c from Comment c join fetch c.author where c.id in :ids")
+    List<Comment> findAllWithAuthorByIdIn(@Param("ids") Collection<Long> ids);
 
     @Query("select c from Comment c where c.item.owner.id = :ownerId order by c.created asc")
     List<Comment> findAllByOwnerItems(@Param("ownerId") long ownerId);
-}
\ No newline at end of file
+
+    @Query("""
+            select new ru.practicum.shareit.item.model.CommentItemRow(c.id, c.item.id)
+            from Comment c
+            where c.author.id = :authorId
+            order by c.id
+            """)
+    List<CommentItemRow> findItemRowsByAuthorId(@Param("authorId") long authorId, Pageable pageable);
+
+    @Query("select c.id from Comment c where c.item.id in :itemIds order by c.id")
+    List<Long> findIdsByItemIdIn(@Param("itemIds") Collection<Long> itemIds, Pageable pageable);
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item.storage;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.model.ItemDailyStats;
+import ru.practicum.shareit.item.model.ItemStatsRow;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemDailyStatsRepository extends JpaRepository<ItemDailyStats, Long> {
+
+    @Query("""
+            select new ru.practicum.shareit.item.model.ItemStatsRow(
+                    s.itemId, s.statDate, s.bookedMinutes, cast(s.approved as Long), cast(s.rejected as Long))
+            from ItemDailyStats s
+            where s.itemId in :itemIds
+              and s.statDate between :from and :to
+            """)
+    List<ItemStatsRow> findRows(@Param("itemIds") Collection<Long> itemIds,
+                                @Param("from") LocalDate from,
+                                @Param("to") LocalDate to);
+
+    List<ItemDailyStats> findAllByItemIdInAndStatDateBetween(Collection<Long> itemIds, LocalDate from, LocalDate to);
+
+    @Query("select s.id from ItemDailyStats s where s.itemId in :itemIds order by s.id")
+    List<Long> findIdsByItemIdIn(@Param("itemIds") Collection<Long> itemIds, Pageable pageable);
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.storage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.model.ItemPopularity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemPopularityRepository extends JpaRepository<ItemPopularity, Long> {
+
+    List<ItemPopularity> findAllByScoreGreaterThanEqual(double minScore);
+
+    /**
+     * Adds the counts collected since the last flush, inserting the row if needed, and adds {@code score}, the
+     * score those counts earned as of {@code scoredAt}, to the stored one. Both scores are first decayed to the
+     * later of the two moments, so flushes from several instances add up in any order. Does nothing and
+     * returns {@code 0} when the item does not exist, so a deleted item is never written back.
+     */
+    @Modifying
+    @Query(value = "MERGE INTO item_popularity p"
+            + " USING (SELECT id FROM items WHERE id = :itemId) i ON p.item_id = i.id"
+            + " WHEN MATCHED THEN UPDATE SET views = p.views + :views, bookings = p.bookings + :bookings,"
+            + " score = p.score * POWER(2, LEAST(0, (EXTRACT(EPOCH FROM p.scored_at)"
+            + " - EXTRACT(EPOCH FROM CAST(:scoredAt AS TIMESTAMP))) / :halfLifeSeconds))"
+            + " + :score * POWER(2, LEAST(0, (EXTRACT(EPOCH FROM CAST(:scoredAt AS TIMESTAMP))"
+            + " - EXTRACT(EPOCH FROM p.scored_at)) / :halfLifeSeconds)),"
+            + " scored_at = GREATEST(p.scored_at, CAST(:scoredAt AS TIMESTAMP))"
+            + " WHEN NOT MATCHED THEN INSERT (item_id, views, bookings, score, scored_at)"
+            + " VALUES (i.id, :views, :bookings, :score, :scoredAt)", nativeQuery = true)
+    int addCounts(@Param("itemId") long itemId,
+                  @Param("views") long views,
+                  @Param("bookings") long bookings,
+                  @Param("score") double score,
+                  @Param("scoredAt") LocalDateTime scoredAt,
+                  @Param("halfLifeSeconds") double halfLifeSeconds);
+}
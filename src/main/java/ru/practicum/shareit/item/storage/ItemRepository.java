@@ -1,10 +1,16 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchRow;
+import ru.practicum.shareit.item.model.ItemSnapshotRow;
+import ru.practicum.shareit.item.model.ItemSummary;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,15 +25,81 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findAllByOwnerId(@Param("ownerId") long ownerId);
 
     @Query("""
-            select i
+            select new ru.practicum.shareit.item.model.ItemSummary(
+                    i.id, i.name, i.available, i.owner.id, i.requestId, i.commentCount)
+            from Item i
+            where i.owner.id = :ownerId
+            order by i.id
+            """)
+    List<ItemSummary> findSummariesByOwnerId(@Param("ownerId") long ownerId);
+
+    @Query("""
+            select i.id
             from Item i
             where (
-                    lower(i.name) like lower(concat('%', :text, '%'))
-                 or lower(i.description) like lower(concat('%', :text, '%'))
+                    lower(i.name) like concat('%', :text, '%')
+                 or lower(i.description) like concat('%', :text, '%')
             )
               and i.available = true
+            order by i.id
             """)
-    List<Item> searchAvailableByText(@Param("text") String text);
+    List<Long> searchAvailableIdsByText(@Param("text") String normalizedText);
+
+    /**
+     * PostgreSQL only: typo-tolerant match through the {@code pg_trgm} GIN indexes. {@code <%} keeps rows whose
+     * best-matching word extent reaches {@code pg_trgm.word_similarity_threshold}.
+     */
+    @Query(value = """
+            select i.id
+            from items i
+            where i.available = true
+              and (:text <% lower(i.name) or :text <% lower(i.description))
+            order by greatest(word_similarity(:text, lower(i.name)), word_similarity(:text, lower(i.description))) desc,
+                     i.id
+            limit :limit
+            """, nativeQuery = true)
+    List<Long> searchAvailableIdsBySimilarity(@Param("text") String normalizedText, @Param("limit") int limit);
+
+    @Query("""
+            select new ru.practicum.shareit.item.model.ItemSearchRow(i.id, i.name, i.description)
+            from Item i
+            where i.id > :afterId
+              and i.available = true
+            order by i.id
+            """)
+    List<ItemSearchRow> findSearchRows(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("select i from Item i join fetch i.owner where i.id in :ids")
+    List<Item> findAllWithOwnerByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select i.id from Item i where i.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 
     Optional<Item> findByIdAndAvailableTrue(Long id);
-}
\ No newline at end of file
+
+    @Query("""
+            select new ru.practicum.shareit.item.model.ItemSnapshotRow(i.id, i.owner.id, i.available)
+            from Item i
+            where i.id > :afterId
+            order by i.id
+            """)
+    List<ItemSnapshotRow> findSnapshotRows(@Param("afterId") long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("update Item i set i.commentCount = i.commentCount + 1 where i.id = :itemId")
+    int incrementCommentCount(@Param("itemId") long itemId);
+
+    @Modifying
+    @Query("update Item i set i.commentCount = greatest(i.commentCount - :count, 0) where i.id = :itemId")
+    int decreaseCommentCount(@Param("itemId") long itemId, @Param("count") long count);
+
+    @Query("select i.id from Item i where i.owner.id = :ownerId order by i.id")
+    List<Long> findIdsByOwnerId(@Param("ownerId") long ownerId, Pageable pageable);
+
+    @Query("select i.id from Item i where i.owner.id = :ownerId and i.available = true order by i.id")
+    List<Long> findAvailableIdsByOwnerId(@Param("ownerId") long ownerId, Pageable pageable);
+
+    @Modifying
+    @Query("update Item i set i.available = false where i.id in :ids")
+    int markUnavailable(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.item.storage;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.model.ItemStatsDelta;
+import ru.practicum.shareit.item.model.ItemStatsRow;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemStatsDeltaRepository extends JpaRepository<ItemStatsDelta, Long> {
+
+    @Query("select max(d.id) from ItemStatsDelta d")
+    Optional<Long> findMaxId();
+
+    @Query("""
+            select new ru.practicum.shareit.item.model.ItemStatsRow(
+                    d.itemId, d.statDate, sum(d.bookedMinutes), sum(d.approved), sum(d.rejected))
+            from ItemStatsDelta d
+            where d.id <= :maxId
+            group by d.itemId, d.statDate
+            """)
+    List<ItemStatsRow> sumUpTo(@Param("maxId") long maxId);
+
+    @Query("""
+            select new ru.practicum.shareit.item.model.ItemStatsRow(
+                    d.itemId, d.statDate, sum(d.bookedMinutes), sum(d.approved), sum(d.rejected))
+            from ItemStatsDelta d
+            where d.itemId in :itemIds
+              and d.statDate between :from and :to
+            group by d.itemId, d.statDate
+            """)
+    List<ItemStatsRow> sumForItems(@Param("itemIds") Collection<Long> itemIds,
+                                   @Param("from") LocalDate from,
+                                   @Param("to") LocalDate to);
+
+    @Query("select distinct d.itemId from ItemStatsDelta d where d.id > :afterId and d.id <= :maxId")
+    List<Long> findItemIdsBetween(@Param("afterId") long afterId, @Param("maxId") long maxId);
+
+    @Modifying
+    @Query("delete from ItemStatsDelta d where d.id <= :maxId")
+    int deleteUpTo(@Param("maxId") long maxId);
+
+    @Query("select d.id from ItemStatsDelta d where d.itemId in :itemIds order by d.id")
+    List<Long> findIdsByItemIdIn(@Param("itemIds") Collection<Long> itemIds, Pageable pageable);
+}
@@ -0,0 +1,411 @@
+package ru.practicum.shareit.storage.memory;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Base of the {@code shareit.storage=memory} repositories: a primitive-keyed primary map plus whatever
+ * secondary indexes the subclass maintains, all guarded by one {@link StampedLock}. Point lookups use
+ * optimistic reads; scans take the read lock.
+ *
+ * <p>The repository keeps its own copy of every saved entity and hands out copies, so a caller that changes
+ * a loaded entity and then fails before saving it leaves the stored state alone; the
+ * {@link MemoryTransactionManager} has no rollback to fall back on. Associations of a loaded copy are
+ * {@linkplain #link linked} to the current state of the entities they reference, like a fresh JPA load.
+ * Secondary indexes are keyed by an immutable snapshot {@code K} of the indexed attributes, so changing an
+ * attribute and saving again moves the entity between index buckets correctly.
+ *
+ * @param <T> entity type
+ * @param <K> snapshot of the attributes the secondary indexes are keyed by
+ */
+public abstract class InMemoryRepository<T, K> implements JpaRepository<T, Long> {
+
+    protected final StampedLock lock = new StampedLock();
+
+    private final Long2ObjectOpenHashMap<T> entities = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<K> indexKeys = new Long2ObjectOpenHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    protected abstract Long getId(T entity);
+
+    protected abstract void setId(T entity, Long id);
+
+    /**
+     * Copy of {@code entity}'s own columns; associations are taken over by reference.
+     */
+    protected abstract T copy(T entity);
+
+    /**
+     * Points the associations of a freshly loaded copy at the current state of the entities they reference.
+     * Called outside the lock. Does nothing by default.
+     */
+    protected void link(T loaded) {
+    }
+
+    protected abstract K indexKey(T entity);
+
+    protected abstract void addToIndexes(K key, T entity);
+
+    protected abstract void removeFromIndexes(K key, long id);
+
+    /**
+     * Called under the write lock before {@code entity} is stored, and before a new entity gets its id; throws
+     * to reject the save the way a unique constraint would. Accepts everything by default.
+     */
+    protected void checkConstraints(T entity) {
+    }
+
+    /**
+     * Runs {@code reader} under an optimistic stamp and falls back to the read lock if a writer interfered.
+     * Only for short lookups that do not iterate index structures.
+     */
+    protected final <R> R readOptimistic(Supplier<R> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                R result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException ignored) {
+                // torn read during a concurrent rehash, retry under the read lock
+            }
+        }
+        return read(reader);
+    }
+
+    protected final <R> R read(Supplier<R> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    protected final <R> R write(Supplier<R> writer) {
+        long stamp = lock.writeLock();
+        try {
+            return writer.get();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Entity by id for use inside {@link #read}/{@link #write} blocks.
+     */
+    protected final T get(long id) {
+        return entities.get(id);
+    }
+
+    /**
+     * Runs {@code reader} under the read lock and returns linked copies of the stored entities it picked.
+     */
+    protected final List<T> readCopies(Supplier<? extends Collection<T>> reader) {
+        List<T> copies = read(() -> {
+            List<T> result = new ArrayList<>();
+            reader.get().forEach(entity -> result.add(copy(entity)));
+            return result;
+        });
+        copies.forEach(this::link);
+        return copies;
+    }
+
+    /**
+     * Stored entities in id order, for queries that only read their columns; never hand these out.
+     */
+    protected final List<T> scan() {
+        return read(() -> entities.values().stream()
+                .sorted(Comparator.comparing(this::getId))
+                .toList());
+    }
+
+    /**
+     * Linked copies of the stored entities {@code filter} accepts, in id order.
+     */
+    protected final List<T> filter(Predicate<T> filter) {
+        return readCopies(() -> entities.values().stream()
+                .filter(filter)
+                .sorted(Comparator.comparing(this::getId))
+                .toList());
+    }
+
+    /**
+     * Linked copy of the stored entity {@code reference} points to, or {@code reference} itself if it is not
+     * stored here; used by other repositories to {@link #link} their associations. Not final, so that it
+     * reaches the target through a bean proxy.
+     */
+    public T resolve(T reference) {
+        Long id = reference == null ? null : getId(reference);
+        if (id == null) {
+            return reference;
+        }
+        return load((long) id).orElse(reference);
+    }
+
+    private Optional<T> load(long id) {
+        T loaded = readOptimistic(() -> {
+            T stored = entities.get(id);
+            return stored == null ? null : copy(stored);
+        });
+        if (loaded != null) {
+            link(loaded);
+        }
+        return Optional.ofNullable(loaded);
+    }
+
+    protected static <E> List<E> slice(Collection<E> ordered, Pageable pageable) {
+        Stream<E> stream = ordered.stream();
+        if (pageable.isPaged()) {
+            stream = stream.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        return stream.toList();
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        return write(() -> saveLocked(entity));
+    }
+
+    /**
+     * {@link #save} for use inside {@link #write} blocks.
+     */
+    protected final <S extends T> S saveLocked(S entity) {
+        checkConstraints(entity);
+        Long id = getId(entity);
+        if (id == null) {
+            id = sequence.incrementAndGet();
+            setId(entity, id);
+        } else {
+            sequence.accumulateAndGet(id, Math::max);
+        }
+        K previous = indexKeys.remove((long) id);
+        if (previous != null) {
+            removeFromIndexes(previous, id);
+        }
+        T stored = copy(entity);
+        entities.put((long) id, stored);
+        K key = indexKey(stored);
+        indexKeys.put((long) id, key);
+        addToIndexes(key, stored);
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        return write(() -> {
+            List<S> saved = new ArrayList<>();
+            entities.forEach(entity -> saved.add(saveLocked(entity)));
+            return saved;
+        });
+    }
+
+    @Override
+    public Optional<T> findById(Long id) {
+        return load(id);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return readOptimistic(() -> entities.containsKey((long) id));
+    }
+
+    @Override
+    public List<T> findAll() {
+        return readCopies(() -> entities.values().stream()
+                .sorted(Comparator.comparing(this::getId))
+                .toList());
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<Long> ids) {
+        return readCopies(() -> {
+            List<T> found = new ArrayList<>();
+            for (Long id : ids) {
+                T entity = entities.get((long) id);
+                if (entity != null) {
+                    found.add(entity);
+                }
+            }
+            return found;
+        });
+    }
+
+    @Override
+    public long count() {
+        return read(entities::size);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        write(() -> deleteLocked(id));
+    }
+
+    protected final boolean deleteLocked(long id) {
+        T removed = entities.remove(id);
+        K key = indexKeys.remove(id);
+        if (key != null) {
+            removeFromIndexes(key, id);
+        }
+        return removed != null;
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(getId(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        write(() -> {
+            ids.forEach(this::deleteLocked);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        write(() -> {
+            entities.forEach(entity -> deleteLocked(getId(entity)));
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAll() {
+        write(() -> {
+            new ArrayList<>(entities.keySet()).forEach(this::deleteLocked);
+            return null;
+        });
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        List<T> all = findAll();
+        return sort.isSorted() ? all.stream().sorted(PropertyQueries.comparator(sort)).toList() : all;
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        List<T> all = findAll(pageable.getSort());
+        return new PageImpl<>(slice(all, pageable), pageable, all.size());
+    }
+
+    @Override
+    public void flush() {
+        // writes are applied immediately
+    }
+
+    @Override
+    public <S extends T> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends T> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<T> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    @Deprecated
+    public T getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public T getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public T getReferenceById(Long id) {
+        return findById(id).orElseThrow(() -> new IllegalArgumentException("No entity with id " + id));
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        return findBy(example, FluentQuery.FetchableFluentQuery::one);
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        return findBy(example, FluentQuery.FetchableFluentQuery::all);
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        return findBy(example, query -> query.sortBy(sort).all());
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return findBy(example, query -> query.page(pageable));
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        return findBy(example, FluentQuery.FetchableFluentQuery::count);
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        return findBy(example, FluentQuery.FetchableFluentQuery::exists);
+    }
+
+    /**
+     * Matches {@code example} against every entity of the probe's type with a scan.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        Predicate<T> matching = PropertyQueries.matching(example);
+        Class<S> type = example.getProbeType();
+        return queryFunction.apply(MemoryFluentQuery.of(() -> findAll().stream()
+                .filter(type::isInstance)
+                .filter(matching)
+                .map(entity -> (S) entity)
+                .toList(), Sort.by(idProperty())));
+    }
+
+    /**
+     * Name of the id property, used to make keyset scrolling unique. {@code id} by default.
+     */
+    protected String idProperty() {
+        return "id";
+    }
+}
@@ -0,0 +1,176 @@
+package ru.practicum.shareit.storage.memory;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.BookerItemRow;
+import ru.practicum.shareit.booking.model.BookingItemRow;
+import ru.practicum.shareit.booking.model.BookingSnapshotRow;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingArchiveRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The archive is cold data, so it has no secondary indexes and answers every query with a scan.
+ */
+public class MemoryBookingArchiveRepository extends InMemoryRepository<ArchivedBooking, Void>
+        implements BookingArchiveRepository {
+
+    private final MemoryUserRepository users;
+    private final MemoryItemRepository items;
+    private final MemoryBookingRepository bookingRepository;
+
+    public MemoryBookingArchiveRepository(MemoryUserRepository users, MemoryItemRepository items,
+                                          MemoryBookingRepository bookingRepository) {
+        this.users = users;
+        this.items = items;
+        this.bookingRepository = bookingRepository;
+    }
+
+    @Override
+    public List<ArchivedBooking> findAllByBooker(long userId) {
+        return filter(b -> Objects.equals(b.getBooker().getId(), userId)).stream()
+                .sorted(Comparator.comparing(ArchivedBooking::getStart).reversed())
+                .toList();
+    }
+
+    @Override
+    public List<ArchivedBooking> findAllByOwner(long ownerId) {
+        return filter(b -> Objects.equals(b.getItem().getOwner().getId(), ownerId)).stream()
+                .sorted(Comparator.comparing(ArchivedBooking::getStart).reversed())
+                .toList();
+    }
+
+    @Override
+    public List<ArchivedBooking> findLastApprovedForItems(Collection<Long> itemIds) {
+        Set<Long> wanted = Set.copyOf(itemIds);
+        List<ArchivedBooking> approved = filter(b -> b.getStatus() == BookingStatus.APPROVED
+                && wanted.contains(b.getItem().getId()));
+        Map<Long, LocalDateTime> lastStart = approved.stream()
+                .collect(Collectors.toMap(b -> b.getItem().getId(), ArchivedBooking::getStart,
+                        (a, b) -> a.isAfter(b) ? a : b));
+        return approved.stream()
+                .filter(b -> b.getStart().equals(lastStart.get(b.getItem().getId())))
+                .toList();
+    }
+
+    @Override
+    public List<BookingSnapshotRow> findDecidedRowsByItemIdIn(Collection<Long> itemIds) {
+        Set<Long> wanted = Set.copyOf(itemIds);
+        return scan().stream()
+                .filter(b -> wanted.contains(b.getItem().getId()))
+                .filter(b -> b.getStatus() == BookingStatus.APPROVED || b.getStatus() == BookingStatus.REJECTED)
+                .map(b -> new BookingSnapshotRow(b.getId(), b.getItem().getId(), b.getStart(), b.getEnd(),
+                        b.getStatus()))
+                .toList();
+    }
+
+    @Override
+    public List<Long> findApprovedBookerIds() {
+        return scan().stream()
+                .filter(b -> b.getStatus() == BookingStatus.APPROVED)
+                .map(b -> b.getBooker().getId())
+                .distinct()
+                .toList();
+    }
+
+    @Override
+    public List<BookerItemRow> findApprovedItemRowsByBookerIdIn(Collection<Long> bookerIds) {
+        Set<Long> wanted = Set.copyOf(bookerIds);
+        return scan().stream()
+                .filter(b -> wanted.contains(b.getBooker().getId()))
+                .filter(b -> b.getStatus() == BookingStatus.APPROVED)
+                .map(b -> new BookerItemRow(b.getBooker().getId(), b.getItem().getId()))
+                .distinct()
+                .toList();
+    }
+
+    @Override
+    public boolean existsByItem_IdAndBooker_IdAndStatus(long itemId, long bookerId, BookingStatus status) {
+        return scan().stream()
+                .anyMatch(b -> Objects.equals(b.getItem().getId(), itemId)
+                        && Objects.equals(b.getBooker().getId(), bookerId)
+                        && b.getStatus() == status);
+    }
+
+    @Override
+    public List<BookingItemRow> findItemRowsByBookerId(long bookerId, Pageable pageable) {
+        return slice(scan().stream()
+                .filter(b -> Objects.equals(b.getBooker().getId(), bookerId))
+                .map(b -> new BookingItemRow(b.getId(), b.getItem().getId(), b.getItem().getOwner().getId(),
+                        b.getStart(), b.getEnd(), b.getStatus()))
+                .toList(), pageable);
+    }
+
+    @Override
+    public List<Long> findIdsByItemIdIn(Collection<Long> itemIds, Pageable pageable) {
+        Set<Long> wanted = Set.copyOf(itemIds);
+        return slice(scan().stream()
+                .filter(b -> wanted.contains(b.getItem().getId()))
+                .map(ArchivedBooking::getId)
+                .toList(), pageable);
+    }
+
+    @Override
+    public int copyFromBookings(Collection<Long> ids) {
+        List<ArchivedBooking> copies = bookingRepository.findAllById(ids).stream()
+                .map(b -> ArchivedBooking.builder()
+                        .id(b.getId())
+                        .start(b.getStart())
+                        .end(b.getEnd())
+                        .item(b.getItem())
+                        .booker(b.getBooker())
+                        .status(b.getStatus())
+                        .build())
+                .toList();
+        return saveAll(copies).size();
+    }
+
+    @Override
+    protected Long getId(ArchivedBooking booking) {
+        return booking.getId();
+    }
+
+    @Override
+    protected void setId(ArchivedBooking booking, Long id) {
+        booking.setId(id);
+    }
+
+    @Override
+    protected ArchivedBooking copy(ArchivedBooking booking) {
+        return ArchivedBooking.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(booking.getItem())
+                .booker(booking.getBooker())
+                .status(booking.getStatus())
+                .build();
+    }
+
+    @Override
+    protected void link(ArchivedBooking booking) {
+        booking.setItem(items.resolve(booking.getItem()));
+        booking.setBooker(users.resolve(booking.getBooker()));
+    }
+
+    @Override
+    protected Void indexKey(ArchivedBooking booking) {
+        return null;
+    }
+
+    @Override
+    protected void addToIndexes(Void key, ArchivedBooking booking) {
+    }
+
+    @Override
+    protected void removeFromIndexes(Void key, long id) {
+    }
+}
@@ -0,0 +1,294 @@
+package ru.practicum.shareit.storage.memory;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.BookerItemRow;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.BookingItemRow;
+import ru.practicum.shareit.booking.model.BookingSnapshotRow;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+
+public class MemoryBookingRepository extends InMemoryRepository<Booking, MemoryBookingRepository.Keys>
+        implements BookingRepository {
+
+    record Keys(Long bookerId, Long ownerId, Long itemId, TimeKey start) {
+    }
+
+    private final MemoryUserRepository users;
+    private final MemoryItemRepository items;
+    private final TimeIndex<Booking> byBooker = new TimeIndex<>();
+    private final TimeIndex<Booking> byOwner = new TimeIndex<>();
+    private final TimeIndex<Booking> byItem = new TimeIndex<>();
+
+    public MemoryBookingRepository(MemoryUserRepository users, MemoryItemRepository items) {
+        this.users = users;
+        this.items = items;
+    }
+
+    @Override
+    public List<Booking> findFirstPageByBooker(long userId, Pageable pageable) {
+        return readCopies(() -> slice(byBooker.get(userId).descendingMap().values(), pageable));
+    }
+
+    @Override
+    public List<Booking> findNextPageByBooker(long userId, LocalDateTime start, long id, Pageable pageable) {
+        return readCopies(() -> slice(byBooker.get(userId).headMap(new TimeKey(start, id), false)
+                .descendingMap().values(), pageable));
+    }
+
+    @Override
+    public List<Booking> findFirstPageByOwner(long ownerId, Pageable pageable) {
+        return readCopies(() -> slice(byOwner.get(ownerId).descendingMap().values(), pageable));
+    }
+
+    @Override
+    public List<Booking> findNextPageByOwner(long ownerId, LocalDateTime start, long id, Pageable pageable) {
+        return readCopies(() -> slice(byOwner.get(ownerId).headMap(new TimeKey(start, id), false)
+                .descendingMap().values(), pageable));
+    }
+
+    @Override
+    public int compareAndSetStatus(long id, BookingStatus expected, BookingStatus status) {
+        return write(() -> {
+            Booking booking = get(id);
+            if (booking == null || booking.getStatus() != expected) {
+                return 0;
+            }
+            booking.setStatus(status);
+            return 1;
+        });
+    }
+
+    @Override
+    public Optional<BookingStatus> findStatusById(long id) {
+        return readOptimistic(() -> Optional.ofNullable(get(id)).map(Booking::getStatus));
+    }
+
+    @Override
+    public List<Booking> findLastApprovedForItems(Collection<Long> itemIds, LocalDateTime now) {
+        return readCopies(() -> {
+            List<Booking> result = new ArrayList<>();
+            for (Long itemId : itemIds) {
+                firstApprovedGroup(byItem.get(itemId).headMap(TimeKey.before(now), false).descendingMap(), result);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public List<Booking> findNextApprovedForItems(Collection<Long> itemIds, LocalDateTime now) {
+        return readCopies(() -> {
+            List<Booking> result = new ArrayList<>();
+            for (Long itemId : itemIds) {
+                firstApprovedGroup(byItem.get(itemId).tailMap(TimeKey.after(now), false), result);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public List<BookingInterval> findApprovedIntervals(Collection<Long> itemIds, LocalDateTime from, LocalDateTime to) {
+        return read(() -> {
+            List<BookingInterval> result = new ArrayList<>();
+            for (Long itemId : itemIds) {
+                for (Booking b : byItem.get(itemId).headMap(TimeKey.before(to), false).values()) {
+                    if (b.getStatus() == BookingStatus.APPROVED && b.getEnd().isAfter(from)) {
+                        result.add(new BookingInterval(itemId, b.getStart(), b.getEnd()));
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public List<BookingSnapshotRow> findSnapshotRows(long afterId, LocalDateTime endAfter, Pageable pageable) {
+        return slice(scan().stream()
+                .filter(b -> b.getId() > afterId && b.getEnd().isAfter(endAfter))
+                .filter(b -> b.getStatus() == BookingStatus.WAITING || b.getStatus() == BookingStatus.APPROVED)
+                .map(MemoryBookingRepository::toSnapshotRow)
+                .toList(), pageable);
+    }
+
+    @Override
+    public List<BookingSnapshotRow> findSnapshotRowsByIdIn(Collection<Long> ids) {
+        return read(() -> ids.stream()
+                .map(this::get)
+                .filter(Objects::nonNull)
+                .map(MemoryBookingRepository::toSnapshotRow)
+                .toList());
+    }
+
+    @Override
+    public List<Long> findExistingIds(Collection<Long> ids) {
+        return read(() -> ids.stream()
+                .filter(id -> get(id) != null)
+                .toList());
+    }
+
+    @Override
+    public List<BookingSnapshotRow> findDecidedRowsByItemIdIn(Collection<Long> itemIds) {
+        return read(() -> itemIds.stream()
+                .flatMap(itemId -> byItem.get(itemId).values().stream())
+                .filter(b -> b.getStatus() == BookingStatus.APPROVED || b.getStatus() == BookingStatus.REJECTED)
+                .map(MemoryBookingRepository::toSnapshotRow)
+                .toList());
+    }
+
+    @Override
+    public List<Long> findApprovedBookerIds() {
+        return scan().stream()
+                .filter(b -> b.getStatus() == BookingStatus.APPROVED)
+                .map(b -> b.getBooker().getId())
+                .distinct()
+                .toList();
+    }
+
+    @Override
+    public List<BookerItemRow> findApprovedItemRowsByBookerIdIn(Collection<Long> bookerIds) {
+        return read(() -> bookerIds.stream()
+                .flatMap(bookerId -> byBooker.get(bookerId).values().stream())
+                .filter(b -> b.getStatus() == BookingStatus.APPROVED)
+                .map(b -> new BookerItemRow(b.getBooker().getId(), b.getItem().getId()))
+                .distinct()
+                .toList());
+    }
+
+    @Override
+    public Optional<Long> findMaxId() {
+        return scan().stream()
+                .map(Booking::getId)
+                .reduce(Math::max);
+    }
+
+    @Override
+    public boolean existsByItem_IdAndBooker_IdAndStatusAndEndBefore(long itemId, long bookerId, BookingStatus status,
+                                                                    LocalDateTime time) {
+        return read(() -> byItem.get(itemId).values().stream()
+                .anyMatch(b -> Objects.equals(b.getBooker().getId(), bookerId)
+                        && b.getStatus() == status
+                        && b.getEnd().isBefore(time)));
+    }
+
+    @Override
+    public List<Long> findIdsEndedBefore(LocalDateTime cutoff, Pageable pageable) {
+        return slice(scan().stream()
+                .filter(b -> b.getEnd().isBefore(cutoff))
+                .map(Booking::getId)
+                .toList(), pageable);
+    }
+
+    @Override
+    public Optional<LocalDateTime> findOldestEndBefore(LocalDateTime cutoff) {
+        return scan().stream()
+                .map(Booking::getEnd)
+                .filter(end -> end.isBefore(cutoff))
+                .min(Comparator.naturalOrder());
+    }
+
+    @Override
+    public int deleteAllByIdIn(Collection<Long> ids) {
+        return write(() -> (int) ids.stream()
+                .filter(this::deleteLocked)
+                .count());
+    }
+
+    @Override
+    public List<BookingItemRow> findItemRowsByBookerId(long bookerId, Pageable pageable) {
+        return read(() -> slice(byBooker.get(bookerId).values().stream()
+                .map(b -> new BookingItemRow(b.getId(), b.getItem().getId(), b.getItem().getOwner().getId(),
+                        b.getStart(), b.getEnd(), b.getStatus()))
+                .sorted(Comparator.comparing(BookingItemRow::id))
+                .toList(), pageable));
+    }
+
+    @Override
+    public List<Long> findIdsByItemIdIn(Collection<Long> itemIds, Pageable pageable) {
+        return read(() -> slice(itemIds.stream()
+                .distinct()
+                .flatMap(itemId -> byItem.get(itemId).values().stream())
+                .map(Booking::getId)
+                .sorted()
+                .toList(), pageable));
+    }
+
+    private static BookingSnapshotRow toSnapshotRow(Booking b) {
+        return new BookingSnapshotRow(b.getId(), b.getItem().getId(), b.getStart(), b.getEnd(), b.getStatus());
+    }
+
+    /**
+     * Adds every APPROVED booking sharing the start time of the first APPROVED one in {@code ordered},
+     * matching the {@code start = (select max/min ...)} semantics of the JPA query.
+     */
+    private static void firstApprovedGroup(NavigableMap<TimeKey, Booking> ordered, List<Booking> result) {
+        LocalDateTime groupStart = null;
+        for (Booking booking : ordered.values()) {
+            if (groupStart != null && !booking.getStart().equals(groupStart)) {
+                return;
+            }
+            if (booking.getStatus() == BookingStatus.APPROVED) {
+                groupStart = booking.getStart();
+                result.add(booking);
+            }
+        }
+    }
+
+    @Override
+    protected Long getId(Booking booking) {
+        return booking.getId();
+    }
+
+    @Override
+    protected void setId(Booking booking, Long id) {
+        booking.setId(id);
+    }
+
+    @Override
+    protected Booking copy(Booking booking) {
+        return Booking.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(booking.getItem())
+                .booker(booking.getBooker())
+                .status(booking.getStatus())
+                .build();
+    }
+
+    @Override
+    protected void link(Booking booking) {
+        booking.setItem(items.resolve(booking.getItem()));
+        booking.setBooker(users.resolve(booking.getBooker()));
+    }
+
+    @Override
+    protected Keys indexKey(Booking booking) {
+        Long ownerId = booking.getItem().getOwner() != null ? booking.getItem().getOwner().getId() : null;
+        return new Keys(booking.getBooker().getId(), ownerId, booking.getItem().getId(),
+                new TimeKey(booking.getStart(), booking.getId()));
+    }
+
+    @Override
+    protected void addToIndexes(Keys keys, Booking booking) {
+        byBooker.add(keys.bookerId(), keys.start(), booking);
+        byOwner.add(keys.ownerId(), keys.start(), booking);
+        byItem.add(keys.itemId(), keys.start(), booking);
+    }
+
+    @Override
+    protected void removeFromIndexes(Keys keys, long id) {
+        byBooker.remove(keys.bookerId(), keys.start());
+        byOwner.remove(keys.ownerId(), keys.start());
+        byItem.remove(keys.itemId(), keys.start());
+    }
+}
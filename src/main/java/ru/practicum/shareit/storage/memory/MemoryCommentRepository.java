@@ -0,0 +1,127 @@
+package ru.practicum.shareit.storage.memory;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentItemRow;
+import ru.practicum.shareit.item.storage.CommentRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+public class MemoryCommentRepository extends InMemoryRepository<Comment, MemoryCommentRepository.Keys>
+        implements CommentRepository {
+
+    record Keys(Long itemId, Long ownerId, TimeKey created) {
+    }
+
+    private final MemoryUserRepository users;
+    private final MemoryItemRepository items;
+    private final TimeIndex<Comment> byItem = new TimeIndex<>();
+    private final TimeIndex<Comment> byOwner = new TimeIndex<>();
+
+    public MemoryCommentRepository(MemoryUserRepository users, MemoryItemRepository items) {
+        this.users = users;
+        this.items = items;
+    }
+
+    @Override
+    public List<Comment> findLatestByItemId(long itemId, Pageable pageable) {
+        return readCopies(() -> slice(byItem.get(itemId).descendingMap().values(), pageable));
+    }
+
+    @Override
+    public List<Comment> findPageByItemIdBefore(long itemId, LocalDateTime created, long id, Pageable pageable) {
+        return readCopies(() -> slice(byItem.get(itemId).headMap(new TimeKey(created, id), false)
+                .descendingMap().values(), pageable));
+    }
+
+    @Override
+    public List<Long> findLatestIdsPerItem(Collection<Long> itemIds, int limit) {
+        return read(() -> {
+            List<Long> ids = new ArrayList<>();
+            for (Long itemId : itemIds) {
+                byItem.get(itemId).descendingMap().values().stream()
+                        .limit(limit)
+                        .map(Comment::getId)
+                        .forEach(ids::add);
+            }
+            return ids;
+        });
+    }
+
+    @Override
+    public List<Comment> findAllWithAuthorByIdIn(Collection<Long> ids) {
+        return findAllById(ids);
+    }
+
+    @Override
+    public List<Comment> findAllByOwnerItems(long ownerId) {
+        return readCopies(() -> byOwner.get(ownerId).values());
+    }
+
+    @Override
+    public List<CommentItemRow> findItemRowsByAuthorId(long authorId, Pageable pageable) {
+        return slice(scan().stream()
+                .filter(c -> Objects.equals(c.getAuthor().getId(), authorId))
+                .map(c -> new CommentItemRow(c.getId(), c.getItem().getId()))
+                .toList(), pageable);
+    }
+
+    @Override
+    public List<Long> findIdsByItemIdIn(Collection<Long> itemIds, Pageable pageable) {
+        Set<Long> wanted = Set.copyOf(itemIds);
+        return slice(scan().stream()
+                .filter(c -> wanted.contains(c.getItem().getId()))
+                .map(Comment::getId)
+                .toList(), pageable);
+    }
+
+    @Override
+    protected Long getId(Comment comment) {
+        return comment.getId();
+    }
+
+    @Override
+    protected void setId(Comment comment, Long id) {
+        comment.setId(id);
+    }
+
+    @Override
+    protected Comment copy(Comment comment) {
+        return Comment.builder()
+                .id(comment.getId())
+                .text(comment.getText())
+                .item(comment.getItem())
+                .author(comment.getAuthor())
+                .created(comment.getCreated())
+                .build();
+    }
+
+    @Override
+    protected void link(Comment comment) {
+        comment.setItem(items.resolve(comment.getItem()));
+        comment.setAuthor(users.resolve(comment.getAuthor()));
+    }
+
+    @Override
+    protected Keys indexKey(Comment comment) {
+        Long ownerId = comment.getItem().getOwner() != null ? comment.getItem().getOwner().getId() : null;
+        return new Keys(comment.getItem().getId(), ownerId, new TimeKey(comment.getCreated(), comment.getId()));
+    }
+
+    @Override
+    protected void addToIndexes(Keys keys, Comment comment) {
+        byItem.add(keys.itemId(), keys.created(), comment);
+        byOwner.add(keys.ownerId(), keys.created(), comment);
+    }
+
+    @Override
+    protected void removeFromIndexes(Keys keys, long id) {
+        byItem.remove(keys.itemId(), keys.created());
+        byOwner.remove(keys.ownerId(), keys.created());
+    }
+}
@@ -0,0 +1,190 @@
+package ru.practicum.shareit.storage.memory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * {@link FluentQuery.FetchableFluentQuery} over the entities an in-memory repository matched. Projections to
+ * interfaces are proxies, as with JPA; records are built through their canonical constructor and other
+ * classes through their default one, from the properties of the same name. {@link #project} is only a fetch
+ * hint and is ignored.
+ *
+ * @param <S> matched entity type
+ * @param <R> result type
+ */
+final class MemoryFluentQuery<S, R> implements FluentQuery.FetchableFluentQuery<R> {
+
+    private static final SpelAwareProxyProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    private final Supplier<List<S>> matches;
+    private final Sort idOrder;
+    private final Sort sort;
+    private final int limit;
+    private final Function<S, R> mapper;
+
+    MemoryFluentQuery(Supplier<List<S>> matches, Sort idOrder, Sort sort, int limit, Function<S, R> mapper) {
+        this.matches = matches;
+        this.idOrder = idOrder;
+        this.sort = sort;
+        this.limit = limit;
+        this.mapper = mapper;
+    }
+
+    static <S> MemoryFluentQuery<S, S> of(Supplier<List<S>> matches, Sort idOrder) {
+        return new MemoryFluentQuery<>(matches, idOrder, Sort.unsorted(), 0, Function.identity());
+    }
+
+    @Override
+    public FetchableFluentQuery<R> sortBy(Sort sort) {
+        return new MemoryFluentQuery<>(matches, idOrder, this.sort.and(sort), limit, mapper);
+    }
+
+    @Override
+    public FetchableFluentQuery<R> limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+        return new MemoryFluentQuery<>(matches, idOrder, sort, limit, mapper);
+    }
+
+    @Override
+    public <P> FetchableFluentQuery<P> as(Class<P> resultType) {
+        return new MemoryFluentQuery<>(matches, idOrder, sort, limit,
+                mapper.andThen(result -> project(result, resultType)));
+    }
+
+    @Override
+    public FetchableFluentQuery<R> project(Collection<String> properties) {
+        return this;
+    }
+
+    @Override
+    public R oneValue() {
+        List<S> found = ordered(sort).limit(2).toList();
+        if (found.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1);
+        }
+        return found.isEmpty() ? null : mapper.apply(found.get(0));
+    }
+
+    @Override
+    public R firstValue() {
+        return ordered(sort).findFirst().map(mapper).orElse(null);
+    }
+
+    @Override
+    public List<R> all() {
+        return stream().toList();
+    }
+
+    @Override
+    public Window<R> scroll(ScrollPosition position) {
+        int size = limit > 0 ? limit : Integer.MAX_VALUE;
+        if (position instanceof OffsetScrollPosition offset) {
+            List<S> found = ordered(sort).skip(offset.isInitial() ? 0 : offset.getOffset()).limit(size + 1L)
+                    .toList();
+            boolean hasNext = found.size() > size;
+            List<S> content = hasNext ? found.subList(0, size) : found;
+            return Window.from(content.stream().map(mapper).toList(), offset.positionFunction(), hasNext);
+        }
+        KeysetScrollPosition keyset = (KeysetScrollPosition) position;
+        Sort keysetSort = sort.isSorted() ? sort.and(idOrder) : idOrder;
+        Comparator<Map<String, Object>> byKeys = PropertyQueries.keysComparator(keysetSort);
+        int sign = keyset.scrollsForward() ? 1 : -1;
+        List<S> found = ordered(keyset.scrollsForward() ? keysetSort : reverse(keysetSort))
+                .filter(e -> keyset.isInitial()
+                        || sign * byKeys.compare(PropertyQueries.keys(e, keysetSort), keyset.getKeys()) > 0)
+                .limit(size + 1L)
+                .toList();
+        boolean hasNext = found.size() > size;
+        List<S> content = hasNext ? found.subList(0, size) : found;
+        if (keyset.scrollsBackward()) {
+            content = content.reversed();
+        }
+        List<S> window = content;
+        return Window.from(window.stream().map(mapper).toList(),
+                i -> ScrollPosition.of(PropertyQueries.keys(window.get(i), keysetSort), keyset.getDirection()),
+                hasNext);
+    }
+
+    @Override
+    public Page<R> page(Pageable pageable) {
+        List<S> all = ordered(pageable.getSort().isSorted() ? pageable.getSort() : sort).toList();
+        return new PageImpl<>(InMemoryRepository.slice(all, pageable).stream().map(mapper).toList(), pageable,
+                all.size());
+    }
+
+    @Override
+    public Stream<R> stream() {
+        Stream<S> ordered = ordered(sort);
+        return (limit > 0 ? ordered.limit(limit) : ordered).map(mapper);
+    }
+
+    @Override
+    public long count() {
+        return matches.get().size();
+    }
+
+    @Override
+    public boolean exists() {
+        return !matches.get().isEmpty();
+    }
+
+    private Stream<S> ordered(Sort sort) {
+        List<S> found = matches.get();
+        return sort.isSorted() ? found.stream().sorted(PropertyQueries.comparator(sort)) : found.stream();
+    }
+
+    private static Sort reverse(Sort sort) {
+        return Sort.by(sort.stream().map(order -> order.with(order.getDirection().isAscending()
+                ? Sort.Direction.DESC : Sort.Direction.ASC)).toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <P> P project(Object source, Class<P> type) {
+        if (type.isInstance(source)) {
+            return (P) source;
+        }
+        if (type.isInterface()) {
+            return PROJECTIONS.createProjection(type, source);
+        }
+        if (type.isRecord()) {
+            RecordComponent[] components = type.getRecordComponents();
+            Object[] values = new Object[components.length];
+            Class<?>[] types = new Class<?>[components.length];
+            for (int i = 0; i < components.length; i++) {
+                values[i] = PropertyQueries.value(source, components[i].getName());
+                types[i] = components[i].getType();
+            }
+            try {
+                Constructor<P> constructor = type.getDeclaredConstructor(types);
+                return BeanUtils.instantiateClass(constructor, values);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("Record " + type.getName() + " has no canonical constructor", e);
+            }
+        }
+        P target = BeanUtils.instantiateClass(type);
+        BeanUtils.copyProperties(source, target);
+        return target;
+    }
+}
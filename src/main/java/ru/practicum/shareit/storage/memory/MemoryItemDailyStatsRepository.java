@@ -0,0 +1,75 @@
+package ru.practicum.shareit.storage.memory;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.ItemDailyStats;
+import ru.practicum.shareit.item.model.ItemStatsRow;
+import ru.practicum.shareit.item.storage.ItemDailyStatsRepository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public class MemoryItemDailyStatsRepository extends InMemoryRepository<ItemDailyStats, Void>
+        implements ItemDailyStatsRepository {
+
+    @Override
+    public List<ItemStatsRow> findRows(Collection<Long> itemIds, LocalDate from, LocalDate to) {
+        return findAllByItemIdInAndStatDateBetween(itemIds, from, to).stream()
+                .map(s -> new ItemStatsRow(s.getItemId(), s.getStatDate(), s.getBookedMinutes(),
+                        (long) s.getApproved(), (long) s.getRejected()))
+                .toList();
+    }
+
+    @Override
+    public List<ItemDailyStats> findAllByItemIdInAndStatDateBetween(Collection<Long> itemIds, LocalDate from,
+                                                                    LocalDate to) {
+        Set<Long> wanted = Set.copyOf(itemIds);
+        return filter(s -> wanted.contains(s.getItemId())
+                && !s.getStatDate().isBefore(from) && !s.getStatDate().isAfter(to));
+    }
+
+    @Override
+    public List<Long> findIdsByItemIdIn(Collection<Long> itemIds, Pageable pageable) {
+        Set<Long> wanted = Set.copyOf(itemIds);
+        return slice(scan().stream()
+                .filter(s -> wanted.contains(s.getItemId()))
+                .map(ItemDailyStats::getId)
+                .toList(), pageable);
+    }
+
+    @Override
+    protected Long getId(ItemDailyStats stats) {
+        return stats.getId();
+    }
+
+    @Override
+    protected void setId(ItemDailyStats stats, Long id) {
+        stats.setId(id);
+    }
+
+    @Override
+    protected ItemDailyStats copy(ItemDailyStats stats) {
+        return ItemDailyStats.builder()
+                .id(stats.getId())
+                .itemId(stats.getItemId())
+                .statDate(stats.getStatDate())
+                .bookedMinutes(stats.getBookedMinutes())
+                .approved(stats.getApproved())
+                .rejected(stats.getRejected())
+                .build();
+    }
+
+    @Override
+    protected Void indexKey(ItemDailyStats stats) {
+        return null;
+    }
+
+    @Override
+    protected void addToIndexes(Void key, ItemDailyStats stats) {
+    }
+
+    @Override
+    protected void removeFromIndexes(Void key, long id) {
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.storage.memory;
+
+import ru.practicum.shareit.item.model.ItemPopularity;
+import ru.practicum.shareit.item.storage.ItemPopularityRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class MemoryItemPopularityRepository extends InMemoryRepository<ItemPopularity, Void>
+        implements ItemPopularityRepository {
+
+    private final MemoryItemRepository itemRepository;
+
+    public MemoryItemPopularityRepository(MemoryItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    public List<ItemPopularity> findAllByScoreGreaterThanEqual(double minScore) {
+        return filter(p -> p.getScore() >= minScore);
+    }
+
+    @Override
+    public int addCounts(long itemId, long views, long bookings, double score, LocalDateTime scoredAt,
+                         double halfLifeSeconds) {
+        if (!itemRepository.existsById(itemId)) {
+            return 0;
+        }
+        return write(() -> {
+            ItemPopularity popularity = get(itemId);
+            if (popularity == null) {
+                popularity = ItemPopularity.builder().itemId(itemId).score(score).scoredAt(scoredAt).build();
+            } else {
+                double elapsed = Duration.between(popularity.getScoredAt(), scoredAt).toMillis() / 1000.0;
+                popularity.setScore(popularity.getScore() * Math.pow(2, Math.min(0, -elapsed / halfLifeSeconds))
+                        + score * Math.pow(2, Math.min(0, elapsed / halfLifeSeconds)));
+                if (scoredAt.isAfter(popularity.getScoredAt())) {
+                    popularity.setScoredAt(scoredAt);
+                }
+            }
+            popularity.setViews(popularity.getViews() + views);
+            popularity.setBookings(popularity.getBookings() + bookings);
+            saveLocked(popularity);
+            return 1;
+        });
+    }
+
+    @Override
+    protected Long getId(ItemPopularity popularity) {
+        return popularity.getItemId();
+    }
+
+    @Override
+    protected void setId(ItemPopularity popularity, Long id) {
+        popularity.setItemId(id);
+    }
+
+    @Override
+    protected String idProperty() {
+        return "itemId";
+    }
+
+    @Override
+    protected ItemPopularity copy(ItemPopularity popularity) {
+        return ItemPopularity.builder()
+                .itemId(popularity.getItemId())
+                .views(popularity.getViews())
+                .bookings(popularity.getBookings())
+                .score(popularity.getScore())
+                .scoredAt(popularity.getScoredAt())
+                .build();
+    }
+
+    @Override
+    protected Void indexKey(ItemPopularity popularity) {
+        return null;
+    }
+
+    @Override
+    protected void addToIndexes(Void key, ItemPopularity popularity) {
+    }
+
+    @Override
+    protected void removeFromIndexes(Void key, long id) {
+    }
+}
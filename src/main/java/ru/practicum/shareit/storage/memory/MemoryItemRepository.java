@@ -0,0 +1,234 @@
+package ru.practicum.shareit.storage.memory;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongAVLTreeSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSortedSet;
+import it.unimi.dsi.fastutil.longs.LongSortedSets;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchRow;
+import ru.practicum.shareit.item.model.ItemSnapshotRow;
+import ru.practicum.shareit.item.model.ItemSummary;
+import ru.practicum.shareit.item.service.TrigramIndex;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Items in memory. Similarity search runs on a {@link TrigramIndex} of the available items' text in place of
+ * the {@code pg_trgm} GIN indexes, with {@code pg_trgm}'s default word similarity threshold.
+ */
+public class MemoryItemRepository extends InMemoryRepository<Item, Long> implements ItemRepository {
+
+    private static final double SIMILARITY_THRESHOLD = 0.6;
+
+    private final MemoryUserRepository users;
+    private final Long2ObjectOpenHashMap<LongSortedSet> idsByOwner = new Long2ObjectOpenHashMap<>();
+    private final TrigramIndex trigrams = new TrigramIndex();
+    private final Long2ObjectOpenHashMap<LongSet> trigramsById = new Long2ObjectOpenHashMap<>();
+
+    public MemoryItemRepository(MemoryUserRepository users) {
+        this.users = users;
+    }
+
+    @Override
+    public List<Item> findAllByOwnerId(long ownerId) {
+        return readCopies(() -> ownerItemIds(ownerId).longStream()
+                .mapToObj(this::get)
+                .toList());
+    }
+
+    @Override
+    public List<ItemSummary> findSummariesByOwnerId(long ownerId) {
+        return read(() -> ownerItemIds(ownerId).longStream()
+                .mapToObj(this::get)
+                .map(i -> new ItemSummary(i.getId(), i.getName(), i.getAvailable(), i.getOwner().getId(),
+                        i.getRequestId(), i.getCommentCount()))
+                .toList());
+    }
+
+    @Override
+    public List<Long> searchAvailableIdsByText(String normalizedText) {
+        return scan().stream()
+                .filter(i -> Boolean.TRUE.equals(i.getAvailable()))
+                .filter(i -> contains(i.getName(), normalizedText) || contains(i.getDescription(), normalizedText))
+                .map(Item::getId)
+                .toList();
+    }
+
+    @Override
+    public List<Long> searchAvailableIdsBySimilarity(String normalizedText, int limit) {
+        LongSet query = TrigramIndex.trigrams(normalizedText);
+        return read(() -> trigrams.match(query, SIMILARITY_THRESHOLD, limit));
+    }
+
+    @Override
+    public List<ItemSearchRow> findSearchRows(long afterId, Pageable pageable) {
+        return slice(scan().stream()
+                .filter(i -> i.getId() > afterId)
+                .filter(i -> Boolean.TRUE.equals(i.getAvailable()))
+                .map(i -> new ItemSearchRow(i.getId(), i.getName(), i.getDescription()))
+                .toList(), pageable);
+    }
+
+    @Override
+    public List<Item> findAllWithOwnerByIdIn(Collection<Long> ids) {
+        return findAllById(ids);
+    }
+
+    @Override
+    public List<Long> findExistingIds(Collection<Long> ids) {
+        return read(() -> ids.stream()
+                .filter(id -> get(id) != null)
+                .toList());
+    }
+
+    @Override
+    public Optional<Item> findByIdAndAvailableTrue(Long id) {
+        return findById(id).filter(i -> Boolean.TRUE.equals(i.getAvailable()));
+    }
+
+    @Override
+    public List<ItemSnapshotRow> findSnapshotRows(long afterId, Pageable pageable) {
+        return slice(scan().stream()
+                .filter(i -> i.getId() > afterId)
+                .map(i -> new ItemSnapshotRow(i.getId(), i.getOwner().getId(), i.getAvailable()))
+                .toList(), pageable);
+    }
+
+    @Override
+    public int incrementCommentCount(long itemId) {
+        return write(() -> {
+            Item item = get(itemId);
+            if (item == null) {
+                return 0;
+            }
+            item.setCommentCount(item.getCommentCount() + 1);
+            return 1;
+        });
+    }
+
+    @Override
+    public int decreaseCommentCount(long itemId, long count) {
+        return write(() -> {
+            Item item = get(itemId);
+            if (item == null) {
+                return 0;
+            }
+            item.setCommentCount(Math.max(item.getCommentCount() - count, 0));
+            return 1;
+        });
+    }
+
+    @Override
+    public List<Long> findIdsByOwnerId(long ownerId, Pageable pageable) {
+        return read(() -> slice(List.copyOf(ownerItemIds(ownerId)), pageable));
+    }
+
+    @Override
+    public List<Long> findAvailableIdsByOwnerId(long ownerId, Pageable pageable) {
+        return read(() -> slice(ownerItemIds(ownerId).longStream()
+                .filter(id -> Boolean.TRUE.equals(get(id).getAvailable()))
+                .boxed()
+                .toList(), pageable));
+    }
+
+    @Override
+    public int markUnavailable(Collection<Long> ids) {
+        return write(() -> {
+            int updated = 0;
+            for (Long id : ids) {
+                Item item = get(id);
+                if (item != null) {
+                    item.setAvailable(false);
+                    removeTrigrams(id);
+                    updated++;
+                }
+            }
+            return updated;
+        });
+    }
+
+    private LongSortedSet ownerItemIds(long ownerId) {
+        return idsByOwner.getOrDefault(ownerId, LongSortedSets.EMPTY_SET);
+    }
+
+    private void removeTrigrams(long id) {
+        LongSet previous = trigramsById.remove(id);
+        if (previous != null) {
+            trigrams.remove(id, previous);
+        }
+    }
+
+    private static boolean contains(String value, String normalizedText) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(normalizedText);
+    }
+
+    @Override
+    protected Long getId(Item item) {
+        return item.getId();
+    }
+
+    @Override
+    protected void setId(Item item, Long id) {
+        item.setId(id);
+    }
+
+    @Override
+    protected Item copy(Item item) {
+        return Item.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .owner(item.getOwner())
+                .requestId(item.getRequestId())
+                .commentCount(item.getCommentCount())
+                .build();
+    }
+
+    @Override
+    protected void link(Item item) {
+        item.setOwner(users.resolve(item.getOwner()));
+    }
+
+    @Override
+    protected Long indexKey(Item item) {
+        return item.getOwner() != null ? item.getOwner().getId() : null;
+    }
+
+    @Override
+    protected void addToIndexes(Long ownerId, Item item) {
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            LongSet itemTrigrams = TrigramIndex.trigrams(
+                    (item.getName() + " " + item.getDescription()).trim().toLowerCase(Locale.ROOT));
+            trigrams.add(item.getId(), itemTrigrams);
+            trigramsById.put((long) item.getId(), itemTrigrams);
+        }
+        if (ownerId == null) {
+            return;
+        }
+        LongSortedSet ids = idsByOwner.get((long) ownerId);
+        if (ids == null) {
+            ids = new LongAVLTreeSet();
+            idsByOwner.put((long) ownerId, ids);
+        }
+        ids.add((long) item.getId());
+    }
+
+    @Override
+    protected void removeFromIndexes(Long ownerId, long id) {
+        removeTrigrams(id);
+        if (ownerId == null) {
+            return;
+        }
+        LongSortedSet ids = idsByOwner.get((long) ownerId);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            idsByOwner.remove((long) ownerId);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.storage.memory;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.ItemStatsDelta;
+import ru.practicum.shareit.item.model.ItemStatsRow;
+import ru.practicum.shareit.item.storage.ItemStatsDeltaRepository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+public class MemoryItemStatsDeltaRepository extends InMemoryRepository<ItemStatsDelta, Void>
+        implements ItemStatsDeltaRepository {
+
+    private record Bucket(Long itemId, LocalDate statDate) {
+    }
+
+    @Override
+    public Optional<Long> findMaxId() {
+        return scan().stream()
+                .map(ItemStatsDelta::getId)
+                .reduce(Math::max);
+    }
+
+    @Override
+    public List<ItemStatsRow> sumUpTo(long maxId) {
+        return sum(d -> d.getId() <= maxId);
+    }
+
+    @Override
+    public List<ItemStatsRow> sumForItems(Collection<Long> itemIds, LocalDate from, LocalDate to) {
+        Set<Long> wanted = Set.copyOf(itemIds);
+        return sum(d -> wanted.contains(d.getItemId())
+                && !d.getStatDate().isBefore(from)
+                && !d.getStatDate().isAfter(to));
+    }
+
+    @Override
+    public List<Long> findItemIdsBetween(long afterId, long maxId) {
+        return scan().stream()
+                .filter(d -> d.getId() > afterId && d.getId() <= maxId)
+                .map(ItemStatsDelta::getItemId)
+                .distinct()
+                .toList();
+    }
+
+    @Override
+    public int deleteUpTo(long maxId) {
+        List<Long> ids = scan().stream()
+                .map(ItemStatsDelta::getId)
+                .filter(id -> id <= maxId)
+                .toList();
+        deleteAllById(ids);
+        return ids.size();
+    }
+
+    private List<ItemStatsRow> sum(Predicate<ItemStatsDelta> filter) {
+        return scan().stream()
+                .filter(filter)
+                .collect(Collectors.groupingBy(d -> new Bucket(d.getItemId(), d.getStatDate())))
+                .entrySet().stream()
+                .map(e -> new ItemStatsRow(e.getKey().itemId(), e.getKey().statDate(),
+                        e.getValue().stream().mapToLong(ItemStatsDelta::getBookedMinutes).sum(),
+                        e.getValue().stream().mapToLong(ItemStatsDelta::getApproved).sum(),
+                        e.getValue().stream().mapToLong(ItemStatsDelta::getRejected).sum()))
+                .toList();
+    }
+
+    @Override
+    public List<Long> findIdsByItemIdIn(Collection<Long> itemIds, Pageable pageable) {
+        Set<Long> wanted = Set.copyOf(itemIds);
+        return slice(scan().stream()
+                .filter(d -> wanted.contains(d.getItemId()))
+                .map(ItemStatsDelta::getId)
+                .toList(), pageable);
+    }
+
+    @Override
+    protected Long getId(ItemStatsDelta delta) {
+        return delta.getId();
+    }
+
+    @Override
+    protected void setId(ItemStatsDelta delta, Long id) {
+        delta.setId(id);
+    }
+
+    @Override
+    protected ItemStatsDelta copy(ItemStatsDelta delta) {
+        return ItemStatsDelta.builder()
+                .id(delta.getId())
+                .itemId(delta.getItemId())
+                .statDate(delta.getStatDate())
+                .bookedMinutes(delta.getBookedMinutes())
+                .approved(delta.getApproved())
+                .rejected(delta.getRejected())
+                .build();
+    }
+
+    @Override
+    protected Void indexKey(ItemStatsDelta delta) {
+        return null;
+    }
+
+    @Override
+    protected void addToIndexes(Void key, ItemStatsDelta delta) {
+    }
+
+    @Override
+    protected void removeFromIndexes(Void key, long id) {
+    }
+}
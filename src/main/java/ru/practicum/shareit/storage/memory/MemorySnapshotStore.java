@@ -0,0 +1,317 @@
+package ru.practicum.shareit.storage.memory;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Writes the in-memory tables to a memory-mapped file on a schedule and on shutdown, and loads it back
+ * on startup. A snapshot is written to a temporary file and moved over the previous one, so a crash
+ * while writing leaves the last complete snapshot in place.
+ *
+ * <p>Children are captured before their parents (comments and bookings before items, items before users),
+ * so a row created in between only adds parents. A parent purged in between, as the user deletion pipeline
+ * does, would leave its captured children pointing at nothing, so only children whose parents were captured
+ * are written; the purge was about to remove them anyway. Every reference in the file then resolves on load.
+ */
+@Slf4j
+public class MemorySnapshotStore {
+
+    private static final int MAGIC = 0x53484954;
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_DELETED_AT = 1;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    private final Path path;
+    private final MemoryUserRepository users;
+    private final MemoryItemRepository items;
+    private final MemoryBookingRepository bookings;
+    private final MemoryBookingArchiveRepository archive;
+    private final MemoryCommentRepository comments;
+
+    public MemorySnapshotStore(Path path, MemoryUserRepository users, MemoryItemRepository items,
+                               MemoryBookingRepository bookings, MemoryBookingArchiveRepository archive,
+                               MemoryCommentRepository comments) {
+        this.path = path;
+        this.users = users;
+        this.items = items;
+        this.bookings = bookings;
+        this.archive = archive;
+        this.comments = comments;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalStateException("Not a storage snapshot: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION && version != VERSION_WITHOUT_DELETED_AT) {
+                throw new IllegalStateException("Unsupported storage snapshot version " + version + ": " + path);
+            }
+            readUsers(buffer, version);
+            readItems(buffer);
+            readBookings(buffer);
+            readArchive(buffer);
+            readComments(buffer);
+            log.info("Loaded storage snapshot {}: users={}, items={}, bookings={}, comments={}",
+                    path, users.count(), items.count(), bookings.count(), comments.count());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read storage snapshot " + path, e);
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${shareit.storage.memory.snapshot-interval:PT5M}",
+            initialDelayString = "${shareit.storage.memory.snapshot-interval:PT5M}")
+    public void save() {
+        List<Comment> capturedComments = comments.findAll();
+        List<ArchivedBooking> capturedArchive = archive.findAll();
+        List<Booking> capturedBookings = bookings.findAll();
+        List<Item> capturedItems = items.findAll();
+        List<User> userRows = users.findAllIncludingDeleted();
+
+        LongOpenHashSet userIds = new LongOpenHashSet();
+        userRows.forEach(user -> userIds.add((long) user.getId()));
+        List<Item> itemRows = capturedItems.stream()
+                .filter(item -> captured(userIds, item.getOwner().getId()))
+                .toList();
+        LongOpenHashSet itemIds = new LongOpenHashSet();
+        itemRows.forEach(item -> itemIds.add((long) item.getId()));
+        List<Booking> bookingRows = capturedBookings.stream()
+                .filter(b -> captured(itemIds, b.getItem().getId()) && captured(userIds, b.getBooker().getId()))
+                .toList();
+        List<ArchivedBooking> archiveRows = capturedArchive.stream()
+                .filter(b -> captured(itemIds, b.getItem().getId()) && captured(userIds, b.getBooker().getId()))
+                .toList();
+        List<Comment> commentRows = capturedComments.stream()
+                .filter(c -> captured(itemIds, c.getItem().getId()) && captured(userIds, c.getAuthor().getId()))
+                .toList();
+
+        long capacity = 2L * Integer.BYTES + 5L * Integer.BYTES
+                + userRows.stream().mapToLong(u -> 2L * Long.BYTES + Integer.BYTES + size(u.getName())
+                + size(u.getEmail())).sum()
+                + itemRows.stream().mapToLong(i -> 4L * Long.BYTES + 2 + size(i.getName())
+                + size(i.getDescription())).sum()
+                + (bookingRows.size() + archiveRows.size()) * (5L * Long.BYTES + 2L * Integer.BYTES + 1)
+                + commentRows.stream().mapToLong(c -> 4L * Long.BYTES + Integer.BYTES + size(c.getText())).sum();
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                buffer.putInt(MAGIC).putInt(VERSION);
+                writeUsers(buffer, userRows);
+                writeItems(buffer, itemRows);
+                writeBookings(buffer, bookingRows);
+                writeArchive(buffer, archiveRows);
+                writeComments(buffer, commentRows);
+                buffer.force();
+                channel.truncate(buffer.position());
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote storage snapshot {}: {} bytes", path, Files.size(path));
+        } catch (IOException e) {
+            log.error("Cannot write storage snapshot {}", path, e);
+        }
+    }
+
+    private void writeUsers(ByteBuffer buffer, List<User> rows) {
+        buffer.putInt(rows.size());
+        for (User user : rows) {
+            buffer.putLong(user.getId());
+            putString(buffer, user.getName());
+            putString(buffer, user.getEmail());
+            putTime(buffer, user.getDeletedAt());
+        }
+    }
+
+    private void readUsers(ByteBuffer buffer, int version) {
+        for (int n = buffer.getInt(); n > 0; n--) {
+            users.save(User.builder()
+                    .id(buffer.getLong())
+                    .name(getString(buffer))
+                    .email(getString(buffer))
+                    .deletedAt(version > VERSION_WITHOUT_DELETED_AT ? getTime(buffer) : null)
+                    .build());
+        }
+    }
+
+    private void writeItems(ByteBuffer buffer, List<Item> rows) {
+        buffer.putInt(rows.size());
+        for (Item item : rows) {
+            buffer.putLong(item.getId());
+            putString(buffer, item.getName());
+            putString(buffer, item.getDescription());
+            buffer.put((byte) (Boolean.TRUE.equals(item.getAvailable()) ? 1 : 0));
+            buffer.putLong(item.getOwner().getId());
+            buffer.put((byte) (item.getRequestId() != null ? 1 : 0));
+            buffer.putLong(item.getRequestId() != null ? item.getRequestId() : 0);
+            buffer.putLong(item.getCommentCount());
+        }
+    }
+
+    private void readItems(ByteBuffer buffer) {
+        for (int n = buffer.getInt(); n > 0; n--) {
+            Item item = Item.builder()
+                    .id(buffer.getLong())
+                    .name(getString(buffer))
+                    .description(getString(buffer))
+                    .available(buffer.get() == 1)
+                    .owner(users.getReferenceById(buffer.getLong()))
+                    .build();
+            boolean hasRequest = buffer.get() == 1;
+            long requestId = buffer.getLong();
+            item.setRequestId(hasRequest ? requestId : null);
+            item.setCommentCount(buffer.getLong());
+            items.save(item);
+        }
+    }
+
+    private void writeBookings(ByteBuffer buffer, List<Booking> rows) {
+        buffer.putInt(rows.size());
+        for (Booking booking : rows) {
+            putBooking(buffer, booking.getId(), booking.getStart(), booking.getEnd(), booking.getItem(),
+                    booking.getBooker(), booking.getStatus());
+        }
+    }
+
+    private void readBookings(ByteBuffer buffer) {
+        for (int n = buffer.getInt(); n > 0; n--) {
+            bookings.save(Booking.builder()
+                    .id(buffer.getLong())
+                    .start(getTime(buffer))
+                    .end(getTime(buffer))
+                    .item(items.getReferenceById(buffer.getLong()))
+                    .booker(users.getReferenceById(buffer.getLong()))
+                    .status(BookingStatus.values()[buffer.get()])
+                    .build());
+        }
+    }
+
+    private void writeArchive(ByteBuffer buffer, List<ArchivedBooking> rows) {
+        buffer.putInt(rows.size());
+        for (ArchivedBooking booking : rows) {
+            putBooking(buffer, booking.getId(), booking.getStart(), booking.getEnd(), booking.getItem(),
+                    booking.getBooker(), booking.getStatus());
+        }
+    }
+
+    private void readArchive(ByteBuffer buffer) {
+        for (int n = buffer.getInt(); n > 0; n--) {
+            archive.save(ArchivedBooking.builder()
+                    .id(buffer.getLong())
+                    .start(getTime(buffer))
+                    .end(getTime(buffer))
+                    .item(items.getReferenceById(buffer.getLong()))
+                    .booker(users.getReferenceById(buffer.getLong()))
+                    .status(BookingStatus.values()[buffer.get()])
+                    .build());
+        }
+    }
+
+    private void writeComments(ByteBuffer buffer, List<Comment> rows) {
+        buffer.putInt(rows.size());
+        for (Comment comment : rows) {
+            buffer.putLong(comment.getId());
+            putString(buffer, comment.getText());
+            buffer.putLong(comment.getItem().getId());
+            buffer.putLong(comment.getAuthor().getId());
+            putTime(buffer, comment.getCreated());
+        }
+    }
+
+    private void readComments(ByteBuffer buffer) {
+        for (int n = buffer.getInt(); n > 0; n--) {
+            comments.save(Comment.builder()
+                    .id(buffer.getLong())
+                    .text(getString(buffer))
+                    .item(items.getReferenceById(buffer.getLong()))
+                    .author(users.getReferenceById(buffer.getLong()))
+                    .created(getTime(buffer))
+                    .build());
+        }
+    }
+
+    private static void putBooking(ByteBuffer buffer, long id, LocalDateTime start, LocalDateTime end, Item item,
+                                   User booker, BookingStatus status) {
+        buffer.putLong(id);
+        putTime(buffer, start);
+        putTime(buffer, end);
+        buffer.putLong(item.getId());
+        buffer.putLong(booker.getId());
+        buffer.put((byte) status.ordinal());
+    }
+
+    private static long size(String value) {
+        return Integer.BYTES + (value == null ? 0 : 3L * value.length());
+    }
+
+    private static boolean captured(LongOpenHashSet ids, long id) {
+        return ids.contains(id);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putTime(ByteBuffer buffer, LocalDateTime time) {
+        if (time == null) {
+            buffer.putLong(NULL_TIME).putInt(0);
+            return;
+        }
+        buffer.putLong(time.toEpochSecond(ZoneOffset.UTC)).putInt(time.getNano());
+    }
+
+    private static LocalDateTime getTime(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds == NULL_TIME ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.storage.memory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * {@code shareit.storage=memory}: replaces the Spring Data JPA repositories with the in-memory ones.
+ * The JPA, JDBC and SQL init auto-configurations are excluded by the {@code memory} profile.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.storage", havingValue = "memory")
+public class MemoryStorageConfig {
+
+    @Bean
+    public MemoryUserRepository userRepository() {
+        return new MemoryUserRepository();
+    }
+
+    @Bean
+    public MemoryUserDeletionRepository userDeletionRepository() {
+        return new MemoryUserDeletionRepository();
+    }
+
+    @Bean
+    public MemoryUserReplicationRepository userReplicationRepository() {
+        return new MemoryUserReplicationRepository();
+    }
+
+    @Bean
+    public MemoryItemRepository itemRepository(MemoryUserRepository userRepository) {
+        return new MemoryItemRepository(userRepository);
+    }
+
+    @Bean
+    public MemoryBookingRepository bookingRepository(MemoryUserRepository userRepository,
+                                                     MemoryItemRepository itemRepository) {
+        return new MemoryBookingRepository(userRepository, itemRepository);
+    }
+
+    @Bean
+    public MemoryBookingArchiveRepository bookingArchiveRepository(MemoryUserRepository userRepository,
+                                                                   MemoryItemRepository itemRepository,
+                                                                   MemoryBookingRepository bookingRepository) {
+        return new MemoryBookingArchiveRepository(userRepository, itemRepository, bookingRepository);
+    }
+
+    @Bean
+    public MemoryCommentRepository commentRepository(MemoryUserRepository userRepository,
+                                                     MemoryItemRepository itemRepository) {
+        return new MemoryCommentRepository(userRepository, itemRepository);
+    }
+
+    @Bean
+    public MemoryItemStatsDeltaRepository itemStatsDeltaRepository() {
+        return new MemoryItemStatsDeltaRepository();
+    }
+
+    @Bean
+    public MemoryItemPopularityRepository itemPopularityRepository(MemoryItemRepository itemRepository) {
+        return new MemoryItemPopularityRepository(itemRepository);
+    }
+
+    @Bean
+    public MemoryItemDailyStatsRepository itemDailyStatsRepository() {
+        return new MemoryItemDailyStatsRepository();
+    }
+
+    @Bean
+    public MemoryTransactionManager transactionManager() {
+        return new MemoryTransactionManager();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "shareit.storage.memory.snapshot-path")
+    public MemorySnapshotStore memorySnapshotStore(@Value("${shareit.storage.memory.snapshot-path}") Path path,
+                                                   MemoryUserRepository users,
+                                                   MemoryItemRepository items,
+                                                   MemoryBookingRepository bookings,
+                                                   MemoryBookingArchiveRepository archive,
+                                                   MemoryCommentRepository comments) {
+        return new MemorySnapshotStore(path, users, items, bookings, archive, comments);
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.storage.memory;
+
+import ru.practicum.shareit.user.UserDeletion;
+import ru.practicum.shareit.user.storage.UserDeletionRepository;
+
+public class MemoryUserDeletionRepository extends InMemoryRepository<UserDeletion, Void>
+        implements UserDeletionRepository {
+
+    @Override
+    protected Long getId(UserDeletion deletion) {
+        return deletion.getUserId();
+    }
+
+    @Override
+    protected void setId(UserDeletion deletion, Long id) {
+        deletion.setUserId(id);
+    }
+
+    @Override
+    protected String idProperty() {
+        return "userId";
+    }
+
+    @Override
+    protected UserDeletion copy(UserDeletion deletion) {
+        return UserDeletion.builder()
+                .userId(deletion.getUserId())
+                .requestedAt(deletion.getRequestedAt())
+                .phase(deletion.getPhase())
+                .commentsDeleted(deletion.getCommentsDeleted())
+                .bookingsDeleted(deletion.getBookingsDeleted())
+                .itemsDeleted(deletion.getItemsDeleted())
+                .completedAt(deletion.getCompletedAt())
+                .build();
+    }
+
+    @Override
+    protected Void indexKey(UserDeletion deletion) {
+        return null;
+    }
+
+    @Override
+    protected void addToIndexes(Void key, UserDeletion deletion) {
+    }
+
+    @Override
+    protected void removeFromIndexes(Void key, long id) {
+    }
+}
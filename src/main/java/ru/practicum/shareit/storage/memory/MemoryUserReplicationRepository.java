@@ -0,0 +1,61 @@
+package ru.practicum.shareit.storage.memory;
+
+import ru.practicum.shareit.user.UserReplication;
+import ru.practicum.shareit.user.storage.UserReplicationRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class MemoryUserReplicationRepository extends InMemoryRepository<UserReplication, Void>
+        implements UserReplicationRepository {
+
+    @Override
+    public List<UserReplication> findAllByRequestedAtBefore(LocalDateTime requestedAt) {
+        return filter(r -> r.getRequestedAt().isBefore(requestedAt));
+    }
+
+    @Override
+    public int deleteIfUnchanged(long userId, LocalDateTime requestedAt) {
+        return write(() -> {
+            UserReplication replication = get(userId);
+            return replication != null && replication.getRequestedAt().equals(requestedAt) && deleteLocked(userId)
+                    ? 1 : 0;
+        });
+    }
+
+    @Override
+    protected Long getId(UserReplication replication) {
+        return replication.getUserId();
+    }
+
+    @Override
+    protected void setId(UserReplication replication, Long id) {
+        replication.setUserId(id);
+    }
+
+    @Override
+    protected String idProperty() {
+        return "userId";
+    }
+
+    @Override
+    protected UserReplication copy(UserReplication replication) {
+        return UserReplication.builder()
+                .userId(replication.getUserId())
+                .requestedAt(replication.getRequestedAt())
+                .build();
+    }
+
+    @Override
+    protected Void indexKey(UserReplication replication) {
+        return null;
+    }
+
+    @Override
+    protected void addToIndexes(Void key, UserReplication replication) {
+    }
+
+    @Override
+    protected void removeFromIndexes(Void key, long id) {
+    }
+}
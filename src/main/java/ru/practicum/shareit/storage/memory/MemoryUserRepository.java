@@ -0,0 +1,194 @@
+package ru.practicum.shareit.storage.memory;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserEmailRow;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Soft-deleted users are left out of every lookup except {@link #getReferenceById}, which the snapshot
+ * loader uses to link rows that still reference them, {@link #findByIdIncludingDeleted} and
+ * {@link #findAllIncludingDeleted}.
+ */
+public class MemoryUserRepository extends InMemoryRepository<User, String> implements UserRepository {
+
+    private final Map<String, Long> idsByEmail = new HashMap<>();
+
+    @Override
+    public Optional<User> findByEmailNormalized(String emailNormalized) {
+        if (emailNormalized == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(read(() -> idsByEmail.get(emailNormalized)))
+                .flatMap(MemoryUserRepository.super::findById)
+                .filter(MemoryUserRepository::isVisible);
+    }
+
+    @Override
+    public List<UserEmailRow> findEmailRows(long afterId, Pageable pageable) {
+        return slice(scan().stream()
+                .filter(MemoryUserRepository::isVisible)
+                .filter(u -> u.getId() > afterId)
+                .map(u -> new UserEmailRow(u.getId(), User.normalizeEmail(u.getEmail())))
+                .toList(), pageable);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return super.findById(id).filter(MemoryUserRepository::isVisible);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public List<User> findAll() {
+        return super.findAll().stream()
+                .filter(MemoryUserRepository::isVisible)
+                .toList();
+    }
+
+    @Override
+    public List<User> findAllById(Iterable<Long> ids) {
+        return super.findAllById(ids).stream()
+                .filter(MemoryUserRepository::isVisible)
+                .toList();
+    }
+
+    @Override
+    public long count() {
+        return scan().stream()
+                .filter(MemoryUserRepository::isVisible)
+                .count();
+    }
+
+    @Override
+    public User getReferenceById(Long id) {
+        return super.findById(id).orElseThrow(() -> new IllegalArgumentException("No entity with id " + id));
+    }
+
+    public List<User> findAllIncludingDeleted() {
+        return super.findAll();
+    }
+
+    @Override
+    public int softDelete(long id, String name, String email, LocalDateTime deletedAt) {
+        Optional<User> user = findById(id);
+        if (user.isEmpty()) {
+            return 0;
+        }
+        User deleted = user.get();
+        deleted.setName(name);
+        deleted.setEmail(email);
+        deleted.setDeletedAt(deletedAt);
+        save(deleted);
+        return 1;
+    }
+
+    @Override
+    public List<Long> findDeletedIds() {
+        List<Long> ids = new ArrayList<>();
+        for (User user : scan()) {
+            if (!isVisible(user)) {
+                ids.add(user.getId());
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public int purge(long id) {
+        if (super.findById(id).filter(user -> !isVisible(user)).isEmpty()) {
+            return 0;
+        }
+        deleteById(id);
+        return 1;
+    }
+
+    @Override
+    public Optional<User> findByIdIncludingDeleted(long id) {
+        return super.findById(id);
+    }
+
+    @Override
+    public int upsertReplica(long id, String name, String email, LocalDateTime deletedAt) {
+        return write(() -> {
+            User stored = get(id);
+            User replica = stored == null ? User.builder().id(id).build() : copy(stored);
+            replica.setName(name);
+            replica.setEmail(email);
+            replica.setEmailNormalized(User.normalizeEmail(email));
+            replica.setDeletedAt(deletedAt);
+            saveLocked(replica);
+            return 1;
+        });
+    }
+
+    @Override
+    public int deleteReplica(long id) {
+        return write(() -> deleteLocked(id) ? 1 : 0);
+    }
+
+    private static boolean isVisible(User user) {
+        return user.getDeletedAt() == null;
+    }
+
+    @Override
+    protected Long getId(User user) {
+        return user.getId();
+    }
+
+    @Override
+    protected void setId(User user, Long id) {
+        user.setId(id);
+    }
+
+    @Override
+    protected User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .emailNormalized(user.getEmailNormalized())
+                .deletedAt(user.getDeletedAt())
+                .build();
+    }
+
+    @Override
+    protected String indexKey(User user) {
+        return User.normalizeEmail(user.getEmail());
+    }
+
+    @Override
+    protected void checkConstraints(User user) {
+        String email = User.normalizeEmail(user.getEmail());
+        Long owner = email == null ? null : idsByEmail.get(email);
+        if (owner != null && !owner.equals(user.getId())) {
+            throw new DataIntegrityViolationException("Unique index uq_users_email_normalized violated: " + email);
+        }
+    }
+
+    @Override
+    protected void addToIndexes(String email, User user) {
+        if (email != null) {
+            idsByEmail.put(email, user.getId());
+        }
+    }
+
+    @Override
+    protected void removeFromIndexes(String email, long id) {
+        if (email != null) {
+            idsByEmail.remove(email, id);
+        }
+    }
+}
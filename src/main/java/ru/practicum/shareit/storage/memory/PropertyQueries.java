@@ -0,0 +1,137 @@
+package ru.practicum.shareit.storage.memory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.NullValueInNestedPathException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.ExampleMatcherAccessor;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Property-path based sorting and query by example for the in-memory repositories, following what the JPA
+ * implementation does with the same {@link Sort} or {@link Example}: nested paths such as {@code owner.id},
+ * ignored paths, null handling, string matchers and case-insensitive matching. {@link Sort.NullHandling#NATIVE}
+ * sorts nulls first, as H2 does.
+ */
+final class PropertyQueries {
+
+    private PropertyQueries() {
+    }
+
+    static Object value(Object entity, String path) {
+        BeanWrapper wrapper = new BeanWrapperImpl(entity);
+        wrapper.setAutoGrowNestedPaths(false);
+        try {
+            return wrapper.getPropertyValue(path);
+        } catch (NullValueInNestedPathException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The values of every property {@code sort} orders by, keyed by path, as a keyset scroll position holds
+     * them.
+     */
+    static Map<String, Object> keys(Object entity, Sort sort) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        sort.forEach(order -> keys.put(order.getProperty(), value(entity, order.getProperty())));
+        return keys;
+    }
+
+    static <T> Comparator<T> comparator(Sort sort) {
+        Comparator<Map<String, Object>> byKeys = keysComparator(sort);
+        return (a, b) -> byKeys.compare(keys(a, sort), keys(b, sort));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Comparator<Map<String, Object>> keysComparator(Sort sort) {
+        Comparator<Map<String, Object>> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Object> values = (a, b) -> {
+                if (order.isIgnoreCase() && a instanceof String left && b instanceof String right) {
+                    return left.compareToIgnoreCase(right);
+                }
+                return ((Comparable) a).compareTo(b);
+            };
+            if (order.isDescending()) {
+                values = values.reversed();
+            }
+            values = order.getNullHandling() == Sort.NullHandling.NULLS_LAST
+                    ? Comparator.nullsLast(values)
+                    : Comparator.nullsFirst(values);
+            Comparator<Object> ordered = values;
+            comparator = comparator.thenComparing(keys -> keys.get(order.getProperty()), ordered);
+        }
+        return comparator;
+    }
+
+    static <T> Predicate<T> matching(Example<? extends T> example) {
+        ExampleMatcher matcher = example.getMatcher();
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(matcher);
+        List<Predicate<Object>> conditions = new ArrayList<>();
+        collect(example.getProbe(), "", accessor, conditions);
+        if (conditions.isEmpty()) {
+            return candidate -> true;
+        }
+        return candidate -> matcher.isAllMatching()
+                ? conditions.stream().allMatch(condition -> condition.test(candidate))
+                : conditions.stream().anyMatch(condition -> condition.test(candidate));
+    }
+
+    private static void collect(Object probe, String prefix, ExampleMatcherAccessor accessor,
+                                List<Predicate<Object>> conditions) {
+        BeanWrapper wrapper = new BeanWrapperImpl(probe);
+        for (PropertyDescriptor property : wrapper.getPropertyDescriptors()) {
+            if (property.getReadMethod() == null || property.getWriteMethod() == null) {
+                continue;
+            }
+            String path = prefix + property.getName();
+            if (accessor.isIgnoredPath(path)) {
+                continue;
+            }
+            Object value = accessor.getValueTransformerForPath(path)
+                    .apply(Optional.ofNullable(wrapper.getPropertyValue(property.getName())))
+                    .orElse(null);
+            if (value == null) {
+                if (accessor.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE) {
+                    conditions.add(candidate -> value(candidate, path) == null);
+                }
+            } else if (value instanceof String text) {
+                ExampleMatcher.StringMatcher stringMatcher = accessor.getStringMatcherForPath(path);
+                boolean ignoreCase = accessor.isIgnoreCaseForPath(path);
+                conditions.add(candidate -> value(candidate, path) instanceof String actual
+                        && matches(actual, text, stringMatcher, ignoreCase));
+            } else if (BeanUtils.isSimpleValueType(value.getClass())) {
+                conditions.add(candidate -> Objects.equals(value(candidate, path), value));
+            } else {
+                collect(value, path + ".", accessor, conditions);
+            }
+        }
+    }
+
+    private static boolean matches(String actual, String expected, ExampleMatcher.StringMatcher matcher,
+                                   boolean ignoreCase) {
+        String left = ignoreCase ? actual.toLowerCase(Locale.ROOT) : actual;
+        String right = ignoreCase ? expected.toLowerCase(Locale.ROOT) : expected;
+        return switch (matcher) {
+            case DEFAULT, EXACT -> left.equals(right);
+            case STARTING -> left.startsWith(right);
+            case ENDING -> left.endsWith(right);
+            case CONTAINING -> left.contains(right);
+            case REGEX -> actual.matches(ignoreCase ? "(?i)" + expected : expected);
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.storage.memory;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Secondary index from a parent id (booker, owner, item) to that parent's entities ordered by
+ * {@link TimeKey}. Not thread-safe; callers hold the repository lock.
+ */
+final class TimeIndex<T> {
+
+    private final Long2ObjectOpenHashMap<NavigableMap<TimeKey, T>> buckets = new Long2ObjectOpenHashMap<>();
+
+    void add(Long parentId, TimeKey key, T entity) {
+        if (parentId == null) {
+            return;
+        }
+        NavigableMap<TimeKey, T> bucket = buckets.get((long) parentId);
+        if (bucket == null) {
+            bucket = new TreeMap<>();
+            buckets.put((long) parentId, bucket);
+        }
+        bucket.put(key, entity);
+    }
+
+    void remove(Long parentId, TimeKey key) {
+        if (parentId == null) {
+            return;
+        }
+        NavigableMap<TimeKey, T> bucket = buckets.get((long) parentId);
+        if (bucket != null && bucket.remove(key) != null && bucket.isEmpty()) {
+            buckets.remove((long) parentId);
+        }
+    }
+
+    /**
+     * Ascending view of the parent's entities; empty if there are none.
+     */
+    NavigableMap<TimeKey, T> get(long parentId) {
+        NavigableMap<TimeKey, T> bucket = buckets.get(parentId);
+        return bucket != null ? bucket : Collections.emptyNavigableMap();
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.storage.memory;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Sort key of the time-ordered secondary indexes: timestamp first, entity id as tie-breaker, the same
+ * order the JPA queries use for keyset pagination.
+ */
+record TimeKey(LocalDateTime time, long id) implements Comparable<TimeKey> {
+
+    private static final Comparator<TimeKey> ORDER = Comparator.comparing(TimeKey::time)
+            .thenComparingLong(TimeKey::id);
+
+    static TimeKey before(LocalDateTime time) {
+        return new TimeKey(time, Long.MIN_VALUE);
+    }
+
+    static TimeKey after(LocalDateTime time) {
+        return new TimeKey(time, Long.MAX_VALUE);
+    }
+
+    @Override
+    public int compareTo(TimeKey other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,247 @@
+package ru.practicum.shareit.storage.snapshot;
+
+import ru.practicum.shareit.booking.model.BookingSnapshotRow;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.ItemSearchRow;
+import ru.practicum.shareit.item.model.ItemSnapshotRow;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columnar booking/item snapshot in a single file. Every column is a contiguous block: ids and
+ * timestamps as fixed-width longs (epoch seconds, UTC), statuses as one-byte codes into a dictionary
+ * stored in the header. The search text of available items is one UTF-8 block, with the end offsets of
+ * every name and description in a long column. Opening a snapshot maps the file read-only and exposes the
+ * columns as buffer views over the mapping, so readers never copy rows onto the heap.
+ *
+ * <pre>
+ * magic:int version:int watermark:long createdAt:long
+ * dictionarySize:int (length:int utf8)*
+ * bookingCount:int ids:long[] itemIds:long[] starts:long[] ends:long[] statuses:byte[] pad
+ * itemCount:int ids:long[] ownerIds:long[] available:byte[] pad
+ * searchCount:int ids:long[] textEnds:long[2 * searchCount] text:utf8 pad
+ * </pre>
+ */
+public final class ColumnarSnapshot {
+
+    private static final int MAGIC = 0x53484243;
+    private static final int VERSION = 2;
+
+    private final long watermark;
+    private final LocalDateTime createdAt;
+    private final BookingStatus[] dictionary;
+    private final int bookingCount;
+    private final LongBuffer bookingIds;
+    private final LongBuffer bookingItemIds;
+    private final LongBuffer bookingStarts;
+    private final LongBuffer bookingEnds;
+    private final ByteBuffer bookingStatuses;
+    private final int itemCount;
+    private final LongBuffer itemIds;
+    private final LongBuffer itemOwnerIds;
+    private final ByteBuffer itemAvailable;
+    private final int searchCount;
+    private final LongBuffer searchIds;
+    private final LongBuffer searchTextEnds;
+    private final ByteBuffer searchText;
+
+    private ColumnarSnapshot(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalStateException("Unsupported snapshot format");
+        }
+        watermark = buffer.getLong();
+        createdAt = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+        dictionary = new BookingStatus[buffer.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            byte[] name = new byte[buffer.getInt()];
+            buffer.get(name);
+            dictionary[i] = BookingStatus.valueOf(new String(name, StandardCharsets.UTF_8));
+        }
+        bookingCount = buffer.getInt();
+        bookingIds = longColumn(buffer, bookingCount);
+        bookingItemIds = longColumn(buffer, bookingCount);
+        bookingStarts = longColumn(buffer, bookingCount);
+        bookingEnds = longColumn(buffer, bookingCount);
+        bookingStatuses = byteColumn(buffer, bookingCount);
+        itemCount = buffer.getInt();
+        itemIds = longColumn(buffer, itemCount);
+        itemOwnerIds = longColumn(buffer, itemCount);
+        itemAvailable = byteColumn(buffer, itemCount);
+        searchCount = buffer.getInt();
+        searchIds = longColumn(buffer, searchCount);
+        searchTextEnds = longColumn(buffer, 2 * searchCount);
+        searchText = byteColumn(buffer, searchCount == 0 ? 0 : (int) searchTextEnds.get(2 * searchCount - 1));
+    }
+
+    public static ColumnarSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new ColumnarSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes a snapshot to a temporary file next to {@code path} and atomically replaces {@code path}.
+     */
+    public static void write(Path path, long watermark, List<BookingSnapshotRow> bookings, List<ItemSnapshotRow> items,
+                             List<ItemSearchRow> searchRows) throws IOException {
+        BookingStatus[] statuses = BookingStatus.values();
+        byte[][] names = new byte[statuses.length][];
+        long dictionaryBytes = Integer.BYTES;
+        for (int i = 0; i < statuses.length; i++) {
+            names[i] = statuses[i].name().getBytes(StandardCharsets.UTF_8);
+            dictionaryBytes += Integer.BYTES + names[i].length;
+        }
+        long size = 2L * Integer.BYTES + 2L * Long.BYTES + dictionaryBytes
+                + Integer.BYTES + 4L * Long.BYTES * bookings.size() + padded(bookings.size())
+                + Integer.BYTES + 2L * Long.BYTES * items.size() + padded(items.size());
+        List<byte[]> texts = new ArrayList<>(2 * searchRows.size());
+        int textBytes = 0;
+        for (ItemSearchRow row : searchRows) {
+            byte[] name = row.name().getBytes(StandardCharsets.UTF_8);
+            byte[] description = row.description().getBytes(StandardCharsets.UTF_8);
+            texts.add(name);
+            texts.add(description);
+            textBytes += name.length + description.length;
+        }
+        size += Integer.BYTES + 3L * Long.BYTES * searchRows.size() + padded(textBytes);
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION)
+                    .putLong(watermark)
+                    .putLong(LocalDateTime.now().toEpochSecond(ZoneOffset.UTC))
+                    .putInt(names.length);
+            for (byte[] name : names) {
+                buffer.putInt(name.length).put(name);
+            }
+
+            buffer.putInt(bookings.size());
+            bookings.forEach(b -> buffer.putLong(b.id()));
+            bookings.forEach(b -> buffer.putLong(b.itemId()));
+            bookings.forEach(b -> buffer.putLong(b.start().toEpochSecond(ZoneOffset.UTC)));
+            bookings.forEach(b -> buffer.putLong(b.end().toEpochSecond(ZoneOffset.UTC)));
+            bookings.forEach(b -> buffer.put((byte) b.status().ordinal()));
+            buffer.position(buffer.position() + padded(bookings.size()) - bookings.size());
+
+            buffer.putInt(items.size());
+            items.forEach(i -> buffer.putLong(i.id()));
+            items.forEach(i -> buffer.putLong(i.ownerId()));
+            items.forEach(i -> buffer.put((byte) (Boolean.TRUE.equals(i.available()) ? 1 : 0)));
+            buffer.position(buffer.position() + padded(items.size()) - items.size());
+
+            buffer.putInt(searchRows.size());
+            searchRows.forEach(row -> buffer.putLong(row.id()));
+            long end = 0;
+            for (byte[] text : texts) {
+                end += text.length;
+                buffer.putLong(end);
+            }
+            texts.forEach(buffer::put);
+            buffer.force();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public long getWatermark() {
+        return watermark;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getBookingCount() {
+        return bookingCount;
+    }
+
+    public long bookingId(int index) {
+        return bookingIds.get(index);
+    }
+
+    public long bookingItemId(int index) {
+        return bookingItemIds.get(index);
+    }
+
+    public LocalDateTime bookingStart(int index) {
+        return LocalDateTime.ofEpochSecond(bookingStarts.get(index), 0, ZoneOffset.UTC);
+    }
+
+    public LocalDateTime bookingEnd(int index) {
+        return LocalDateTime.ofEpochSecond(bookingEnds.get(index), 0, ZoneOffset.UTC);
+    }
+
+    public BookingStatus bookingStatus(int index) {
+        return dictionary[bookingStatuses.get(index)];
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public long itemId(int index) {
+        return itemIds.get(index);
+    }
+
+    public long itemOwnerId(int index) {
+        return itemOwnerIds.get(index);
+    }
+
+    public boolean itemAvailable(int index) {
+        return itemAvailable.get(index) == 1;
+    }
+
+    public int getSearchCount() {
+        return searchCount;
+    }
+
+    /**
+     * Name and description of the {@code index}-th available item; the strings are decoded on each call.
+     */
+    public ItemSearchRow searchRow(int index) {
+        int nameStart = index == 0 ? 0 : (int) searchTextEnds.get(2 * index - 1);
+        int nameEnd = (int) searchTextEnds.get(2 * index);
+        int descriptionEnd = (int) searchTextEnds.get(2 * index + 1);
+        return new ItemSearchRow(searchIds.get(index), text(nameStart, nameEnd), text(nameEnd, descriptionEnd));
+    }
+
+    private String text(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        searchText.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LongBuffer longColumn(ByteBuffer buffer, int count) {
+        LongBuffer column = buffer.slice(buffer.position(), count * Long.BYTES).asLongBuffer();
+        buffer.position(buffer.position() + count * Long.BYTES);
+        return column;
+    }
+
+    private static ByteBuffer byteColumn(ByteBuffer buffer, int count) {
+        ByteBuffer column = buffer.slice(buffer.position(), count);
+        buffer.position(buffer.position() + padded(count));
+        return column;
+    }
+
+    private static int padded(int bytes) {
+        return (bytes + Long.BYTES - 1) / Long.BYTES * Long.BYTES;
+    }
+}
@@ -0,0 +1,262 @@
+package ru.practicum.shareit.storage.snapshot;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingSnapshotRow;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.ItemSearchRow;
+import ru.practicum.shareit.item.model.ItemSnapshotRow;
+import ru.practicum.shareit.item.service.AvailabilityIndex;
+import ru.practicum.shareit.item.service.ItemCalendar;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Periodically writes a {@link ColumnarSnapshot} of live bookings and items, and at startup rebuilds the
+ * availability index from the mapped file instead of querying every item, and seeds the search index before
+ * its own database pass.
+ *
+ * <p>Booking ids are handed out at insert but become visible at commit, so when the snapshot is read a booking
+ * may still be in flight below the highest visible id. The snapshot's watermark is therefore the highest
+ * booking id seen at least {@code max-transaction} before the write: every booking up to it had committed or
+ * rolled back by then. The snapshot holds bookings up to the watermark, and catch-up after loading reads
+ * bookings above it and re-reads the WAITING bookings of the snapshot: statuses only move out of WAITING,
+ * so those two sets cover every change since the snapshot. Bookings and items can also be
+ * deleted since (see the user deletion pipeline), so the snapshot's APPROVED bookings and items are only
+ * used once an id-only query confirms they still exist.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.snapshot.enabled", havingValue = "true")
+public class SnapshotWarmupService {
+
+    private record IdSample(long maxId, long takenAt) {
+    }
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final ItemSearchIndex searchIndex;
+    private final Path path;
+    private final int pageSize;
+    private final int maxWarmItems;
+    private final long maxTransactionMillis;
+    private final Deque<IdSample> idSamples = new ArrayDeque<>();
+
+    public SnapshotWarmupService(BookingRepository bookingRepository,
+                                 ItemRepository itemRepository,
+                                 AvailabilityIndex availabilityIndex,
+                                 ItemSearchIndex searchIndex,
+                                 @Value("${shareit.snapshot.path:data/bookings.snapshot}") Path path,
+                                 @Value("${shareit.snapshot.page-size:10000}") int pageSize,
+                                 @Value("${shareit.snapshot.max-warm-items:100000}") int maxWarmItems,
+                                 @Value("${shareit.snapshot.max-transaction:PT1M}") Duration maxTransaction) {
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.searchIndex = searchIndex;
+        this.path = path;
+        this.pageSize = pageSize;
+        this.maxWarmItems = maxWarmItems;
+        this.maxTransactionMillis = maxTransaction.toMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.snapshot.interval:PT15M}",
+            initialDelayString = "${shareit.snapshot.interval:PT15M}")
+    public void write() {
+        write(System.currentTimeMillis());
+    }
+
+    void write(long nowMillis) {
+        long started = System.nanoTime();
+        long watermark = settledWatermark(nowMillis);
+        LocalDateTime endAfter = ItemCalendar.hourStart(availabilityIndex.currentOriginHour());
+
+        List<BookingSnapshotRow> bookings = new ArrayList<>();
+        List<BookingSnapshotRow> page;
+        long afterId = 0;
+        do {
+            page = bookingRepository.findSnapshotRows(afterId, endAfter, PageRequest.of(0, pageSize));
+            page.stream().filter(b -> b.id() <= watermark).forEach(bookings::add);
+            afterId = page.isEmpty() ? afterId : page.get(page.size() - 1).id();
+        } while (page.size() == pageSize && afterId < watermark);
+
+        List<ItemSnapshotRow> items = new ArrayList<>();
+        List<ItemSnapshotRow> itemPage;
+        long afterItemId = 0;
+        do {
+            itemPage = itemRepository.findSnapshotRows(afterItemId, PageRequest.of(0, pageSize));
+            items.addAll(itemPage);
+            afterItemId = itemPage.isEmpty() ? afterItemId : itemPage.get(itemPage.size() - 1).id();
+        } while (itemPage.size() == pageSize);
+
+        List<ItemSearchRow> searchRows = new ArrayList<>();
+        List<ItemSearchRow> searchPage;
+        long afterSearchId = 0;
+        do {
+            searchPage = itemRepository.findSearchRows(afterSearchId, PageRequest.of(0, pageSize));
+            searchRows.addAll(searchPage);
+            afterSearchId = searchPage.isEmpty() ? afterSearchId : searchPage.get(searchPage.size() - 1).id();
+        } while (searchPage.size() == pageSize);
+
+        try {
+            ColumnarSnapshot.write(path, watermark, bookings, items, searchRows);
+            log.info("Snapshot written to {}: bookings={}, items={}, watermark={}, took={}ms", path, bookings.size(),
+                    items.size(), watermark, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException e) {
+            log.error("Cannot write snapshot {}", path, e);
+        }
+    }
+
+    /**
+     * Runs before the other ready listeners, so that the search index is seeded before its database pass.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        // the first write needs an id seen at least max-transaction before it
+        settledWatermark(System.currentTimeMillis());
+        if (!Files.exists(path)) {
+            log.info("No snapshot at {}, availability index will warm lazily", path);
+            return;
+        }
+        long started = System.nanoTime();
+        ColumnarSnapshot snapshot;
+        try {
+            snapshot = ColumnarSnapshot.open(path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot open snapshot {}, availability index will warm lazily", path, e);
+            return;
+        }
+
+        long epoch = availabilityIndex.changeEpoch();
+        long originHour = availabilityIndex.currentOriginHour();
+        int hours = availabilityIndex.getHorizonHours();
+
+        LongArrayList itemIds = new LongArrayList(snapshot.getItemCount());
+        for (int i = 0; i < snapshot.getItemCount(); i++) {
+            itemIds.add(snapshot.itemId(i));
+        }
+        LongOpenHashSet liveItems = existing(itemIds, itemRepository::findExistingIds);
+
+        Map<Long, ItemCalendar> calendars = new HashMap<>();
+        for (int i = 0; i < snapshot.getItemCount() && calendars.size() < maxWarmItems; i++) {
+            if (liveItems.contains(snapshot.itemId(i))) {
+                calendars.put(snapshot.itemId(i), new ItemCalendar(originHour, hours));
+            }
+        }
+
+        LongArrayList waiting = new LongArrayList();
+        LongArrayList approved = new LongArrayList();
+        for (int i = 0; i < snapshot.getBookingCount(); i++) {
+            BookingStatus status = snapshot.bookingStatus(i);
+            if (status == BookingStatus.WAITING) {
+                waiting.add(snapshot.bookingId(i));
+            } else if (status == BookingStatus.APPROVED && calendars.containsKey(snapshot.bookingItemId(i))) {
+                approved.add(snapshot.bookingId(i));
+            }
+        }
+        LongOpenHashSet liveApproved = existing(approved, bookingRepository::findExistingIds);
+        for (int i = 0; i < snapshot.getBookingCount(); i++) {
+            if (snapshot.bookingStatus(i) == BookingStatus.APPROVED && liveApproved.contains(snapshot.bookingId(i))) {
+                calendars.get(snapshot.bookingItemId(i)).markBusy(snapshot.bookingStart(i), snapshot.bookingEnd(i));
+            }
+        }
+        int caughtUp = catchUp(snapshot.getWatermark(), waiting, calendars, ItemCalendar.hourStart(originHour));
+
+        int loaded = availabilityIndex.warm(calendars, epoch);
+        log.info("Availability index warmed from snapshot {} (created {}): calendars={}, catch-up rows={}, took={}ms",
+                path, snapshot.getCreatedAt(), loaded, caughtUp, (System.nanoTime() - started) / 1_000_000);
+
+        List<ItemSearchRow> searchRows = new ArrayList<>(snapshot.getSearchCount());
+        for (int i = 0; i < snapshot.getSearchCount(); i++) {
+            ItemSearchRow row = snapshot.searchRow(i);
+            if (liveItems.contains(row.id().longValue())) {
+                searchRows.add(row);
+            }
+        }
+        log.info("Search index seeded from snapshot {}: items={}", path, searchIndex.seed(searchRows));
+    }
+
+    /**
+     * Records the current highest booking id and returns the highest one recorded at least
+     * {@code max-transaction} before {@code nowMillis}, or 0 when there is none yet.
+     */
+    private synchronized long settledWatermark(long nowMillis) {
+        idSamples.addLast(new IdSample(bookingRepository.findMaxId().orElse(0L), nowMillis));
+        long settledBefore = nowMillis - maxTransactionMillis;
+        IdSample settled = null;
+        while (!idSamples.isEmpty() && idSamples.getFirst().takenAt() <= settledBefore) {
+            settled = idSamples.removeFirst();
+        }
+        if (settled == null) {
+            return 0;
+        }
+        // kept for the next write, until a later sample settles too
+        idSamples.addFirst(settled);
+        return settled.maxId();
+    }
+
+    /**
+     * The ids that an id-only query still finds, asked {@code page-size} ids at a time.
+     */
+    private LongOpenHashSet existing(LongArrayList ids, Function<List<Long>, List<Long>> finder) {
+        LongOpenHashSet found = new LongOpenHashSet(ids.size());
+        for (int from = 0; from < ids.size(); from += pageSize) {
+            found.addAll(finder.apply(new ArrayList<>(ids.subList(from, Math.min(from + pageSize, ids.size())))));
+        }
+        return found;
+    }
+
+    private int catchUp(long watermark, LongArrayList waiting, Map<Long, ItemCalendar> calendars,
+                        LocalDateTime endAfter) {
+        int rows = 0;
+        List<BookingSnapshotRow> page;
+        long afterId = watermark;
+        do {
+            page = bookingRepository.findSnapshotRows(afterId, endAfter, PageRequest.of(0, pageSize));
+            rows += apply(page, calendars);
+            afterId = page.isEmpty() ? afterId : page.get(page.size() - 1).id();
+        } while (page.size() == pageSize);
+
+        for (int from = 0; from < waiting.size(); from += pageSize) {
+            List<Long> chunk = new ArrayList<>(waiting.subList(from, Math.min(from + pageSize, waiting.size())));
+            rows += apply(bookingRepository.findSnapshotRowsByIdIn(chunk), calendars);
+        }
+        return rows;
+    }
+
+    private int apply(List<BookingSnapshotRow> rows, Map<Long, ItemCalendar> calendars) {
+        for (BookingSnapshotRow row : rows) {
+            ItemCalendar calendar = calendars.get(row.itemId());
+            if (row.status() == BookingStatus.APPROVED && calendar != null) {
+                calendar.markBusy(row.start(), row.end());
+            }
+        }
+        return rows.size();
+    }
+}
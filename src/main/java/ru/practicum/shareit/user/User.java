@@ -5,11 +5,17 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Data
 @Builder
@@ -17,6 +23,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Entity
 @Table(name = "users")
+@SQLRestriction("deleted_at IS NULL")
 public class User {
 
     @Id
@@ -28,4 +35,28 @@ public class User {
 
     @Column(nullable = false, length = 512)
     private String email;
-}
\ No newline at end of file
+
+    /**
+     * {@link #email} lower-cased, kept by the entity itself; the unique index on it is what keeps emails
+     * unique regardless of case.
+     */
+    @Column(name = "email_normalized", length = 512)
+    private String emailNormalized;
+
+    /**
+     * Set when the user is deleted; the row stays, hidden from every query, until the deletion pipeline
+     * has removed everything that references it.
+     */
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeEmail() {
+        emailNormalized = normalizeEmail(email);
+    }
+}
@@ -9,7 +9,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.common.BulkResultDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -42,6 +44,16 @@ public class UserController {
         return userService.getAll();
     }
 
+    @GetMapping(params = "ids")
+    public BulkResultDto<UserDto> getByIds(@RequestParam List<Long> ids) {
+        return userService.getByIds(ids);
+    }
+
+    @PostMapping("/batch")
+    public BulkResultDto<UserDto> getByIdsPost(@RequestBody List<Long> ids) {
+        return userService.getByIds(ids);
+    }
+
     @DeleteMapping("/{userId}")
     public void delete(@PathVariable long userId) {
         userService.delete(userId);
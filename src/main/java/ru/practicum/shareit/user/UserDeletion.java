@@ -0,0 +1,50 @@
+package ru.practicum.shareit.user;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one user deletion: the phase to run next and how many rows the finished phases removed.
+ * Kept after the user row is purged.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_deletions")
+public class UserDeletion {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "requested_at", nullable = false)
+    private LocalDateTime requestedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private UserDeletionPhase phase;
+
+    @Column(name = "comments_deleted", nullable = false)
+    private long commentsDeleted;
+
+    @Column(name = "bookings_deleted", nullable = false)
+    private long bookingsDeleted;
+
+    @Column(name = "items_deleted", nullable = false)
+    private long itemsDeleted;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
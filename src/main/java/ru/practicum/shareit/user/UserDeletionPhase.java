@@ -0,0 +1,12 @@
+package ru.practicum.shareit.user;
+
+/**
+ * Steps of a user deletion, in the order they run.
+ */
+public enum UserDeletionPhase {
+    COMMENTS,
+    BOOKINGS,
+    ITEMS,
+    PURGE,
+    DONE
+}
@@ -0,0 +1,4 @@
+package ru.practicum.shareit.user;
+
+public record UserEmailRow(Long id, String emailNormalized) {
+}
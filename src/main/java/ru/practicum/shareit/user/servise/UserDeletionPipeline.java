@@ -0,0 +1,337 @@
+package ru.practicum.shareit.user.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingItemRow;
+import ru.practicum.shareit.booking.service.BookingStateCache;
+import ru.practicum.shareit.booking.storage.BookingArchiveRepository;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.common.datasource.shard.ShardRouter;
+import ru.practicum.shareit.item.model.CommentItemRow;
+import ru.practicum.shareit.item.service.AvailabilityIndex;
+import ru.practicum.shareit.item.service.CoBookingIndex;
+import ru.practicum.shareit.item.service.ItemCache;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemStatsAccumulator;
+import ru.practicum.shareit.item.service.ItemStatsService;
+import ru.practicum.shareit.item.service.SearchCache;
+import ru.practicum.shareit.item.service.TrendingIndex;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemDailyStatsRepository;
+import ru.practicum.shareit.item.storage.ItemPopularityRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.item.storage.ItemStatsDeltaRepository;
+import ru.practicum.shareit.user.UserDeletion;
+import ru.practicum.shareit.user.UserDeletionPhase;
+import ru.practicum.shareit.user.storage.UserDeletionRepository;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Removes what a deleted user leaves behind. {@link UserService#delete} soft-deletes the user, which hides
+ * them from every query at once, and {@link #withdrawOwnedItems withdraws} their items from search and booking;
+ * this pipeline then clears their rows in chunks of {@code batch-size}, each chunk in its own transaction, so
+ * no request holds locks over a power user's whole history:
+ * <ol>
+ *     <li>{@link UserDeletionPhase#COMMENTS}: comments the user wrote, adjusting the items' comment counts;</li>
+ *     <li>{@link UserDeletionPhase#BOOKINGS}: bookings the user made, live and archived, taking them out of the
+ *     item stats and the co-booking index;</li>
+ *     <li>{@link UserDeletionPhase#ITEMS}: the user's items, after their comments, bookings and stats;</li>
+ *     <li>{@link UserDeletionPhase#PURGE}: the user row, after sweeping once more for comments, bookings and
+ *     items committed after their phase ran; the {@link UserReplicator} removes the other shards' copies.</li>
+ * </ol>
+ * Every phase is repeatable, and the phase reached is saved in {@code user_deletions}. Deletions run one at a
+ * time on a single background thread; a sweep every {@code resume-interval} re-queues users that are still
+ * soft-deleted, so a deletion interrupted by a restart or a failed chunk carries on from its last phase.
+ */
+@Slf4j
+@Component
+public class UserDeletionPipeline {
+
+    private final UserRepository userRepository;
+    private final UserDeletionRepository deletionRepository;
+    private final CommentRepository commentRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository archiveRepository;
+    private final ItemRepository itemRepository;
+    private final ItemStatsDeltaRepository statsDeltaRepository;
+    private final ItemDailyStatsRepository dailyStatsRepository;
+    private final ItemPopularityRepository popularityRepository;
+    private final ItemStatsService itemStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final ItemCache itemCache;
+    private final SearchCache searchCache;
+    private final ItemSearchIndex searchIndex;
+    private final AvailabilityIndex availabilityIndex;
+    private final TrendingIndex trendingIndex;
+    private final CoBookingIndex coBookingIndex;
+    private final BookingStateCache stateCache;
+    private final UserReplicator replicator;
+    private final int batchSize;
+
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("user-deletion").daemon().factory());
+
+    public UserDeletionPipeline(UserRepository userRepository,
+                                UserDeletionRepository deletionRepository,
+                                CommentRepository commentRepository,
+                                BookingRepository bookingRepository,
+                                BookingArchiveRepository archiveRepository,
+                                ItemRepository itemRepository,
+                                ItemStatsDeltaRepository statsDeltaRepository,
+                                ItemDailyStatsRepository dailyStatsRepository,
+                                ItemPopularityRepository popularityRepository,
+                                ItemStatsService itemStatsService,
+                                TransactionTemplate transactionTemplate,
+                                ShardRouter shardRouter,
+                                ItemCache itemCache,
+                                SearchCache searchCache,
+                                ItemSearchIndex searchIndex,
+                                AvailabilityIndex availabilityIndex,
+                                TrendingIndex trendingIndex,
+                                CoBookingIndex coBookingIndex,
+                                BookingStateCache stateCache,
+                                UserReplicator replicator,
+                                @Value("${shareit.user.deletion.batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.deletionRepository = deletionRepository;
+        this.commentRepository = commentRepository;
+        this.bookingRepository = bookingRepository;
+        this.archiveRepository = archiveRepository;
+        this.itemRepository = itemRepository;
+        this.statsDeltaRepository = statsDeltaRepository;
+        this.dailyStatsRepository = dailyStatsRepository;
+        this.popularityRepository = popularityRepository;
+        this.itemStatsService = itemStatsService;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.itemCache = itemCache;
+        this.searchCache = searchCache;
+        this.searchIndex = searchIndex;
+        this.availabilityIndex = availabilityIndex;
+        this.trendingIndex = trendingIndex;
+        this.coBookingIndex = coBookingIndex;
+        this.stateCache = stateCache;
+        this.replicator = replicator;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Queues the deletion of a user that has just been soft-deleted.
+     */
+    public void start(long userId) {
+        if (queued.add(userId)) {
+            worker.execute(() -> {
+                try {
+                    run(userId);
+                } catch (RuntimeException e) {
+                    log.warn("User deletion id={} stopped, will resume on the next sweep", userId, e);
+                } finally {
+                    queued.remove(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Marks the owner's items unavailable, a chunk per transaction on every shard, and drops them from search,
+     * so that nobody finds or books them while they wait for the {@link UserDeletionPhase#ITEMS} phase.
+     */
+    public void withdrawOwnedItems(long ownerId) {
+        shardRouter.forEachShard(() -> deleteInChunks(
+                page -> itemRepository.findAvailableIdsByOwnerId(ownerId, page),
+                itemRepository::markUnavailable,
+                chunk -> {
+                    chunk.forEach(itemId -> {
+                        itemCache.evictAfterCommit(itemId);
+                        searchIndex.remove(itemId);
+                        availabilityIndex.evict(itemId);
+                    });
+                    searchCache.bumpVersionAfterCommit();
+                }));
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.user.deletion.resume-interval:PT1M}",
+            initialDelayString = "${shareit.user.deletion.resume-interval:PT1M}")
+    public void resumePending() {
+        userRepository.findDeletedIds().forEach(this::start);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    void run(long userId) {
+        UserDeletion deletion = deletionRepository.findById(userId)
+                .orElseGet(() -> deletionRepository.save(UserDeletion.builder()
+                        .userId(userId)
+                        .requestedAt(LocalDateTime.now())
+                        .phase(UserDeletionPhase.COMMENTS)
+                        .build()));
+        if (deletion.getPhase() != UserDeletionPhase.DONE) {
+            // a restart may have come between the soft delete and the withdrawal
+            withdrawOwnedItems(userId);
+        }
+        while (deletion.getPhase() != UserDeletionPhase.DONE) {
+            UserDeletionPhase phase = deletion.getPhase();
+            switch (phase) {
+                case COMMENTS -> shardRouter.forEachShard(() ->
+                        deletion.setCommentsDeleted(deletion.getCommentsDeleted() + deleteAuthoredComments(userId)));
+                case BOOKINGS -> shardRouter.forEachShard(() ->
+                        deletion.setBookingsDeleted(deletion.getBookingsDeleted() + deleteBookingsMadeBy(userId)));
+                case ITEMS -> shardRouter.forEachShard(() -> deleteOwnedItems(userId, deletion));
+                case PURGE -> {
+                    // rows written after their phase ran would fail the purge on a foreign key, every sweep
+                    shardRouter.forEachShard(() -> {
+                        deletion.setCommentsDeleted(deletion.getCommentsDeleted() + deleteAuthoredComments(userId));
+                        deletion.setBookingsDeleted(deletion.getBookingsDeleted() + deleteBookingsMadeBy(userId));
+                        deleteOwnedItems(userId, deletion);
+                    });
+                    transactionTemplate.executeWithoutResult(status -> {
+                        userRepository.purge(userId);
+                        replicator.request(userId);
+                    });
+                    replicator.replicate(userId);
+                    deletion.setCompletedAt(LocalDateTime.now());
+                }
+                default -> throw new IllegalStateException("Unexpected phase " + phase);
+            }
+            deletion.setPhase(UserDeletionPhase.values()[phase.ordinal() + 1]);
+            deletionRepository.save(deletion);
+            log.debug("User deletion id={} finished {}: {}", userId, phase, deletion);
+        }
+        log.info("Deleted user id={}: comments={}, bookings={}, items={}", userId, deletion.getCommentsDeleted(),
+                deletion.getBookingsDeleted(), deletion.getItemsDeleted());
+    }
+
+    private long deleteAuthoredComments(long userId) {
+        return deleteInChunks(
+                page -> commentRepository.findItemRowsByAuthorId(userId, page),
+                rows -> {
+                    commentRepository.deleteAllByIdInBatch(rows.stream().map(CommentItemRow::id).toList());
+                    rows.stream()
+                            .collect(Collectors.groupingBy(CommentItemRow::itemId, Collectors.counting()))
+                            .forEach(itemRepository::decreaseCommentCount);
+                },
+                rows -> rows.forEach(row -> itemCache.evictAfterCommit(row.itemId())));
+    }
+
+    private long deleteBookingsMadeBy(long userId) {
+        Consumer<List<BookingItemRow>> afterCommit = rows -> rows.forEach(row -> {
+            availabilityIndex.evict(row.itemId());
+            stateCache.evictAfterCommit(BookingStateCache.Role.OWNER, row.ownerId());
+        });
+        long live = deleteInChunks(
+                page -> bookingRepository.findItemRowsByBookerId(userId, page),
+                rows -> {
+                    bookingRepository.deleteAllByIdIn(rows.stream().map(BookingItemRow::id).toList());
+                    revertStats(rows);
+                },
+                afterCommit);
+        long archived = deleteInChunks(
+                page -> archiveRepository.findItemRowsByBookerId(userId, page),
+                rows -> {
+                    archiveRepository.deleteAllByIdInBatch(rows.stream().map(BookingItemRow::id).toList());
+                    revertStats(rows);
+                },
+                afterCommit);
+        if (live + archived > 0) {
+            coBookingIndex.removeBooker(userId);
+        }
+        return live + archived;
+    }
+
+    private void revertStats(List<BookingItemRow> rows) {
+        ItemStatsAccumulator decisions = new ItemStatsAccumulator();
+        rows.forEach(row -> decisions.addDecision(row.itemId(), row.start(), row.end(), row.status()));
+        if (!decisions.getBuckets().isEmpty()) {
+            itemStatsService.revertDecisions(decisions);
+        }
+    }
+
+    /**
+     * Deletes the owner's items a chunk at a time; the rows referencing a chunk go first, in chunks of their own.
+     */
+    private void deleteOwnedItems(long ownerId, UserDeletion deletion) {
+        List<Long> itemIds;
+        while (!(itemIds = itemRepository.findIdsByOwnerId(ownerId, PageRequest.of(0, batchSize))).isEmpty()) {
+            List<Long> chunk = itemIds;
+            deleteInChunks(page -> commentRepository.findIdsByItemIdIn(chunk, page),
+                    commentRepository::deleteAllByIdInBatch);
+            long bookings = deleteInChunks(page -> bookingRepository.findIdsByItemIdIn(chunk, page),
+                    bookingRepository::deleteAllByIdIn);
+            bookings += deleteInChunks(page -> archiveRepository.findIdsByItemIdIn(chunk, page),
+                    archiveRepository::deleteAllByIdInBatch);
+            deleteInChunks(page -> statsDeltaRepository.findIdsByItemIdIn(chunk, page),
+                    statsDeltaRepository::deleteAllByIdInBatch);
+            deleteInChunks(page -> dailyStatsRepository.findIdsByItemIdIn(chunk, page),
+                    dailyStatsRepository::deleteAllByIdInBatch);
+            transactionTemplate.executeWithoutResult(status -> {
+                popularityRepository.deleteAllByIdInBatch(chunk);
+                itemRepository.deleteAllByIdInBatch(chunk);
+            });
+
+            chunk.forEach(itemId -> {
+                itemCache.evictAfterCommit(itemId);
+                searchIndex.remove(itemId);
+                availabilityIndex.evict(itemId);
+                trendingIndex.remove(itemId);
+            });
+            searchCache.bumpVersionAfterCommit();
+            if (bookings > 0) {
+                // bookers of these items are anyone, so their cached lists cannot be picked out
+                stateCache.evictAll();
+            }
+            deletion.setItemsDeleted(deletion.getItemsDeleted() + chunk.size());
+        }
+    }
+
+    private long deleteInChunks(Function<Pageable, List<Long>> ids, Consumer<List<Long>> delete) {
+        return deleteInChunks(ids, delete, chunk -> {
+        });
+    }
+
+    /**
+     * Loads the first page of what is left and deletes it in one transaction, until a page comes back short;
+     * {@code afterCommit} runs after each chunk's transaction has committed.
+     */
+    private <R> long deleteInChunks(Function<Pageable, List<R>> rows, Consumer<List<R>> delete,
+                                    Consumer<List<R>> afterCommit) {
+        Pageable firstPage = PageRequest.of(0, batchSize);
+        long total = 0;
+        List<R> chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> {
+                List<R> page = rows.apply(firstPage);
+                if (!page.isEmpty()) {
+                    delete.accept(page);
+                }
+                return page;
+            });
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            afterCommit.accept(chunk);
+            total += chunk.size();
+        } while (chunk.size() == batchSize);
+        return total;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.BloomFilter;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserEmailRow;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.util.List;
+
+/**
+ * Emails that are, or once were, taken, held in a {@link BloomFilter} so that a create or update with a new
+ * email skips the lookup before its insert. Only the unique index on {@code email_normalized} decides whether
+ * an email is free; a "maybe" from the filter, including for the emails of deleted users, costs one indexed
+ * lookup. Until the filter has been warmed every email is a "maybe".
+ */
+@Slf4j
+@Component
+public class UserEmailFilter {
+
+    private final UserRepository userRepository;
+    private final BloomFilter filter;
+    private final int warmPageSize;
+
+    private volatile boolean ready;
+
+    public UserEmailFilter(UserRepository userRepository,
+                           @Value("${shareit.user.email-filter.expected-users:1000000}") long expectedUsers,
+                           @Value("${shareit.user.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                           @Value("${shareit.user.email-filter.warm-page-size:5000}") int warmPageSize) {
+        this.userRepository = userRepository;
+        this.filter = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.warmPageSize = warmPageSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        long afterId = 0;
+        int total = 0;
+        List<UserEmailRow> page;
+        do {
+            page = userRepository.findEmailRows(afterId, PageRequest.of(0, warmPageSize));
+            for (UserEmailRow row : page) {
+                if (row.emailNormalized() != null) {
+                    filter.add(row.emailNormalized());
+                }
+            }
+            total += page.size();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).id();
+            }
+        } while (page.size() == warmPageSize);
+        ready = true;
+        log.info("User email filter ready: users={}", total);
+    }
+
+    public boolean mightBeTaken(String email) {
+        return !ready || filter.mightContain(User.normalizeEmail(email));
+    }
+
+    public void add(String email) {
+        filter.add(User.normalizeEmail(email));
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.datasource.shard.ShardRouter;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserReplication;
+import ru.practicum.shareit.user.storage.UserReplicationRepository;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Copies users from the home shard to every other shard, where items and bookings reference them by foreign
+ * key. A user write on the home shard calls {@link #request} in its own transaction, which records the user in
+ * {@code user_replications}; after the commit {@link #replicate} copies the home row, soft-deleted or not, to
+ * the other shards, or removes their copies once the home row is purged, and then drops the request.
+ * <p>
+ * If a shard fails the request stays, and a sweep every {@code retry-interval} replays it, so a shard that
+ * missed a write catches up instead of failing every later insert for that user. Replays copy whatever the
+ * home row holds at that moment and read it again afterwards, repeating until it did not change in between,
+ * so two replays racing each other cannot leave an older copy behind. Without sharding this does nothing.
+ */
+@Slf4j
+@Component
+public class UserReplicator {
+
+    private final UserRepository userRepository;
+    private final UserReplicationRepository replicationRepository;
+    private final ShardRouter shardRouter;
+    private final Duration retryDelay;
+
+    public UserReplicator(UserRepository userRepository,
+                          UserReplicationRepository replicationRepository,
+                          ShardRouter shardRouter,
+                          @Value("${shareit.user.replication.retry-interval:PT30S}") Duration retryDelay) {
+        this.userRepository = userRepository;
+        this.replicationRepository = replicationRepository;
+        this.shardRouter = shardRouter;
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * Records that the user must be copied to the other shards. Call it in the transaction that changes the
+     * home row, and {@link #replicate} after it commits.
+     */
+    public void request(long userId) {
+        if (shardRouter.isSharded()) {
+            replicationRepository.save(UserReplication.builder()
+                    .userId(userId)
+                    .requestedAt(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    /**
+     * Copies the user's home row to every other shard and drops the request. A failure is logged and left to
+     * the next sweep.
+     */
+    public void replicate(long userId) {
+        if (!shardRouter.isSharded()) {
+            return;
+        }
+        try {
+            replicationRepository.findById(userId).ifPresent(this::replicate);
+        } catch (RuntimeException e) {
+            log.warn("Replicating user id={} failed, will retry", userId, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.user.replication.retry-interval:PT30S}",
+            initialDelayString = "${shareit.user.replication.retry-interval:PT30S}")
+    public void retryPending() {
+        if (!shardRouter.isSharded()) {
+            return;
+        }
+        // requests younger than one interval are most likely still being handled by their own request
+        for (UserReplication pending : replicationRepository.findAllByRequestedAtBefore(
+                LocalDateTime.now().minus(retryDelay))) {
+            replicate(pending.getUserId());
+        }
+    }
+
+    private void replicate(UserReplication pending) {
+        long userId = pending.getUserId();
+        Optional<User> home = userRepository.findByIdIncludingDeleted(userId);
+        while (true) {
+            copy(userId, home);
+            Optional<User> current = userRepository.findByIdIncludingDeleted(userId);
+            if (Objects.equals(current, home)) {
+                break;
+            }
+            home = current;
+        }
+        replicationRepository.deleteIfUnchanged(userId, pending.getRequestedAt());
+        log.debug("Replicated user id={} to every shard", userId);
+    }
+
+    private void copy(long userId, Optional<User> home) {
+        if (home.isEmpty()) {
+            shardRouter.replicate(() -> userRepository.deleteReplica(userId));
+            return;
+        }
+        User user = home.get();
+        shardRouter.replicate(() -> userRepository.upsertReplica(userId, user.getName(), user.getEmail(),
+                user.getDeletedAt()));
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.common.BulkResultDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
@@ -13,5 +14,7 @@ public interface UserService {
 
     List<UserDto> getAll();
 
+    BulkResultDto<UserDto> getByIds(List<Long> userIds);
+
     void delete(long userId);
 }
\ No newline at end of file
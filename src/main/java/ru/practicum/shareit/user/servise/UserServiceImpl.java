@@ -2,23 +2,47 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.BulkResultDto;
 import ru.practicum.shareit.common.ConflictException;
 import ru.practicum.shareit.common.NotFoundException;
 import ru.practicum.shareit.common.ValidationException;
+import ru.practicum.shareit.common.audit.AuditAction;
+import ru.practicum.shareit.common.audit.AuditLog;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.storage.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final int MAX_BULK_IDS = 500;
+    private static final String DELETED_NAME = "Deleted user";
+    /**
+     * Domain of the placeholder emails deleted users keep until they are purged; reserved, so no client can
+     * take a placeholder and block or collide with a deletion.
+     */
+    private static final String DELETED_EMAIL_DOMAIN = "@users.invalid";
+
     private final UserRepository userRepository;
+    private final UserDeletionPipeline deletionPipeline;
+    private final UserReplicator replicator;
+    private final TransactionTemplate transactionTemplate;
+    private final UserEmailFilter emailFilter;
+    private final AuditLog auditLog;
 
     @Override
     public UserDto create(UserDto userDto) {
@@ -26,7 +50,10 @@ public class UserServiceImpl implements UserService {
         checkEmailUnique(userDto.getEmail(), null);
 
         User user = UserMapper.toModel(userDto);
-        User saved = userRepository.save(user);
+        User saved = saveAndRequestReplication(user);
+        emailFilter.add(saved.getEmail());
+        replicator.replicate(saved.getId());
+        auditLog.record(AuditAction.USER_CREATED, saved.getId(), saved.getId());
 
         log.debug("Created user id={}, email={}", saved.getId(), saved.getEmail());
         return UserMapper.toDto(saved);
@@ -40,12 +67,20 @@ public class UserServiceImpl implements UserService {
 
         User existing = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found: " + userId));
+        // changes go to a copy, so a rejected save leaves nothing behind on the loaded instance
+        User changed = User.builder()
+                .id(existing.getId())
+                .name(existing.getName())
+                .email(existing.getEmail())
+                .emailNormalized(existing.getEmailNormalized())
+                .deletedAt(existing.getDeletedAt())
+                .build();
 
         if (updateDto.getName() != null) {
             if (updateDto.getName().isBlank()) {
                 throw new ValidationException("name must not be blank");
             }
-            existing.setName(updateDto.getName());
+            changed.setName(updateDto.getName());
         }
 
         if (updateDto.getEmail() != null) {
@@ -57,10 +92,13 @@ public class UserServiceImpl implements UserService {
             if (existing.getEmail() == null || !updateDto.getEmail().equalsIgnoreCase(existing.getEmail())) {
                 checkEmailUnique(updateDto.getEmail(), userId);
             }
-            existing.setEmail(updateDto.getEmail());
+            changed.setEmail(updateDto.getEmail());
         }
 
-        User updated = userRepository.save(existing);
+        User updated = saveAndRequestReplication(changed);
+        emailFilter.add(updated.getEmail());
+        replicator.replicate(userId);
+        auditLog.record(AuditAction.USER_UPDATED, userId, userId);
 
         log.debug("Updated user id={}, email={}", updated.getId(), updated.getEmail());
         return UserMapper.toDto(updated);
@@ -81,12 +119,61 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public void delete(long userId) {
-        if (userRepository.findById(userId).isEmpty()) {
-            throw new NotFoundException("User not found: " + userId);
+    public BulkResultDto<UserDto> getByIds(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            throw new ValidationException("ids must not be empty");
+        }
+        List<Long> requested = userIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (requested.size() > MAX_BULK_IDS) {
+            throw new ValidationException("at most " + MAX_BULK_IDS + " ids per request");
         }
-        userRepository.deleteById(userId);
-        log.debug("Deleted user id={}", userId);
+
+        Map<Long, User> found = userRepository.findAllById(requested).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        return BulkResultDto.<UserDto>builder()
+                .found(requested.stream()
+                        .filter(found::containsKey)
+                        .map(id -> UserMapper.toDto(found.get(id)))
+                        .toList())
+                .missing(requested.stream()
+                        .filter(id -> !found.containsKey(id))
+                        .toList())
+                .build();
+    }
+
+    /**
+     * Soft-deletes the user, which hides them and frees their email straight away, withdraws their items from
+     * search and booking, and hands the removal of their comments, bookings and items to the
+     * {@link UserDeletionPipeline}.
+     */
+    @Override
+    public void delete(long userId) {
+        String email = "deleted-" + userId + DELETED_EMAIL_DOMAIN;
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (userRepository.softDelete(userId, DELETED_NAME, email, now) == 0) {
+                throw new NotFoundException("User not found: " + userId);
+            }
+            replicator.request(userId);
+        });
+        replicator.replicate(userId);
+        deletionPipeline.withdrawOwnedItems(userId);
+        deletionPipeline.start(userId);
+        auditLog.record(AuditAction.USER_DELETED, userId, userId);
+        log.debug("Soft-deleted user id={}", userId);
+    }
+
+    /**
+     * Saves the user and records its replication to the other shards in one transaction, so a shard that
+     * misses the copy is caught up by the {@link UserReplicator} sweep.
+     */
+    private User saveAndRequestReplication(User user) {
+        return transactionTemplate.execute(status -> {
+            User saved = saveWithUniqueEmail(user);
+            replicator.request(saved.getId());
+            return saved;
+        });
     }
 
     private void validateCreate(UserDto dto) {
@@ -111,13 +198,39 @@ public class UserServiceImpl implements UserService {
         if (dotAfterAt == -1 || dotAfterAt == at + 1 || dotAfterAt == email.length() - 1) {
             throw new ValidationException("email must be valid");
         }
+        if (email.toLowerCase(Locale.ROOT).endsWith(DELETED_EMAIL_DOMAIN)) {
+            throw new ValidationException("email domain is reserved");
+        }
     }
 
+    /**
+     * Fails fast on an email that is already taken. Emails the {@link UserEmailFilter} has never seen skip
+     * the lookup: the check is only a shortcut, {@link #saveWithUniqueEmail} is what keeps emails unique.
+     */
     private void checkEmailUnique(String email, Long currentUserId) {
-        userRepository.findByEmailIgnoreCase(email)
+        if (!emailFilter.mightBeTaken(email)) {
+            return;
+        }
+        userRepository.findByEmailNormalized(User.normalizeEmail(email))
                 .filter(u -> currentUserId == null || !u.getId().equals(currentUserId))
                 .ifPresent(u -> {
                     throw new ConflictException("Email already exists: " + email);
                 });
     }
-}
\ No newline at end of file
+
+    /**
+     * Saves and flushes the user so that a concurrent write of the same email, which got past
+     * {@link #checkEmailUnique} as well, fails here on the unique index instead of inserting a duplicate.
+     */
+    private User saveWithUniqueEmail(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            String detail = e.getMostSpecificCause().getMessage();
+            if (detail != null && detail.toLowerCase(Locale.ROOT).contains("email")) {
+                throw new ConflictException("Email already exists: " + user.getEmail());
+            }
+            throw e;
+        }
+    }
+}
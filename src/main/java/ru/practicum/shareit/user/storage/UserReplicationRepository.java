@@ -0,0 +1,24 @@
+package ru.practicum.shareit.user.storage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.UserReplication;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface UserReplicationRepository extends JpaRepository<UserReplication, Long> {
+
+    List<UserReplication> findAllByRequestedAtBefore(LocalDateTime requestedAt);
+
+    /**
+     * Removes the request unless the user changed again after it was read.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from UserReplication r where r.userId = :userId and r.requestedAt = :requestedAt")
+    int deleteIfUnchanged(@Param("userId") long userId, @Param("requestedAt") LocalDateTime requestedAt);
+}
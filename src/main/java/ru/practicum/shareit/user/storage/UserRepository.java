@@ -1,10 +1,77 @@
 package ru.practicum.shareit.user.storage;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserEmailRow;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmailIgnoreCase(String email);
-}
\ No newline at end of file
+    /**
+     * Looks a user up by {@link User#normalizeEmail normalized} email, served by the unique index on it.
+     */
+    Optional<User> findByEmailNormalized(String emailNormalized);
+
+    @Query("select new ru.practicum.shareit.user.UserEmailRow(u.id, u.emailNormalized) from User u"
+            + " where u.id > :afterId order by u.id")
+    List<UserEmailRow> findEmailRows(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * The user row whether or not it is soft-deleted. Native, because the entity's restriction would hide
+     * deleted users otherwise.
+     */
+    @Query(value = "SELECT * FROM users WHERE id = :id", nativeQuery = true)
+    Optional<User> findByIdIncludingDeleted(@Param("id") long id);
+
+    /**
+     * Writes a user with its home-shard id to a non-home shard, inserting or overwriting the copy there,
+     * soft-deleted or not. {@code MERGE ... USING} needs PostgreSQL 15 or later on the shards.
+     */
+    @Modifying
+    @Query(value = "MERGE INTO users u USING (VALUES (:id, :name, :email, CAST(:deletedAt AS TIMESTAMP)))"
+            + " AS v(id, name, email, deleted_at) ON u.id = v.id"
+            + " WHEN MATCHED THEN UPDATE SET name = v.name, email = v.email, email_normalized = LOWER(v.email),"
+            + " deleted_at = v.deleted_at"
+            + " WHEN NOT MATCHED THEN INSERT (id, name, email, email_normalized, deleted_at)"
+            + " VALUES (v.id, v.name, v.email, LOWER(v.email), v.deleted_at)", nativeQuery = true)
+    int upsertReplica(@Param("id") long id,
+                      @Param("name") String name,
+                      @Param("email") String email,
+                      @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Removes the copy of a user that no longer exists on its home shard.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM users WHERE id = :id", nativeQuery = true)
+    int deleteReplica(@Param("id") long id);
+
+    /**
+     * Hides the user from every query and frees their email for a new account. Native, because the entity's
+     * restriction would otherwise apply to the statement itself.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE users SET name = :name, email = :email, email_normalized = LOWER(:email),"
+            + " deleted_at = :deletedAt"
+            + " WHERE id = :id AND deleted_at IS NULL", nativeQuery = true)
+    int softDelete(@Param("id") long id,
+                   @Param("name") String name,
+                   @Param("email") String email,
+                   @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Query(value = "SELECT id FROM users WHERE deleted_at IS NOT NULL ORDER BY deleted_at", nativeQuery = true)
+    List<Long> findDeletedIds();
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM users WHERE id = :id AND deleted_at IS NOT NULL", nativeQuery = true)
+    int purge(@Param("id") long id);
+}
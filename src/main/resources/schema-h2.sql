@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS bookings_archive (
+  id BIGINT NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  status VARCHAR(32) NOT NULL,
+  CONSTRAINT pk_booking_archive PRIMARY KEY (id, end_date),
+  CONSTRAINT fk_booking_archive_item FOREIGN KEY (item_id) REFERENCES items (id),
+  CONSTRAINT fk_booking_archive_booker FOREIGN KEY (booker_id) REFERENCES users (id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_booker_end ON bookings_archive (booker_id, end_date);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_item_end ON bookings_archive (item_id, end_date);
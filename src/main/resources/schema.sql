@@ -38,4 +38,85 @@ CREATE TABLE IF NOT EXISTS comments (
   CONSTRAINT pk_comment PRIMARY KEY (id),
   CONSTRAINT fk_comment_item FOREIGN KEY (item_id) REFERENCES items (id),
   CONSTRAINT fk_comment_author FOREIGN KEY (author_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_end ON bookings (booker_id, end_date);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_item_end ON bookings (item_id, end_date);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_end ON bookings (end_date);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start ON bookings (booker_id, start_date, id);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_item_start ON bookings (item_id, start_date, id);
+
+CREATE INDEX IF NOT EXISTS ix_items_owner ON items (owner_id);
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comment_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE items SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.item_id = items.id)
+WHERE comment_count = 0 AND EXISTS (SELECT 1 FROM comments c WHERE c.item_id = items.id);
+
+CREATE INDEX IF NOT EXISTS ix_comments_item_created ON comments (item_id, created, id);
+
+CREATE TABLE IF NOT EXISTS item_stats_deltas (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  item_id BIGINT NOT NULL,
+  stat_date DATE NOT NULL,
+  booked_minutes BIGINT NOT NULL,
+  approved INT NOT NULL,
+  rejected INT NOT NULL,
+  CONSTRAINT pk_item_stats_delta PRIMARY KEY (id),
+  CONSTRAINT fk_item_stats_delta_item FOREIGN KEY (item_id) REFERENCES items (id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_item_stats_deltas_item_date ON item_stats_deltas (item_id, stat_date);
+
+CREATE TABLE IF NOT EXISTS item_daily_stats (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  item_id BIGINT NOT NULL,
+  stat_date DATE NOT NULL,
+  booked_minutes BIGINT NOT NULL,
+  approved INT NOT NULL,
+  rejected INT NOT NULL,
+  CONSTRAINT pk_item_daily_stats PRIMARY KEY (id),
+  CONSTRAINT uq_item_daily_stats UNIQUE (item_id, stat_date),
+  CONSTRAINT fk_item_daily_stats_item FOREIGN KEY (item_id) REFERENCES items (id)
+);
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP WITHOUT TIME ZONE;
+
+CREATE INDEX IF NOT EXISTS ix_comments_author ON comments (author_id);
+
+CREATE TABLE IF NOT EXISTS user_deletions (
+  user_id BIGINT NOT NULL,
+  requested_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  phase VARCHAR(32) NOT NULL,
+  comments_deleted BIGINT NOT NULL DEFAULT 0,
+  bookings_deleted BIGINT NOT NULL DEFAULT 0,
+  items_deleted BIGINT NOT NULL DEFAULT 0,
+  completed_at TIMESTAMP WITHOUT TIME ZONE,
+  CONSTRAINT pk_user_deletion PRIMARY KEY (user_id)
+);
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_normalized VARCHAR(512);
+
+UPDATE users SET email_normalized = LOWER(email) WHERE email_normalized IS NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_users_email_normalized ON users (email_normalized);
+
+CREATE TABLE IF NOT EXISTS item_popularity (
+  item_id BIGINT NOT NULL,
+  views BIGINT NOT NULL DEFAULT 0,
+  bookings BIGINT NOT NULL DEFAULT 0,
+  score DOUBLE PRECISION NOT NULL DEFAULT 0,
+  scored_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT pk_item_popularity PRIMARY KEY (item_id),
+  CONSTRAINT fk_item_popularity_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS user_replications (
+  user_id BIGINT NOT NULL,
+  requested_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT pk_user_replication PRIMARY KEY (user_id)
+);
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.common.audit.AuditAction;
+import ru.practicum.shareit.common.audit.AuditLog;
+import ru.practicum.shareit.common.audit.AuditOverflowPolicy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Cost of auditing one mutation on the request thread, with eight threads recording at once: the
+ * {@link AuditLog} ring buffer under each {@link AuditOverflowPolicy}, against a synchronous append with an
+ * {@code fsync} per event, which is what auditing inside the service transactions would cost. Each trial
+ * prints how many events reached the file and how many the overflow policy dropped. Run with
+ * {@code -prof gc} to confirm the ring buffer allocates nothing per event.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=ru.practicum.shareit.benchmark.AuditLogBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class AuditLogBenchmark {
+
+    @Param({"DROP", "BLOCK", "BLOCK_WITH_TIMEOUT", "sync-fsync"})
+    public String mode;
+
+    @Param({"65536"})
+    public int capacity;
+
+    private Path dir;
+    private MeterRegistry meterRegistry;
+    private AuditLog auditLog;
+    private FileChannel syncChannel;
+    private final AtomicLong entityIds = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("audit-bench");
+        meterRegistry = new SimpleMeterRegistry();
+        if ("sync-fsync".equals(mode)) {
+            syncChannel = FileChannel.open(dir.resolve("audit.log"), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } else {
+            auditLog = new AuditLog(true, dir.resolve("audit.log"), capacity, 1024,
+                    AuditOverflowPolicy.valueOf(mode), Duration.ofMillis(50), DataSize.ofMegabytes(256),
+                    Duration.ofMillis(1), meterRegistry);
+            auditLog.start();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (auditLog != null) {
+            auditLog.stop();
+            System.out.printf("%n%s: written %.0f, dropped %.0f%n", mode,
+                    meterRegistry.counter("shareit.audit.written").count(),
+                    meterRegistry.counter("shareit.audit.dropped", "policy", mode).count());
+        }
+        if (syncChannel != null) {
+            syncChannel.close();
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void record() throws IOException {
+        long entityId = entityIds.incrementAndGet();
+        if (syncChannel != null) {
+            ByteBuffer line = ByteBuffer.wrap((System.currentTimeMillis() + " " + AuditAction.BOOKING_CREATED
+                    + " 1 " + entityId + "\n").getBytes(StandardCharsets.US_ASCII));
+            synchronized (syncChannel) {
+                syncChannel.write(line);
+                syncChannel.force(false);
+            }
+        } else {
+            auditLog.record(AuditAction.BOOKING_CREATED, 1, entityId);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuditLogBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,190 @@
+package ru.practicum.shareit.benchmark;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+/**
+ * Closed-loop load test of one owner's booking list: the blocking {@code GET /bookings/owner} against the
+ * NDJSON {@code GET /bookings/owner/stream}. Every client is a virtual thread that sends its next request as
+ * soon as it has read the previous body to the end. Reports throughput, latency percentiles, the peak number
+ * of live platform threads and the peak number of busy Tomcat workers (capped at {@code threads.max}).
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=ru.practicum.shareit.benchmark.BookingListLoadBenchmark \
+ *     -Dexec.args="[clients=400] [seconds=20] [bookings=2000] [tomcatThreads=50]"
+ * </pre>
+ */
+public final class BookingListLoadBenchmark {
+
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private record Result(String path, long requests, long errors, double seconds, long[] latencies,
+                          int peakThreads, double peakBusyWorkers) {
+
+        void print() {
+            Arrays.sort(latencies);
+            System.out.printf("%-22s %8d req %6d err %9.1f req/s  p50 %7.1f ms  p99 %7.1f ms"
+                            + "  peak threads %4d  peak busy workers %4.0f%n",
+                    path, requests, errors, requests / seconds, percentile(0.50), percentile(0.99),
+                    peakThreads, peakBusyWorkers);
+        }
+
+        private double percentile(double p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            return latencies[(int) Math.min(latencies.length - 1, Math.floor(p * latencies.length))] / 1e6;
+        }
+    }
+
+    private BookingListLoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = argument(args, 0, 400);
+        int seconds = argument(args, 1, 20);
+        int bookings = argument(args, 2, 2000);
+        int tomcatThreads = argument(args, 3, 50);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "server.tomcat.threads.max=" + tomcatThreads,
+                        "server.tomcat.mbeanregistry.enabled=true",
+                        "shareit.query-budget.enabled=false",
+                        "logging.level.root=WARN")
+                .run()) {
+            long ownerId = seed(context, bookings);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+
+            System.out.printf("clients=%d, seconds=%d, bookings=%d, tomcat threads.max=%d%n",
+                    clients, seconds, bookings, tomcatThreads);
+            for (String path : List.of("/bookings/owner", "/bookings/owner/stream")) {
+                run(port, path, ownerId, clients, Math.max(2, seconds / 4), meterRegistry);
+                run(port, path, ownerId, clients, seconds, meterRegistry).print();
+            }
+        }
+    }
+
+    private static long seed(ConfigurableApplicationContext context, int count) {
+        UserRepository users = context.getBean(UserRepository.class);
+        ItemRepository items = context.getBean(ItemRepository.class);
+        BookingRepository bookingRepository = context.getBean(BookingRepository.class);
+
+        User owner = users.save(User.builder().name("owner").email("load-owner@mail.ru").build());
+        User booker = users.save(User.builder().name("booker").email("load-booker@mail.ru").build());
+        Item item = items.save(Item.builder().name("tent").description("four-person tent").available(true)
+                .owner(owner).build());
+        LocalDateTime base = LocalDateTime.now().minusDays(count / 2);
+        List<Booking> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(Booking.builder()
+                    .start(base.plusDays(i))
+                    .end(base.plusDays(i).plusHours(6))
+                    .item(item)
+                    .booker(booker)
+                    .status(i % 5 == 0 ? BookingStatus.WAITING : BookingStatus.APPROVED)
+                    .build());
+        }
+        bookingRepository.saveAll(batch);
+        return owner.getId();
+    }
+
+    private static Result run(int port, String path, long ownerId, int clients, int seconds,
+                              MeterRegistry meterRegistry) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header(USER_ID_HEADER, String.valueOf(ownerId))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        DoubleAccumulator peakBusy = new DoubleAccumulator(Math::max, 0);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            Gauge busy = meterRegistry.find("tomcat.threads.busy").gauge();
+            if (busy != null) {
+                peakBusy.accumulate(busy.value());
+            }
+        }, 0, 50, TimeUnit.MILLISECONDS);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLong errors = new AtomicLong();
+        List<long[]> perClient = new ArrayList<>(clients);
+        long started = System.nanoTime();
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+             ExecutorService load = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                long[] latencies = new long[1 << 16];
+                perClient.add(latencies);
+                load.submit(() -> {
+                    int n = 0;
+                    while (System.nanoTime() < deadline && n < latencies.length - 1) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                            latencies[++n] = System.nanoTime() - sent;
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    latencies[0] = n;
+                });
+            }
+        }
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        sampler.shutdownNow();
+
+        long total = perClient.stream().mapToLong(l -> l[0]).sum();
+        long[] all = new long[(int) total];
+        int position = 0;
+        for (long[] latencies : perClient) {
+            int n = (int) latencies[0];
+            System.arraycopy(latencies, 1, all, position, n);
+            position += n;
+        }
+        return new Result(path, total, errors.get(), elapsed, all, threads.getPeakThreadCount(), peakBusy.get());
+    }
+
+    private static int argument(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import ru.practicum.shareit.common.datasource.shard.ShardRouter;
+import ru.practicum.shareit.common.datasource.shard.ShardTopology;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.item.service.SearchCache;
+import ru.practicum.shareit.storage.memory.MemoryItemRepository;
+import ru.practicum.shareit.storage.memory.MemoryTransactionManager;
+import ru.practicum.shareit.storage.memory.MemoryUserRepository;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency of one typo-tolerant lookup in the in-memory trigram index, the fallback search runs when the
+ * substring match finds nothing, with four threads querying at once. The catalog is {@code items} names and
+ * descriptions drawn from a fixed vocabulary; every query is two catalog words with one letter swapped, so
+ * it matches many items and most of the work is counting posting-list hits. Sample mode reports the
+ * percentiles, including p99.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=ru.practicum.shareit.benchmark.FuzzySearchBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class FuzzySearchBenchmark {
+
+    private static final String[] WORDS = {
+        "cordless", "drill", "circular", "saw", "folding", "ladder", "camping", "tent", "kayak", "paddle",
+        "pressure", "washer", "hedge", "trimmer", "lawn", "mower", "projector", "speaker", "tripod", "camera",
+        "sleeping", "bag", "snowboard", "helmet", "bicycle", "trailer", "generator", "welder", "sander", "router"
+    };
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "100000"})
+    public int items;
+
+    private ItemSearchIndex index;
+    private String[] queries;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        MemoryUserRepository users = new MemoryUserRepository();
+        MemoryItemRepository repository = new MemoryItemRepository(users);
+        User owner = users.save(User.builder().name("owner").email("owner@mail.ru").build());
+        for (int i = 0; i < items; i++) {
+            repository.save(Item.builder()
+                    .name(word(random) + " " + word(random))
+                    .description(word(random) + " " + word(random) + " " + word(random))
+                    .available(true)
+                    .owner(owner)
+                    .build());
+        }
+        ShardRouter unsharded = new ShardRouter(new StaticListableBeanFactory().getBeanProvider(ShardTopology.class),
+                new MemoryTransactionManager());
+        index = new ItemSearchIndex(repository, new SearchCache(100), unsharded, ItemSearchIndex.FuzzyBackend.INDEX,
+                0.6, 50, 5000);
+        index.warm();
+
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = typo(word(random), random) + " " + word(random);
+        }
+    }
+
+    @Benchmark
+    public List<Long> fuzzyMatch() {
+        return index.fuzzyMatch(queries[next.getAndIncrement() & (QUERIES - 1)]);
+    }
+
+    private static String word(SplittableRandom random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String typo(String word, SplittableRandom random) {
+        char[] letters = word.toCharArray();
+        int at = random.nextInt(letters.length - 1);
+        char swapped = letters[at];
+        letters[at] = letters[at + 1];
+        letters[at + 1] = swapped;
+        return new String(letters);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FuzzySearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
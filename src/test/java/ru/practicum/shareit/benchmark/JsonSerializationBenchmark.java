@@ -0,0 +1,161 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoSerializer;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization cost of the two large list responses ({@code GET /bookings/owner}, {@code GET /items})
+ * with the plain bean serializer, with Blackbird, and with Blackbird plus the streaming
+ * {@link BookingDtoSerializer}. Run with {@code -prof gc} to get allocated bytes/op next to ns/op;
+ * the {@code payloadBytes} counter reports the response size with and without gzip.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=ru.practicum.shareit.benchmark.JsonSerializationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"reflective", "blackbird", "streaming"})
+    public String mode;
+
+    @Param({"1000"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private List<BookingDto> bookings;
+    private List<ItemDto> items;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Payload {
+        public long payloadBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            payloadBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setFilterProvider(new SimpleFilterProvider()
+                        .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+        if (!"reflective".equals(mode)) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        if ("streaming".equals(mode)) {
+            mapper.registerModule(new SimpleModule().addSerializer(BookingDto.class, new BookingDtoSerializer()));
+        }
+
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 10, 0);
+        bookings = new ArrayList<>(size);
+        items = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            bookings.add(BookingDto.builder()
+                    .id(i)
+                    .start(base.plusHours(i))
+                    .end(base.plusHours(i + 2))
+                    .status(BookingStatus.values()[(int) (i % BookingStatus.values().length)])
+                    .booker(new BookingDto.BookerDto(i % 97))
+                    .item(new BookingDto.ItemInfoDto(i % 211, "Item " + (i % 211)))
+                    .build());
+            items.add(ItemDto.builder()
+                    .id(i)
+                    .name("Item " + i)
+                    .description("Cordless drill with two batteries, item " + i)
+                    .available(i % 3 != 0)
+                    .ownerId(1L)
+                    .lastBooking(new BookingShortDto(i * 2, i % 97))
+                    .nextBooking(new BookingShortDto(i * 2 + 1, i % 89))
+                    .comments(List.of(new CommentDto(i, "Works fine", "Anna", base.minusDays(i % 30))))
+                    .commentCount(1L)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] bookings(Payload payload) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(bookings);
+        payload.payloadBytes += json.length;
+        return json;
+    }
+
+    @Benchmark
+    public byte[] bookingsGzip(Payload payload) throws IOException {
+        return gzip(mapper.writeValueAsBytes(bookings), payload);
+    }
+
+    @Benchmark
+    public byte[] items(Payload payload) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(items);
+        payload.payloadBytes += json.length;
+        return json;
+    }
+
+    @Benchmark
+    public byte[] itemsGzip(Payload payload) throws IOException {
+        return gzip(mapper.writeValueAsBytes(items), payload);
+    }
+
+    private static byte[] gzip(byte[] json, Payload payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        byte[] compressed = out.toByteArray();
+        payload.payloadBytes += compressed.length;
+        return compressed;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonSerializationBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.common.ConflictException;
+import ru.practicum.shareit.common.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemStatsDeltaRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class BookingApprovalConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemStatsDeltaRepository deltaRepository;
+
+    @Test
+    void exactlyOneConcurrentDecisionWins() throws Exception {
+        Fixture fixture = fixture("mixed");
+
+        List<Object> outcomes = decideConcurrently(fixture, i -> i % 2 == 0);
+
+        BookingStatus decided = bookingRepository.findStatusById(fixture.bookingId()).orElseThrow();
+        assertNotEquals(BookingStatus.WAITING, decided);
+        int succeeded = 0;
+        for (Object outcome : outcomes) {
+            if (outcome instanceof BookingDto dto) {
+                assertEquals(decided, dto.getStatus());
+                succeeded++;
+            } else {
+                assertTrue(outcome instanceof ConflictException || outcome instanceof ValidationException,
+                        () -> "unexpected failure " + outcome);
+            }
+        }
+        assertTrue(succeeded >= 1);
+        assertEquals(1, decisionsRecorded(fixture));
+    }
+
+    @Test
+    void concurrentRetriesOfTheSameDecisionNeverConflict() throws Exception {
+        Fixture fixture = fixture("same");
+
+        List<Object> outcomes = decideConcurrently(fixture, i -> true);
+
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findStatusById(fixture.bookingId()).orElseThrow());
+        for (Object outcome : outcomes) {
+            if (outcome instanceof BookingDto dto) {
+                assertEquals(BookingStatus.APPROVED, dto.getStatus());
+            } else {
+                // only a request that read the booking after the winner committed is told it was processed
+                assertInstanceOf(ValidationException.class, outcome);
+            }
+        }
+        assertEquals(1, decisionsRecorded(fixture));
+    }
+
+    private List<Object> decideConcurrently(Fixture fixture, IntPredicate approve)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BookingDto>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean approved = approve.test(i);
+            results.add(executor.submit(() -> {
+                start.await();
+                return bookingService.approve(fixture.ownerId(), fixture.bookingId(), approved);
+            }));
+        }
+        start.countDown();
+
+        List<Object> outcomes = new ArrayList<>();
+        try {
+            for (Future<BookingDto> result : results) {
+                try {
+                    outcomes.add(result.get(10, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    outcomes.add(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return outcomes;
+    }
+
+    private int decisionsRecorded(Fixture fixture) {
+        return deltaRepository.findIdsByItemIdIn(List.of(fixture.itemId()), Pageable.unpaged()).size();
+    }
+
+    private Fixture fixture(String name) {
+        UserDto owner = userService.create(UserDto.builder()
+                .name("owner").email("cas-owner-" + name + "@mail.ru").build());
+        UserDto booker = userService.create(UserDto.builder()
+                .name("booker").email("cas-booker-" + name + "@mail.ru").build());
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder()
+                .name("ladder").description("folding ladder").available(true).build());
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        BookingDto booking = bookingService.create(booker.getId(), BookingCreateDto.builder()
+                .itemId(item.getId()).start(start).end(start.plusHours(3)).build());
+        return new Fixture(owner.getId(), item.getId(), booking.getId());
+    }
+
+    private record Fixture(long ownerId, long itemId, long bookingId) {
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingArchiveJob;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingArchiveRepository;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "shareit.booking.archive.batch-size=2")
+class BookingArchiveJobTest {
+
+    private static final int OLD_BOOKINGS = 5;
+
+    @Autowired
+    private BookingArchiveJob archiveJob;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingArchiveRepository archiveRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void bookingsAreMovedInChunksAndListedWithTheLiveOnes() {
+        User owner = userRepository.save(User.builder().name("owner").email("archive-owner@mail.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("archive-booker@mail.ru").build());
+        Item item = itemRepository.save(Item.builder().name("canoe").description("canoe").available(true)
+                .owner(owner).build());
+        // old enough for the cutoff below and for no other test's bookings to fall under it
+        LocalDateTime longAgo = LocalDateTime.of(2000, 3, 1, 10, 0);
+        List<Booking> old = new ArrayList<>();
+        for (int i = 0; i < OLD_BOOKINGS; i++) {
+            // saved out of start order, so ids and start dates disagree
+            old.add(bookingRepository.save(booking(item, booker, longAgo.plusDays((i * 3L) % OLD_BOOKINGS),
+                    i % 2 == 0 ? BookingStatus.APPROVED : BookingStatus.REJECTED)));
+        }
+        LocalDateTime recent = LocalDateTime.now().minusDays(2);
+        List<Booking> live = List.of(
+                bookingRepository.save(booking(item, booker, recent, BookingStatus.APPROVED)),
+                bookingRepository.save(booking(item, booker, recent.plusDays(5), BookingStatus.WAITING)));
+        List<Long> oldIds = old.stream().map(Booking::getId).toList();
+
+        assertEquals(OLD_BOOKINGS, archiveJob.archiveBefore(LocalDateTime.of(2001, 1, 1, 0, 0)));
+
+        assertTrue(bookingRepository.findAllById(oldIds).isEmpty());
+        assertEquals(live.size(), bookingRepository.findAllById(live.stream().map(Booking::getId).toList()).size());
+        List<ArchivedBooking> archived = archiveRepository.findAllById(oldIds);
+        assertEquals(OLD_BOOKINGS, archived.size());
+        for (Booking booking : old) {
+            ArchivedBooking copy = archived.stream().filter(a -> a.getId().equals(booking.getId())).findFirst()
+                    .orElseThrow();
+            assertEquals(booking.getStart(), copy.getStart());
+            assertEquals(booking.getEnd(), copy.getEnd());
+            assertEquals(booking.getStatus(), copy.getStatus());
+        }
+
+        List<Booking> all = new ArrayList<>(old);
+        all.addAll(live);
+        all.sort(Comparator.comparing(Booking::getStart).reversed());
+        List<Long> expected = all.stream().map(Booking::getId).toList();
+        assertEquals(expected, ids(bookingService.getAllByBooker(booker.getId(), BookingState.ALL, true)));
+        assertEquals(expected, ids(bookingService.getAllByOwner(owner.getId(), BookingState.ALL, true)));
+        assertEquals(live.stream().map(Booking::getId).toList().reversed(),
+                ids(bookingService.getAllByBooker(booker.getId(), BookingState.ALL, false)));
+    }
+
+    private static List<Long> ids(List<BookingDto> bookings) {
+        return bookings.stream().map(BookingDto::getId).toList();
+    }
+
+    private static Booking booking(Item item, User booker, LocalDateTime start, BookingStatus status) {
+        return Booking.builder()
+                .start(start)
+                .end(start.plusHours(2))
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build();
+    }
+}
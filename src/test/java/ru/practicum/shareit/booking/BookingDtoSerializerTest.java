@@ -0,0 +1,44 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoSerializer;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingDtoSerializerTest {
+
+    private final ObjectMapper beanMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ObjectMapper streamingMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new SimpleModule().addSerializer(BookingDto.class, new BookingDtoSerializer()))
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void writesSameJsonAsBeanSerializer() throws Exception {
+        List<BookingDto> bookings = List.of(
+                BookingDto.builder()
+                        .id(1L)
+                        .start(LocalDateTime.of(2025, 3, 1, 10, 0))
+                        .end(LocalDateTime.of(2025, 3, 1, 12, 30, 15, 500_000_000))
+                        .status(BookingStatus.APPROVED)
+                        .booker(new BookingDto.BookerDto(7L))
+                        .item(new BookingDto.ItemInfoDto(3L, "Drill \"Pro\""))
+                        .build(),
+                new BookingDto());
+
+        assertThat(streamingMapper.writeValueAsString(bookings))
+                .isEqualTo(beanMapper.writeValueAsString(bookings));
+    }
+}
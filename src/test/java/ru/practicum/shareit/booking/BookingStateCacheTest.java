@@ -0,0 +1,67 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.service.BookingStateCache;
+import ru.practicum.shareit.booking.service.ClassifiedBookings;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class BookingStateCacheTest {
+
+    private final BookingStateCache cache = new BookingStateCache(100, 3, Duration.ofMinutes(1));
+
+    @Test
+    void listsUpToTheEntryCapAreCached() {
+        AtomicInteger loads = new AtomicInteger();
+        ClassifiedBookings bookings = bookings(3);
+
+        assertSame(bookings, cache.get(BookingStateCache.Role.BOOKER, 1, () -> load(loads, bookings)));
+        assertSame(bookings, cache.get(BookingStateCache.Role.BOOKER, 1, () -> load(loads, bookings)));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void listsOverTheEntryCapAreLoadedEveryTime() {
+        AtomicInteger loads = new AtomicInteger();
+        ClassifiedBookings bookings = bookings(4);
+
+        assertSame(bookings, cache.get(BookingStateCache.Role.OWNER, 1, () -> load(loads, bookings)));
+        assertSame(bookings, cache.get(BookingStateCache.Role.OWNER, 1, () -> load(loads, bookings)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void listLoadedWhileAnEvictionRunsIsNotKept() {
+        AtomicInteger loads = new AtomicInteger();
+        ClassifiedBookings stale = bookings(1);
+        ClassifiedBookings fresh = bookings(2);
+
+        assertSame(stale, cache.get(BookingStateCache.Role.BOOKER, 1, () -> {
+            // the booking changes and its commit evicts after this load has read the old list
+            cache.evict(BookingStateCache.Role.BOOKER, 1);
+            return load(loads, stale);
+        }));
+        assertSame(fresh, cache.get(BookingStateCache.Role.BOOKER, 1, () -> load(loads, fresh)));
+        assertSame(fresh, cache.get(BookingStateCache.Role.BOOKER, 1, () -> load(loads, fresh)));
+        assertEquals(2, loads.get());
+    }
+
+    private static ClassifiedBookings load(AtomicInteger loads, ClassifiedBookings bookings) {
+        loads.incrementAndGet();
+        return bookings;
+    }
+
+    private static ClassifiedBookings bookings(int count) {
+        List<BookingDto> all = Collections.nCopies(count, BookingDto.builder().id(1L).build());
+        return new ClassifiedBookings(Map.of(BookingState.ALL, all), null);
+    }
+}
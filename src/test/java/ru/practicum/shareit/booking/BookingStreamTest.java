@@ -0,0 +1,115 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "shareit.booking.stream.page-size=2")
+@AutoConfigureMockMvc
+class BookingStreamTest {
+
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void streamedRowsMatchListAcrossPages() throws Exception {
+        UserDto owner = user("stream-owner");
+        UserDto booker = user("stream-booker");
+        ItemDto first = item(owner, "canoe");
+        ItemDto second = item(owner, "paddle");
+        for (int day = 1; day <= 5; day++) {
+            LocalDateTime start = LocalDateTime.now().plusDays(day);
+            bookingService.create(booker.getId(), BookingCreateDto.builder()
+                    .itemId(day % 2 == 0 ? first.getId() : second.getId())
+                    .start(start)
+                    .end(start.plusHours(3))
+                    .build());
+        }
+
+        assertEquals(ids(bookingService.getAllByOwner(owner.getId(), BookingState.ALL, false)),
+                stream("/bookings/owner/stream", owner.getId(), "ALL"));
+        assertEquals(ids(bookingService.getAllByBooker(booker.getId(), BookingState.FUTURE, false)),
+                stream("/bookings/stream", booker.getId(), "FUTURE"));
+        assertEquals(List.of(), stream("/bookings/stream", booker.getId(), "PAST"));
+    }
+
+    @Test
+    void unknownUserFailsBeforeStreaming() throws Exception {
+        mockMvc.perform(get("/bookings/owner/stream").header(USER_ID_HEADER, 999_999))
+                .andExpect(status().isNotFound());
+    }
+
+    private List<Long> stream(String path, long userId, String state) throws Exception {
+        MvcResult started = mockMvc.perform(get(path)
+                        .header(USER_ID_HEADER, userId)
+                        .param("state", state))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<Long> ids = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isBlank()) {
+                ids.add(objectMapper.readValue(line, BookingDto.class).getId());
+            }
+        }
+        return ids;
+    }
+
+    private static List<Long> ids(List<BookingDto> bookings) {
+        return bookings.stream().map(BookingDto::getId).toList();
+    }
+
+    private UserDto user(String name) {
+        return userService.create(UserDto.builder().name(name).email(name + "@mail.ru").build());
+    }
+
+    private ItemDto item(UserDto owner, String name) {
+        return itemService.create(owner.getId(), ItemDto.builder().name(name).description(name).available(true).build());
+    }
+}
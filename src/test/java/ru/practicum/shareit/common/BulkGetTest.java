@@ -0,0 +1,132 @@
+package ru.practicum.shareit.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class BulkGetTest {
+
+    private static final long MISSING_ID = 999_999_999L;
+    private static final int MAX_IDS = 500;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    void itemsComeBackInRequestOrderWithTheMissingIdsListed() throws Exception {
+        long ownerId = user("bulk-item-owner").getId();
+        long tent = item(ownerId, "tent").getId();
+        long stove = item(ownerId, "stove").getId();
+
+        mockMvc.perform(get("/items").header(ItemController.USER_ID_HEADER, ownerId)
+                        .param("ids", stove + "," + MISSING_ID + "," + tent + "," + stove))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[*].id").value(contains(ints(stove, tent))))
+                .andExpect(jsonPath("$.found[0].name").value("stove"))
+                .andExpect(jsonPath("$.missing").value(contains(ints(MISSING_ID))));
+
+        mockMvc.perform(json(post("/items/batch").header(ItemController.USER_ID_HEADER, ownerId),
+                        Arrays.asList(tent, null, MISSING_ID, tent)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[*].id").value(contains(ints(tent))))
+                .andExpect(jsonPath("$.missing").value(contains(ints(MISSING_ID))));
+
+        mockMvc.perform(json(post("/items/batch").header(ItemController.USER_ID_HEADER, ownerId), List.of()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(json(post("/items/batch").header(ItemController.USER_ID_HEADER, ownerId),
+                        ids(MAX_IDS + 1)))
+                .andExpect(status().isBadRequest());
+        List<Long> repeated = new ArrayList<>(ids(MAX_IDS));
+        repeated.addAll(ids(MAX_IDS));
+        mockMvc.perform(json(post("/items/batch").header(ItemController.USER_ID_HEADER, ownerId), repeated))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void usersComeBackInRequestOrderWithTheMissingIdsListed() throws Exception {
+        long first = user("bulk-first").getId();
+        long second = user("bulk-second").getId();
+
+        mockMvc.perform(get("/users").param("ids", second + "," + first + "," + MISSING_ID + "," + second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[*].id").value(contains(ints(second, first))))
+                .andExpect(jsonPath("$.found[0].email").value("bulk-second@mail.ru"))
+                .andExpect(jsonPath("$.missing").value(contains(ints(MISSING_ID))));
+
+        mockMvc.perform(json(post("/users/batch"), Arrays.asList(null, MISSING_ID, first, MISSING_ID)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[*].id").value(contains(ints(first))))
+                .andExpect(jsonPath("$.missing").value(contains(ints(MISSING_ID))));
+
+        mockMvc.perform(json(post("/users/batch"), ids(MAX_IDS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.missing").isArray());
+        mockMvc.perform(json(post("/users/batch"), ids(MAX_IDS + 1)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(json(post("/users/batch"), Arrays.asList((Long) null)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found").value(empty()));
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, List<Long> ids)
+            throws Exception {
+        return request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(ids));
+    }
+
+    /**
+     * Ids far above anything the tests create, so none of them is found.
+     */
+    private static List<Long> ids(int count) {
+        return LongStream.rangeClosed(1, count).map(i -> MISSING_ID + i).boxed().toList();
+    }
+
+    /**
+     * JsonPath reads small numbers back as integers.
+     */
+    private static Integer[] ints(long... ids) {
+        return Arrays.stream(ids).mapToObj(Math::toIntExact).toArray(Integer[]::new);
+    }
+
+    private UserDto user(String name) {
+        return userService.create(UserDto.builder().name(name).email(name + "@mail.ru").build());
+    }
+
+    private ItemDto item(long ownerId, String name) {
+        return itemService.create(ownerId, ItemDto.builder().name(name).description(name).available(true).build());
+    }
+}
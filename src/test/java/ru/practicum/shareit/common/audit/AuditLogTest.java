@@ -0,0 +1,127 @@
+package ru.practicum.shareit.common.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditLogTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 50_000;
+
+    @Test
+    void ringBufferHandsEveryEventToTheConsumerExactlyOnce() throws Exception {
+        AuditRingBuffer buffer = new AuditRingBuffer(1000);
+        assertEquals(1024, buffer.capacity());
+
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            long producer = p;
+            producers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                    while (!buffer.offer(i, AuditAction.ITEM_UPDATED.ordinal(), producer, i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+
+        BitSet[] seen = new BitSet[PRODUCERS];
+        long[] lastSeen = new long[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            seen[p] = new BitSet(EVENTS_PER_PRODUCER);
+            lastSeen[p] = -1;
+        }
+        int total = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (total < PRODUCERS * EVENTS_PER_PRODUCER && System.nanoTime() < deadline) {
+            total += buffer.drain((timestamp, action, actorId, entityId) -> {
+                int producer = (int) actorId;
+                assertFalse(seen[producer].get((int) entityId), "duplicate event");
+                assertTrue(entityId > lastSeen[producer], "events of one producer out of order");
+                seen[producer].set((int) entityId);
+                lastSeen[producer] = entityId;
+            }, 256);
+        }
+        for (Future<?> producer : producers) {
+            producer.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(PRODUCERS * EVENTS_PER_PRODUCER, total);
+        for (BitSet producerEvents : seen) {
+            assertEquals(EVENTS_PER_PRODUCER, producerEvents.cardinality());
+        }
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void fullRingBufferRejectsOffersUntilDrained() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i, 0, 1, i));
+        }
+        assertFalse(buffer.offer(4, 0, 1, 4));
+
+        assertEquals(1, buffer.drain((timestamp, action, actorId, entityId) -> {
+        }, 1));
+        assertTrue(buffer.offer(4, 0, 1, 4));
+    }
+
+    @Test
+    void writesOneLinePerEventAndRotatesFullFiles(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("audit.log");
+        AuditLog auditLog = new AuditLog(true, path, 64, 16, AuditOverflowPolicy.BLOCK, Duration.ZERO,
+                DataSize.ofBytes(1024), Duration.ofMillis(1), new SimpleMeterRegistry());
+        auditLog.start();
+        for (long i = 1; i <= 100; i++) {
+            auditLog.record(AuditAction.BOOKING_CREATED, 7, i);
+        }
+        auditLog.stop();
+
+        List<Path> files;
+        try (Stream<Path> listed = Files.list(dir)) {
+            files = listed.sorted().toList();
+        }
+        assertTrue(files.size() > 1, "the log should have been rotated");
+        List<String> lines = new ArrayList<>();
+        for (Path file : files) {
+            if (!file.equals(path)) {
+                assertTrue(Files.size(file) >= 1024);
+                lines.addAll(Files.readAllLines(file));
+            }
+        }
+        lines.addAll(Files.readAllLines(path));
+
+        assertEquals(100, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String[] fields = lines.get(i).split(" ");
+            assertEquals("BOOKING_CREATED", fields[1]);
+            assertEquals("7", fields[2]);
+            assertEquals(String.valueOf(i + 1), fields[3]);
+        }
+    }
+}
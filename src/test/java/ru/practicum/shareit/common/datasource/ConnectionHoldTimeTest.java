@@ -0,0 +1,142 @@
+package ru.practicum.shareit.common.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemFields;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads that combine several queries run in one read-only transaction, so they hold one connection and see
+ * one snapshot. Reads that only check the requester before answering from an index or cache run each
+ * repository call in its own short transaction, so no connection is held between queries. Transactions are
+ * counted on the calling thread only, which keeps scheduled jobs in the shared context out of the numbers.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class ConnectionHoldTimeTest {
+
+    private static final int ITEMS = 50;
+    private static final TransactionCounter TRANSACTIONS = new TransactionCounter();
+    private static final AtomicInteger SEEDS = new AtomicInteger();
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long ownerId;
+    private long itemId;
+
+    @BeforeEach
+    void seed() {
+        AbstractPlatformTransactionManager manager = (AbstractPlatformTransactionManager) transactionManager;
+        if (!manager.getTransactionExecutionListeners().contains(TRANSACTIONS)) {
+            manager.addListener(TRANSACTIONS);
+        }
+
+        int seed = SEEDS.incrementAndGet();
+        User owner = userRepository.save(User.builder().name("owner").email("hold-owner-" + seed + "@mail.ru")
+                .build());
+        User booker = userRepository.save(User.builder().name("booker").email("hold-booker-" + seed + "@mail.ru")
+                .build());
+        List<Item> items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(Item.builder().name("tent " + i).description("two-person tent").available(true)
+                    .owner(owner).build());
+        }
+        itemRepository.saveAll(items);
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>(ITEMS * 2);
+        for (Item item : items) {
+            bookings.add(Booking.builder().start(now.minusDays(3)).end(now.minusDays(2)).item(item)
+                    .booker(booker).status(BookingStatus.APPROVED).build());
+            bookings.add(Booking.builder().start(now.plusDays(2)).end(now.plusDays(3)).item(item)
+                    .booker(booker).status(BookingStatus.APPROVED).build());
+        }
+        bookingRepository.saveAll(bookings);
+        ownerId = owner.getId();
+        itemId = items.get(0).getId();
+    }
+
+    @Test
+    void multiQueryReadRunsInOneTransaction() {
+        assertEquals(1, TRANSACTIONS.count(() -> itemService.getAllByOwner(ownerId, ItemFields.ALL)));
+        assertEquals(1, TRANSACTIONS.count(() -> itemService.getById(ownerId, itemId, ItemFields.ALL)));
+    }
+
+    @Test
+    void indexBackedReadBorrowsAConnectionPerQuery() {
+        itemService.getRelated(ownerId, itemId, 5);
+
+        // the requester check and the existence check each run and commit on their own
+        assertTrue(TRANSACTIONS.count(() -> itemService.getRelated(ownerId, itemId, 5)) >= 2);
+    }
+
+    @Test
+    void readsJoinTheCallersTransaction() {
+        TransactionTemplate wide = new TransactionTemplate(transactionManager);
+        wide.setReadOnly(true);
+
+        assertEquals(1, TRANSACTIONS.count(() -> wide.executeWithoutResult(status -> {
+            itemService.getAllByOwner(ownerId, ItemFields.ALL);
+            itemService.getRelated(ownerId, itemId, 5);
+        })));
+    }
+
+    private static final class TransactionCounter implements TransactionExecutionListener {
+
+        private final ThreadLocal<int[]> begun = new ThreadLocal<>();
+
+        int count(Runnable action) {
+            int[] counter = new int[1];
+            begun.set(counter);
+            try {
+                action.run();
+            } finally {
+                begun.remove();
+            }
+            return counter[0];
+        }
+
+        @Override
+        public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+            int[] counter = begun.get();
+            if (counter != null && beginFailure == null) {
+                counter[0]++;
+            }
+        }
+    }
+}
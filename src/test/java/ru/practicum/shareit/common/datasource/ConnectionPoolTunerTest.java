@@ -0,0 +1,42 @@
+package ru.practicum.shareit.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import ru.practicum.shareit.common.datasource.shard.ShardTopology;
+
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConnectionPoolTunerTest {
+
+    @Test
+    void poolIsTakenOnOnlyOnceItHasStarted() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl("jdbc:h2:mem:pool-tuner");
+            dataSource.setPoolName("lazy");
+            StaticListableBeanFactory beans = new StaticListableBeanFactory();
+            beans.addBean("lazy", dataSource);
+            ConnectionPoolTuner tuner = new ConnectionPoolTuner(beans.getBeanProvider(HikariDataSource.class),
+                    beans.getBeanProvider(ShardTopology.class), meterRegistry, true, 4, 40,
+                    Duration.ofMillis(5), 1.5);
+
+            // an unstarted pool reports a maximum size of -1
+            assertDoesNotThrow(tuner::sample);
+            assertDoesNotThrow(tuner::adjust);
+            assertNull(meterRegistry.find("shareit.datasource.pool.max-size").gauge());
+
+            try (Connection ignored = dataSource.getConnection()) {
+                tuner.sample();
+            }
+            assertEquals(10, meterRegistry.get("shareit.datasource.pool.max-size").tag("pool", "lazy").gauge()
+                    .value());
+        }
+    }
+}
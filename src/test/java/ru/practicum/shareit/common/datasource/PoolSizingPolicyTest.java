@@ -0,0 +1,36 @@
+package ru.practicum.shareit.common.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PoolSizingPolicyTest {
+
+    @Test
+    void growsTowardsLittlesLawWhileCallersWait() {
+        PoolSizingPolicy policy = new PoolSizingPolicy(4, 40, 5, 1.5);
+
+        // 2000 acquisitions/s held 10 ms each keep 20 connections busy; with headroom the pool needs 25.
+        assertEquals(20, policy.next(10, 2000, 50, 10));
+        assertEquals(25, policy.next(20, 2000, 50, 10));
+        assertEquals(40, policy.next(38, 4000, 50, 10));
+    }
+
+    @Test
+    void shrinksInsteadOfGrowingWhenTheDatabaseSlowsDown() {
+        PoolSizingPolicy policy = new PoolSizingPolicy(4, 40, 5, 1.5);
+        policy.next(10, 500, 1, 4);
+
+        assertEquals(9, policy.next(10, 500, 50, 20));
+        assertEquals(4.8, policy.getBaselineHoldMillis(), 1e-9);
+    }
+
+    @Test
+    void shrinksOneStepAtATimeWhenWaitsAreLowAndStaysWithinBounds() {
+        PoolSizingPolicy policy = new PoolSizingPolicy(4, 40, 5, 1.5);
+
+        assertEquals(19, policy.next(20, 100, 0, 10));
+        assertEquals(10, policy.next(10, 800, 0, 10));
+        assertEquals(4, policy.next(4, 0, 0, 0));
+    }
+}
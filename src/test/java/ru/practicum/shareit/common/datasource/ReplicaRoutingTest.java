@@ -0,0 +1,107 @@
+package ru.practicum.shareit.common.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ActiveProfiles({"test", "replica"})
+@SpringBootTest
+class ReplicaRoutingTest {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void readOnlyTransactionsUseReplicaAndWritesUsePrimary() {
+        double replicaBefore = connections("replica");
+        double primaryBefore = connections("primary");
+
+        readOnly().executeWithoutResult(status -> userRepository.findAll());
+        assertEquals(replicaBefore + 1, connections("replica"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> userRepository.findAll());
+        assertEquals(primaryBefore + 1, connections("primary"));
+    }
+
+    @Test
+    void userWhoJustWroteReadsFromPrimaryWhileOthersStayOnReplica() throws Exception {
+        ReplicaLagGuard lagGuard = new ReplicaLagGuard(Duration.ofSeconds(1), 100);
+        ReplicaRoutingInterceptor interceptor = new ReplicaRoutingInterceptor(lagGuard);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(new DriverManagerDataSource(),
+                new DriverManagerDataSource(), lagGuard, new SimpleMeterRegistry());
+
+        assertEquals(DataSourceRole.REPLICA, readOnlyLookup(interceptor, routing, 1L));
+        handle(interceptor, "PATCH", 1L);
+
+        assertEquals(DataSourceRole.PRIMARY, readOnlyLookup(interceptor, routing, 1L));
+        assertEquals(DataSourceRole.REPLICA, readOnlyLookup(interceptor, routing, 2L));
+        assertEquals(DataSourceRole.REPLICA, readOnlyLookup(interceptor, routing, null));
+        handle(interceptor, "GET", 2L);
+        assertEquals(DataSourceRole.REPLICA, readOnlyLookup(interceptor, routing, 2L));
+
+        Thread.sleep(1500);
+        assertEquals(DataSourceRole.REPLICA, readOnlyLookup(interceptor, routing, 1L));
+    }
+
+    /**
+     * The data source a read-only transaction of a GET request by {@code userId} is routed to.
+     */
+    private static Object readOnlyLookup(ReplicaRoutingInterceptor interceptor, ReplicaRoutingDataSource routing,
+                                         Long userId) {
+        MockHttpServletRequest request = request("GET", userId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            return routing.determineCurrentLookupKey();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            interceptor.afterCompletion(request, response, null, null);
+        }
+    }
+
+    private static void handle(ReplicaRoutingInterceptor interceptor, String method, Long userId) {
+        MockHttpServletRequest request = request(method, userId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+    }
+
+    private static MockHttpServletRequest request(String method, Long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/items");
+        if (userId != null) {
+            request.addHeader("X-Sharer-User-Id", userId);
+        }
+        return request;
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private double connections(String role) {
+        return meterRegistry.get("shareit.datasource.connections").tag("role", role).counter().count();
+    }
+}
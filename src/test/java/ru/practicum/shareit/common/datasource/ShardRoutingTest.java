@@ -0,0 +1,190 @@
+package ru.practicum.shareit.common.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.datasource.shard.ShardContext;
+import ru.practicum.shareit.common.datasource.shard.ShardIds;
+import ru.practicum.shareit.common.datasource.shard.ShardRouter;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemAvailabilityService;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserReplicator;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserReplicationRepository;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles({"test", "sharding"})
+@SpringBootTest
+class ShardRoutingTest {
+
+    private static final int SHARDS = 3;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemAvailabilityService availabilityService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserReplicator replicator;
+
+    @Autowired
+    private UserReplicationRepository replicationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void ownerDataLivesOnOwnersShardAndBookerListingMergesShards() {
+        UserDto first = user("first-owner");
+        UserDto second = user("second-owner");
+        for (int i = 0; shardRouter.shardForOwner(second.getId()) == shardRouter.shardForOwner(first.getId()); i++) {
+            second = user("owner-" + i);
+        }
+        UserDto booker = user("booker");
+
+        ItemDto tent = item(first, "tent");
+        ItemDto kayak = item(second, "kayak");
+        int tentShard = shardRouter.shardForOwner(first.getId());
+        int kayakShard = shardRouter.shardForOwner(second.getId());
+        assertEquals(tentShard, ShardIds.shardOf(tent.getId()));
+        assertEquals(kayakShard, ShardIds.shardOf(kayak.getId()));
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertEquals(shard == tentShard, onShard(shard, () -> itemRepository.existsById(tent.getId())));
+            assertEquals(shard == kayakShard, onShard(shard, () -> itemRepository.existsById(kayak.getId())));
+            assertTrue(onShard(shard, () -> userRepository.existsById(booker.getId())));
+        }
+
+        BookingDto tentBooking = book(booker, tent, 1);
+        BookingDto kayakBooking = book(booker, kayak, 2);
+        assertNotEquals(ShardIds.shardOf(tentBooking.getId()), ShardIds.shardOf(kayakBooking.getId()));
+
+        List<BookingDto> bookings = bookingService.getAllByBooker(booker.getId(), BookingState.ALL, false);
+        assertEquals(List.of(kayakBooking.getId(), tentBooking.getId()), bookings.stream().map(BookingDto::getId).toList());
+        assertEquals(tentBooking.getId(), bookingService.getById(first.getId(), tentBooking.getId()).getId());
+        assertEquals(Set.of(tent.getId(), kayak.getId()), itemService.search(booker.getId(), "sharded").stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void bulkAvailabilityReadsEveryItemOnItsOwnShard() {
+        UserDto first = user("first-lender");
+        UserDto second = user("second-lender");
+        for (int i = 0; shardRouter.shardForOwner(second.getId()) == shardRouter.shardForOwner(first.getId()); i++) {
+            second = user("lender-" + i);
+        }
+        UserDto booker = user("renter");
+        ItemDto tent = itemService.create(first.getId(), ItemDto.builder().name("tent").description("rental tent")
+                .available(true).build());
+        ItemDto kayak = itemService.create(second.getId(), ItemDto.builder().name("kayak").description("rental kayak")
+                .available(true).build());
+        LocalDateTime day = LocalDate.now().plusDays(3).atStartOfDay();
+        BookingDto booking = bookingService.create(booker.getId(), BookingCreateDto.builder()
+                .itemId(kayak.getId()).start(day.plusHours(10)).end(day.plusHours(12)).build());
+        bookingService.approve(second.getId(), booking.getId(), true);
+
+        long missing = tent.getId() + 1_000_000;
+        List<ItemAvailabilityDto> availability = availabilityService.getAvailability(booker.getId(),
+                List.of(kayak.getId(), missing, tent.getId()), day, day.plusDays(1));
+
+        assertEquals(List.of(kayak.getId(), tent.getId()), availability.stream()
+                .map(ItemAvailabilityDto::getItemId).toList());
+        assertEquals(List.of(true, false, true), availability.get(0).getRanges().stream()
+                .map(ItemAvailabilityDto.RangeDto::isFree).toList());
+        assertEquals(day.plusHours(10), availability.get(0).getRanges().get(1).getStart());
+        assertEquals(List.of(true), availability.get(1).getRanges().stream()
+                .map(ItemAvailabilityDto.RangeDto::isFree).toList());
+    }
+
+    @Test
+    void userChangesReachEveryShard() {
+        UserDto user = user("replicated");
+        userService.update(user.getId(), UserDto.builder().name("renamed").build());
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertEquals("renamed", onShard(shard, () -> userRepository.findById(user.getId()).orElseThrow().getName()));
+        }
+
+        userService.delete(user.getId());
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertFalse(onShard(shard, () -> userRepository.existsById(user.getId())));
+        }
+    }
+
+    @Test
+    void shardThatMissedAUserCatchesUpOnReplay() {
+        UserDto user = user("missed");
+        onShard(1, () -> userRepository.deleteReplica(user.getId()));
+        assertFalse(onShard(1, () -> userRepository.existsById(user.getId())));
+
+        replicator.request(user.getId());
+        replicator.replicate(user.getId());
+
+        assertEquals("missed", onShard(1, () -> userRepository.findById(user.getId()).orElseThrow().getName()));
+        assertFalse(replicationRepository.existsById(user.getId()));
+    }
+
+    private UserDto user(String name) {
+        return userService.create(UserDto.builder().name(name).email(name + "@shard.test").build());
+    }
+
+    private ItemDto item(UserDto owner, String name) {
+        return itemService.create(owner.getId(), ItemDto.builder().name(name).description("sharded " + name).available(true).build());
+    }
+
+    private BookingDto book(UserDto booker, ItemDto item, int daysAhead) {
+        LocalDateTime start = LocalDateTime.now().plusDays(daysAhead);
+        return bookingService.create(booker.getId(), BookingCreateDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusHours(2))
+                .build());
+    }
+
+    private <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = ShardContext.bind(shard);
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> work.get());
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+}
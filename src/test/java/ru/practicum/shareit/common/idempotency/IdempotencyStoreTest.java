@@ -0,0 +1,84 @@
+package ru.practicum.shareit.common.idempotency;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.common.ConflictException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(Duration.ofHours(1), 1000, Duration.ofSeconds(5));
+
+    @Test
+    void retryReplaysTheStoredResult() {
+        AtomicInteger runs = new AtomicInteger();
+
+        assertEquals(1, store.execute(1, "item.create", "key", "body", runs::incrementAndGet));
+        assertEquals(1, store.execute(1, "item.create", "key", "body", runs::incrementAndGet));
+        assertEquals(1, runs.get());
+
+        assertEquals(2, store.execute(2, "item.create", "key", "body", runs::incrementAndGet));
+        assertEquals(3, store.execute(1, "booking.create", "key", "body", runs::incrementAndGet));
+    }
+
+    @Test
+    void reusingAKeyForAnotherBodyConflicts() {
+        store.execute(1, "item.create", "key", "body", () -> 1);
+
+        assertThrows(ConflictException.class, () -> store.execute(1, "item.create", "key", "other", () -> 2));
+    }
+
+    @Test
+    void failuresReleaseTheKey() {
+        assertThrows(IllegalStateException.class, () -> store.execute(1, "item.create", "key", "body", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(1, store.execute(1, "item.create", "key", "body", () -> 1));
+
+        assertThrows(StackOverflowError.class, () -> store.execute(1, "item.create", "other", "body", () -> {
+            throw new StackOverflowError();
+        }));
+        assertEquals(2, store.execute(1, "item.create", "other", "body", () -> 2));
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstRun() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() ->
+                store.execute(1, "item.create", "key", "body", () -> {
+                    started.countDown();
+                    await(release);
+                    return runs.incrementAndGet();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Integer> duplicate = CompletableFuture.supplyAsync(() ->
+                store.execute(1, "item.create", "key", "body", runs::incrementAndGet));
+        assertFalse(duplicate.isDone());
+        release.countDown();
+
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
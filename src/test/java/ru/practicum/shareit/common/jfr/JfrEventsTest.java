@@ -0,0 +1,86 @@
+package ru.practicum.shareit.common.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemFields;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class JfrEventsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    void serviceCallsAndTheirQueriesAreRecorded() throws Exception {
+        UserDto owner = userService.create(UserDto.builder().name("owner").email("jfr-owner@mail.ru").build());
+        for (int i = 0; i < 2; i++) {
+            itemService.create(owner.getId(), ItemDto.builder()
+                    .name("lamp " + i)
+                    .description("camping lamp")
+                    .available(true)
+                    .build());
+        }
+
+        Path file = Files.createTempFile("jfr-events-", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ServiceCallEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(RepositoryQueryEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            itemService.getAllByOwner(owner.getId(), ItemFields.ALL);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        RecordedEvent call = events.stream()
+                .filter(e -> e.getEventType().getName().equals("ru.practicum.shareit.ServiceCall"))
+                .filter(e -> "ItemServiceImpl.getAllByOwner".equals(e.getString("operation")))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(owner.getId(), call.getLong("userId"));
+        assertEquals(2, call.getInt("itemCount"));
+        assertTrue(events.stream()
+                .filter(e -> e.getEventType().getName().equals("ru.practicum.shareit.RepositoryQuery"))
+                .anyMatch(e -> e.getString("query").startsWith("ItemRepository.")
+                        && e.getStartTime().compareTo(call.getStartTime()) >= 0
+                        && e.getEndTime().compareTo(call.getEndTime()) <= 0));
+    }
+
+    @Test
+    void recordingEndpointIsNotExposedOverHttpByDefault() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/jfr")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/actuator/jfr")).andExpect(status().isNotFound());
+    }
+}
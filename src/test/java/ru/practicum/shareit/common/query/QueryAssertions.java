@@ -0,0 +1,34 @@
+package ru.practicum.shareit.common.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class QueryAssertions {
+
+    private QueryAssertions() {
+    }
+
+    public static int countStatements(ThrowingRunnable action) throws Exception {
+        QueryScope scope = QueryCounter.open(QueryScope.unbounded("test"));
+        try {
+            action.run();
+        } finally {
+            QueryCounter.close();
+        }
+        return scope.getStatements();
+    }
+
+    public static void assertStatements(int expected, ThrowingRunnable action) throws Exception {
+        assertEquals(expected, countStatements(action), "SQL statement count");
+    }
+
+    public static void assertStatementsAtMost(int max, ThrowingRunnable action) throws Exception {
+        int actual = countStatements(action);
+        assertTrue(actual <= max, () -> "expected at most " + max + " SQL statements, but was " + actual);
+    }
+
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
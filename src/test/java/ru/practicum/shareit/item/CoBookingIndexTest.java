@@ -0,0 +1,117 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.CoBookingIndex;
+import ru.practicum.shareit.item.service.CoBookingRebuildJob;
+import ru.practicum.shareit.storage.memory.MemoryBookingArchiveRepository;
+import ru.practicum.shareit.storage.memory.MemoryBookingRepository;
+import ru.practicum.shareit.storage.memory.MemoryItemRepository;
+import ru.practicum.shareit.storage.memory.MemoryUserRepository;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CoBookingIndexTest {
+
+    @Test
+    void approvalsUpdateNeighboursAndRowsArePruned() {
+        CoBookingIndex index = new CoBookingIndex(2, 200);
+        approve(index, 1, 10, 20, 30);
+        approve(index, 2, 10, 20);
+        approve(index, 3, 10, 40);
+        approve(index, 3, 10);
+
+        assertEquals(List.of(20L, 30L, 40L), index.getRelated(10, 10));
+        assertEquals(List.of(10L, 30L), index.getRelated(20, 10));
+        assertEquals(List.of(20L), index.getRelated(10, 1));
+
+        approve(index, 4, 10, 50, 60);
+        assertEquals(List.of(20L, 30L), index.getRelated(10, 10));
+    }
+
+    @Test
+    void removedBookerNoLongerCounts() {
+        CoBookingIndex index = new CoBookingIndex(50, 200);
+        approve(index, 1, 10, 20, 30);
+        approve(index, 2, 10, 30);
+
+        index.removeBooker(1);
+        assertEquals(List.of(30L), index.getRelated(10, 10));
+        assertEquals(List.of(), index.getRelated(20, 10));
+
+        index.removeBooker(2);
+        assertEquals(List.of(), index.getRelated(10, 10));
+    }
+
+    @Test
+    void itemsPastTheHistoryCapAreCountedOnce() {
+        CoBookingIndex index = new CoBookingIndex(50, 2);
+        approve(index, 1, 10, 20, 30, 30, 30);
+        approve(index, 2, 40, 30);
+        approve(index, 3, 40, 30);
+
+        assertEquals(List.of(40L, 10L, 20L), index.getRelated(30, 10));
+
+        index.removeBooker(1);
+        assertEquals(List.of(40L), index.getRelated(30, 10));
+        assertEquals(List.of(), index.getRelated(20, 10));
+    }
+
+    @Test
+    void rebuildCountsApprovedBookingsAndTakesLaterApprovals() {
+        MemoryUserRepository users = new MemoryUserRepository();
+        MemoryItemRepository items = new MemoryItemRepository(users);
+        MemoryBookingRepository bookings = new MemoryBookingRepository(users, items);
+        MemoryBookingArchiveRepository archive = new MemoryBookingArchiveRepository(users, items, bookings);
+        User owner = users.save(User.builder().name("owner").email("owner@mail.ru").build());
+        User first = users.save(User.builder().name("first").email("first@mail.ru").build());
+        User second = users.save(User.builder().name("second").email("second@mail.ru").build());
+        Item tent = saveItem(items, owner, "tent");
+        Item stove = saveItem(items, owner, "stove");
+        Item lamp = saveItem(items, owner, "lamp");
+
+        bookings.save(booking(tent, first, BookingStatus.APPROVED));
+        bookings.save(booking(stove, first, BookingStatus.APPROVED));
+        bookings.save(booking(lamp, first, BookingStatus.REJECTED));
+        bookings.save(booking(tent, second, BookingStatus.APPROVED));
+        bookings.save(booking(stove, second, BookingStatus.APPROVED));
+        bookings.save(booking(lamp, second, BookingStatus.APPROVED));
+
+        CoBookingIndex index = new CoBookingIndex(50, 200);
+        new CoBookingRebuildJob(bookings, archive, index, 2, 1).rebuild();
+
+        assertEquals(List.of(stove.getId(), lamp.getId()), index.getRelated(tent.getId(), 10));
+        assertEquals(List.of(tent.getId(), stove.getId()), index.getRelated(lamp.getId(), 10));
+
+        index.recordApprovalAfterCommit(first.getId(), lamp.getId());
+        assertEquals(List.of(tent.getId(), stove.getId()), index.getRelated(lamp.getId(), 10));
+        assertEquals(List.of(stove.getId(), lamp.getId()), index.getRelated(tent.getId(), 10));
+    }
+
+    private static void approve(CoBookingIndex index, long bookerId, long... itemIds) {
+        for (long itemId : itemIds) {
+            index.recordApprovalAfterCommit(bookerId, itemId);
+        }
+    }
+
+    private static Item saveItem(MemoryItemRepository items, User owner, String name) {
+        return items.save(Item.builder().name(name).description(name).available(true).owner(owner).build());
+    }
+
+    private static Booking booking(Item item, User booker, BookingStatus status) {
+        LocalDateTime start = LocalDateTime.now().minusDays(10);
+        return Booking.builder()
+                .start(start)
+                .end(start.plusHours(2))
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.common.datasource.shard.ShardRouter;
+import ru.practicum.shareit.common.datasource.shard.ShardTopology;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.AvailabilityIndex;
+import ru.practicum.shareit.item.service.ItemAvailabilityServiceImpl;
+import ru.practicum.shareit.item.service.ItemCalendar;
+import ru.practicum.shareit.storage.memory.MemoryBookingRepository;
+import ru.practicum.shareit.storage.memory.MemoryItemRepository;
+import ru.practicum.shareit.storage.memory.MemoryTransactionManager;
+import ru.practicum.shareit.storage.memory.MemoryUserRepository;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemAvailabilityTest {
+
+    private final MemoryUserRepository users = new MemoryUserRepository();
+    private final MemoryItemRepository items = new MemoryItemRepository(users);
+    private final MemoryBookingRepository bookings = new MemoryBookingRepository(users, items);
+    private final AvailabilityIndex availabilityIndex = new AvailabilityIndex(bookings, 90, 1000);
+    private final ItemAvailabilityServiceImpl service = new ItemAvailabilityServiceImpl(items, users,
+            availabilityIndex, new ShardRouter(new StaticListableBeanFactory().getBeanProvider(ShardTopology.class),
+            new MemoryTransactionManager()));
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new MemoryTransactionManager());
+
+    private final User owner = users.save(User.builder().name("owner").email("owner@mail.ru").build());
+    private final User booker = users.save(User.builder().name("booker").email("booker@mail.ru").build());
+    private final Item item = items.save(Item.builder().name("kayak").description("sea kayak").available(true)
+            .owner(owner).build());
+    private final LocalDateTime day = LocalDate.now().plusDays(1).atStartOfDay();
+
+    @Test
+    void windowEdgesInsideAnHourAreKeptAndAdjacentBookingsMerge() {
+        approve(day.plusHours(11), day.plusHours(12));
+        approve(day.plusHours(12), day.plusHours(13));
+
+        assertEquals(List.of(
+                range(day.plusHours(9).plusMinutes(30), day.plusHours(11), true),
+                range(day.plusHours(11), day.plusHours(13), false),
+                range(day.plusHours(13), day.plusHours(14).plusMinutes(15), true)
+        ), ranges(day.plusHours(9).plusMinutes(30), day.plusHours(14).plusMinutes(15)));
+
+        assertEquals(List.of(
+                range(day.plusHours(11).plusMinutes(30), day.plusHours(13), false),
+                range(day.plusHours(13), day.plusHours(13).plusMinutes(45), true)
+        ), ranges(day.plusHours(11).plusMinutes(30), day.plusHours(13).plusMinutes(45)));
+    }
+
+    @Test
+    void bookingsInsideAnHourTakeTheWholeHour() {
+        approve(day.plusHours(10).plusMinutes(20), day.plusHours(10).plusMinutes(40));
+
+        assertEquals(List.of(range(day.plusHours(10).plusMinutes(30), day.plusHours(10).plusMinutes(50), false)),
+                ranges(day.plusHours(10).plusMinutes(30), day.plusHours(10).plusMinutes(50)));
+        assertEquals(List.of(
+                range(day.plusHours(9), day.plusHours(10), true),
+                range(day.plusHours(10), day.plusHours(11), false),
+                range(day.plusHours(11), day.plusHours(12), true)
+        ), ranges(day.plusHours(9), day.plusHours(12)));
+    }
+
+    @Test
+    void approvalIsVisibleOnlyOnceCommitted() {
+        long hour = ItemCalendar.floorHour(day.plusHours(10));
+        assertFalse(isBusy(hour));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            availabilityIndex.markBusyAfterCommit(item.getId(), day.plusHours(10), day.plusHours(11));
+            assertFalse(isBusy(hour));
+            status.setRollbackOnly();
+        });
+        assertFalse(isBusy(hour));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            availabilityIndex.markBusyAfterCommit(item.getId(), day.plusHours(10), day.plusHours(11));
+            assertFalse(isBusy(hour));
+        });
+        assertTrue(isBusy(hour));
+        assertFalse(isBusy(hour + 1));
+    }
+
+    private boolean isBusy(long hour) {
+        return availabilityIndex.getCalendars(List.of(item.getId()), hour, hour + 1).get(item.getId()).isBusy(hour);
+    }
+
+    private List<ItemAvailabilityDto.RangeDto> ranges(LocalDateTime from, LocalDateTime to) {
+        return service.getAvailability(owner.getId(), item.getId(), from, to).getRanges();
+    }
+
+    private void approve(LocalDateTime start, LocalDateTime end) {
+        bookings.save(Booking.builder().start(start).end(end).item(item).booker(booker)
+                .status(BookingStatus.APPROVED).build());
+    }
+
+    private static ItemAvailabilityDto.RangeDto range(LocalDateTime start, LocalDateTime end, boolean free) {
+        return ItemAvailabilityDto.RangeDto.builder().start(start).end(end).free(free).build();
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.common.ValidationException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class ItemCommentsTest {
+
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void pagesSplitCommentsWithTheSameTimestampWithoutGapsOrRepeats() {
+        User owner = user("owner");
+        User author = user("author");
+        Item item = item(owner);
+        LocalDateTime created = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusDays(1);
+        List<Comment> comments = new ArrayList<>();
+        // three and three comments share a timestamp, so pages of two end inside both groups
+        for (int i = 0; i < 7; i++) {
+            comments.add(commentRepository.save(Comment.builder()
+                    .text("comment " + i)
+                    .item(item)
+                    .author(author)
+                    .created(created.minusMinutes(i / 3))
+                    .build()));
+        }
+        List<Long> expected = comments.stream()
+                .sorted(Comparator.comparing(Comment::getCreated).thenComparing(Comment::getId).reversed())
+                .map(Comment::getId)
+                .toList();
+
+        List<Long> paged = new ArrayList<>();
+        List<CommentDto> page = itemService.getComments(author.getId(), item.getId(), null, null, 2);
+        while (!page.isEmpty()) {
+            page.forEach(comment -> paged.add(comment.getId()));
+            CommentDto last = page.get(page.size() - 1);
+            page = itemService.getComments(author.getId(), item.getId(), last.getCreated(), last.getId(), 2);
+        }
+
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    void addingACommentCountsItOnTheItem() {
+        User owner = user("owner");
+        User author = user("author");
+        User stranger = user("stranger");
+        Item item = item(owner);
+        LocalDateTime start = LocalDateTime.now().minusDays(3);
+        bookingRepository.save(Booking.builder().start(start).end(start.plusDays(1)).item(item).booker(author)
+                .status(BookingStatus.APPROVED).build());
+
+        itemService.addComment(author.getId(), item.getId(), CommentDto.builder().text("great").build());
+        itemService.addComment(author.getId(), item.getId(), CommentDto.builder().text("still great").build());
+        assertThrows(ValidationException.class, () -> itemService.addComment(stranger.getId(), item.getId(),
+                CommentDto.builder().text("never rented it").build()));
+
+        assertEquals(2, itemRepository.findById(item.getId()).orElseThrow().getCommentCount());
+        assertEquals(2, itemService.getComments(owner.getId(), item.getId(), null, null, 10).size());
+    }
+
+    private User user(String name) {
+        return userRepository.save(User.builder().name(name)
+                .email(name + "-" + USERS.incrementAndGet() + "-comments@mail.ru").build());
+    }
+
+    private Item item(User owner) {
+        return itemRepository.save(Item.builder().name("canoe").description("canoe").available(true)
+                .owner(owner).build());
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.common.query.QueryAssertions.assertStatementsAtMost;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemControllerQueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    void getAllByOwnerStaysWithinStatementBudget() throws Exception {
+        UserDto owner = userService.create(UserDto.builder()
+                .name("owner")
+                .email("budget-owner@mail.ru")
+                .build());
+        for (int i = 0; i < 3; i++) {
+            itemService.create(owner.getId(), ItemDto.builder()
+                    .name("drill " + i)
+                    .description("cordless drill")
+                    .available(true)
+                    .build());
+        }
+
+        assertStatementsAtMost(7, () -> mockMvc.perform(get("/items")
+                        .header(ItemController.USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void sparseFieldsSkipEnrichment() throws Exception {
+        UserDto owner = userService.create(UserDto.builder()
+                .name("owner")
+                .email("sparse-owner@mail.ru")
+                .build());
+        itemService.create(owner.getId(), ItemDto.builder()
+                .name("saw")
+                .description("hand saw")
+                .available(true)
+                .build());
+
+        assertStatementsAtMost(2, () -> mockMvc.perform(get("/items")
+                        .header(ItemController.USER_ID_HEADER, owner.getId())
+                        .param("fields", "id,name,available"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("saw"))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].comments").doesNotExist())
+                .andExpect(jsonPath("$[0].lastBooking").doesNotExist()));
+
+        mockMvc.perform(get("/items")
+                        .header(ItemController.USER_ID_HEADER, owner.getId())
+                        .param("fields", "id,ownerId"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].ownerId").value(owner.getId()))
+                .andExpect(jsonPath("$[0].name").doesNotExist());
+    }
+
+    @Test
+    void searchStaysWithinStatementBudget() throws Exception {
+        UserDto user = userService.create(UserDto.builder()
+                .name("searcher")
+                .email("budget-searcher@mail.ru")
+                .build());
+
+        assertStatementsAtMost(4, () -> mockMvc.perform(get("/items/search")
+                        .header(ItemController.USER_ID_HEADER, user.getId())
+                        .param("text", "drill"))
+                .andExpect(status().isOk()));
+    }
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemFieldsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void responsesCarryOnlyTheRequestedFieldsAndEverythingByDefault() throws Exception {
+        long ownerId = user("fields-owner").getId();
+        long bookerId = user("fields-booker").getId();
+        long itemId = itemService.create(ownerId, ItemDto.builder().name("tent").description("two person tent")
+                .available(true).build()).getId();
+        LocalDateTime now = LocalDateTime.now();
+        book(itemId, bookerId, now.minusDays(3));
+        book(itemId, bookerId, now.plusDays(3));
+        itemService.addComment(bookerId, itemId, CommentDto.builder().text("dry all night").build());
+
+        mockMvc.perform(get("/items/{itemId}", itemId).header(ItemController.USER_ID_HEADER, ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(itemId))
+                .andExpect(jsonPath("$.name").value("tent"))
+                .andExpect(jsonPath("$.description").value("two person tent"))
+                .andExpect(jsonPath("$.available").value(true))
+                .andExpect(jsonPath("$.ownerId").value(ownerId))
+                .andExpect(jsonPath("$.lastBooking.bookerId").value(bookerId))
+                .andExpect(jsonPath("$.nextBooking.bookerId").value(bookerId))
+                .andExpect(jsonPath("$.comments[0].text").value("dry all night"))
+                .andExpect(jsonPath("$.commentCount").value(1));
+
+        mockMvc.perform(get("/items/{itemId}", itemId).header(ItemController.USER_ID_HEADER, ownerId)
+                        .param("fields", "name, comments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("tent"))
+                .andExpect(jsonPath("$.comments[0].text").value("dry all night"))
+                .andExpect(jsonPath("$.id").doesNotExist())
+                .andExpect(jsonPath("$.description").doesNotExist())
+                .andExpect(jsonPath("$.lastBooking").doesNotExist())
+                .andExpect(jsonPath("$.commentCount").doesNotExist());
+
+        mockMvc.perform(get("/items").header(ItemController.USER_ID_HEADER, ownerId)
+                        .param("ids", String.valueOf(itemId))
+                        .param("fields", "id,commentCount"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[0].id").value(itemId))
+                .andExpect(jsonPath("$.found[0].commentCount").value(1))
+                .andExpect(jsonPath("$.found[0].name").doesNotExist())
+                .andExpect(jsonPath("$.found[0].comments").doesNotExist())
+                .andExpect(jsonPath("$.missing").isEmpty());
+    }
+
+    @Test
+    void unknownFieldsAreRejected() throws Exception {
+        long ownerId = user("fields-unknown").getId();
+        long itemId = itemService.create(ownerId, ItemDto.builder().name("lamp").description("camping lamp")
+                .available(true).build()).getId();
+
+        mockMvc.perform(get("/items/{itemId}", itemId).header(ItemController.USER_ID_HEADER, ownerId)
+                        .param("fields", "id,price"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items").header(ItemController.USER_ID_HEADER, ownerId)
+                        .param("fields", "owner"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items").header(ItemController.USER_ID_HEADER, ownerId)
+                        .param("ids", String.valueOf(itemId))
+                        .param("fields", "Name"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private UserDto user(String name) {
+        return userService.create(UserDto.builder().name(name).email(name + "@mail.ru").build());
+    }
+
+    private void book(long itemId, long bookerId, LocalDateTime start) {
+        bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(start.plusDays(1))
+                .item(itemRepository.findById(itemId).orElseThrow())
+                .booker(userRepository.findById(bookerId).orElseThrow())
+                .status(BookingStatus.APPROVED)
+                .build());
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemPopularity;
+import ru.practicum.shareit.item.storage.ItemPopularityRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class ItemPopularityRepositoryTest {
+
+    private static final double HALF_LIFE_SECONDS = 3600;
+
+    @Autowired
+    private ItemPopularityRepository popularityRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void scoresFlushedAtDifferentMomentsAreDecayedToTheLaterOne() {
+        long itemId = item("popular");
+        LocalDateTime at = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        assertEquals(1, addCounts(itemId, 4, 0, 4, at));
+        // another instance flushes counts scored one half-life later, then a late flush scored in between
+        assertEquals(1, addCounts(itemId, 6, 1, 16, at.plusHours(1)));
+        assertEquals(1, addCounts(itemId, 2, 0, 2, at));
+
+        ItemPopularity stored = popularityRepository.findById(itemId).orElseThrow();
+        assertEquals(12, stored.getViews());
+        assertEquals(1, stored.getBookings());
+        assertEquals(4 / 2.0 + 16 + 2 / 2.0, stored.getScore(), 1e-6);
+        assertEquals(at.plusHours(1), stored.getScoredAt());
+    }
+
+    @Test
+    void countsOfMissingItemsAreSkippedAndRowsGoWithTheirItem() {
+        long itemId = item("deleted");
+        LocalDateTime at = LocalDateTime.now();
+
+        assertEquals(0, addCounts(Long.MAX_VALUE, 1, 0, 1, at));
+        assertFalse(popularityRepository.existsById(Long.MAX_VALUE));
+
+        addCounts(itemId, 1, 0, 1, at);
+        itemRepository.deleteById(itemId);
+        assertFalse(popularityRepository.existsById(itemId));
+        assertEquals(0, addCounts(itemId, 1, 0, 1, at));
+    }
+
+    private int addCounts(long itemId, long views, long bookings, double score, LocalDateTime at) {
+        return transactionTemplate.execute(status ->
+                popularityRepository.addCounts(itemId, views, bookings, score, at, HALF_LIFE_SECONDS));
+    }
+
+    private long item(String name) {
+        User owner = userRepository.save(User.builder().name(name).email(name + "-popularity@mail.ru").build());
+        return itemRepository.save(Item.builder().name(name).description(name).available(true).owner(owner)
+                .build()).getId();
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import ru.practicum.shareit.common.datasource.shard.ShardRouter;
+import ru.practicum.shareit.common.datasource.shard.ShardTopology;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.item.service.SearchCache;
+import ru.practicum.shareit.storage.memory.MemoryItemRepository;
+import ru.practicum.shareit.storage.memory.MemoryTransactionManager;
+import ru.practicum.shareit.storage.memory.MemoryUserRepository;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemSearchIndexTest {
+
+    private final MemoryItemRepository items = new MemoryItemRepository(new MemoryUserRepository());
+    private final ShardRouter unsharded = new ShardRouter(
+            new StaticListableBeanFactory().getBeanProvider(ShardTopology.class), new MemoryTransactionManager());
+    private final ItemSearchIndex index = new ItemSearchIndex(items, new SearchCache(100), unsharded,
+            ItemSearchIndex.FuzzyBackend.INDEX, 0.6, 50, 2);
+    private final User owner = User.builder().id(1L).name("owner").email("owner@mail.ru").build();
+
+    @Test
+    void fuzzyMatchToleratesTyposAndSkipsUnavailableItems() {
+        Item drill = save("Cordless drill", "two batteries", true);
+        Item saw = save("Circular saw", "wood only", true);
+        save("Drill press", "bench tool", false);
+        index.warm();
+
+        assertEquals(List.of(drill.getId()), index.fuzzyMatch("dril"));
+        assertEquals(List.of(drill.getId()), index.fuzzyMatch("cordles"));
+        assertEquals(List.of(saw.getId()), index.fuzzyMatch("circualr saw"));
+        assertEquals(List.of(), index.fuzzyMatch("ladder"));
+    }
+
+    @Test
+    void suggestionsFollowCreatesAndUpdates() {
+        Item drill = save("Cordless drill", "two batteries", true);
+        save("Drum kit", "loud", true);
+        index.warm();
+
+        assertEquals(List.of("Cordless drill", "Drum kit"), index.suggest("dr", 10));
+        assertEquals(List.of("Cordless drill"), index.suggest("cord", 10));
+
+        Item hammer = save("Hammer", "claw", true);
+        index.indexAfterCommit(hammer);
+        drill.setName("Impact driver");
+        index.indexAfterCommit(drill);
+
+        assertEquals(List.of("Impact driver", "Drum kit"), index.suggest("dr", 10));
+        assertEquals(List.of(), index.suggest("cord", 10));
+        assertEquals(List.of("Hammer"), index.suggest("ham", 10));
+
+        drill.setAvailable(false);
+        index.indexAfterCommit(drill);
+        assertEquals(List.of("Drum kit"), index.suggest("dr", 10));
+        assertEquals(List.of(), index.fuzzyMatch("impact drivr"));
+    }
+
+    private Item save(String name, String description, boolean available) {
+        return items.save(Item.builder().name(name).description(description).available(available)
+                .owner(owner).build());
+    }
+}
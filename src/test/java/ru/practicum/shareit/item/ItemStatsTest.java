@@ -0,0 +1,173 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingSnapshotRow;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemDailyStats;
+import ru.practicum.shareit.item.model.ItemStatsDelta;
+import ru.practicum.shareit.item.service.ItemStatsAccumulator;
+import ru.practicum.shareit.item.service.ItemStatsCompactionJob;
+import ru.practicum.shareit.item.service.ItemStatsRebuilder;
+import ru.practicum.shareit.storage.memory.MemoryBookingArchiveRepository;
+import ru.practicum.shareit.storage.memory.MemoryBookingRepository;
+import ru.practicum.shareit.storage.memory.MemoryItemDailyStatsRepository;
+import ru.practicum.shareit.storage.memory.MemoryItemRepository;
+import ru.practicum.shareit.storage.memory.MemoryItemStatsDeltaRepository;
+import ru.practicum.shareit.storage.memory.MemoryTransactionManager;
+import ru.practicum.shareit.storage.memory.MemoryUserRepository;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemStatsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    private final MemoryUserRepository users = new MemoryUserRepository();
+    private final MemoryItemRepository items = new MemoryItemRepository(users);
+    private final MemoryItemStatsDeltaRepository deltas = new MemoryItemStatsDeltaRepository();
+    private final MemoryItemDailyStatsRepository daily = new MemoryItemDailyStatsRepository();
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new MemoryTransactionManager());
+
+    @Test
+    void accumulatorSplitsMinutesAcrossDaysAndCountsDecisionsOnTheStartDay() {
+        ItemStatsAccumulator accumulator = new ItemStatsAccumulator();
+        accumulator.addDecision(1, DAY.atTime(22, 0), DAY.plusDays(1).atTime(1, 30), BookingStatus.APPROVED);
+        accumulator.addDecision(1, DAY.atTime(10, 0), DAY.atTime(11, 0), BookingStatus.REJECTED);
+        accumulator.addDecision(1, DAY.atTime(12, 0), DAY.atTime(13, 0), BookingStatus.WAITING);
+
+        ItemStatsAccumulator other = new ItemStatsAccumulator();
+        other.addDecision(1, DAY.atTime(8, 0), DAY.atTime(8, 45), BookingStatus.APPROVED);
+        accumulator.merge(other);
+
+        Map<ItemStatsAccumulator.Bucket, ItemStatsAccumulator.Counters> buckets = accumulator.getBuckets();
+        assertEquals(2, buckets.size());
+        assertCounters(buckets.get(new ItemStatsAccumulator.Bucket(1, DAY)), 120 + 45, 2, 1);
+        assertCounters(buckets.get(new ItemStatsAccumulator.Bucket(1, DAY.plusDays(1))), 90, 0, 0);
+    }
+
+    @Test
+    void compactionFoldsDeltasIntoDailyRowsAndDropsThem() {
+        Item item = item("tent");
+        daily.save(ItemDailyStats.builder().itemId(item.getId()).statDate(DAY)
+                .bookedMinutes(60).approved(1).rejected(0).build());
+        deltas.save(delta(item, DAY, 30, 1, 0));
+        deltas.save(delta(item, DAY, 0, 0, 1));
+        deltas.save(delta(item, DAY.plusDays(1), 15, 1, 0));
+
+        int compacted = new ItemStatsCompactionJob(deltas, daily, transactionTemplate).compact();
+
+        assertEquals(2, compacted);
+        assertEquals(0, deltas.count());
+        Map<LocalDate, ItemDailyStats> rows = daily.findAll().stream()
+                .collect(Collectors.toMap(ItemDailyStats::getStatDate, s -> s));
+        assertStats(rows.get(DAY), 90, 2, 1);
+        assertStats(rows.get(DAY.plusDays(1)), 15, 1, 0);
+    }
+
+    @Test
+    void rebuildReplacesDailyRowsAndDropsTheDeltasItAccountsFor() {
+        User booker = users.save(User.builder().name("booker").email("booker@mail.ru").build());
+        Item tent = item("tent");
+        Item lamp = item("lamp");
+        MemoryBookingRepository bookings = new MemoryBookingRepository(users, items);
+        MemoryBookingArchiveRepository archive = new MemoryBookingArchiveRepository(users, items, bookings);
+        bookings.save(booking(tent, booker, DAY.atTime(10, 0), BookingStatus.APPROVED));
+        bookings.save(booking(lamp, booker, DAY.atTime(12, 0), BookingStatus.REJECTED));
+        deltas.save(delta(tent, DAY, 120, 1, 0));
+        daily.save(ItemDailyStats.builder().itemId(lamp.getId()).statDate(DAY.minusDays(1))
+                .bookedMinutes(999).approved(9).rejected(9).build());
+
+        int rows = rebuilder(bookings, archive).rebuild();
+
+        assertEquals(2, rows);
+        assertEquals(0, deltas.count());
+        Map<Long, ItemDailyStats> byItem = daily.findAll().stream()
+                .collect(Collectors.toMap(ItemDailyStats::getItemId, s -> s));
+        assertStats(byItem.get(tent.getId()), 120, 1, 0);
+        assertStats(byItem.get(lamp.getId()), 0, 0, 1);
+    }
+
+    @Test
+    void approvalCommittedDuringTheRebuildIsCountedOnce() {
+        User booker = users.save(User.builder().name("booker").email("booker@mail.ru").build());
+        Item tent = item("tent");
+        boolean[] raced = {false};
+        MemoryBookingRepository bookings = new MemoryBookingRepository(users, items) {
+            @Override
+            public List<BookingSnapshotRow> findDecidedRowsByItemIdIn(Collection<Long> itemIds) {
+                List<BookingSnapshotRow> rows = super.findDecidedRowsByItemIdIn(itemIds);
+                if (!raced[0]) {
+                    // an approval commits right after this leaf read the item's bookings
+                    raced[0] = true;
+                    save(booking(tent, booker, DAY.atTime(9, 0), BookingStatus.APPROVED));
+                    deltas.save(delta(tent, DAY, 120, 1, 0));
+                }
+                return rows;
+            }
+        };
+        MemoryBookingArchiveRepository archive = new MemoryBookingArchiveRepository(users, items, bookings);
+        bookings.save(booking(tent, booker, DAY.atTime(14, 0), BookingStatus.APPROVED));
+
+        rebuilder(bookings, archive).rebuild();
+
+        assertTrue(raced[0]);
+        assertEquals(0, deltas.count());
+        ItemDailyStats stats = daily.findAll().get(0);
+        assertStats(stats, 240, 2, 0);
+
+        new ItemStatsCompactionJob(deltas, daily, transactionTemplate).compact();
+        assertStats(daily.findAll().get(0), 240, 2, 0);
+    }
+
+    private ItemStatsRebuilder rebuilder(MemoryBookingRepository bookings, MemoryBookingArchiveRepository archive) {
+        return new ItemStatsRebuilder(items, bookings, archive, deltas, daily, transactionTemplate, false, 2, 1);
+    }
+
+    private Item item(String name) {
+        User owner = users.save(User.builder().name(name + "-owner").email(name + "-owner@mail.ru").build());
+        return items.save(Item.builder().name(name).description(name).available(true).owner(owner).build());
+    }
+
+    private static ItemStatsDelta delta(Item item, LocalDate day, long minutes, int approved, int rejected) {
+        return ItemStatsDelta.builder()
+                .itemId(item.getId())
+                .statDate(day)
+                .bookedMinutes(minutes)
+                .approved(approved)
+                .rejected(rejected)
+                .build();
+    }
+
+    private static Booking booking(Item item, User booker, LocalDateTime start, BookingStatus status) {
+        return Booking.builder()
+                .start(start)
+                .end(start.plusHours(2))
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build();
+    }
+
+    private static void assertCounters(ItemStatsAccumulator.Counters counters, long minutes, long approved,
+                                       long rejected) {
+        assertEquals(List.of(minutes, approved, rejected),
+                List.of(counters.getBookedMinutes(), counters.getApproved(), counters.getRejected()));
+    }
+
+    private static void assertStats(ItemDailyStats stats, long minutes, int approved, int rejected) {
+        assertEquals(List.of(minutes, (long) approved, (long) rejected),
+                List.of(stats.getBookedMinutes(), (long) stats.getApproved(), (long) stats.getRejected()));
+    }
+}
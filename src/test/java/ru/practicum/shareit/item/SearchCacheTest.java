@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class SearchCacheTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void cachedResultsAreDroppedByEveryCatalogWrite() {
+        long ownerId = userService.create(UserDto.builder().name("owner").email("search-cache@mail.ru").build())
+                .getId();
+        assertEquals(List.of(), found(ownerId, "theodolite"));
+
+        long itemId = itemService.create(ownerId, ItemDto.builder().name("Theodolite").description("survey kit")
+                .available(true).build()).getId();
+        assertEquals(List.of(itemId), found(ownerId, "theodolite"));
+
+        itemService.update(ownerId, itemId, ItemDto.builder().name("Level").build());
+        assertFalse(found(ownerId, "theodolite").contains(itemId));
+        assertEquals(List.of(itemId), found(ownerId, "survey"));
+
+        itemService.update(ownerId, itemId, ItemDto.builder().available(false).build());
+        assertFalse(found(ownerId, "survey").contains(itemId));
+        itemService.update(ownerId, itemId, ItemDto.builder().available(true).build());
+        assertEquals(List.of(itemId), found(ownerId, "survey"));
+
+        // a search inside the write caches the uncommitted name, which must not outlive the rollback
+        transactionTemplate.executeWithoutResult(status -> {
+            itemService.update(ownerId, itemId, ItemDto.builder().name("Clinometer").build());
+            assertTrue(found(ownerId, "clinometer").contains(itemId));
+            status.setRollbackOnly();
+        });
+        assertFalse(found(ownerId, "clinometer").contains(itemId));
+        assertEquals(List.of(itemId), found(ownerId, "survey"));
+    }
+
+    private List<Long> found(long userId, String text) {
+        return itemService.search(userId, text).stream().map(ItemDto::getId).toList();
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.datasource.shard.ShardRouter;
+import ru.practicum.shareit.common.datasource.shard.ShardTopology;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemPopularity;
+import ru.practicum.shareit.item.service.TrendingIndex;
+import ru.practicum.shareit.storage.memory.MemoryItemPopularityRepository;
+import ru.practicum.shareit.storage.memory.MemoryItemRepository;
+import ru.practicum.shareit.storage.memory.MemoryTransactionManager;
+import ru.practicum.shareit.storage.memory.MemoryUserRepository;
+import ru.practicum.shareit.user.User;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrendingIndexTest {
+
+    private final MemoryUserRepository users = new MemoryUserRepository();
+    private final MemoryItemRepository items = new MemoryItemRepository(users);
+    private final MemoryItemPopularityRepository repository = new MemoryItemPopularityRepository(items);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new MemoryTransactionManager());
+    private final ShardRouter unsharded = new ShardRouter(
+            new StaticListableBeanFactory().getBeanProvider(ShardTopology.class), new MemoryTransactionManager());
+
+    @Test
+    void olderActivityDecaysWithTheHalfLife() {
+        TrendingIndex index = index(10);
+        long start = System.currentTimeMillis();
+        view(index, 1, 10);
+        index.recordBookingAfterCommit(2);
+        index.recordBookingAfterCommit(2);
+        index.refresh(start);
+        assertEquals(List.of(2L, 1L), index.top(10));
+
+        // two half-lives later item 2 is down to 20 / 4 = 5, item 1 to 10 / 4 + 10 new views
+        view(index, 1, 10);
+        index.refresh(start + Duration.ofHours(12).toMillis());
+        assertEquals(List.of(1L, 2L), index.top(10));
+        assertEquals(List.of(1L), index.top(1));
+    }
+
+    @Test
+    void keepsOnlyTheTopItemsAndReloadsFlushedScores() {
+        long first = item("tent");
+        long second = item("lamp");
+        long third = item("stove");
+        TrendingIndex index = index(2);
+        view(index, first, 3);
+        view(index, second, 5);
+        view(index, third, 4);
+        index.recordBookingAfterCommit(first);
+        index.refresh(System.currentTimeMillis());
+        assertEquals(List.of(first, second), index.top(10));
+
+        index.flush();
+        ItemPopularity stored = repository.findById(first).orElseThrow();
+        assertEquals(3, stored.getViews());
+        assertEquals(1, stored.getBookings());
+        assertEquals(3, repository.count());
+
+        view(index, third, 2);
+        index.flush();
+        assertEquals(6, repository.findById(third).orElseThrow().getViews());
+
+        TrendingIndex restarted = index(2);
+        restarted.warm();
+        assertEquals(List.of(first, third), restarted.top(10));
+    }
+
+    @Test
+    void flushesFromSeveralInstancesAddUp() {
+        long itemId = item("tent");
+        TrendingIndex one = index(10);
+        TrendingIndex other = index(10);
+        view(one, itemId, 3);
+        view(other, itemId, 4);
+        other.recordBookingAfterCommit(itemId);
+
+        one.flush();
+        other.flush();
+
+        ItemPopularity stored = repository.findById(itemId).orElseThrow();
+        assertEquals(7, stored.getViews());
+        assertEquals(1, stored.getBookings());
+        // 3 + 4 views and one booking, decayed by at most the few milliseconds between the two flushes
+        assertEquals(17, stored.getScore(), 0.01);
+
+        view(one, itemId, 1);
+        one.flush();
+        assertEquals(18, repository.findById(itemId).orElseThrow().getScore(), 0.01);
+    }
+
+    @Test
+    void viewsOfADeletedItemAreNotWrittenBack() {
+        long itemId = item("tent");
+        TrendingIndex index = index(10);
+        view(index, itemId, 3);
+        index.flush();
+        assertTrue(repository.existsById(itemId));
+
+        repository.deleteById(itemId);
+        items.deleteById(itemId);
+        index.remove(itemId);
+        // a view that raced with the removal
+        view(index, itemId, 1);
+        index.flush();
+
+        assertEquals(0, repository.count());
+        index.refresh(System.currentTimeMillis());
+        assertEquals(List.of(), index.top(10));
+    }
+
+    private TrendingIndex index(int topSize) {
+        return new TrendingIndex(repository, transactionTemplate, unsharded, Duration.ofHours(6), 1, 10, topSize,
+                0.01);
+    }
+
+    private long item(String name) {
+        User owner = users.save(User.builder().name(name + "-owner").email(name + "-owner@mail.ru").build());
+        return items.save(Item.builder().name(name).description(name).available(true).owner(owner).build()).getId();
+    }
+
+    private static void view(TrendingIndex index, long itemId, int times) {
+        for (int i = 0; i < times; i++) {
+            index.recordView(itemId);
+        }
+    }
+}
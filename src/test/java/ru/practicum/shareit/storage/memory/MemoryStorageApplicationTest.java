@@ -0,0 +1,106 @@
+package ru.practicum.shareit.storage.memory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemFields;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("memory")
+@SpringBootTest(properties = "shareit.audit.path=target/test-audit/memory-audit.log")
+@AutoConfigureMockMvc
+class MemoryStorageApplicationTest {
+
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    @DynamicPropertySource
+    static void snapshotPath(DynamicPropertyRegistry registry) throws IOException {
+        Path dir = Files.createTempDirectory("shareit-memory");
+        registry.add("shareit.storage.memory.snapshot-path", () -> dir.resolve("shareit.snapshot").toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void runsOnTheInMemoryRepositories() {
+        assertInstanceOf(MemoryUserRepository.class, userRepository);
+
+        UserDto owner = user("memory-owner");
+        UserDto booker = user("memory-booker");
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder()
+                .name("kayak").description("sea kayak").available(true).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto booking = bookingService.create(booker.getId(), BookingCreateDto.builder()
+                .itemId(item.getId()).start(start).end(start.plusHours(2)).build());
+        bookingService.approve(owner.getId(), booking.getId(), true);
+
+        List<BookingDto> booked = bookingService.getAllByBooker(booker.getId(), BookingState.FUTURE, false);
+        assertEquals(List.of(booking.getId()), booked.stream().map(BookingDto::getId).toList());
+        assertEquals(BookingStatus.APPROVED, booked.get(0).getStatus());
+        assertEquals(List.of(item.getId()), itemService.search(booker.getId(), "kayak").stream()
+                .map(ItemDto::getId).toList());
+    }
+
+    @Test
+    void failedPatchLeavesTheStoredEntityUnchanged() throws Exception {
+        UserDto user = user("memory-patched");
+        UserDto other = user("memory-other");
+        mockMvc.perform(patch("/users/{userId}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"renamed\",\"email\":\"" + other.getEmail() + "\"}"))
+                .andExpect(status().isConflict());
+        assertEquals(user, userService.getById(user.getId()));
+
+        ItemDto item = itemService.create(user.getId(), ItemDto.builder()
+                .name("tent").description("two person tent").available(true).build());
+        mockMvc.perform(patch("/items/{itemId}", item.getId())
+                        .header(USER_ID_HEADER, user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"renamed\",\"description\":\" \"}"))
+                .andExpect(status().isBadRequest());
+        assertEquals("tent", itemService.getById(user.getId(), item.getId(), ItemFields.ALL).getName());
+    }
+
+    private UserDto user(String name) {
+        return userService.create(UserDto.builder().name(name).email(name + "@mail.ru").build());
+    }
+}
@@ -0,0 +1,210 @@
+package ru.practicum.shareit.storage.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoryStorageTest {
+
+    private final MemoryUserRepository users = new MemoryUserRepository();
+    private final MemoryItemRepository items = new MemoryItemRepository(users);
+    private final MemoryBookingRepository bookings = new MemoryBookingRepository(users, items);
+    private final MemoryBookingArchiveRepository archive = new MemoryBookingArchiveRepository(users, items, bookings);
+    private final MemoryCommentRepository comments = new MemoryCommentRepository(users, items);
+
+    @Test
+    void bookingIndexesServeKeysetPagesAndLastNext() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = users.save(User.builder().name("owner").email("Owner@mail.ru").build());
+        User booker = users.save(User.builder().name("booker").email("booker@mail.ru").build());
+        Item item = items.save(Item.builder().name("tent").description("two person tent").available(true)
+                .owner(owner).build());
+        Booking past = bookings.save(booking(item, booker, now.minusDays(3), BookingStatus.APPROVED));
+        Booking rejected = bookings.save(booking(item, booker, now.minusDays(1), BookingStatus.REJECTED));
+        Booking future = bookings.save(booking(item, booker, now.plusDays(2), BookingStatus.APPROVED));
+
+        List<Booking> first = bookings.findFirstPageByBooker(booker.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of(future, rejected), first);
+        assertEquals(List.of(past), bookings.findNextPageByBooker(booker.getId(), rejected.getStart(),
+                rejected.getId(), PageRequest.of(0, 2)));
+
+        assertEquals(List.of(past), bookings.findLastApprovedForItems(List.of(item.getId()), now));
+        assertEquals(List.of(future), bookings.findNextApprovedForItems(List.of(item.getId()), now));
+        assertTrue(users.findByEmailNormalized(User.normalizeEmail("owner@MAIL.ru")).isPresent());
+    }
+
+    @Test
+    void snapshotRoundTrip(@TempDir Path dir) {
+        User owner = users.save(User.builder().name("owner").email("owner@mail.ru").build());
+        Item item = items.save(Item.builder().name("kayak").description("sea kayak").available(false)
+                .owner(owner).requestId(7L).build());
+        bookings.save(booking(item, owner, LocalDateTime.now().plusDays(1), BookingStatus.WAITING));
+
+        Path file = dir.resolve("storage.snapshot");
+        new MemorySnapshotStore(file, users, items, bookings, archive, comments).save();
+
+        MemoryUserRepository restoredUsers = new MemoryUserRepository();
+        MemoryItemRepository restoredItems = new MemoryItemRepository(restoredUsers);
+        MemoryBookingRepository restoredBookings = new MemoryBookingRepository(restoredUsers, restoredItems);
+        new MemorySnapshotStore(file, restoredUsers, restoredItems, restoredBookings,
+                new MemoryBookingArchiveRepository(restoredUsers, restoredItems, restoredBookings),
+                new MemoryCommentRepository(restoredUsers, restoredItems)).load();
+
+        assertEquals(1, restoredUsers.count());
+        Item restored = restoredItems.findAllByOwnerId(owner.getId()).get(0);
+        assertEquals("kayak", restored.getName());
+        assertEquals(7L, restored.getRequestId());
+        assertEquals(1, restoredBookings.findFirstPageByOwner(owner.getId(), PageRequest.of(0, 10)).size());
+        assertEquals(owner.getId() + 1, restoredUsers.save(User.builder().name("n").email("n@mail.ru").build()).getId());
+    }
+
+    @Test
+    void snapshotLeavesOutRowsWhoseParentWasPurgedBetweenTheReads(@TempDir Path dir) {
+        User leaving = users.save(User.builder().name("leaving").email("leaving@mail.ru").build());
+        User staying = users.save(User.builder().name("staying").email("staying@mail.ru").build());
+        Item purged = items.save(Item.builder().name("kayak").description("sea kayak").available(true)
+                .owner(leaving).build());
+        Item kept = items.save(Item.builder().name("tent").description("tent").available(true)
+                .owner(staying).build());
+        MemoryBookingRepository racingBookings = new MemoryBookingRepository(users, items) {
+            @Override
+            public List<Booking> findAll() {
+                List<Booking> captured = super.findAll();
+                // the user deletion pipeline purges the owner's items and then the owner
+                items.deleteById(purged.getId());
+                users.deleteById(leaving.getId());
+                return captured;
+            }
+        };
+        racingBookings.save(booking(purged, staying, LocalDateTime.now().plusDays(1), BookingStatus.WAITING));
+        racingBookings.save(booking(kept, leaving, LocalDateTime.now().plusDays(1), BookingStatus.WAITING));
+        racingBookings.save(booking(kept, staying, LocalDateTime.now().plusDays(2), BookingStatus.WAITING));
+
+        Path file = dir.resolve("storage.snapshot");
+        new MemorySnapshotStore(file, users, items, racingBookings,
+                new MemoryBookingArchiveRepository(users, items, racingBookings), comments).save();
+
+        MemoryUserRepository restoredUsers = new MemoryUserRepository();
+        MemoryItemRepository restoredItems = new MemoryItemRepository(restoredUsers);
+        MemoryBookingRepository restoredBookings = new MemoryBookingRepository(restoredUsers, restoredItems);
+        new MemorySnapshotStore(file, restoredUsers, restoredItems, restoredBookings,
+                new MemoryBookingArchiveRepository(restoredUsers, restoredItems, restoredBookings),
+                new MemoryCommentRepository(restoredUsers, restoredItems)).load();
+
+        assertEquals(List.of("staying"), names(restoredUsers.findAll()));
+        assertEquals(List.of(kept.getId()), restoredItems.findAll().stream().map(Item::getId).toList());
+        List<Booking> restored = restoredBookings.findAll();
+        assertEquals(1, restored.size());
+        assertEquals(staying.getId(), restored.get(0).getBooker().getId());
+    }
+
+    @Test
+    void loadsAreCopiesLinkedToTheCurrentAssociations() {
+        User owner = users.save(User.builder().name("owner").email("owner@mail.ru").build());
+        Item item = items.save(Item.builder().name("tent").description("tent").available(true).owner(owner).build());
+        Booking booking = bookings.save(booking(item, owner, LocalDateTime.now().plusDays(1), BookingStatus.WAITING));
+
+        Item loaded = items.findById(item.getId()).orElseThrow();
+        loaded.setName("changed but never saved");
+        assertEquals("tent", items.findById(item.getId()).orElseThrow().getName());
+
+        loaded.setName("tent, renamed");
+        items.save(loaded);
+        owner.setName("owner, renamed");
+        users.save(owner);
+        Booking reloaded = bookings.findById(booking.getId()).orElseThrow();
+        assertEquals("tent, renamed", reloaded.getItem().getName());
+        assertEquals("owner, renamed", reloaded.getItem().getOwner().getName());
+    }
+
+    @Test
+    void sortsAndMatchesExamples() {
+        users.save(User.builder().name("bob").email("bob@mail.ru").build());
+        users.save(User.builder().name("Alice").email("alice@mail.ru").build());
+        users.save(User.builder().name("carol").email("carol@yandex.ru").build());
+
+        assertEquals(List.of("Alice", "bob", "carol"), names(users.findAll(Sort.by(Sort.Order.asc("name")
+                .ignoreCase()))));
+        assertEquals(List.of("carol", "bob"), names(users.findAll(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC,
+                "email"))).getContent()));
+
+        ExampleMatcher endsWith = ExampleMatcher.matching()
+                .withMatcher("email", ExampleMatcher.GenericPropertyMatchers.endsWith());
+        Example<User> mailRu = Example.of(User.builder().email("@mail.ru").build(), endsWith);
+        assertEquals(2, users.count(mailRu));
+        assertEquals(List.of("Alice", "bob"), names(users.findAll(mailRu, Sort.by("name"))));
+        assertEquals(Optional.of("carol"), users.findOne(Example.of(User.builder().name("CAROL").build(),
+                ExampleMatcher.matching().withIgnoreCase())).map(User::getName));
+
+        Item item = items.save(Item.builder().name("tent").available(true)
+                .owner(users.findByEmailNormalized("bob@mail.ru").orElseThrow()).build());
+        Example<Item> byOwnerName = Example.of(Item.builder()
+                .owner(User.builder().name("bob").build()).build(), ExampleMatcher.matching()
+                .withIgnorePaths("commentCount"));
+        assertEquals(List.of(item.getId()), items.findBy(byOwnerName, q -> q.as(ItemName.class).all()).stream()
+                .map(ItemName::id).toList());
+
+        Window<User> first = users.findBy(Example.of(new User(), ExampleMatcher.matching().withIgnorePaths("id")),
+                q -> q.sortBy(Sort.by("name")).limit(2).scroll(ScrollPosition.keyset()));
+        assertEquals(List.of("Alice", "bob"), names(first.getContent()));
+        assertTrue(first.hasNext());
+    }
+
+    @Test
+    void similaritySearchFollowsTextAndAvailability() {
+        User owner = users.save(User.builder().name("owner").email("owner@mail.ru").build());
+        Item drill = items.save(Item.builder().name("Cordless drill").description("two batteries").available(true)
+                .owner(owner).build());
+        Item saw = items.save(Item.builder().name("Circular saw").description("wood only").available(true)
+                .owner(owner).build());
+        items.save(Item.builder().name("Drill press").description("bench tool").available(false)
+                .owner(owner).build());
+
+        assertEquals(List.of(drill.getId()), items.searchAvailableIdsBySimilarity("cordles", 10));
+        assertEquals(List.of(saw.getId()), items.searchAvailableIdsBySimilarity("circualr saw", 10));
+
+        drill.setName("Impact driver");
+        items.save(drill);
+        assertEquals(List.of(), items.searchAvailableIdsBySimilarity("cordles", 10));
+        assertEquals(List.of(drill.getId()), items.searchAvailableIdsBySimilarity("impakt driver", 10));
+
+        items.markUnavailable(List.of(drill.getId()));
+        assertEquals(List.of(), items.searchAvailableIdsBySimilarity("impakt driver", 10));
+        items.deleteById(saw.getId());
+        assertEquals(List.of(), items.searchAvailableIdsBySimilarity("circualr saw", 10));
+    }
+
+    private record ItemName(Long id, String name) {
+    }
+
+    private static List<String> names(List<User> found) {
+        return found.stream().map(User::getName).toList();
+    }
+
+    private static Booking booking(Item item, User booker, LocalDateTime start, BookingStatus status) {
+        return Booking.builder()
+                .start(start)
+                .end(start.plusHours(2))
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build();
+    }
+}
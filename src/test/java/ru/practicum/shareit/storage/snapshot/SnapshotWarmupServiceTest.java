@@ -0,0 +1,125 @@
+package ru.practicum.shareit.storage.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.common.datasource.shard.ShardRouter;
+import ru.practicum.shareit.common.datasource.shard.ShardTopology;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.AvailabilityIndex;
+import ru.practicum.shareit.item.service.ItemCalendar;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.item.service.SearchCache;
+import ru.practicum.shareit.storage.memory.MemoryBookingRepository;
+import ru.practicum.shareit.storage.memory.MemoryItemRepository;
+import ru.practicum.shareit.storage.memory.MemoryTransactionManager;
+import ru.practicum.shareit.storage.memory.MemoryUserRepository;
+import ru.practicum.shareit.user.User;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotWarmupServiceTest {
+
+    private final MemoryUserRepository users = new MemoryUserRepository();
+    private final MemoryItemRepository items = new MemoryItemRepository(users);
+    private final MemoryBookingRepository bookings = new MemoryBookingRepository(users, items);
+    private final ShardRouter unsharded = new ShardRouter(
+            new StaticListableBeanFactory().getBeanProvider(ShardTopology.class), new MemoryTransactionManager());
+
+    @Test
+    void warmUpSkipsWhatWasDeletedSinceTheSnapshotAndSeedsSearch(@TempDir Path dir) {
+        User owner = users.save(User.builder().name("owner").email("owner@mail.ru").build());
+        User booker = users.save(User.builder().name("booker").email("booker@mail.ru").build());
+        Item kayak = saveItem(owner, "Kayak", "sea kayak");
+        Item tent = saveItem(owner, "Tent", "two person tent");
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        approve(kayak, booker, start);
+        Booking tentBooking = approve(tent, booker, start);
+
+        Path path = dir.resolve("bookings.snapshot");
+        service(new AvailabilityIndex(bookings, 90, 1000), index(), path).write();
+
+        bookings.deleteById(tentBooking.getId());
+        kayak.setAvailable(false);
+        items.save(kayak);
+        Item lamp = saveItem(owner, "Lamp", "camping lamp");
+
+        AvailabilityIndex availability = new AvailabilityIndex(bookings, 90, 1000);
+        ItemSearchIndex search = index();
+        service(availability, search, path).warmUp();
+
+        long hour = ItemCalendar.floorHour(start);
+        Map<Long, ItemCalendar> calendars = availability.getCalendars(List.of(kayak.getId(), tent.getId()),
+                availability.currentOriginHour(), availability.currentOriginHour() + availability.getHorizonHours());
+        assertTrue(calendars.get(kayak.getId()).isBusy(hour));
+        assertFalse(calendars.get(tent.getId()).isBusy(hour));
+        assertEquals(List.of(tent.getId()), search.fuzzyMatch("tent"));
+
+        search.warm();
+        assertEquals(List.of(), search.fuzzyMatch("kayak"));
+        assertEquals(List.of(lamp.getId()), search.fuzzyMatch("lamp"));
+    }
+
+    @Test
+    void bookingCommittedAfterAHigherIdIsCaughtUp(@TempDir Path dir) {
+        User owner = users.save(User.builder().name("owner").email("owner@mail.ru").build());
+        User booker = users.save(User.builder().name("booker").email("booker@mail.ru").build());
+        Item kayak = saveItem(owner, "Kayak", "sea kayak");
+        Item tent = saveItem(owner, "Tent", "two person tent");
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        Path path = dir.resolve("bookings.snapshot");
+        SnapshotWarmupService writer = service(new AvailabilityIndex(bookings, 90, 1000), index(), path);
+        long now = System.currentTimeMillis();
+        writer.write(now - Duration.ofMinutes(5).toMillis());
+
+        // the kayak booking gets the lower id, but its transaction commits only after the snapshot is read
+        Booking late = approve(kayak, booker, start);
+        bookings.deleteById(late.getId());
+        approve(tent, booker, start);
+        writer.write(now);
+        bookings.save(late);
+
+        AvailabilityIndex availability = new AvailabilityIndex(bookings, 90, 1000);
+        service(availability, index(), path).warmUp();
+
+        long hour = ItemCalendar.floorHour(start);
+        Map<Long, ItemCalendar> calendars = availability.getCalendars(List.of(kayak.getId(), tent.getId()),
+                availability.currentOriginHour(), availability.currentOriginHour() + availability.getHorizonHours());
+        assertTrue(calendars.get(kayak.getId()).isBusy(hour));
+        assertTrue(calendars.get(tent.getId()).isBusy(hour));
+    }
+
+    private SnapshotWarmupService service(AvailabilityIndex availability, ItemSearchIndex search, Path path) {
+        return new SnapshotWarmupService(bookings, items, availability, search, path, 2, 1000, Duration.ofMinutes(1));
+    }
+
+    private ItemSearchIndex index() {
+        return new ItemSearchIndex(items, new SearchCache(100), unsharded, ItemSearchIndex.FuzzyBackend.INDEX,
+                0.6, 50, 2);
+    }
+
+    private Item saveItem(User owner, String name, String description) {
+        return items.save(Item.builder().name(name).description(description).available(true).owner(owner).build());
+    }
+
+    private Booking approve(Item item, User booker, LocalDateTime start) {
+        return bookings.save(Booking.builder()
+                .start(start)
+                .end(start.plusHours(2))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build());
+    }
+}
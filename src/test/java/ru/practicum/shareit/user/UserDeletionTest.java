@@ -0,0 +1,161 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.common.NotFoundException;
+import ru.practicum.shareit.common.ValidationException;
+import ru.practicum.shareit.item.dto.ItemStatsDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.AvailabilityIndex;
+import ru.practicum.shareit.item.service.ItemCalendar;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.ItemStatsService;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserDeletionRepository;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "shareit.user.deletion.batch-size=3")
+class UserDeletionTest {
+
+    private static final int BOOKINGS = 10;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDeletionRepository deletionRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemStatsService itemStatsService;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void deletedUserIsHiddenAtOnceAndTheirDataIsRemovedInChunks() throws InterruptedException {
+        User owner = userRepository.save(User.builder().name("owner").email("del-owner@mail.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("del-booker@mail.ru").build());
+        Item item = itemRepository.save(Item.builder().name("kayak").description("sea kayak").available(true)
+                .owner(owner).build());
+        LocalDateTime base = LocalDateTime.now().minusDays(BOOKINGS);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookings.add(Booking.builder().start(base.plusDays(i)).end(base.plusDays(i).plusHours(3))
+                    .item(item).booker(booker).status(BookingStatus.APPROVED).build());
+        }
+        bookingRepository.saveAll(bookings);
+        bookings.forEach(b -> itemStatsService.recordDecision(item.getId(), b.getStart(), b.getEnd(), b.getStatus()));
+        LocalDateTime upcoming = LocalDate.now().plusDays(2).atTime(10, 0);
+        bookingRepository.save(Booking.builder().start(upcoming).end(upcoming.plusHours(2))
+                .item(item).booker(booker).status(BookingStatus.APPROVED).build());
+        long upcomingHour = ItemCalendar.floorHour(upcoming);
+        assertTrue(isBusy(item, upcomingHour));
+        for (int i = 0; i < 4; i++) {
+            commentRepository.save(Comment.builder().text("great " + i).item(item).author(booker)
+                    .created(LocalDateTime.now()).build());
+            transactionTemplate.executeWithoutResult(status -> itemRepository.incrementCommentCount(item.getId()));
+        }
+
+        userService.delete(booker.getId());
+
+        assertThrows(NotFoundException.class, () -> userService.getById(booker.getId()));
+        assertTrue(userService.getAll().stream().noneMatch(u -> u.getId().equals(booker.getId())));
+        UserDto reRegistered = userService.create(UserDto.builder()
+                .name("booker")
+                .email("del-booker@mail.ru")
+                .build());
+        assertNotEquals(booker.getId(), reRegistered.getId());
+
+        UserDeletion done = awaitDone(booker.getId());
+        assertEquals(BOOKINGS + 1, done.getBookingsDeleted());
+        assertFalse(isBusy(item, upcomingHour));
+        assertEquals(4, done.getCommentsDeleted());
+        assertTrue(bookingRepository.findItemRowsByBookerId(booker.getId(), PageRequest.of(0, 1)).isEmpty());
+        assertEquals(0, itemRepository.findById(item.getId()).orElseThrow().getCommentCount());
+        ItemStatsDto stats = itemStatsService.getOwnerStats(owner.getId(), base.toLocalDate(),
+                LocalDate.now()).getFirst();
+        assertEquals(0, stats.getApprovedCount());
+        assertEquals(0, stats.getBookedHours());
+        assertTrue(userRepository.findDeletedIds().stream().noneMatch(id -> id.equals(booker.getId())));
+
+        userService.delete(owner.getId());
+        assertTrue(itemService.search(reRegistered.getId(), "kayak").isEmpty());
+        assertEquals(1, awaitDone(owner.getId()).getItemsDeleted());
+        assertFalse(itemRepository.existsById(item.getId()));
+    }
+
+    @Test
+    void placeholderEmailsOfDeletedUsersCannotBeRegistered() {
+        User user = userRepository.save(User.builder().name("user").email("del-placeholder@mail.ru").build());
+        userService.delete(user.getId());
+        String placeholder = "deleted-" + user.getId() + "@users.invalid";
+
+        assertThrows(ValidationException.class, () -> userService.create(UserDto.builder()
+                .name("squatter")
+                .email(placeholder)
+                .build()));
+        UserDto other = userService.create(UserDto.builder().name("other").email("del-other@mail.ru").build());
+        assertThrows(ValidationException.class, () -> userService.update(other.getId(), UserDto.builder()
+                .email("Deleted-" + (user.getId() + 1) + "@USERS.invalid")
+                .build()));
+        assertEquals("del-other@mail.ru", userService.getById(other.getId()).getEmail());
+    }
+
+    private boolean isBusy(Item item, long hour) {
+        return availabilityIndex.getCalendars(List.of(item.getId()), hour, hour + 1).get(item.getId()).isBusy(hour);
+    }
+
+    private UserDeletion awaitDone(long userId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            UserDeletion deletion = deletionRepository.findById(userId).orElse(null);
+            if (deletion != null && deletion.getPhase() == UserDeletionPhase.DONE) {
+                return deletion;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("user " + userId + " was not deleted in time");
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.common.ConflictException;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class UserEmailConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void exactlyOneConcurrentCreateWithTheSameEmailWins() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UserDto>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            String email = i % 2 == 0 ? "race@mail.ru" : "Race@Mail.RU";
+            String name = "racer " + i;
+            results.add(executor.submit(() -> {
+                start.await();
+                return userService.create(UserDto.builder().name(name).email(email).build());
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        int conflicts = 0;
+        for (Future<UserDto> result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                created++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(ConflictException.class, e.getCause());
+                conflicts++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, created);
+        assertEquals(THREADS - 1, conflicts);
+        assertTrue(userRepository.findByEmailNormalized("race@mail.ru").isPresent());
+        assertThrows(ConflictException.class, () -> userService.create(UserDto.builder()
+                .name("late")
+                .email("RACE@mail.ru")
+                .build()));
+    }
+
+    @Test
+    void updateToAnotherUsersEmailConflicts() {
+        UserDto first = userService.create(UserDto.builder().name("first").email("taken@mail.ru").build());
+        UserDto second = userService.create(UserDto.builder().name("second").email("free@mail.ru").build());
+
+        assertThrows(ConflictException.class, () -> userService.update(second.getId(), UserDto.builder()
+                .email("Taken@Mail.ru")
+                .build()));
+        assertEquals("free@mail.ru", userService.getById(second.getId()).getEmail());
+        assertEquals("first", userService.update(first.getId(), UserDto.builder()
+                .email("TAKEN@mail.ru")
+                .build()).getName());
+    }
+}